@@ -0,0 +1,38 @@
+package com.github.dimitryivaniuta.gateway.security;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeycloakJwtAuthConverterBenchmark {
+
+  private final KeycloakJwtAuthConverter converter = new KeycloakJwtAuthConverter();
+  private Jwt jwt;
+
+  @Setup
+  public void setUp() {
+    jwt = Jwt.withTokenValue("token")
+      .header("alg", "RS256")
+      .subject("3f2a9c1e-7d44-4f7b-9a0e-2c8d5b6a1f00")
+      .claim("realm_access", Map.of("roles", List.of("uploader", "offline_access", "uma_authorization")))
+      .claim("scope", "openid profile email")
+      .issuedAt(Instant.now())
+      .expiresAt(Instant.now().plusSeconds(300))
+      .build();
+  }
+
+  @Benchmark
+  public AbstractAuthenticationToken convert() {
+    return converter.convert(jwt);
+  }
+}
@@ -0,0 +1,41 @@
+package com.github.dimitryivaniuta.gateway.uploads.api.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dimitryivaniuta.gateway.uploads.service.BenchmarkPayloads;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * JSON (de)serialization of {@link CompleteUploadRequest}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompleteUploadRequestJsonBenchmark {
+
+  @Param({"100", "10000"})
+  public int partCount;
+
+  private final ObjectMapper mapper = new ObjectMapper();
+  private byte[] json;
+  private CompleteUploadRequest request;
+
+  @Setup
+  public void setUp() throws Exception {
+    json = BenchmarkPayloads.completeRequestJson(partCount).getBytes();
+    request = mapper.readValue(json, CompleteUploadRequest.class);
+  }
+
+  @Benchmark
+  public CompleteUploadRequest deserialize() throws Exception {
+    return mapper.readValue(json, CompleteUploadRequest.class);
+  }
+
+  @Benchmark
+  public byte[] serialize() throws Exception {
+    return mapper.writeValueAsBytes(request);
+  }
+}
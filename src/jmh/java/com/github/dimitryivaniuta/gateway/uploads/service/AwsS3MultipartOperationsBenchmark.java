@@ -0,0 +1,69 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import com.github.dimitryivaniuta.gateway.config.S3Properties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+/**
+ * {@link AwsS3MultipartOperations#presignUploadPartUrl} end to end, with and without the URL cache
+ * and the specialized signer. No request leaves the JVM.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AwsS3MultipartOperationsBenchmark {
+
+  @Param({"false", "true"})
+  public boolean cacheEnabled;
+
+  @Param({"false", "true"})
+  public boolean fastPresignEnabled;
+
+  private S3Client s3;
+  private S3Presigner presigner;
+  private AwsS3MultipartOperations ops;
+  private int partNumber;
+
+  @Setup
+  public void setUp() {
+    var creds = StaticCredentialsProvider.create(
+      AwsBasicCredentials.create("AKIDEXAMPLE", "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY"));
+    s3 = S3Client.builder().region(Region.EU_CENTRAL_1).credentialsProvider(creds).build();
+    presigner = S3Presigner.builder().region(Region.EU_CENTRAL_1).credentialsProvider(creds).build();
+
+    S3Properties props = new S3Properties();
+    props.setRegion("eu-central-1");
+    props.setPresignCacheEnabled(cacheEnabled);
+    props.setFastPresignEnabled(fastPresignEnabled);
+
+    ops = new AwsS3MultipartOperations(
+      s3,
+      presigner,
+      props,
+      new PresignedUrlCache(props, new SimpleMeterRegistry()),
+      new UploadPartUrlSigner(presigner, creds, props)
+    );
+  }
+
+  @TearDown
+  public void tearDown() {
+    presigner.close();
+    s3.close();
+  }
+
+  @Benchmark
+  public PresignedUrl presignUploadPartUrl() {
+    partNumber = partNumber % 200 + 1;
+    return ops.presignUploadPartUrl("s3-demo-uploads", "users/3f2a/uploads/8c7e/holiday_video.mp4",
+      "2~ZkXv9B8v3yQn0xCk2nP5QyN4Jq6u8s1Ww0a7Rb9Tc3Dd", partNumber);
+  }
+}
@@ -0,0 +1,25 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+/**
+ * Shared synthetic payloads for benchmarks.
+ */
+public final class BenchmarkPayloads {
+
+  private BenchmarkPayloads() {
+  }
+
+  /**
+   * A browser-style completion body: quoted ETags, parts listed in reverse order.
+   */
+  public static String completeRequestJson(int partCount) {
+    StringBuilder sb = new StringBuilder(partCount * 64).append("{\"parts\":[");
+    for (int pn = partCount; pn >= 1; pn--) {
+      if (pn != partCount) {
+        sb.append(',');
+      }
+      sb.append("{\"partNumber\":").append(pn)
+        .append(",\"eTag\":\"\\\"").append(String.format("%032x", (long) pn * 0x9E3779B97F4A7C15L)).append("\\\"\"}");
+    }
+    return sb.append("]}").toString();
+  }
+}
@@ -0,0 +1,26 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentTypeAllowlistBenchmark {
+
+  private static final List<String> PATTERNS = List.of("video/*", "application/octet-stream", "image/png");
+
+  @Param({"video/mp4", "Application/Octet-Stream", "application/json"})
+  public String contentType;
+
+  private final ContentTypeAllowlist allowlist = new ContentTypeAllowlist();
+
+  @Benchmark
+  public boolean isAllowed() {
+    return allowlist.isAllowed(contentType, PATTERNS);
+  }
+}
@@ -0,0 +1,23 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeyGeneratorBenchmark {
+
+  @Param({"holiday_video.mp4", "Ünïcödé file name (final) v2 [1080p].MOV"})
+  public String fileName;
+
+  private final KeyGenerator generator = new KeyGenerator();
+
+  @Benchmark
+  public String generate() {
+    return generator.generate("3f2a9c1e-7d44-4f7b-9a0e-2c8d5b6a1f00", fileName);
+  }
+}
@@ -0,0 +1,68 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import com.github.dimitryivaniuta.gateway.config.S3Properties;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.UploadPartPresignRequest;
+
+/**
+ * SDK presigner vs {@link UploadPartUrlSigner} for a single UploadPart URL. Runs offline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UploadPartUrlSignerBenchmark {
+
+  private static final String BUCKET = "s3-demo-uploads";
+  private static final String KEY = "users/3f2a/uploads/8c7e5f8e-8a7f-4a8e-9d2b-0c6c1f1b2a3d/holiday_video.mp4";
+  private static final String UPLOAD_ID = "2~ZkXv9B8v3yQn0xCk2nP5QyN4Jq6u8s1Ww0a7Rb9Tc3Dd";
+  private static final Duration EXPIRY = Duration.ofMinutes(20);
+
+  private S3Presigner presigner;
+  private UploadPartUrlSigner signer;
+  private int partNumber;
+
+  @Setup
+  public void setUp() {
+    var creds = StaticCredentialsProvider.create(
+      AwsBasicCredentials.create("AKIDEXAMPLE", "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY"));
+    presigner = S3Presigner.builder().region(Region.EU_CENTRAL_1).credentialsProvider(creds).build();
+    S3Properties props = new S3Properties();
+    props.setRegion("eu-central-1");
+    signer = new UploadPartUrlSigner(presigner, creds, props);
+  }
+
+  @TearDown
+  public void tearDown() {
+    presigner.close();
+  }
+
+  @Benchmark
+  public String sdkPresigner() {
+    return presigner.presignUploadPart(UploadPartPresignRequest.builder()
+        .signatureDuration(EXPIRY)
+        .uploadPartRequest(UploadPartRequest.builder()
+          .bucket(BUCKET).key(KEY).uploadId(UPLOAD_ID).partNumber(nextPart()).build())
+        .build())
+      .url().toString();
+  }
+
+  @Benchmark
+  public String specializedSigner() {
+    return signer.sign(BUCKET, KEY, UPLOAD_ID, nextPart(), EXPIRY).url();
+  }
+
+  private int nextPart() {
+    partNumber = partNumber % 10_000 + 1;
+    return partNumber;
+  }
+}
@@ -0,0 +1,38 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import com.github.dimitryivaniuta.gateway.uploads.api.dto.CompleteUploadRequest;
+import com.github.dimitryivaniuta.gateway.uploads.domain.UploadEntity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+
+/**
+ * Completion-request validation at the S3 maximum of 10,000 parts (submitted in reverse order).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidateAndMapPartsBenchmark {
+
+  @Param({"10000"})
+  public int partCount;
+
+  private UploadEntity upload;
+  private CompleteUploadRequest request;
+
+  @Setup
+  public void setUp() throws Exception {
+    upload = UploadEntity.builder().partCount(partCount).build();
+    request = new ObjectMapper().readValue(BenchmarkPayloads.completeRequestJson(partCount), CompleteUploadRequest.class);
+  }
+
+  @Benchmark
+  public List<CompletedPart> validateAndMapParts() {
+    return UploadService.validateAndMapParts(upload, request);
+  }
+}
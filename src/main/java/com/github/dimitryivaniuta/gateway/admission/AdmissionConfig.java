@@ -0,0 +1,13 @@
+package com.github.dimitryivaniuta.gateway.admission;
+
+import com.github.dimitryivaniuta.gateway.config.AdmissionProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Admission control configuration ({@code app.uploads.admission}).
+ */
+@Configuration
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionConfig {
+}
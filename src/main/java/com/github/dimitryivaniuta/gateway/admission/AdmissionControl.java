@@ -0,0 +1,119 @@
+package com.github.dimitryivaniuta.gateway.admission;
+
+import com.github.dimitryivaniuta.gateway.config.AdmissionProperties;
+import com.github.dimitryivaniuta.gateway.web.errors.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process admission decisions, applied by {@link AdmissionControlFilter} after authentication.
+ *
+ * <p>Per-user rates are GCRA token buckets keyed by JWT {@code sub}; create and complete also
+ * share one instance-wide pool of call slots, since each holds S3 and database resources for the
+ * whole request. Limits are per instance.</p>
+ */
+@Component
+public class AdmissionControl {
+
+  private final AdmissionProperties props;
+  private final Map<AdmissionEndpoint, GcraRateLimiter> rates = new EnumMap<>(AdmissionEndpoint.class);
+  private final Semaphore lifecycleCalls;
+  private final Map<AdmissionEndpoint, Counter> rateRejections = new EnumMap<>(AdmissionEndpoint.class);
+  private final Map<AdmissionEndpoint, Counter> concurrencyRejections = new EnumMap<>(AdmissionEndpoint.class);
+  private final Counter sessionRejections;
+
+  public AdmissionControl(AdmissionProperties props, MeterRegistry meterRegistry) {
+    this.props = props;
+    for (AdmissionEndpoint endpoint : AdmissionEndpoint.values()) {
+      AdmissionProperties.Limit limit = limitOf(endpoint);
+      if (limit != null && limit.getPerSecond() > 0) {
+        rates.put(endpoint, new GcraRateLimiter(limit.getPerSecond(), limit.getBurst(), props.getMaxTrackedUsers()));
+      }
+      rateRejections.put(endpoint, rejected(meterRegistry, endpoint.tag(), "rate"));
+      concurrencyRejections.put(endpoint, rejected(meterRegistry, endpoint.tag(), "concurrency"));
+    }
+    this.sessionRejections = rejected(meterRegistry, AdmissionEndpoint.CREATE.tag(), "active_sessions");
+
+    int slots = props.getMaxConcurrentLifecycleCalls() == null ? 0 : props.getMaxConcurrentLifecycleCalls();
+    this.lifecycleCalls = slots > 0 ? new Semaphore(slots) : null;
+    if (lifecycleCalls != null) {
+      meterRegistry.gauge("uploads.admission.lifecycle.in_flight", lifecycleCalls,
+        s -> slots - s.availablePermits());
+    }
+  }
+
+  /**
+   * Admits one request of {@code userSub}. An admitted request must be followed by exactly one
+   * {@link #release} once it has finished.
+   *
+   * @throws TooManyRequestsException if a limit is exceeded
+   */
+  public void admit(AdmissionEndpoint endpoint, String userSub) {
+    if (!props.isEnabled()) {
+      return;
+    }
+    GcraRateLimiter rate = rates.get(endpoint);
+    if (rate != null) {
+      long waitNanos = rate.tryAcquire(userSub);
+      if (waitNanos > 0) {
+        rateRejections.get(endpoint).increment();
+        throw new TooManyRequestsException("Request rate limit exceeded", retryAfterSeconds(waitNanos));
+      }
+    }
+    if (endpoint.isLifecycleCall() && lifecycleCalls != null && !lifecycleCalls.tryAcquire()) {
+      concurrencyRejections.get(endpoint).increment();
+      throw new TooManyRequestsException("Too many uploads are being created or completed; retry shortly", 1);
+    }
+  }
+
+  public void release(AdmissionEndpoint endpoint) {
+    if (props.isEnabled() && endpoint.isLifecycleCall() && lifecycleCalls != null) {
+      lifecycleCalls.release();
+    }
+  }
+
+  /** Whether creates are capped by {@code maxActiveSessionsPerUser}; lets callers skip counting sessions. */
+  public boolean limitsActiveSessions() {
+    Integer cap = props.getMaxActiveSessionsPerUser();
+    return props.isEnabled() && cap != null && cap > 0;
+  }
+
+  /**
+   * @param activeSessions the user's sessions in CREATING, INITIATED, UPLOADING or COMPLETING
+   */
+  public boolean hasSessionCapacity(long activeSessions) {
+    return !limitsActiveSessions() || activeSessions < props.getMaxActiveSessionsPerUser();
+  }
+
+  /** Counts the rejection; the caller throws the returned exception. */
+  public TooManyRequestsException sessionCapacityExceeded() {
+    sessionRejections.increment();
+    return new TooManyRequestsException("Too many open uploads (limit " + props.getMaxActiveSessionsPerUser()
+      + "); complete or abort some first", props.getActiveSessionsRetryAfterSeconds());
+  }
+
+  private AdmissionProperties.Limit limitOf(AdmissionEndpoint endpoint) {
+    return switch (endpoint) {
+      case CREATE -> props.getCreate();
+      case PRESIGN -> props.getPresign();
+      case COMPLETE -> props.getComplete();
+    };
+  }
+
+  private static long retryAfterSeconds(long waitNanos) {
+    return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+  }
+
+  private static Counter rejected(MeterRegistry registry, String endpoint, String reason) {
+    return Counter.builder("uploads.admission.rejected")
+      .description("Requests rejected with 429 by admission control")
+      .tag("endpoint", endpoint)
+      .tag("reason", reason)
+      .register(registry);
+  }
+}
@@ -0,0 +1,106 @@
+package com.github.dimitryivaniuta.gateway.admission;
+
+import com.github.dimitryivaniuta.gateway.web.errors.TooManyRequestsException;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+/**
+ * Applies {@link AdmissionControl} to authenticated upload API requests.
+ *
+ * <p>Runs in the security filter chain right after bearer token authentication, so the JWT
+ * {@code sub} is known and rejected requests never reach a controller. Rejections are rendered by
+ * the MVC exception handlers like any other API error. Lifecycle call slots are held until an
+ * asynchronous response has been written.</p>
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+  private final AdmissionControl admission;
+  private final HandlerExceptionResolver errors;
+
+  public AdmissionControlFilter(AdmissionControl admission, HandlerExceptionResolver errors) {
+    this.admission = admission;
+    this.errors = errors;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request,
+                                  HttpServletResponse response,
+                                  FilterChain filterChain) throws ServletException, IOException {
+    AdmissionEndpoint endpoint = AdmissionEndpoint.match(request.getMethod(),
+      request.getRequestURI().substring(request.getContextPath().length()));
+    Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+    if (endpoint == null || auth == null || !auth.isAuthenticated()) {
+      // unauthenticated requests are rejected by authorization anyway
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    try {
+      admission.admit(endpoint, auth.getName());
+    } catch (TooManyRequestsException ex) {
+      errors.resolveException(request, response, null, ex);
+      return;
+    }
+
+    boolean releaseLater = false;
+    try {
+      filterChain.doFilter(request, response);
+      if (request.isAsyncStarted()) {
+        request.getAsyncContext().addListener(new ReleaseOnCompletion(endpoint));
+        releaseLater = true;
+      }
+    } finally {
+      if (!releaseLater) {
+        admission.release(endpoint);
+      }
+    }
+  }
+
+  /** Releases once, whichever of complete, error or timeout is signalled (error is followed by complete). */
+  private final class ReleaseOnCompletion implements AsyncListener {
+
+    private final AdmissionEndpoint endpoint;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    ReleaseOnCompletion(AdmissionEndpoint endpoint) {
+      this.endpoint = endpoint;
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+      release();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+      release();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+      release();
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+      // the listener is dropped when async restarts; keep it for the new cycle
+      event.getAsyncContext().addListener(this);
+    }
+
+    private void release() {
+      if (released.compareAndSet(false, true)) {
+        admission.release(endpoint);
+      }
+    }
+  }
+}
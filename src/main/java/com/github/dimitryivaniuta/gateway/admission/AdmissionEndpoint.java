@@ -0,0 +1,52 @@
+package com.github.dimitryivaniuta.gateway.admission;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Upload API operations subject to admission control.
+ */
+public enum AdmissionEndpoint {
+  CREATE,
+  PRESIGN,
+  COMPLETE;
+
+  private static final Pattern PRESIGN_ONE = Pattern.compile("^/api/uploads/[^/]+/parts/[^/]+/url$");
+  private static final Pattern PRESIGN_BATCH = Pattern.compile("^/api/uploads/[^/]+/parts/urls$");
+  private static final Pattern COMPLETE_PATH = Pattern.compile("^/api/uploads/[^/]+/complete$");
+  private static final Pattern CONTENT_PATH = Pattern.compile("^/api/uploads/[^/]+/content$");
+
+  /**
+   * @param path request path without the context path
+   * @return the operation, or {@code null} if the request is not throttled
+   */
+  public static AdmissionEndpoint match(String method, String path) {
+    if ("GET".equals(method)) {
+      return PRESIGN_ONE.matcher(path).matches() ? PRESIGN : null;
+    }
+    // a proxy upload ends in a complete, and holds S3 calls for the whole stream
+    if ("PUT".equals(method)) {
+      return CONTENT_PATH.matcher(path).matches() ? COMPLETE : null;
+    }
+    if (!"POST".equals(method)) {
+      return null;
+    }
+    // a copy opens a session like a create
+    if ("/api/uploads".equals(path) || "/api/uploads/".equals(path) || "/api/uploads/copy".equals(path)) {
+      return CREATE;
+    }
+    if (PRESIGN_BATCH.matcher(path).matches()) {
+      return PRESIGN;
+    }
+    return COMPLETE_PATH.matcher(path).matches() ? COMPLETE : null;
+  }
+
+  /** Whether the operation takes one of the instance-wide lifecycle call slots. */
+  boolean isLifecycleCall() {
+    return this == CREATE || this == COMPLETE;
+  }
+
+  String tag() {
+    return name().toLowerCase(Locale.ROOT);
+  }
+}
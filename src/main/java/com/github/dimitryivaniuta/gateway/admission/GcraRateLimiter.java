@@ -0,0 +1,63 @@
+package com.github.dimitryivaniuta.gateway.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Keyed token bucket in its GCRA form: per key only the theoretical arrival time (TAT) of the
+ * next request is stored, and admitting a request is one compare-and-set on it.
+ *
+ * <p>Lock-free: keys live in a Caffeine map and contend only with themselves. A key idle for
+ * {@code burst} emission intervals has a full bucket again, so it expires and is re-created on
+ * demand with no loss of accuracy.</p>
+ */
+final class GcraRateLimiter {
+
+  private final long emissionIntervalNanos;
+  private final long burstToleranceNanos;
+  private final LongSupplier nanoClock;
+  private final Cache<String, AtomicLong> arrivals;
+
+  /**
+   * @param permitsPerSecond sustained rate per key; must be positive
+   * @param burst            requests a key may send at once after being idle
+   */
+  GcraRateLimiter(double permitsPerSecond, int burst, int maxKeys) {
+    this(permitsPerSecond, burst, maxKeys, System::nanoTime);
+  }
+
+  GcraRateLimiter(double permitsPerSecond, int burst, int maxKeys, LongSupplier nanoClock) {
+    this.emissionIntervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+    this.burstToleranceNanos = emissionIntervalNanos * (Math.max(1, burst) - 1);
+    this.nanoClock = nanoClock;
+    this.arrivals = Caffeine.newBuilder()
+      .maximumSize(maxKeys)
+      .expireAfterAccess(Duration.ofNanos(emissionIntervalNanos + burstToleranceNanos))
+      .build();
+  }
+
+  /**
+   * Admits one request for {@code key} if it conforms to the rate.
+   *
+   * @return 0 if admitted, otherwise how long (ns) until a request for {@code key} would be
+   */
+  long tryAcquire(String key) {
+    AtomicLong tat = arrivals.get(key, k -> new AtomicLong(nanoClock.getAsLong()));
+    while (true) {
+      long now = nanoClock.getAsLong();
+      long current = tat.get();
+      long from = current - now > 0 ? current : now;
+      long earliest = from - burstToleranceNanos;
+      if (earliest - now > 0) {
+        return earliest - now;
+      }
+      if (tat.compareAndSet(current, from + emissionIntervalNanos)) {
+        return 0;
+      }
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package com.github.dimitryivaniuta.gateway.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Admission control for the upload API: per-user request rates, a per-user cap on open upload
+ * sessions and an instance-wide limit on concurrent create/complete calls.
+ *
+ * <p>Rejected requests get 429 with {@code Retry-After}.</p>
+ */
+@Data
+@ConfigurationProperties(prefix = "app.uploads.admission")
+public class AdmissionProperties {
+
+  /** When disabled, requests are never throttled. */
+  private boolean enabled = true;
+
+  /** Per-user rate of {@code POST /api/uploads}. */
+  private Limit create = new Limit(1.0, 10);
+
+  /** Per-user rate of part URL requests (single and batch). */
+  private Limit presign = new Limit(50.0, 500);
+
+  /** Per-user rate of {@code POST /api/uploads/{id}/complete}, and of proxy uploads, which end in one. */
+  private Limit complete = new Limit(1.0, 10);
+
+  /** Create and complete requests in flight on this instance, across all users (0 = unlimited). */
+  private Integer maxConcurrentLifecycleCalls = 64;
+
+  /**
+   * Sessions a user may have in CREATING, INITIATED, UPLOADING or COMPLETING; further creates get
+   * 429 (0 = unlimited).
+   */
+  private Integer maxActiveSessionsPerUser = 100;
+
+  /** {@code Retry-After} when the active session cap is hit; sessions end at the client's pace. */
+  private Long activeSessionsRetryAfterSeconds = 60L;
+
+  /** Users tracked per rate limit; the least recently seen are evicted first. */
+  private Integer maxTrackedUsers = 100_000;
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Limit {
+
+    /** Sustained requests per second per user; 0 or less disables the limit. */
+    private double perSecond;
+
+    /** Requests a user may send at once after being idle. */
+    private int burst;
+  }
+}
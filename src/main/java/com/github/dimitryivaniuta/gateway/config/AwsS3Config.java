@@ -2,11 +2,16 @@ package com.github.dimitryivaniuta.gateway.config;
 
 import java.net.URI;
 import java.util.Optional;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.core.checksums.RequestChecksumCalculation;
+import software.amazon.awssdk.core.checksums.ResponseChecksumValidation;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Configuration;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
@@ -31,9 +36,30 @@ public class AwsS3Config {
     var builder = S3Client.builder()
       .credentialsProvider(creds)
       .region(Region.of(props.getRegion()))
-      .serviceConfiguration(S3Configuration.builder()
-        .checksumValidationEnabled(true)
-        .build());
+      .requestChecksumCalculation(RequestChecksumCalculation.WHEN_SUPPORTED)
+      .responseChecksumValidation(ResponseChecksumValidation.WHEN_SUPPORTED)
+      .serviceConfiguration(s3Configuration(props));
+
+    endpointOverride(props).ifPresent(builder::endpointOverride);
+    return builder.build();
+  }
+
+  /**
+   * Non-blocking client for {@code app.s3.client-mode=ASYNC}. Its futures complete on the SDK's
+   * completion executor, never on a Netty event loop, so callers may chain short blocking work.
+   */
+  @Bean
+  @ConditionalOnProperty(prefix = "app.s3", name = "client-mode", havingValue = "ASYNC")
+  public S3AsyncClient s3AsyncClient(S3Properties props, DefaultCredentialsProvider creds) {
+    var builder = S3AsyncClient.builder()
+      .credentialsProvider(creds)
+      .region(Region.of(props.getRegion()))
+      .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+        .maxConcurrency(props.getAsyncMaxConcurrency())
+        .maxPendingConnectionAcquires(props.getAsyncMaxPendingConnectionAcquires()))
+      .requestChecksumCalculation(RequestChecksumCalculation.WHEN_SUPPORTED)
+      .responseChecksumValidation(ResponseChecksumValidation.WHEN_SUPPORTED)
+      .serviceConfiguration(s3Configuration(props));
 
     endpointOverride(props).ifPresent(builder::endpointOverride);
     return builder.build();
@@ -43,12 +69,19 @@ public class AwsS3Config {
   public S3Presigner s3Presigner(S3Properties props, DefaultCredentialsProvider creds) {
     var builder = S3Presigner.builder()
       .credentialsProvider(creds)
-      .region(Region.of(props.getRegion()));
+      .region(Region.of(props.getRegion()))
+      .serviceConfiguration(s3Configuration(props));
 
     endpointOverride(props).ifPresent(builder::endpointOverride);
     return builder.build();
   }
 
+  private S3Configuration s3Configuration(S3Properties props) {
+    return S3Configuration.builder()
+      .pathStyleAccessEnabled(props.isPathStyleAccess())
+      .build();
+  }
+
   private Optional<URI> endpointOverride(S3Properties props) {
     return Optional.ofNullable(props.getEndpoint())
       .map(String::trim)
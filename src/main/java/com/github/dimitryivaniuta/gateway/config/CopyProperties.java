@@ -0,0 +1,32 @@
+package com.github.dimitryivaniuta.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Server-side copies ({@code POST /api/uploads/copy}): completed uploads are copied or
+ * concatenated into a new object with UploadPartCopy, without the bytes passing through here.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.uploads.copy")
+public class CopyProperties {
+
+  /**
+   * Target size of a copied part (at least 10 MiB, at most 5 GiB). Each source is split into equal
+   * ranges no larger than this; it grows automatically when the copy would exceed S3's part limit.
+   */
+  private Long partSizeBytes = 256L * 1024 * 1024;
+
+  /** Parts of one copy in flight at a time. */
+  private Integer maxParallelParts = 8;
+
+  /** Part copies in flight on this instance, across all copies. */
+  private Integer maxConcurrentPartCopies = 32;
+
+  /**
+   * How often a running copy refreshes its row's {@code updated_at}, whether or not a part has
+   * finished. Must stay well below {@code app.uploads.intent-stuck-after-minutes}, after which the
+   * cleanup job takes a silent copy for dead.
+   */
+  private Long heartbeatMillis = 60_000L;
+}
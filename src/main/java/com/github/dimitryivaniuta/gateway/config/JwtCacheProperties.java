@@ -0,0 +1,28 @@
+package com.github.dimitryivaniuta.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Cache of verified access tokens.
+ *
+ * <p>A repeated bearer token is served from memory instead of being parsed and RS256-verified
+ * again. Entries never outlive the token's {@code exp}, nor {@code maxTtlSeconds}, and are dropped
+ * as soon as their signing key disappears from the issuer's JWKS.</p>
+ */
+@Data
+@ConfigurationProperties(prefix = "app.security.jwt-cache")
+public class JwtCacheProperties {
+
+  /** When disabled, every request is verified by Spring Boot's default decoder. */
+  private boolean enabled = true;
+
+  /** Verified tokens kept in memory; the least recently used are evicted first. */
+  private Integer maxEntries = 100_000;
+
+  /** Upper bound on how long a verified token is trusted without re-verification. */
+  private Long maxTtlSeconds = 300L;
+
+  /** How often the JWKS is fetched to evict tokens signed by retired keys (ms). */
+  private Long jwksRefreshMillis = 300_000L;
+}
@@ -0,0 +1,56 @@
+package com.github.dimitryivaniuta.gateway.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Adaptive part-size planning.
+ *
+ * <p>When disabled, every upload uses {@code app.s3.part-size-bytes} as before.</p>
+ */
+@Data
+@ConfigurationProperties(prefix = "app.uploads.part-planner")
+public class PartSizePlannerProperties {
+
+  /** Plan part size per upload instead of using the fixed {@code app.s3.part-size-bytes}. */
+  private boolean enabled = true;
+
+  /** Smallest part size the planner picks. Never below the S3 minimum of 5 MiB. */
+  private Long minPartSizeBytes = 5L * 1024 * 1024;
+
+  /** Largest part size the planner picks (S3 allows up to 5 GiB). */
+  private Long maxPartSizeBytes = 512L * 1024 * 1024;
+
+  /** Lower end of the target part-count band (more parts than this when the file allows). */
+  private Integer targetMinParts = 8;
+
+  /** Upper end of the target part-count band. */
+  private Integer targetMaxParts = 128;
+
+  /** With a bandwidth hint, size parts so one part takes about this long per connection (bounds retry cost). */
+  private Integer targetPartSeconds = 10;
+
+  /** Concurrency assumed when the client sends no hint. */
+  private Integer defaultConcurrency = 4;
+
+  /** Upper bound for the recommended (and accepted) client concurrency. */
+  private Integer maxConcurrency = 16;
+
+  /** Planned sizes are rounded up to a multiple of this (1 MiB keeps part boundaries aligned). */
+  private Long alignmentBytes = 1024L * 1024;
+
+  /** Per content-type base part size, first match wins. Patterns support wildcards like {@code video/*}. */
+  private List<ContentTypeRule> contentTypeRules = new ArrayList<>();
+
+  @Data
+  public static class ContentTypeRule {
+
+    /** Content type or wildcard pattern. */
+    private String pattern;
+
+    /** Base part size for matching uploads before the part-count band is applied. */
+    private Long partSizeBytes;
+  }
+}
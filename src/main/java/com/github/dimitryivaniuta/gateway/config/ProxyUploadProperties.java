@@ -0,0 +1,38 @@
+package com.github.dimitryivaniuta.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Proxy uploads ({@code PUT /api/uploads/{id}/content}) for clients that cannot reach S3.
+ *
+ * <p>Request bodies are cut into the session's parts in a fixed pool of direct buffers shared by
+ * all proxy uploads on the instance, so memory stays at {@code bufferPoolBytes} however large or
+ * numerous the streams are. When the pool is exhausted the service stops reading and the client
+ * is slowed down by TCP flow control.</p>
+ */
+@Data
+@ConfigurationProperties(prefix = "app.uploads.proxy")
+public class ProxyUploadProperties {
+
+  /** When disabled, the content endpoint answers 404. */
+  private boolean enabled = true;
+
+  /** Off-heap memory for buffered parts, across all proxy uploads. Also caps the part size. */
+  private Long bufferPoolBytes = 256L * 1024 * 1024;
+
+  /** Size of one pooled buffer; a part occupies {@code ceil(partSize / bufferBytes)} of them. */
+  private Integer bufferBytes = 1024 * 1024;
+
+  /** Parts of one upload sent to S3 at the same time. */
+  private Integer maxParallelParts = 4;
+
+  /** How long a stream waits for free buffers before failing with 503. */
+  private Long bufferWaitMillis = 30_000L;
+
+  /**
+   * How often streaming sessions refresh {@code updated_at}; keep it well below
+   * {@code app.uploads.intent-stuck-after-minutes}.
+   */
+  private Long heartbeatMillis = 60_000L;
+}
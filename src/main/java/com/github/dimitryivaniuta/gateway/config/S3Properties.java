@@ -19,9 +19,42 @@ public class S3Properties {
   /** Optional endpoint override (e.g. LocalStack http://localhost:4566). */
   private String endpoint;
 
+  /** Address buckets by path ({@code endpoint/bucket/key}) instead of by host; needed for most LocalStack setups. */
+  private boolean pathStyleAccess = false;
+
+  /** Client used for create/complete/abort/list calls. */
+  private ClientMode clientMode = ClientMode.SYNC;
+
+  /** Maximum concurrent connections of the async (Netty) client. */
+  private Integer asyncMaxConcurrency = 500;
+
+  /** Requests that may wait for a connection of the async client before failing fast. */
+  private Integer asyncMaxPendingConnectionAcquires = 10_000;
+
   /** Pre-signed URL expiry (minutes). */
   private Integer presignExpirationMinutes = 20;
 
+  /** Maximum number of part URLs returned by a single batch presign call. */
+  private Integer presignBatchMaxParts = 1000;
+
+  /** Sign part URLs with the specialized SigV4 signer instead of the generic SDK presigner. */
+  private boolean fastPresignEnabled = true;
+
+  /** Reuse recently pre-signed part URLs instead of re-signing them. */
+  private boolean presignCacheEnabled = true;
+
+  /** Maximum number of cached part URLs. */
+  private Long presignCacheMaxEntries = 100_000L;
+
+  /** How long a signed part URL is reused (capped at half of {@code presignExpirationMinutes}). */
+  private Integer presignCacheTtlMinutes = 5;
+
+  /** How long a ListParts result backs the resume manifest; 0 disables the cache. */
+  private Integer partListingCacheTtlSeconds = 5;
+
+  /** Maximum number of cached part listings. */
+  private Long partListingCacheMaxEntries = 10_000L;
+
   /** Multipart part size in bytes. Must be >= 5 MiB (except last part). */
   private Long partSizeBytes = 16L * 1024 * 1024;
 
@@ -34,6 +67,13 @@ public class S3Properties {
   /** KMS key id (required for AWS_KMS). */
   private String kmsKeyId;
 
+  public enum ClientMode {
+    /** Blocking {@code S3Client}; calls run on virtual threads so request threads are still released. */
+    SYNC,
+    /** Non-blocking {@code S3AsyncClient} on Netty. */
+    ASYNC
+  }
+
   public enum SseMode {
     NONE,
     AES256,
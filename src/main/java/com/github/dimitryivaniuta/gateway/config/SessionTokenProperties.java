@@ -0,0 +1,34 @@
+package com.github.dimitryivaniuta.gateway.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Signed upload session token settings.
+ *
+ * <p>Tokens are only issued when at least one key is configured. To rotate, add the new key,
+ * switch {@code activeKeyId} to it, and remove the old key once {@code ttlMinutes} have passed.</p>
+ */
+@Data
+@ConfigurationProperties(prefix = "app.uploads.session-token")
+public class SessionTokenProperties {
+
+  /** Key id used to sign new tokens. */
+  private String activeKeyId;
+
+  /** Key id to Base64-encoded HMAC-SHA256 secret (at least 32 bytes). All keys are accepted for verification. */
+  private Map<String, String> keys = new LinkedHashMap<>();
+
+  /**
+   * Token lifetime (minutes). Also bounds how long a token can presign after its session left
+   * INITIATED on a replica that has not cached the new status; an expired token only costs a
+   * session lookup.
+   */
+  private Long ttlMinutes = 15L;
+
+  public boolean isEnabled() {
+    return activeKeyId != null && !activeKeyId.isBlank() && keys.containsKey(activeKeyId);
+  }
+}
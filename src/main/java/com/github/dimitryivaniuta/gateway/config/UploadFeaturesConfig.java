@@ -0,0 +1,17 @@
+package com.github.dimitryivaniuta.gateway.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the upload features built on the S3 clients.
+ */
+@Configuration
+@EnableConfigurationProperties({
+  SessionTokenProperties.class,
+  PartSizePlannerProperties.class,
+  ProxyUploadProperties.class,
+  CopyProperties.class
+})
+public class UploadFeaturesConfig {
+}
@@ -17,9 +17,75 @@ public class UploadPolicyProperties {
   /** Allowed content types list. Supports wildcards like "video/*". */
   private List<String> allowedContentTypes = List.of("video/*", "application/octet-stream");
 
+  /**
+   * Files up to this size get one pre-signed PutObject URL instead of a multipart upload.
+   * 0 disables the fast path; capped at the 5 GiB PutObject limit.
+   */
+  private Long singlePutMaxBytes = 5L * 1024 * 1024;
+
   /** Abort INITIATED uploads older than this. */
   private Long staleAbortAfterMinutes = 1440L;
 
   /** Enable background cleanup job. */
   private boolean cleanupEnabled = true;
+
+  /** Stale uploads claimed per cleanup batch. */
+  private Integer cleanupBatchSize = 500;
+
+  /** Batches one cleanup run may drain before yielding until the next run. */
+  private Integer cleanupMaxBatchesPerRun = 200;
+
+  /** S3 calls of background jobs (cleanup, orphan reconciliation) in flight at once per replica. */
+  private Integer cleanupParallelism = 16;
+
+  /** Upper bound on S3 requests per second of background jobs per replica; 0 disables the limit. */
+  private Double cleanupS3RequestsPerSecond = 100.0;
+
+  /** Run the orphan multipart upload reconciler on a schedule (it can always be run by an admin). */
+  private boolean orphanReconcileEnabled = false;
+
+  /**
+   * Abort multipart uploads without an upload session once they are this old. Must comfortably
+   * exceed {@code intentStuckAfterMinutes}, so uploads still being created are never touched.
+   */
+  private Long orphanAbortAfterMinutes = 1440L;
+
+  /** Optional key prefix limiting the reconciler's scan; empty scans the whole bucket. */
+  private String orphanScanPrefix = "";
+
+  /** ListMultipartUploads pages (1,000 uploads each) one reconciliation pass may read. */
+  private Integer orphanMaxPagesPerRun = 1000;
+
+  /** Orphans listed individually in the reconciliation report. */
+  private Integer orphanReportSampleSize = 100;
+
+  /**
+   * How long a create that finds its idempotency key reserved by an in-flight create waits for
+   * that session before returning 409.
+   */
+  private Long idempotentCreateWaitMillis = 10_000L;
+
+  /** Worker threads finishing asynchronous completions ({@code POST .../complete?async=true}). */
+  private Integer completionWorkers = 4;
+
+  /** Asynchronous completions allowed to wait for a worker; beyond this, complete returns 503. */
+  private Integer completionQueueCapacity = 200;
+
+  /**
+   * CREATING, UPLOADING, COMPLETING and ABORTING sessions untouched for this long are treated as
+   * interrupted and finished against S3 by the cleanup job.
+   */
+  private Long intentStuckAfterMinutes = 15L;
+
+  /** Serve session lookups on the presign path from an in-process near cache. */
+  private boolean sessionCacheEnabled = true;
+
+  /** Maximum number of cached upload sessions. */
+  private Long sessionCacheMaxEntries = 50_000L;
+
+  /** Upper bound on how long a cached session may be served without reloading. */
+  private Long sessionCacheTtlSeconds = 300L;
+
+  /** Propagate session invalidations to other replicas via PostgreSQL LISTEN/NOTIFY. */
+  private boolean sessionCacheNotifyEnabled = true;
 }
@@ -0,0 +1,94 @@
+package com.github.dimitryivaniuta.gateway.observability;
+
+import com.github.dimitryivaniuta.gateway.uploads.repo.UploadRepository;
+import com.github.dimitryivaniuta.gateway.uploads.repo.UploadStatusTotals;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Upload lifecycle metrics.
+ *
+ * <ul>
+ *   <li>{@code uploads.transitions{status}}: sessions moved into a status, as they happen;</li>
+ *   <li>{@code uploads.sessions{status}} and {@code uploads.sessions.bytes{status}}: open sessions
+ *       and their declared bytes (bytes in flight), refreshed from the database by one grouped
+ *       query per interval rather than per scrape.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class UploadMetrics {
+
+  /** Statuses of sessions that still hold S3 or client resources. */
+  static final List<String> OPEN_STATUSES = List.of("CREATING", "INITIATED", "UPLOADING", "COMPLETING", "ABORTING");
+
+  private final MeterRegistry registry;
+  private final UploadRepository repo;
+  private final Map<String, Counter> transitions = new ConcurrentHashMap<>();
+  private final Map<String, AtomicLong> sessions = new ConcurrentHashMap<>();
+  private final Map<String, AtomicLong> bytes = new ConcurrentHashMap<>();
+
+  public UploadMetrics(MeterRegistry registry, UploadRepository repo) {
+    this.registry = registry;
+    this.repo = repo;
+    for (String status : OPEN_STATUSES) {
+      AtomicLong count = new AtomicLong();
+      AtomicLong size = new AtomicLong();
+      sessions.put(status, count);
+      bytes.put(status, size);
+      Gauge.builder("uploads.sessions", count, AtomicLong::get)
+        .description("Upload sessions by status")
+        .tag("status", status)
+        .register(registry);
+      Gauge.builder("uploads.sessions.bytes", size, AtomicLong::get)
+        .description("Declared bytes of upload sessions by status")
+        .baseUnit("bytes")
+        .tag("status", status)
+        .register(registry);
+    }
+  }
+
+  /** Records that a session entered {@code status}. */
+  public void transitioned(String status) {
+    transitioned(status, 1);
+  }
+
+  /** Records that {@code count} sessions entered {@code status}. */
+  public void transitioned(String status, int count) {
+    if (count > 0) {
+      transitions.computeIfAbsent(status, s -> Counter.builder("uploads.transitions")
+          .description("Upload sessions moved into a status")
+          .tag("status", s)
+          .register(registry))
+        .increment(count);
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${UPLOAD_METRICS_REFRESH_MS:30000}")
+  public void refreshSessionGauges() {
+    List<UploadStatusTotals> totals;
+    try {
+      totals = repo.totalsByStatus(OPEN_STATUSES);
+    } catch (RuntimeException ex) {
+      // keep the last values; a scrape should not fail because the database is busy
+      log.debug("Failed to refresh session gauges: {}", ex.toString());
+      return;
+    }
+    Map<String, UploadStatusTotals> byStatus = new HashMap<>();
+    totals.forEach(t -> byStatus.put(t.status(), t));
+    for (String status : OPEN_STATUSES) {
+      UploadStatusTotals t = byStatus.get(status);
+      sessions.get(status).set(t == null ? 0 : t.sessions());
+      bytes.get(status).set(t == null ? 0 : t.bytes());
+    }
+  }
+}
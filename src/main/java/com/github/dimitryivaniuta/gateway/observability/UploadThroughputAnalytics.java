@@ -0,0 +1,169 @@
+package com.github.dimitryivaniuta.gateway.observability;
+
+import com.github.dimitryivaniuta.gateway.uploads.api.dto.UploadThroughputReport;
+import com.github.dimitryivaniuta.gateway.uploads.domain.UploadEntity;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.stereotype.Component;
+
+/**
+ * Streaming throughput aggregates of completed uploads, per content type and per size bucket.
+ *
+ * <p>Each completion adds one value to a few HdrHistograms (constant time and memory); the
+ * {@code uploads} table is never scanned. Aggregates are per instance and start empty; reports can
+ * carry the encoded histograms so several instances can be merged exactly.</p>
+ */
+@Component
+public class UploadThroughputAnalytics {
+
+  /** Content types beyond this many are reported as {@code other}, bounding memory. */
+  static final int MAX_CONTENT_TYPES = 200;
+
+  private static final long MIB = 1024L * 1024;
+  /** Upper bounds (exclusive) of the size buckets, ascending; larger files fall in the last bucket. */
+  private static final long[] SIZE_BOUNDS = {16 * MIB, 256 * MIB, 1024 * MIB, 4096 * MIB};
+  private static final String[] SIZE_LABELS = {"<16MiB", "16MiB-256MiB", "256MiB-1GiB", "1GiB-4GiB", ">=4GiB"};
+
+  private final OffsetDateTime since = OffsetDateTime.now();
+  private final Aggregate all = new Aggregate();
+  private final Map<String, Aggregate> byContentType = new ConcurrentHashMap<>();
+  private final Map<String, Aggregate> bySize = new ConcurrentHashMap<>();
+
+  /**
+   * Adds a COMPLETED upload. Without a complete-request milestone the transfer ends at completion.
+   *
+   * <p>An upload without a presign milestone is skipped: its part URLs were handed out by another
+   * instance that has not written its buffered window yet, and the session's age would stand in
+   * for a transfer time that is not known.</p>
+   */
+  public void recordCompleted(UploadEntity u) {
+    if (u.getCreatedAt() == null || u.getCompletedAt() == null || u.getFirstPartPresignedAt() == null) {
+      return;
+    }
+    OffsetDateTime transferStart = u.getFirstPartPresignedAt();
+    OffsetDateTime transferEnd = u.getCompleteRequestedAt() != null ? u.getCompleteRequestedAt() : u.getCompletedAt();
+    long transferMillis = Math.max(1, Duration.between(transferStart, transferEnd).toMillis());
+    long totalMillis = Math.max(1, Duration.between(u.getCreatedAt(), u.getCompletedAt()).toMillis());
+    long bytesPerSecond = effectiveBytesPerSecond(u.getFileSize(), transferMillis);
+
+    all.add(u.getFileSize(), bytesPerSecond, transferMillis, totalMillis);
+    contentTypeAggregate(u.getContentType()).add(u.getFileSize(), bytesPerSecond, transferMillis, totalMillis);
+    bySize.computeIfAbsent(sizeBucket(u.getFileSize()), k -> new Aggregate())
+      .add(u.getFileSize(), bytesPerSecond, transferMillis, totalMillis);
+  }
+
+  /**
+   * @param includeHistograms attach the encoded histograms for merging
+   */
+  public UploadThroughputReport report(boolean includeHistograms) {
+    Map<String, UploadThroughputReport.Group> types = new TreeMap<>();
+    byContentType.forEach((k, v) -> types.put(k, v.toGroup(includeHistograms)));
+    Map<String, UploadThroughputReport.Group> sizes = new LinkedHashMap<>();
+    for (String label : SIZE_LABELS) {
+      Aggregate a = bySize.get(label);
+      if (a != null) {
+        sizes.put(label, a.toGroup(includeHistograms));
+      }
+    }
+    return UploadThroughputReport.builder()
+      .since(since)
+      .generatedAt(OffsetDateTime.now())
+      .all(all.toGroup(includeHistograms))
+      .byContentType(types)
+      .bySize(sizes)
+      .build();
+  }
+
+  /**
+   * @return bytes per second over the transfer window, or {@code null} if it is not known yet
+   */
+  public static Long effectiveBytesPerSecond(long fileSize, long transferMillis) {
+    return transferMillis <= 0 ? null : Math.max(1, fileSize * 1000 / transferMillis);
+  }
+
+  static String sizeBucket(long fileSize) {
+    for (int i = 0; i < SIZE_BOUNDS.length; i++) {
+      if (fileSize < SIZE_BOUNDS[i]) {
+        return SIZE_LABELS[i];
+      }
+    }
+    return SIZE_LABELS[SIZE_LABELS.length - 1];
+  }
+
+  private Aggregate contentTypeAggregate(String contentType) {
+    String key = contentType == null ? "unknown" : contentType.toLowerCase(Locale.ROOT);
+    Aggregate a = byContentType.get(key);
+    if (a != null) {
+      return a;
+    }
+    // approximate bound: concurrent first sightings may overshoot it slightly
+    if (byContentType.size() >= MAX_CONTENT_TYPES) {
+      key = "other";
+    }
+    return byContentType.computeIfAbsent(key, k -> new Aggregate());
+  }
+
+  /** Histograms of one group; safe for concurrent recording. */
+  private static final class Aggregate {
+
+    private final LongAdder uploads = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final Histogram bytesPerSecond = histogram();
+    private final Histogram transferMillis = histogram();
+    private final Histogram totalMillis = histogram();
+
+    void add(long fileSize, long bps, long transfer, long total) {
+      uploads.increment();
+      bytes.add(fileSize);
+      bytesPerSecond.recordValue(bps);
+      transferMillis.recordValue(transfer);
+      totalMillis.recordValue(total);
+    }
+
+    UploadThroughputReport.Group toGroup(boolean includeHistograms) {
+      return UploadThroughputReport.Group.builder()
+        .uploads(uploads.sum())
+        .bytes(bytes.sum())
+        .bytesPerSecond(distribution(bytesPerSecond, includeHistograms))
+        .transferMillis(distribution(transferMillis, includeHistograms))
+        .totalMillis(distribution(totalMillis, includeHistograms))
+        .build();
+    }
+
+    private static Histogram histogram() {
+      // auto-resizing, three significant digits
+      return new ConcurrentHistogram(3);
+    }
+
+    private static UploadThroughputReport.Distribution distribution(Histogram h, boolean includeHistogram) {
+      Histogram snapshot = h.copy();
+      String encoded = null;
+      if (includeHistogram) {
+        ByteBuffer buf = ByteBuffer.allocate(snapshot.getNeededByteBufferCapacity());
+        int len = snapshot.encodeIntoCompressedByteBuffer(buf);
+        encoded = Base64.getEncoder().encodeToString(Arrays.copyOf(buf.array(), len));
+      }
+      boolean empty = snapshot.getTotalCount() == 0;
+      return UploadThroughputReport.Distribution.builder()
+        .min(empty ? 0 : snapshot.getMinValue())
+        .p50(snapshot.getValueAtPercentile(50))
+        .p90(snapshot.getValueAtPercentile(90))
+        .p99(snapshot.getValueAtPercentile(99))
+        .max(snapshot.getMaxValue())
+        .mean(empty ? 0 : snapshot.getMean())
+        .histogram(encoded)
+        .build();
+    }
+  }
+}
@@ -0,0 +1,149 @@
+package com.github.dimitryivaniuta.gateway.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.dimitryivaniuta.gateway.config.JwtCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * {@link JwtDecoder} that remembers verified tokens, keyed by the SHA-256 of the token.
+ *
+ * <p>Clients send the same access token with every presign call, so all but the first request
+ * skip parsing and signature verification. Only successfully verified tokens with an {@code exp}
+ * are cached, each until {@code min(exp, now + maxTtl)}; failures always go to the delegate.
+ * Returning the same {@link Jwt} instance also lets {@link KeycloakJwtAuthConverter} reuse the
+ * authorities it resolved for it.</p>
+ *
+ * <p>Metrics: {@code cache.gets{cache=jwt,result=hit|miss}}, {@code cache.size},
+ * {@code cache.evictions} and {@code security.jwt.cache.invalidated{reason=key_rotation}}.</p>
+ *
+ * @see JwksKeyWatcher
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+  static final String CACHE_NAME = "jwt";
+
+  private final JwtDecoder delegate;
+  private final Clock clock;
+  private final Duration maxTtl;
+  private final Cache<String, Jwt> verified;
+  private final Counter invalidated;
+
+  public CachingJwtDecoder(JwtDecoder delegate, JwtCacheProperties props, MeterRegistry registry) {
+    this(delegate, props, registry, Clock.systemUTC(), Ticker.systemTicker());
+  }
+
+  /**
+   * @param clock compared with the token's {@code exp}
+   * @param ticker drives cache expiry; tests advance both together
+   */
+  CachingJwtDecoder(JwtDecoder delegate, JwtCacheProperties props, MeterRegistry registry, Clock clock,
+                    Ticker ticker) {
+    this.delegate = delegate;
+    this.clock = clock;
+    this.maxTtl = Duration.ofSeconds(props.getMaxTtlSeconds());
+    this.verified = Caffeine.newBuilder()
+      .maximumSize(props.getMaxEntries())
+      .expireAfter(new Expiry<String, Jwt>() {
+        @Override
+        public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+          return ttl(jwt).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+          return ttl(jwt).toNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+          return currentDuration;
+        }
+      })
+      .ticker(ticker)
+      .recordStats()
+      .build();
+    CaffeineCacheMetrics.monitor(registry, verified, CACHE_NAME);
+    this.invalidated = Counter.builder("security.jwt.cache.invalidated")
+      .description("Cached tokens dropped because their signing key left the JWKS")
+      .tag("reason", "key_rotation")
+      .register(registry);
+  }
+
+  @Override
+  public Jwt decode(String token) throws JwtException {
+    String key = hash(token);
+    Jwt cached = verified.getIfPresent(key);
+    // exp is re-checked so that a late expiry never serves a stale token
+    if (cached != null && cached.getTokenValue().equals(token) && cached.getExpiresAt().isAfter(clock.instant())) {
+      return cached;
+    }
+
+    // Concurrent misses verify independently rather than queueing behind a JWKS fetch
+    Jwt jwt = delegate.decode(token);
+    if (jwt.getExpiresAt() != null && jwt.getExpiresAt().isAfter(clock.instant())) {
+      verified.put(key, jwt);
+    }
+    return jwt;
+  }
+
+  /**
+   * Drops every cached token whose {@code kid} is not one of {@code activeKeyIds}, including
+   * tokens without a {@code kid}.
+   *
+   * @return number of tokens dropped
+   */
+  public int retainSigningKeys(Set<String> activeKeyIds) {
+    AtomicInteger dropped = new AtomicInteger();
+    verified.asMap().values().removeIf(jwt -> {
+      String kid = keyId(jwt);
+      boolean retired = kid == null || !activeKeyIds.contains(kid);
+      if (retired) {
+        dropped.incrementAndGet();
+      }
+      return retired;
+    });
+    invalidated.increment(dropped.get());
+    return dropped.get();
+  }
+
+  /** Cached tokens, for tests and diagnostics. */
+  long size() {
+    verified.cleanUp();
+    return verified.estimatedSize();
+  }
+
+  private Duration ttl(Jwt jwt) {
+    Duration untilExp = Duration.between(clock.instant(), jwt.getExpiresAt());
+    return untilExp.compareTo(maxTtl) < 0 ? untilExp : maxTtl;
+  }
+
+  private static String keyId(Jwt jwt) {
+    Object kid = jwt.getHeaders().get("kid");
+    return kid == null ? null : kid.toString();
+  }
+
+  static String hash(String token) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+      return Base64.getEncoder().withoutPadding().encodeToString(digest);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package com.github.dimitryivaniuta.gateway.security;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import java.text.ParseException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Polls the issuer's JWKS and evicts cached tokens whose signing key is no longer published.
+ *
+ * <p>The JWKS location comes from OIDC discovery once. Fetch failures keep the cache as it is;
+ * entries still expire on their own after {@code app.security.jwt-cache.max-ttl-seconds}.</p>
+ */
+@Slf4j
+public class JwksKeyWatcher {
+
+  private final CachingJwtDecoder decoder;
+  private final String issuerUri;
+  private final RestClient http;
+  private volatile String jwksUri;
+
+  public JwksKeyWatcher(CachingJwtDecoder decoder, String issuerUri, RestClient http) {
+    this.decoder = decoder;
+    this.issuerUri = issuerUri;
+    this.http = http;
+  }
+
+  @Scheduled(fixedDelayString = "${app.security.jwt-cache.jwks-refresh-millis:300000}",
+    initialDelayString = "${app.security.jwt-cache.jwks-refresh-millis:300000}")
+  public void refresh() {
+    try {
+      int dropped = decoder.retainSigningKeys(fetchKeyIds());
+      if (dropped > 0) {
+        log.info("Signing keys rotated; dropped {} cached tokens", dropped);
+      }
+    } catch (RuntimeException | ParseException e) {
+      log.warn("JWKS refresh failed; keeping cached tokens until they expire", e);
+    }
+  }
+
+  Set<String> fetchKeyIds() throws ParseException {
+    String body = http.get().uri(jwksUri()).retrieve().body(String.class);
+    return JWKSet.parse(Objects.requireNonNull(body, "empty JWKS response")).getKeys().stream()
+      .map(JWK::getKeyID)
+      .filter(Objects::nonNull)
+      .collect(Collectors.toUnmodifiableSet());
+  }
+
+  private String jwksUri() {
+    String uri = jwksUri;
+    if (uri == null) {
+      String issuer = issuerUri.endsWith("/") ? issuerUri.substring(0, issuerUri.length() - 1) : issuerUri;
+      Map<?, ?> metadata = http.get().uri(issuer + "/.well-known/openid-configuration").retrieve().body(Map.class);
+      Object discovered = metadata == null ? null : metadata.get("jwks_uri");
+      if (discovered == null) {
+        throw new IllegalStateException("Issuer metadata has no jwks_uri: " + issuer);
+      }
+      uri = jwksUri = discovered.toString();
+    }
+    return uri;
+  }
+}
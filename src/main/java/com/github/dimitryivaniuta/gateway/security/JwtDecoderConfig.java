@@ -0,0 +1,37 @@
+package com.github.dimitryivaniuta.gateway.security;
+
+import com.github.dimitryivaniuta.gateway.config.JwtCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.OAuth2ResourceServerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jwt.JwtDecoders;
+import org.springframework.security.oauth2.jwt.SupplierJwtDecoder;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Verified-token cache in front of the issuer-based decoder ({@code app.security.jwt-cache.enabled}).
+ *
+ * <p>When disabled, Spring Boot's own {@code JwtDecoder} is used unchanged.</p>
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.security.jwt-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(JwtCacheProperties.class)
+public class JwtDecoderConfig {
+
+  @Bean
+  public CachingJwtDecoder jwtDecoder(OAuth2ResourceServerProperties resourceServer, JwtCacheProperties props,
+                                      MeterRegistry registry) {
+    String issuer = resourceServer.getJwt().getIssuerUri();
+    // Discovery is deferred to the first token, as in Spring Boot's default decoder
+    return new CachingJwtDecoder(new SupplierJwtDecoder(() -> JwtDecoders.fromIssuerLocation(issuer)), props,
+      registry);
+  }
+
+  @Bean
+  public JwksKeyWatcher jwksKeyWatcher(CachingJwtDecoder decoder, OAuth2ResourceServerProperties resourceServer) {
+    return new JwksKeyWatcher(decoder, resourceServer.getJwt().getIssuerUri(), RestClient.create());
+  }
+}
@@ -1,5 +1,7 @@
 package com.github.dimitryivaniuta.gateway.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import java.util.*;
 import java.util.stream.Collectors;
 import org.springframework.core.convert.converter.Converter;
@@ -11,16 +13,31 @@ import org.springframework.stereotype.Component;
 
 /**
  * Extracts Keycloak realm roles (realm_access.roles) and OAuth2 scopes into Spring Security authorities.
+ *
+ * <p>Authorities are remembered per {@link Jwt} instance, so tokens served by {@link CachingJwtDecoder}
+ * are mapped once. Entries are weakly held and go away with the token.</p>
  */
 @Component
 public class KeycloakJwtAuthConverter implements Converter<Jwt, AbstractAuthenticationToken> {
 
+  private static final int MAX_CACHED_TOKENS = 100_000;
+
+  /** Weak keys compare by identity. */
+  private final Cache<Jwt, Set<SimpleGrantedAuthority>> authorities = Caffeine.newBuilder()
+    .weakKeys()
+    .maximumSize(MAX_CACHED_TOKENS)
+    .build();
+
   @Override
   public AbstractAuthenticationToken convert(Jwt jwt) {
-    Set<SimpleGrantedAuthority> authorities = new HashSet<>();
-    authorities.addAll(realmRoles(jwt));
-    authorities.addAll(scopes(jwt));
-    return new JwtAuthenticationToken(jwt, authorities, jwt.getSubject());
+    return new JwtAuthenticationToken(jwt, authorities.get(jwt, this::authorities), jwt.getSubject());
+  }
+
+  private Set<SimpleGrantedAuthority> authorities(Jwt jwt) {
+    Set<SimpleGrantedAuthority> all = new HashSet<>();
+    all.addAll(realmRoles(jwt));
+    all.addAll(scopes(jwt));
+    return Set.copyOf(all);
   }
 
   private Set<SimpleGrantedAuthority> realmRoles(Jwt jwt) {
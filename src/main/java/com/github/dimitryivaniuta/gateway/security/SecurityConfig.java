@@ -1,24 +1,37 @@
 package com.github.dimitryivaniuta.gateway.security;
 
+import com.github.dimitryivaniuta.gateway.admission.AdmissionControl;
+import com.github.dimitryivaniuta.gateway.admission.AdmissionControlFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.web.servlet.HandlerExceptionResolver;
 
 /**
  * Spring Security configuration.
  *
  * <p>This service acts as an OAuth2 Resource Server and validates incoming access tokens (JWT).
- * JWT validation uses OIDC issuer metadata defined by {@code spring.security.oauth2.resourceserver.jwt.issuer-uri}.</p>
+ * JWT validation uses OIDC issuer metadata defined by {@code spring.security.oauth2.resourceserver.jwt.issuer-uri};
+ * verified tokens are reused by {@link CachingJwtDecoder} (see {@link JwtDecoderConfig}).</p>
+ *
+ * <p>Admission control runs right after token authentication when {@link AdmissionControl} is present.</p>
  */
 @Configuration
 @EnableMethodSecurity
 public class SecurityConfig {
 
   @Bean
-  public SecurityFilterChain securityFilterChain(HttpSecurity http, KeycloakJwtAuthConverter converter) throws Exception {
+  public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                 KeycloakJwtAuthConverter converter,
+                                                 ObjectProvider<AdmissionControl> admission,
+                                                 @Qualifier("handlerExceptionResolver") HandlerExceptionResolver errors)
+    throws Exception {
     http
       .csrf(csrf -> csrf.disable())
       .cors(Customizer.withDefaults())
@@ -31,6 +44,8 @@ public class SecurityConfig {
       .oauth2ResourceServer(oauth -> oauth
         .jwt(jwt -> jwt.jwtAuthenticationConverter(converter))
       );
+    admission.ifAvailable(control ->
+      http.addFilterAfter(new AdmissionControlFilter(control, errors), BearerTokenAuthenticationFilter.class));
 
     return http.build();
   }
@@ -0,0 +1,44 @@
+package com.github.dimitryivaniuta.gateway.uploads.api;
+
+import com.github.dimitryivaniuta.gateway.observability.UploadThroughputAnalytics;
+import com.github.dimitryivaniuta.gateway.uploads.api.dto.OrphanReconcileReport;
+import com.github.dimitryivaniuta.gateway.uploads.api.dto.UploadThroughputReport;
+import com.github.dimitryivaniuta.gateway.uploads.service.OrphanUploadReconciler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Operational endpoints for upload maintenance; requires the {@code upload_admin} realm role.
+ */
+@RestController
+@RequestMapping("/api/admin/uploads")
+@RequiredArgsConstructor
+public class UploadAdminController {
+
+  private final OrphanUploadReconciler orphanReconciler;
+  private final UploadThroughputAnalytics throughput;
+
+  /**
+   * Scans the bucket for multipart uploads without an upload session. A dry run (the default)
+   * only reports them; pass the returned markers to continue a truncated pass.
+   */
+  @PostMapping("/orphans/reconcile")
+  @PreAuthorize("hasRole('UPLOAD_ADMIN')")
+  public OrphanReconcileReport reconcileOrphans(@RequestParam(defaultValue = "true") boolean dryRun,
+                                                @RequestParam(required = false) String keyMarker,
+                                                @RequestParam(required = false) String uploadIdMarker) {
+    return orphanReconciler.reconcile(dryRun, keyMarker, uploadIdMarker);
+  }
+
+  /**
+   * Throughput of uploads completed on this instance, overall, per content type and per size.
+   *
+   * @param histograms include encoded HdrHistograms so reports of several instances can be merged
+   */
+  @GetMapping("/throughput")
+  @PreAuthorize("hasRole('UPLOAD_ADMIN')")
+  public UploadThroughputReport throughput(@RequestParam(defaultValue = "false") boolean histograms) {
+    return throughput.report(histograms);
+  }
+}
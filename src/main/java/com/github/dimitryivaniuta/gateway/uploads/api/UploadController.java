@@ -4,9 +4,15 @@ import com.github.dimitryivaniuta.gateway.uploads.api.dto.*;
 import com.github.dimitryivaniuta.gateway.uploads.service.UploadService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
@@ -16,27 +22,54 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 /**
  * REST API for multipart upload lifecycle.
  *
- * <p>Browser uploads parts directly to S3 using pre-signed URLs.</p>
+ * <p>Browser uploads parts directly to S3 using pre-signed URLs; {@code PUT /{uploadId}/content}
+ * is the proxied fallback.</p>
+ *
+ * <p>Endpoints that wait on S3 return a {@link CompletableFuture}, so the servlet thread is
+ * released while the call is in flight.</p>
  */
 @RestController
 @RequestMapping("/api/uploads")
 @RequiredArgsConstructor
 public class UploadController {
 
+  public static final String SESSION_TOKEN_HEADER = "X-Upload-Session-Token";
+
   private final UploadService service;
 
   @PostMapping
   @PreAuthorize("hasRole('UPLOADER')")
-  public CreateUploadResponse create(@AuthenticationPrincipal Jwt jwt,
-                                     @Valid @RequestBody CreateUploadRequest req,
-                                     HttpServletRequest http) {
+  public CompletableFuture<CreateUploadResponse> create(@AuthenticationPrincipal Jwt jwt,
+                                                        @Valid @RequestBody CreateUploadRequest req,
+                                                        HttpServletRequest http) {
     return service.create(jwt, req, baseUrl());
   }
 
+  /**
+   * Server-side copy of completed uploads, concatenated in order, into a new upload. Responds 202
+   * with the new session; poll {@code GET /{uploadId}} for its progress and outcome.
+   */
+  @PostMapping("/copy")
+  @PreAuthorize("hasRole('UPLOADER')")
+  public ResponseEntity<UploadDto> copy(@AuthenticationPrincipal Jwt jwt, @Valid @RequestBody CopyUploadRequest req) {
+    return ResponseEntity.accepted().body(service.copy(jwt, req));
+  }
+
+  /**
+   * Newest first; follow {@code nextCursor} (with the same filters) for older uploads.
+   *
+   * @param createdFrom inclusive lower bound of the creation time
+   * @param createdTo   exclusive upper bound of the creation time
+   */
   @GetMapping
   @PreAuthorize("hasRole('UPLOADER')")
-  public List<UploadDto> listMine(@AuthenticationPrincipal Jwt jwt) {
-    return service.listMine(jwt);
+  public UploadPageDto listMine(@AuthenticationPrincipal Jwt jwt,
+                                @RequestParam(required = false) List<String> status,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdFrom,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdTo,
+                                @RequestParam(required = false) String cursor,
+                                @RequestParam(defaultValue = "50") int limit) {
+    return service.listMine(jwt, status, createdFrom, createdTo, cursor, Math.clamp(limit, 1, 200));
   }
 
   @GetMapping("/{uploadId}")
@@ -45,26 +78,83 @@ public class UploadController {
     return service.get(jwt, uploadId);
   }
 
+  @GetMapping("/{uploadId}/parts")
+  @PreAuthorize("hasRole('UPLOADER')")
+  public CompletableFuture<UploadManifestDto> manifest(@AuthenticationPrincipal Jwt jwt,
+                                                       @PathVariable UUID uploadId,
+                                                       @RequestHeader(value = SESSION_TOKEN_HEADER, required = false) String sessionToken) {
+    return service.manifest(jwt, uploadId, sessionToken);
+  }
+
+  /**
+   * Ranged, pre-signed download of a COMPLETED upload, for fetching it in parallel.
+   */
+  @GetMapping("/{uploadId}/download-plan")
+  @PreAuthorize("hasRole('UPLOADER')")
+  public DownloadPlanDto downloadPlan(@AuthenticationPrincipal Jwt jwt, @PathVariable UUID uploadId) {
+    return service.downloadPlan(jwt, uploadId);
+  }
+
   @GetMapping("/{uploadId}/parts/{partNumber}/url")
   @PreAuthorize("hasRole('UPLOADER')")
   public PresignedPartUrlResponse presignPart(@AuthenticationPrincipal Jwt jwt,
                                               @PathVariable UUID uploadId,
-                                              @PathVariable int partNumber) {
-    return service.presignPartUrl(jwt, uploadId, partNumber, baseUrl());
+                                              @PathVariable int partNumber,
+                                              @RequestHeader(value = SESSION_TOKEN_HEADER, required = false) String sessionToken) {
+    return service.presignPartUrl(jwt, uploadId, partNumber, baseUrl(), sessionToken);
+  }
+
+  @PostMapping("/{uploadId}/parts/urls")
+  @PreAuthorize("hasRole('UPLOADER')")
+  public List<PresignedPartUrlResponse> presignParts(@AuthenticationPrincipal Jwt jwt,
+                                                     @PathVariable UUID uploadId,
+                                                     @Valid @RequestBody PresignPartUrlsRequest req,
+                                                     @RequestHeader(value = SESSION_TOKEN_HEADER, required = false) String sessionToken) {
+    return service.presignPartUrls(jwt, uploadId, req, sessionToken);
+  }
+
+  /**
+   * Proxy upload for clients that cannot reach S3: the body is the raw file ({@code fileSize}
+   * bytes), streamed to S3 by the service. Responds once the session is COMPLETED; the session is
+   * UPLOADING meanwhile.
+   */
+  @PutMapping("/{uploadId}/content")
+  @PreAuthorize("hasRole('UPLOADER')")
+  public CompletableFuture<UploadDto> uploadContent(@AuthenticationPrincipal Jwt jwt,
+                                                    @PathVariable UUID uploadId,
+                                                    HttpServletRequest http) throws IOException {
+    long length = http.getContentLengthLong();
+    return service.proxyUpload(jwt, uploadId, length < 0 ? null : length, http.getInputStream());
   }
 
+  /**
+   * With {@code async=true} the session moves to COMPLETING and 202 is returned immediately;
+   * poll {@code GET /{uploadId}} or long-poll {@code GET /{uploadId}/completion} for the outcome.
+   */
   @PostMapping("/{uploadId}/complete")
   @PreAuthorize("hasRole('UPLOADER')")
-  public void complete(@AuthenticationPrincipal Jwt jwt,
-                       @PathVariable UUID uploadId,
-                       @Valid @RequestBody CompleteUploadRequest req) {
-    service.complete(jwt, uploadId, req);
+  public CompletableFuture<ResponseEntity<UploadDto>> complete(@AuthenticationPrincipal Jwt jwt,
+                                                               @PathVariable UUID uploadId,
+                                                               @RequestParam(defaultValue = "false") boolean async,
+                                                               @Valid @RequestBody(required = false) CompleteUploadRequest req) {
+    if (async) {
+      return CompletableFuture.completedFuture(ResponseEntity.accepted().body(service.completeAsync(jwt, uploadId, req)));
+    }
+    return service.complete(jwt, uploadId, req).thenApply(done -> ResponseEntity.ok().build());
+  }
+
+  @GetMapping("/{uploadId}/completion")
+  @PreAuthorize("hasRole('UPLOADER')")
+  public CompletableFuture<UploadDto> awaitCompletion(@AuthenticationPrincipal Jwt jwt,
+                                                      @PathVariable UUID uploadId,
+                                                      @RequestParam(defaultValue = "30") int waitSeconds) {
+    return service.awaitCompletion(jwt, uploadId, Duration.ofSeconds(Math.clamp(waitSeconds, 1, 60)));
   }
 
   @PostMapping("/{uploadId}/abort")
   @PreAuthorize("hasRole('UPLOADER')")
-  public void abort(@AuthenticationPrincipal Jwt jwt, @PathVariable UUID uploadId) {
-    service.abort(jwt, uploadId);
+  public CompletableFuture<Void> abort(@AuthenticationPrincipal Jwt jwt, @PathVariable UUID uploadId) {
+    return service.abort(jwt, uploadId);
   }
 
   private String baseUrl() {
@@ -1,17 +1,16 @@
 package com.github.dimitryivaniuta.gateway.uploads.api.dto;
 
-import jakarta.validation.Valid;
-import jakarta.validation.constraints.NotEmpty;
-import java.util.List;
 import lombok.Data;
 
 /**
  * Complete a multipart upload.
+ *
+ * <p>Parts are validated by the service (range, duplicates, ETags) in a single pass. When
+ * {@code parts} is omitted (or the body is empty), the service completes from S3's own part
+ * listing instead.</p>
  */
 @Data
 public class CompleteUploadRequest {
 
-  @Valid
-  @NotEmpty
-  private List<CompletedPartDto> parts;
+  private CompletedPartList parts;
 }
@@ -0,0 +1,137 @@
+package com.github.dimitryivaniuta.gateway.uploads.api.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Part completion info returned by browser (part number + ETag), stored as parallel arrays.
+ *
+ * <p>Wire format is unchanged: {@code [{"partNumber": 1, "eTag": "..."}, ...]}. It is read with
+ * Jackson's streaming API so a 10,000-part request costs two arrays instead of 10,000 DTOs.
+ * {@code eTag}, {@code etag} and {@code ETag} are all accepted.</p>
+ *
+ * <p>{@code partNumber} must be a JSON integer, and a list longer than S3's part limit is
+ * rejected while it is read; both are a 400. The session's own part count is enforced by the
+ * service.</p>
+ */
+@JsonDeserialize(using = CompletedPartList.Deserializer.class)
+@JsonSerialize(using = CompletedPartList.Serializer.class)
+public final class CompletedPartList {
+
+  /** S3's limit on parts per multipart upload. */
+  static final int MAX_PARTS = 10_000;
+
+  private final int[] partNumbers;
+  private final String[] eTags;
+  private final int size;
+
+  public CompletedPartList(int[] partNumbers, String[] eTags, int size) {
+    this.partNumbers = partNumbers;
+    this.eTags = eTags;
+    this.size = size;
+  }
+
+  public static CompletedPartList of(int[] partNumbers, String[] eTags) {
+    if (partNumbers.length != eTags.length) {
+      throw new IllegalArgumentException("partNumbers and eTags must have the same length");
+    }
+    return new CompletedPartList(partNumbers, eTags, partNumbers.length);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int partNumber(int index) {
+    return partNumbers[index];
+  }
+
+  public String eTag(int index) {
+    return eTags[index];
+  }
+
+  static class Deserializer extends StdDeserializer<CompletedPartList> {
+
+    Deserializer() {
+      super(CompletedPartList.class);
+    }
+
+    @Override
+    public CompletedPartList deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+      if (p.currentToken() != JsonToken.START_ARRAY) {
+        return (CompletedPartList) ctxt.handleUnexpectedToken(CompletedPartList.class, p);
+      }
+      int[] numbers = new int[64];
+      String[] eTags = new String[64];
+      int n = 0;
+
+      JsonToken t;
+      while ((t = p.nextToken()) != JsonToken.END_ARRAY) {
+        if (t != JsonToken.START_OBJECT) {
+          return (CompletedPartList) ctxt.handleUnexpectedToken(CompletedPartList.class, p);
+        }
+        if (n == MAX_PARTS) {
+          return ctxt.reportInputMismatch(this, "More than %d parts", MAX_PARTS);
+        }
+        if (n == numbers.length) {
+          int grown = Math.min(n * 2, MAX_PARTS);
+          numbers = Arrays.copyOf(numbers, grown);
+          eTags = Arrays.copyOf(eTags, grown);
+        }
+        int partNumber = 0;
+        String eTag = null;
+        String field;
+        while ((field = p.nextFieldName()) != null) {
+          JsonToken value = p.nextToken();
+          if ("partNumber".equals(field)) {
+            if (value == JsonToken.VALUE_NUMBER_INT) {
+              partNumber = p.getIntValue();
+            } else if (value != JsonToken.VALUE_NULL) {
+              return ctxt.reportInputMismatch(this, "partNumber must be an integer, got %s", value);
+            }
+          } else if ("eTag".equals(field) || "etag".equals(field) || "ETag".equals(field)) {
+            eTag = value == JsonToken.VALUE_NULL ? null : p.getValueAsString();
+          } else {
+            p.skipChildren();
+          }
+        }
+        numbers[n] = partNumber;
+        eTags[n] = eTag;
+        n++;
+      }
+      return new CompletedPartList(numbers, eTags, n);
+    }
+  }
+
+  static class Serializer extends StdSerializer<CompletedPartList> {
+
+    Serializer() {
+      super(CompletedPartList.class);
+    }
+
+    @Override
+    public void serialize(CompletedPartList value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+      gen.writeStartArray(value, value.size);
+      for (int i = 0; i < value.size; i++) {
+        gen.writeStartObject();
+        gen.writeNumberField("partNumber", value.partNumbers[i]);
+        gen.writeStringField("eTag", value.eTags[i]);
+        gen.writeEndObject();
+      }
+      gen.writeEndArray();
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package com.github.dimitryivaniuta.gateway.uploads.api.dto;
+
+import jakarta.validation.constraints.*;
+import java.util.List;
+import java.util.UUID;
+import lombok.Data;
+
+/**
+ * Server-side copy of completed uploads into a new object: one source re-keys (copies) it,
+ * several are concatenated in the given order.
+ */
+@Data
+public class CopyUploadRequest {
+
+  /** COMPLETED uploads of the caller. All but the last must be at least 5 MiB (an S3 part minimum). */
+  @NotEmpty
+  @Size(max = 1000)
+  private List<@NotNull UUID> sourceUploadIds;
+
+  @NotBlank
+  private String fileName;
+
+  /** Defaults to the first source's content type. */
+  private String contentType;
+}
@@ -24,4 +24,13 @@ public class CreateUploadRequest {
    */
   @Size(max = 128)
   private String idempotencyKey;
+
+  /** Optional client-measured upstream bandwidth (bytes/second, all connections); used for part sizing. */
+  @Positive
+  private Long bandwidthBytesPerSecond;
+
+  /** Optional number of parts the client intends to upload in parallel; used for part sizing. */
+  @Min(1)
+  @Max(64)
+  private Integer concurrency;
 }
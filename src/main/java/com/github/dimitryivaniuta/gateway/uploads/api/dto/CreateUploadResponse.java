@@ -1,6 +1,7 @@
 package com.github.dimitryivaniuta.gateway.uploads.api.dto;
 
 import java.time.OffsetDateTime;
+import java.util.Map;
 import java.util.UUID;
 import lombok.Builder;
 import lombok.Data;
@@ -8,15 +9,31 @@ import lombok.Data;
 /**
  * Response returned after creating a multipart upload session.
  *
- * <p>Part upload URLs are generated on-demand using {@code partUrlEndpoint}.</p>
+ * <p>Part upload URLs are generated on-demand using {@code partUrlEndpoint}. When
+ * {@code sessionToken} is present, clients should send it as {@code X-Upload-Session-Token}
+ * on presign calls so the service can sign without a database lookup.</p>
+ *
+ * <p>For {@code uploadMode = SINGLE_PUT} (small files) there are no part URLs: the client PUTs
+ * the whole file to {@code putUrl} with {@code putHeaders}, then calls complete.</p>
+ *
+ * <p>{@code recommendedConcurrency} and {@code partSizeStrategy} describe the part plan and are
+ * omitted when an idempotent request returns an existing session.</p>
  */
 @Data
 @Builder
 public class CreateUploadResponse {
   private UUID uploadId;
   private String objectKey;
+  /** MULTIPART | SINGLE_PUT */
+  private String uploadMode;
   private long partSize;
   private int partCount;
+  private Integer recommendedConcurrency;
+  private String partSizeStrategy;
   private OffsetDateTime expiresAt;
   private String partUrlEndpoint;
+  private String sessionToken;
+  private String putUrl;
+  /** Signed headers the client must send with the PUT, e.g. Content-Type and Content-Length. */
+  private Map<String, String> putHeaders;
 }
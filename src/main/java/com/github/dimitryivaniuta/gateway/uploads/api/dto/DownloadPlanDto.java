@@ -0,0 +1,40 @@
+package com.github.dimitryivaniuta.gateway.uploads.api.dto;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Parallel download of a completed upload: one pre-signed GetObject URL and the byte ranges to
+ * fetch with it, one per part of the upload.
+ */
+@Data
+@Builder
+public class DownloadPlanDto {
+  private UUID uploadId;
+  private String fileName;
+  private String contentType;
+  private long fileSize;
+  private long partSize;
+  private int rangeCount;
+  /** GET it once per range, with that range's {@code Range} header. */
+  private String url;
+  /** Fetch a new plan for ranges not started by then. */
+  private OffsetDateTime expiresAt;
+  private List<Range> ranges;
+
+  @Data
+  @AllArgsConstructor
+  public static class Range {
+    private int partNumber;
+    /** Inclusive. */
+    private long firstByte;
+    /** Inclusive. */
+    private long lastByte;
+    /** Value of the {@code Range} request header, e.g. {@code bytes=0-8388607}. */
+    private String header;
+  }
+}
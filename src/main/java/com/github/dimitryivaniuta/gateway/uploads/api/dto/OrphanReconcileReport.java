@@ -0,0 +1,43 @@
+package com.github.dimitryivaniuta.gateway.uploads.api.dto;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Result of one orphan reconciliation pass over the bucket's in-progress multipart uploads.
+ */
+@Data
+@Builder
+public class OrphanReconcileReport {
+  private boolean dryRun;
+  private String bucket;
+  /** Only uploads initiated before this were considered. */
+  private OffsetDateTime initiatedBefore;
+  /** In-progress multipart uploads listed. */
+  private long scanned;
+  /** Listed uploads past the threshold that belong to an upload session. */
+  private long recorded;
+  /** Listed uploads initiated after {@link #initiatedBefore}; not looked up. */
+  private long tooRecent;
+  private long orphans;
+  /** Orphans aborted in S3 (always 0 in a dry run). */
+  private long aborted;
+  private long failed;
+  /** First orphans found, up to the configured sample size. */
+  private List<Orphan> sample;
+  /** {@code true} if the page limit stopped the pass; continue from the markers below. */
+  private boolean truncated;
+  private String nextKeyMarker;
+  private String nextUploadIdMarker;
+
+  @Data
+  @AllArgsConstructor
+  public static class Orphan {
+    private String objectKey;
+    private String s3UploadId;
+    private OffsetDateTime initiated;
+  }
+}
@@ -0,0 +1,23 @@
+package com.github.dimitryivaniuta.gateway.uploads.api.dto;
+
+import jakarta.validation.constraints.Min;
+import java.util.List;
+import lombok.Data;
+
+/**
+ * Batch pre-sign request.
+ *
+ * <p>Either an inclusive range ({@code fromPartNumber}..{@code toPartNumber}) or an explicit
+ * {@code partNumbers} list must be given, not both.</p>
+ */
+@Data
+public class PresignPartUrlsRequest {
+
+  @Min(1)
+  private Integer fromPartNumber;
+
+  @Min(1)
+  private Integer toPartNumber;
+
+  private List<Integer> partNumbers;
+}
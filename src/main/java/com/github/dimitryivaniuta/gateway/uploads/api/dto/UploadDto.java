@@ -1,6 +1,7 @@
 package com.github.dimitryivaniuta.gateway.uploads.api.dto;
 
 import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.UUID;
 import lombok.Builder;
 import lombok.Data;
@@ -17,8 +18,19 @@ public class UploadDto {
   private String contentType;
   private long fileSize;
   private String status;
+  private String uploadMode;
   private long partSize;
   private int partCount;
   private OffsetDateTime createdAt;
   private OffsetDateTime completedAt;
+  /** Timing milestones; only on single-upload reads, not in listings. */
+  private OffsetDateTime firstPartPresignedAt;
+  private OffsetDateTime lastPartPresignedAt;
+  private OffsetDateTime completeRequestedAt;
+  /** File size over the transfer window (first part URL to complete request), once completion was requested. */
+  private Long bytesPerSecond;
+  /** COPY only: sources in assembly order, and parts/bytes copied so far. */
+  private List<UUID> sourceUploadIds;
+  private Integer copiedParts;
+  private Long copiedBytes;
 }
@@ -0,0 +1,41 @@
+package com.github.dimitryivaniuta.gateway.uploads.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Resume manifest: the parts S3 already holds for an upload and the part ranges still missing.
+ */
+@Data
+@Builder
+public class UploadManifestDto {
+  private UUID uploadId;
+  private long fileSize;
+  private long partSize;
+  private int partCount;
+  private long uploadedBytes;
+  /** Parts stored in S3 with the planned size, ordered by part number. */
+  private List<Part> parts;
+  /** Inclusive part-number ranges that still have to be uploaded. */
+  private List<Range> missing;
+
+  @Data
+  @AllArgsConstructor
+  public static class Part {
+    private int partNumber;
+    private long size;
+    @JsonProperty("eTag")
+    private String eTag;
+  }
+
+  @Data
+  @AllArgsConstructor
+  public static class Range {
+    private int fromPartNumber;
+    private int toPartNumber;
+  }
+}
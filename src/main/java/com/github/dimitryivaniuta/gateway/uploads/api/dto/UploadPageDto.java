@@ -0,0 +1,16 @@
+package com.github.dimitryivaniuta.gateway.uploads.api.dto;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * One page of the caller's uploads, newest first.
+ */
+@Data
+@Builder
+public class UploadPageDto {
+  private List<UploadDto> items;
+  /** Opaque cursor for the next page (with the same filters), or {@code null} on the last page. */
+  private String nextCursor;
+}
@@ -0,0 +1,49 @@
+package com.github.dimitryivaniuta.gateway.uploads.api.dto;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Throughput of uploads completed on this instance since {@link #since}, overall, per content type
+ * and per file size bucket.
+ */
+@Data
+@Builder
+public class UploadThroughputReport {
+  private OffsetDateTime since;
+  private OffsetDateTime generatedAt;
+  private Group all;
+  private Map<String, Group> byContentType;
+  private Map<String, Group> bySize;
+
+  @Data
+  @Builder
+  public static class Group {
+    private long uploads;
+    private long bytes;
+    /** File size over the transfer window (first part URL to complete request). */
+    private Distribution bytesPerSecond;
+    /** First part URL to complete request, in milliseconds. */
+    private Distribution transferMillis;
+    /** Create to completed, in milliseconds. */
+    private Distribution totalMillis;
+  }
+
+  @Data
+  @Builder
+  public static class Distribution {
+    private long min;
+    private long p50;
+    private long p90;
+    private long p99;
+    private long max;
+    private double mean;
+    /**
+     * Base64 compressed HdrHistogram, present when requested. Histograms of several instances
+     * (or periods) can be decoded and added to get exact combined percentiles.
+     */
+    private String histogram;
+  }
+}
@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import java.time.OffsetDateTime;
 import java.util.UUID;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 /**
  * Upload session persisted in PostgreSQL.
@@ -33,7 +35,8 @@ public class UploadEntity {
   @Column(name = "object_key", nullable = false, length = 1024)
   private String objectKey;
 
-  @Column(name = "s3_upload_id", nullable = false, length = 256)
+  /** S3 multipart upload id; {@code null} for SINGLE_PUT uploads. */
+  @Column(name = "s3_upload_id", length = 256)
   private String s3UploadId;
 
   @Column(name = "file_name", nullable = false, length = 512)
@@ -54,7 +57,15 @@ public class UploadEntity {
   @Column(name = "idempotency_key", length = 128)
   private String idempotencyKey;
 
-  /** INITIATED | COMPLETED | ABORTED | FAILED */
+  /** MULTIPART | SINGLE_PUT | COPY (assembled server-side from other uploads) */
+  @Column(name = "upload_mode", nullable = false, length = 16)
+  @Builder.Default
+  private String uploadMode = "MULTIPART";
+
+  /**
+   * CREATING | INITIATED | UPLOADING | COMPLETING | COMPLETED | ABORTING | ABORTED | FAILED.
+   * The -ING states are committed before the corresponding S3 call (intent records).
+   */
   @Column(nullable = false, length = 32)
   private String status;
 
@@ -64,9 +75,35 @@ public class UploadEntity {
   @Column(name = "updated_at", nullable = false)
   private OffsetDateTime updatedAt;
 
+  /**
+   * First and last time a part URL was handed out (for SINGLE_PUT: the PUT URL, at creation).
+   * Written only by {@code UploadMilestoneRepository}, which merges batched presign times.
+   */
+  @Column(name = "first_part_presigned_at", updatable = false)
+  private OffsetDateTime firstPartPresignedAt;
+
+  @Column(name = "last_part_presigned_at", updatable = false)
+  private OffsetDateTime lastPartPresignedAt;
+
+  /** When the client asked to complete; the end of its transfer window. */
+  @Column(name = "complete_requested_at")
+  private OffsetDateTime completeRequestedAt;
+
   @Column(name = "completed_at")
   private OffsetDateTime completedAt;
 
+  /** COPY only: the uploads whose objects are concatenated, in order. */
+  @JdbcTypeCode(SqlTypes.ARRAY)
+  @Column(name = "source_upload_ids", updatable = false)
+  private UUID[] sourceUploadIds;
+
+  /** COPY only: progress, added per copied part by {@code UploadMilestoneRepository}. */
+  @Column(name = "copied_parts", insertable = false, updatable = false)
+  private Integer copiedParts;
+
+  @Column(name = "copied_bytes", insertable = false, updatable = false)
+  private Long copiedBytes;
+
   @Version
   @Column(nullable = false)
   private long version;
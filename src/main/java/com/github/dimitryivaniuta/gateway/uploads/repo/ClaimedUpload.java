@@ -0,0 +1,9 @@
+package com.github.dimitryivaniuta.gateway.uploads.repo;
+
+import java.util.UUID;
+
+/**
+ * The columns needed to abort an upload in S3, as returned by a cleanup claim.
+ */
+public record ClaimedUpload(UUID id, String bucket, String objectKey, String s3UploadId, String uploadMode) {
+}
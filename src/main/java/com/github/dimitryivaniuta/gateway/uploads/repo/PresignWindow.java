@@ -0,0 +1,14 @@
+package com.github.dimitryivaniuta.gateway.uploads.repo;
+
+import java.time.Instant;
+
+/**
+ * First and last time part URLs of one upload were handed out, since the last flush.
+ */
+public record PresignWindow(Instant first, Instant last) {
+
+  public PresignWindow merge(PresignWindow later) {
+    return new PresignWindow(first.isBefore(later.first) ? first : later.first,
+      last.isAfter(later.last) ? last : later.last);
+  }
+}
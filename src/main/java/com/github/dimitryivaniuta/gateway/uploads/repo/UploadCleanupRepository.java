@@ -0,0 +1,167 @@
+package com.github.dimitryivaniuta.gateway.uploads.repo;
+
+import java.sql.PreparedStatement;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Set-based SQL for the background jobs (stale upload cleanup, orphan reconciliation), bypassing
+ * JPA so a batch costs one statement.
+ *
+ * <p>Every statement runs in autocommit: a claim commits as soon as it returns and no lock is
+ * held while S3 is called. Updates bump {@code version}, so a concurrent JPA save of a claimed
+ * row fails its optimistic lock instead of overwriting the claim.</p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class UploadCleanupRepository {
+
+  /**
+   * Rows locked by another replica's claim are skipped rather than waited for, so replicas drain
+   * disjoint batches concurrently. A copy stays INITIATED while it runs, however long that takes;
+   * its heartbeat on {@code updated_at} decides whether it is stuck, in {@link #claimStuck}.
+   */
+  private static final String CLAIM_STALE = """
+    WITH stale AS MATERIALIZED (
+      SELECT id FROM uploads
+      WHERE status = 'INITIATED' AND upload_mode <> 'COPY' AND created_at < ?
+      ORDER BY created_at
+      LIMIT ?
+      FOR UPDATE SKIP LOCKED
+    )
+    UPDATE uploads u
+    SET status = 'ABORTING', updated_at = now(), version = u.version + 1
+    FROM stale
+    WHERE u.id = stale.id
+    RETURNING u.id, u.bucket, u.object_key, u.s3_upload_id, u.upload_mode
+    """;
+
+  /**
+   * Takes stuck rows for one recovery run by moving {@code updated_at} past every replica's
+   * cutoff. Status and {@code version} stay as they are, so a request still finishing the step
+   * saves over the claim as usual.
+   */
+  private static final String CLAIM_STUCK = """
+    WITH stuck AS MATERIALIZED (
+      SELECT id FROM uploads
+      WHERE status = ? AND upload_mode = ANY(?) AND updated_at < ?
+      ORDER BY updated_at
+      LIMIT ?
+      FOR UPDATE SKIP LOCKED
+    )
+    UPDATE uploads u
+    SET updated_at = now()
+    FROM stuck
+    WHERE u.id = stuck.id
+    RETURNING u.id, u.bucket, u.object_key, u.s3_upload_id, u.upload_mode
+    """;
+
+  private static final String SETTLE_ABORTING = """
+    UPDATE uploads
+    SET status = ?, updated_at = now(), version = version + 1
+    WHERE id = ANY(?) AND status = 'ABORTING'
+    """;
+
+  /** Probes the unique (bucket, object_key, s3_upload_id) index once per listed upload. */
+  private static final String FIND_RECORDED = """
+    SELECT u.s3_upload_id
+    FROM unnest(?, ?) AS l(object_key, s3_upload_id)
+    JOIN uploads u
+      ON u.bucket = ? AND u.object_key = l.object_key AND u.s3_upload_id = l.s3_upload_id
+    """;
+
+  private static final RowMapper<ClaimedUpload> CLAIMED = (rs, i) -> new ClaimedUpload(
+    rs.getObject("id", UUID.class),
+    rs.getString("bucket"),
+    rs.getString("object_key"),
+    rs.getString("s3_upload_id"),
+    rs.getString("upload_mode")
+  );
+
+  private final JdbcTemplate jdbc;
+
+  /**
+   * Moves up to {@code limit} of the oldest INITIATED client-driven uploads created before
+   * {@code cutoff} to ABORTING and returns them.
+   */
+  public List<ClaimedUpload> claimStale(OffsetDateTime cutoff, int limit) {
+    return jdbc.query(CLAIM_STALE, CLAIMED, cutoff, limit);
+  }
+
+  /**
+   * Claims up to {@code limit} of the rows in {@code status} and one of {@code uploadModes} not
+   * updated since {@code cutoff}, for {@code UploadCleanupJob#recoverStuckIntents}. Concurrent
+   * replicas claim disjoint rows.
+   */
+  public List<ClaimedUpload> claimStuck(String status, Collection<String> uploadModes, OffsetDateTime cutoff,
+                                        int limit) {
+    return jdbc.query(con -> {
+      PreparedStatement ps = con.prepareStatement(CLAIM_STUCK);
+      ps.setString(1, status);
+      ps.setArray(2, con.createArrayOf("varchar", uploadModes.toArray()));
+      ps.setObject(3, cutoff);
+      ps.setInt(4, limit);
+      return ps;
+    }, CLAIMED);
+  }
+
+  /**
+   * Moves claimed (ABORTING) uploads to their final status in one statement.
+   *
+   * @return number of rows updated
+   */
+  public int settleAborting(Collection<UUID> ids, String status) {
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    return jdbc.update(con -> {
+      PreparedStatement ps = con.prepareStatement(SETTLE_ABORTING);
+      ps.setString(1, status);
+      ps.setArray(2, con.createArrayOf("uuid", ids.toArray()));
+      return ps;
+    });
+  }
+
+  /**
+   * Looks up a page of S3 multipart uploads in one statement.
+   *
+   * @param objectKeyByUploadId listed uploads, keyed by S3 upload id
+   * @return the S3 upload ids that have an upload session
+   */
+  public Set<String> findRecordedUploadIds(String bucket, Map<String, String> objectKeyByUploadId) {
+    if (objectKeyByUploadId.isEmpty()) {
+      return Set.of();
+    }
+    String[] uploadIds = objectKeyByUploadId.keySet().toArray(String[]::new);
+    String[] keys = new String[uploadIds.length];
+    for (int i = 0; i < uploadIds.length; i++) {
+      keys[i] = objectKeyByUploadId.get(uploadIds[i]);
+    }
+    return new HashSet<>(jdbc.query(con -> {
+      PreparedStatement ps = con.prepareStatement(FIND_RECORDED);
+      ps.setArray(1, con.createArrayOf("varchar", keys));
+      ps.setArray(2, con.createArrayOf("varchar", uploadIds));
+      ps.setString(3, bucket);
+      return ps;
+    }, (rs, i) -> rs.getString(1)));
+  }
+
+  /**
+   * Number of INITIATED client-driven uploads still waiting to be aborted.
+   */
+  public long countStale(OffsetDateTime cutoff) {
+    Long n = jdbc.queryForObject(
+      "SELECT count(*) FROM uploads WHERE status = 'INITIATED' AND upload_mode <> 'COPY' AND created_at < ?",
+      Long.class, cutoff);
+    return n == null ? 0 : n;
+  }
+}
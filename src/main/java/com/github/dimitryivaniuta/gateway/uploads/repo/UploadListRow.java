@@ -0,0 +1,23 @@
+package com.github.dimitryivaniuta.gateway.uploads.repo;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Read-only projection of an upload session for listings; selected column by column, so no
+ * entity is hydrated or tracked by the persistence context.
+ */
+public record UploadListRow(
+  UUID id,
+  String objectKey,
+  String fileName,
+  String contentType,
+  long fileSize,
+  String status,
+  String uploadMode,
+  long partSize,
+  int partCount,
+  OffsetDateTime createdAt,
+  OffsetDateTime completedAt
+) {
+}
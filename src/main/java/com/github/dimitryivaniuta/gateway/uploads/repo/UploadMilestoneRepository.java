@@ -0,0 +1,97 @@
+package com.github.dimitryivaniuta.gateway.uploads.repo;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Batched writes of presign milestones, kept off the presign path.
+ *
+ * <p>The columns are not updatable through JPA and {@code version} is left alone, so these writes
+ * never conflict with lifecycle saves of the same row.</p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class UploadMilestoneRepository {
+
+  /** LEAST/GREATEST skip NULLs, so the first write sets the column and later ones only widen it. */
+  private static final String MERGE_PRESIGN_WINDOWS = """
+    UPDATE uploads u
+    SET first_part_presigned_at = LEAST(u.first_part_presigned_at, w.first_at),
+        last_part_presigned_at = GREATEST(u.last_part_presigned_at, w.last_at)
+    FROM unnest(?, ?, ?) AS w(id, first_at, last_at)
+    WHERE u.id = w.id
+    """;
+
+  private static final String ADD_COPY_PROGRESS = """
+    UPDATE uploads
+    SET copied_parts = COALESCE(copied_parts, 0) + 1,
+        copied_bytes = COALESCE(copied_bytes, 0) + ?,
+        updated_at = now()
+    WHERE id = ?
+    """;
+
+  private static final String TOUCH = """
+    UPDATE uploads
+    SET updated_at = now()
+    WHERE id = ANY(?) AND status = ?
+    """;
+
+  private final JdbcTemplate jdbc;
+
+  /**
+   * Counts one copied part of a server-side copy.
+   */
+  public void addCopyProgress(UUID id, long bytes) {
+    jdbc.update(ADD_COPY_PROGRESS, bytes, id);
+  }
+
+  /**
+   * Heartbeat of the copies and proxy uploads running on this instance: moves {@code updated_at}
+   * of those still in {@code status}, which tells {@code UploadCleanupJob} that they are alive.
+   */
+  public void touch(Collection<UUID> ids, String status) {
+    if (ids.isEmpty()) {
+      return;
+    }
+    jdbc.update(con -> {
+      PreparedStatement ps = con.prepareStatement(TOUCH);
+      ps.setArray(1, con.createArrayOf("uuid", ids.toArray()));
+      ps.setString(2, status);
+      return ps;
+    });
+  }
+
+  /**
+   * Widens the recorded presign window of every upload in {@code windows} in one statement.
+   *
+   * @return number of rows updated
+   */
+  public int mergePresignWindows(Map<UUID, PresignWindow> windows) {
+    if (windows.isEmpty()) {
+      return 0;
+    }
+    UUID[] ids = new UUID[windows.size()];
+    Timestamp[] firsts = new Timestamp[ids.length];
+    Timestamp[] lasts = new Timestamp[ids.length];
+    int i = 0;
+    for (Map.Entry<UUID, PresignWindow> e : windows.entrySet()) {
+      ids[i] = e.getKey();
+      firsts[i] = Timestamp.from(e.getValue().first());
+      lasts[i] = Timestamp.from(e.getValue().last());
+      i++;
+    }
+    return jdbc.update(con -> {
+      PreparedStatement ps = con.prepareStatement(MERGE_PRESIGN_WINDOWS);
+      ps.setArray(1, con.createArrayOf("uuid", ids));
+      ps.setArray(2, con.createArrayOf("timestamptz", firsts));
+      ps.setArray(3, con.createArrayOf("timestamptz", lasts));
+      return ps;
+    });
+  }
+}
@@ -1,20 +1,28 @@
 package com.github.dimitryivaniuta.gateway.uploads.repo;
 
 import com.github.dimitryivaniuta.gateway.uploads.domain.UploadEntity;
-import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 /**
  * JPA repository for upload sessions.
  */
-public interface UploadRepository extends JpaRepository<UploadEntity, UUID> {
-
-  List<UploadEntity> findTop50ByUserSubOrderByCreatedAtDesc(String userSub);
+public interface UploadRepository extends JpaRepository<UploadEntity, UUID>, UploadRepositoryCustom {
 
   Optional<UploadEntity> findByUserSubAndIdempotencyKey(String userSub, String idempotencyKey);
 
-  List<UploadEntity> findTop200ByStatusAndCreatedAtBeforeOrderByCreatedAtAsc(String status, OffsetDateTime cutoff);
+  long countByUserSubAndStatusIn(String userSub, Collection<String> statuses);
+
+  @Query("""
+    select new com.github.dimitryivaniuta.gateway.uploads.repo.UploadStatusTotals(u.status, count(u), coalesce(sum(u.fileSize), 0))
+    from UploadEntity u
+    where u.status in :statuses
+    group by u.status
+    """)
+  List<UploadStatusTotals> totalsByStatus(@Param("statuses") Collection<String> statuses);
 }
@@ -0,0 +1,46 @@
+package com.github.dimitryivaniuta.gateway.uploads.repo;
+
+import com.github.dimitryivaniuta.gateway.uploads.domain.UploadEntity;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Statements of {@link UploadRepository} that Spring Data cannot derive.
+ */
+public interface UploadRepositoryCustom {
+
+  /**
+   * Inserts {@code draft} unless the user already has an upload with the same idempotency key.
+   *
+   * <p>A single {@code INSERT ... ON CONFLICT DO NOTHING} against {@code uq_uploads_user_idem}:
+   * of concurrent callers with the same key exactly one gets {@code true}, and nobody sees a
+   * unique-constraint violation. Must run inside a transaction; {@code draft} is not attached to
+   * the persistence context.</p>
+   *
+   * @return {@code true} if the row was inserted, {@code false} if the key was already taken
+   */
+  boolean insertIfAbsent(UploadEntity draft);
+
+  /**
+   * One page of a user's uploads, newest first (ties broken by id), starting strictly after the
+   * keyset position {@code (afterCreatedAt, afterId)}.
+   *
+   * <p>Seeks on {@code ix_uploads_user_sub_created_at} instead of skipping rows, so every page
+   * costs the same regardless of depth.</p>
+   *
+   * @param statuses       optional status filter; {@code null} or empty for all
+   * @param createdFrom    optional inclusive lower bound of {@code created_at}
+   * @param createdTo      optional exclusive upper bound of {@code created_at}
+   * @param afterCreatedAt keyset position, or {@code null} for the first page
+   * @param afterId        keyset tie-breaker; required with {@code afterCreatedAt}
+   */
+  List<UploadListRow> findPageByUserSub(String userSub,
+                                        Collection<String> statuses,
+                                        OffsetDateTime createdFrom,
+                                        OffsetDateTime createdTo,
+                                        OffsetDateTime afterCreatedAt,
+                                        UUID afterId,
+                                        int limit);
+}
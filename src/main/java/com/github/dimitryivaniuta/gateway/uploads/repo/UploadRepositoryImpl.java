@@ -0,0 +1,110 @@
+package com.github.dimitryivaniuta.gateway.uploads.repo;
+
+import com.github.dimitryivaniuta.gateway.uploads.domain.UploadEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.hibernate.query.NativeQuery;
+
+/**
+ * JPQL and native SQL implementation of {@link UploadRepositoryCustom}; picked up by Spring Data
+ * by its name.
+ */
+class UploadRepositoryImpl implements UploadRepositoryCustom {
+
+  @PersistenceContext
+  private EntityManager em;
+
+  @Override
+  public boolean insertIfAbsent(UploadEntity draft) {
+    // s3_upload_id, completed_at and the completion milestones stay NULL: a reservation precedes them
+    NativeQuery<?> insert = em.createNativeQuery("""
+        INSERT INTO uploads (id, user_sub, username, bucket, object_key, file_name, content_type,
+                             file_size, part_size, part_count, idempotency_key, upload_mode, status,
+                             created_at, updated_at, first_part_presigned_at, last_part_presigned_at, version)
+        VALUES (:id, :userSub, :username, :bucket, :objectKey, :fileName, :contentType,
+                :fileSize, :partSize, :partCount, :idem, :uploadMode, :status,
+                :createdAt, :updatedAt, :firstPresigned, :lastPresigned, :version)
+        ON CONFLICT (user_sub, idempotency_key) WHERE idempotency_key IS NOT NULL DO NOTHING
+        """)
+      .unwrap(NativeQuery.class);
+    int inserted = insert
+      .setParameter("id", draft.getId())
+      .setParameter("userSub", draft.getUserSub())
+      // typed, so that a missing username binds as a NULL varchar
+      .setParameter("username", draft.getUsername(), String.class)
+      .setParameter("bucket", draft.getBucket())
+      .setParameter("objectKey", draft.getObjectKey())
+      .setParameter("fileName", draft.getFileName())
+      .setParameter("contentType", draft.getContentType())
+      .setParameter("fileSize", draft.getFileSize())
+      .setParameter("partSize", draft.getPartSize())
+      .setParameter("partCount", draft.getPartCount())
+      .setParameter("idem", draft.getIdempotencyKey())
+      .setParameter("uploadMode", draft.getUploadMode())
+      .setParameter("status", draft.getStatus())
+      .setParameter("createdAt", draft.getCreatedAt())
+      .setParameter("updatedAt", draft.getUpdatedAt())
+      .setParameter("firstPresigned", draft.getFirstPartPresignedAt(), OffsetDateTime.class)
+      .setParameter("lastPresigned", draft.getLastPartPresignedAt(), OffsetDateTime.class)
+      .setParameter("version", draft.getVersion())
+      .executeUpdate();
+    return inserted == 1;
+  }
+
+  @Override
+  public List<UploadListRow> findPageByUserSub(String userSub,
+                                               Collection<String> statuses,
+                                               OffsetDateTime createdFrom,
+                                               OffsetDateTime createdTo,
+                                               OffsetDateTime afterCreatedAt,
+                                               UUID afterId,
+                                               int limit) {
+    // filters are appended only when present, so every bound parameter has a known type
+    StringBuilder jpql = new StringBuilder("""
+      select new com.github.dimitryivaniuta.gateway.uploads.repo.UploadListRow(
+        u.id, u.objectKey, u.fileName, u.contentType, u.fileSize, u.status, u.uploadMode,
+        u.partSize, u.partCount, u.createdAt, u.completedAt)
+      from UploadEntity u
+      where u.userSub = :userSub
+      """);
+    boolean byStatus = statuses != null && !statuses.isEmpty();
+    if (byStatus) {
+      jpql.append(" and u.status in :statuses");
+    }
+    if (createdFrom != null) {
+      jpql.append(" and u.createdAt >= :createdFrom");
+    }
+    if (createdTo != null) {
+      jpql.append(" and u.createdAt < :createdTo");
+    }
+    if (afterCreatedAt != null) {
+      // the first predicate bounds the index range; the second resolves equal timestamps by id
+      jpql.append(" and u.createdAt <= :afterCreatedAt")
+        .append(" and (u.createdAt < :afterCreatedAt or u.id < :afterId)");
+    }
+    jpql.append(" order by u.createdAt desc, u.id desc");
+
+    TypedQuery<UploadListRow> q = em.createQuery(jpql.toString(), UploadListRow.class)
+      .setParameter("userSub", userSub)
+      .setMaxResults(limit);
+    if (byStatus) {
+      q.setParameter("statuses", statuses);
+    }
+    if (createdFrom != null) {
+      q.setParameter("createdFrom", createdFrom);
+    }
+    if (createdTo != null) {
+      q.setParameter("createdTo", createdTo);
+    }
+    if (afterCreatedAt != null) {
+      q.setParameter("afterCreatedAt", afterCreatedAt);
+      q.setParameter("afterId", afterId);
+    }
+    return q.getResultList();
+  }
+}
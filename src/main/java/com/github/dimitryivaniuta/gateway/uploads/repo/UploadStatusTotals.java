@@ -0,0 +1,7 @@
+package com.github.dimitryivaniuta.gateway.uploads.repo;
+
+/**
+ * Number of sessions in one status and their declared bytes.
+ */
+public record UploadStatusTotals(String status, long sessions, long bytes) {
+}
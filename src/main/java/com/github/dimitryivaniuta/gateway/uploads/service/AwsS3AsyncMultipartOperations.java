@@ -0,0 +1,145 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import com.github.dimitryivaniuta.gateway.config.S3Properties;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.*;
+
+/**
+ * AWS SDK v2 {@link S3AsyncClient} implementation ({@code app.s3.client-mode=ASYNC}).
+ *
+ * <p>No thread waits on S3: requests are multiplexed over the Netty client's connection pool.</p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.s3", name = "client-mode", havingValue = "ASYNC")
+@RequiredArgsConstructor
+public class AwsS3AsyncMultipartOperations implements S3MultipartAsyncOperations {
+
+  /** S3 returns at most 1,000 parts per ListParts page. */
+  private static final int LIST_PARTS_PAGE_SIZE = 1000;
+
+  private final S3AsyncClient s3;
+  private final S3Properties props;
+
+  @Override
+  public CompletableFuture<String> createMultipartUpload(String bucket, String key, String contentType) {
+    CreateMultipartUploadRequest.Builder req = CreateMultipartUploadRequest.builder()
+      .bucket(bucket)
+      .key(key)
+      .contentType(contentType);
+
+    AwsS3MultipartOperations.applySse(props, req::serverSideEncryption, req::ssekmsKeyId);
+
+    return s3.createMultipartUpload(req.build()).thenApply(CreateMultipartUploadResponse::uploadId);
+  }
+
+  @Override
+  public CompletableFuture<Void> completeMultipartUpload(String bucket, String key, String uploadId,
+                                                         List<CompletedPart> parts) {
+    CompletedMultipartUpload cmu = CompletedMultipartUpload.builder().parts(parts).build();
+    return s3.completeMultipartUpload(
+      CompleteMultipartUploadRequest.builder()
+        .bucket(bucket)
+        .key(key)
+        .uploadId(uploadId)
+        .multipartUpload(cmu)
+        .build()
+    ).thenApply(resp -> null);
+  }
+
+  @Override
+  public CompletableFuture<Void> abortMultipartUpload(String bucket, String key, String uploadId) {
+    return s3.abortMultipartUpload(
+      AbortMultipartUploadRequest.builder()
+        .bucket(bucket)
+        .key(key)
+        .uploadId(uploadId)
+        .build()
+    ).thenApply(resp -> null);
+  }
+
+  /**
+   * Same windowing as {@link AwsS3MultipartOperations#listParts}: every 1,000-part window is
+   * requested at once and only the pages of a window are chained.
+   */
+  @Override
+  public CompletableFuture<List<UploadedPart>> listParts(String bucket, String key, String uploadId,
+                                                         int expectedPartCount) {
+    int windows = Math.max(1, (expectedPartCount + LIST_PARTS_PAGE_SIZE - 1) / LIST_PARTS_PAGE_SIZE);
+    if (windows == 1) {
+      return listPartsAfter(bucket, key, uploadId, 0, Integer.MAX_VALUE, new ArrayList<>());
+    }
+
+    List<CompletableFuture<List<UploadedPart>>> pages = new ArrayList<>(windows);
+    for (int w = 0; w < windows; w++) {
+      int marker = w * LIST_PARTS_PAGE_SIZE;
+      int last = w == windows - 1 ? Integer.MAX_VALUE : marker + LIST_PARTS_PAGE_SIZE;
+      pages.add(listPartsAfter(bucket, key, uploadId, marker, last, new ArrayList<>(LIST_PARTS_PAGE_SIZE)));
+    }
+    return CompletableFuture.allOf(pages.toArray(CompletableFuture[]::new)).thenApply(done -> {
+      List<UploadedPart> all = new ArrayList<>(expectedPartCount);
+      for (CompletableFuture<List<UploadedPart>> page : pages) {
+        all.addAll(page.join());
+      }
+      return all;
+    });
+  }
+
+  @Override
+  public CompletableFuture<OptionalLong> headObjectSize(String bucket, String key) {
+    return s3.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).build())
+      .handle((resp, ex) -> {
+        if (ex == null) {
+          return OptionalLong.of(resp.contentLength());
+        }
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        // HEAD responses have no body, so a missing key may surface as a bare 404
+        if (cause instanceof NoSuchKeyException || cause instanceof S3Exception s3ex && s3ex.statusCode() == 404) {
+          return OptionalLong.empty();
+        }
+        throw ex instanceof CompletionException ce ? ce : new CompletionException(ex);
+      });
+  }
+
+  @Override
+  public CompletableFuture<Void> deleteObject(String bucket, String key) {
+    return s3.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(key).build())
+      .thenApply(resp -> null);
+  }
+
+  /**
+   * Lists parts in {@code (marker, last]} into {@code out}, requesting the next page only once
+   * the previous one has arrived.
+   */
+  private CompletableFuture<List<UploadedPart>> listPartsAfter(String bucket, String key, String uploadId,
+                                                               int marker, int last, List<UploadedPart> out) {
+    return s3.listParts(ListPartsRequest.builder()
+        .bucket(bucket)
+        .key(key)
+        .uploadId(uploadId)
+        .partNumberMarker(marker)
+        .maxParts(LIST_PARTS_PAGE_SIZE)
+        .build())
+      .thenCompose(resp -> {
+        for (Part p : resp.parts()) {
+          if (p.partNumber() > last) {
+            return CompletableFuture.completedFuture(out);
+          }
+          out.add(new UploadedPart(p.partNumber(), p.size(), p.eTag()));
+        }
+        if (!Boolean.TRUE.equals(resp.isTruncated())
+          || resp.nextPartNumberMarker() == null
+          || resp.nextPartNumberMarker() >= last) {
+          return CompletableFuture.completedFuture(out);
+        }
+        return listPartsAfter(bucket, key, uploadId, resp.nextPartNumberMarker(), last, out);
+      });
+  }
+}
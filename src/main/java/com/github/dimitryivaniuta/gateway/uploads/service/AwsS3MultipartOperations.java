@@ -2,13 +2,26 @@ package com.github.dimitryivaniuta.gateway.uploads.service;
 
 import com.github.dimitryivaniuta.gateway.config.S3Properties;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.ContentStreamProvider;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
-import software.amazon.awssdk.services.s3.presigner.model.PresignUploadPartRequest;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
+import software.amazon.awssdk.services.s3.presigner.model.UploadPartPresignRequest;
 
 /**
  * AWS SDK v2 implementation for S3 multipart upload calls.
@@ -17,9 +30,15 @@ import software.amazon.awssdk.services.s3.presigner.model.PresignUploadPartReque
 @RequiredArgsConstructor
 public class AwsS3MultipartOperations implements S3MultipartOperations {
 
+  /** S3 returns at most 1,000 parts per ListParts page. */
+  private static final int LIST_PARTS_PAGE_SIZE = 1000;
+  private static final String OCTET_STREAM = "application/octet-stream";
+
   private final S3Client s3;
   private final S3Presigner presigner;
   private final S3Properties props;
+  private final PresignedUrlCache urlCache;
+  private final UploadPartUrlSigner partSigner;
 
   @Override
   public String createMultipartUpload(String bucket, String key, String contentType) {
@@ -35,21 +54,54 @@ public class AwsS3MultipartOperations implements S3MultipartOperations {
   }
 
   @Override
-  public String presignUploadPartUrl(String bucket, String key, String uploadId, int partNumber) {
-    UploadPartRequest upr = UploadPartRequest.builder()
-      .bucket(bucket)
-      .key(key)
-      .uploadId(uploadId)
-      .partNumber(partNumber)
-      .build();
+  public PresignedUrl presignUploadPartUrl(String bucket, String key, String uploadId, int partNumber) {
+    return urlCache.get(uploadId, partNumber, () -> {
+      if (partSigner.isEnabled()) {
+        return partSigner.sign(bucket, key, uploadId, partNumber, signatureDuration());
+      }
+      UploadPartRequest upr = UploadPartRequest.builder()
+        .bucket(bucket)
+        .key(key)
+        .uploadId(uploadId)
+        .partNumber(partNumber)
+        .build();
 
-    var presigned = presigner.presignUploadPart(
-      PresignUploadPartRequest.builder()
-        .signatureDuration(Duration.ofMinutes(props.getPresignExpirationMinutes()))
-        .uploadPartRequest(upr)
-        .build()
-    );
-    return presigned.url().toString();
+      var presigned = presigner.presignUploadPart(
+        UploadPartPresignRequest.builder()
+          .signatureDuration(signatureDuration())
+          .uploadPartRequest(upr)
+          .build()
+      );
+      return new PresignedUrl(presigned.url().toString(), presigned.expiration());
+    });
+  }
+
+  @Override
+  public List<PresignedUrl> presignUploadPartUrls(String bucket, String key, String uploadId, List<Integer> partNumbers) {
+    return urlCache.getAll(uploadId, partNumbers, missing -> {
+      if (partSigner.isEnabled()) {
+        return partSigner.signAll(bucket, key, uploadId, missing, signatureDuration());
+      }
+      // Shared request state is built once; only the part number varies per URL.
+      UploadPartRequest base = UploadPartRequest.builder()
+        .bucket(bucket)
+        .key(key)
+        .uploadId(uploadId)
+        .build();
+      Duration duration = signatureDuration();
+
+      List<PresignedUrl> urls = new ArrayList<>(missing.size());
+      for (Integer partNumber : missing) {
+        var presigned = presigner.presignUploadPart(
+          UploadPartPresignRequest.builder()
+            .signatureDuration(duration)
+            .uploadPartRequest(base.toBuilder().partNumber(partNumber).build())
+            .build()
+        );
+        urls.add(new PresignedUrl(presigned.url().toString(), presigned.expiration()));
+      }
+      return urls;
+    });
   }
 
   @Override
@@ -76,16 +128,212 @@ public class AwsS3MultipartOperations implements S3MultipartOperations {
     );
   }
 
+  @Override
+  public String uploadPart(String bucket, String key, String uploadId, int partNumber, ContentStreamProvider content,
+                           long contentLength) {
+    UploadPartRequest req = UploadPartRequest.builder()
+      .bucket(bucket)
+      .key(key)
+      .uploadId(uploadId)
+      .partNumber(partNumber)
+      .contentLength(contentLength)
+      .build();
+    return s3.uploadPart(req, RequestBody.fromContentProvider(content, contentLength, OCTET_STREAM)).eTag();
+  }
+
+  @Override
+  public String uploadPartCopy(String bucket, String key, String uploadId, int partNumber, String sourceBucket,
+                               String sourceKey, long firstByte, long lastByte) {
+    UploadPartCopyResponse resp = s3.uploadPartCopy(UploadPartCopyRequest.builder()
+      .sourceBucket(sourceBucket)
+      .sourceKey(sourceKey)
+      .copySourceRange("bytes=" + firstByte + "-" + lastByte)
+      .destinationBucket(bucket)
+      .destinationKey(key)
+      .uploadId(uploadId)
+      .partNumber(partNumber)
+      .build());
+    return resp.copyPartResult().eTag();
+  }
+
+  @Override
+  public void putObject(String bucket, String key, String contentType, ContentStreamProvider content,
+                        long contentLength) {
+    PutObjectRequest.Builder req = PutObjectRequest.builder()
+      .bucket(bucket)
+      .key(key)
+      .contentType(contentType)
+      .contentLength(contentLength);
+
+    applySse(req);
+
+    s3.putObject(req.build(), RequestBody.fromContentProvider(content, contentLength, contentType));
+  }
+
+  @Override
+  public PresignedPutUrl presignPutObjectUrl(String bucket, String key, String contentType, long contentLength) {
+    PutObjectRequest.Builder req = PutObjectRequest.builder()
+      .bucket(bucket)
+      .key(key)
+      .contentType(contentType)
+      .contentLength(contentLength);
+
+    applySse(req);
+
+    var presigned = presigner.presignPutObject(
+      PutObjectPresignRequest.builder()
+        .signatureDuration(signatureDuration())
+        .putObjectRequest(req.build())
+        .build()
+    );
+
+    Map<String, String> headers = new LinkedHashMap<>();
+    presigned.signedHeaders().forEach((name, values) -> {
+      // the HTTP client sets Host itself
+      if (!"host".equalsIgnoreCase(name)) {
+        headers.put(name, String.join(",", values));
+      }
+    });
+    return new PresignedPutUrl(presigned.url().toString(), presigned.expiration(), headers);
+  }
+
+  @Override
+  public PresignedUrl presignGetObjectUrl(String bucket, String key) {
+    var presigned = presigner.presignGetObject(
+      GetObjectPresignRequest.builder()
+        .signatureDuration(signatureDuration())
+        .getObjectRequest(GetObjectRequest.builder().bucket(bucket).key(key).build())
+        .build()
+    );
+    return new PresignedUrl(presigned.url().toString(), presigned.expiration());
+  }
+
+  @Override
+  public OptionalLong headObjectSize(String bucket, String key) {
+    try {
+      HeadObjectResponse resp = s3.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).build());
+      return OptionalLong.of(resp.contentLength());
+    } catch (NoSuchKeyException ex) {
+      return OptionalLong.empty();
+    } catch (S3Exception ex) {
+      // HEAD responses have no body, so a missing key may surface as a bare 404
+      if (ex.statusCode() == 404) {
+        return OptionalLong.empty();
+      }
+      throw ex;
+    }
+  }
+
+  @Override
+  public void deleteObject(String bucket, String key) {
+    s3.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(key).build());
+  }
+
+  @Override
+  public MultipartUploadPage listMultipartUploads(String bucket, String prefix, String keyMarker, String uploadIdMarker,
+                                                  int maxUploads) {
+    ListMultipartUploadsResponse resp = s3.listMultipartUploads(ListMultipartUploadsRequest.builder()
+      .bucket(bucket)
+      .prefix(prefix)
+      .keyMarker(keyMarker)
+      .uploadIdMarker(uploadIdMarker)
+      .maxUploads(maxUploads)
+      .build());
+
+    List<MultipartUploadPage.Upload> uploads = new ArrayList<>(resp.uploads().size());
+    for (MultipartUpload mu : resp.uploads()) {
+      uploads.add(new MultipartUploadPage.Upload(mu.key(), mu.uploadId(), mu.initiated()));
+    }
+    return new MultipartUploadPage(uploads, resp.nextKeyMarker(), resp.nextUploadIdMarker(),
+      Boolean.TRUE.equals(resp.isTruncated()));
+  }
+
+  private Duration signatureDuration() {
+    return Duration.ofMinutes(props.getPresignExpirationMinutes());
+  }
+
+  @Override
+  public List<UploadedPart> listParts(String bucket, String key, String uploadId, int expectedPartCount) {
+    int windows = Math.max(1, (expectedPartCount + LIST_PARTS_PAGE_SIZE - 1) / LIST_PARTS_PAGE_SIZE);
+    if (windows == 1) {
+      return listPartsAfter(bucket, key, uploadId, 0, Integer.MAX_VALUE);
+    }
+
+    // Part numbers are dense and known up front, so each 1,000-part window can be requested
+    // independently with its own part-number marker instead of following the pagination chain.
+    List<Future<List<UploadedPart>>> pages = new ArrayList<>(windows);
+    try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int w = 0; w < windows; w++) {
+        int marker = w * LIST_PARTS_PAGE_SIZE;
+        int last = w == windows - 1 ? Integer.MAX_VALUE : marker + LIST_PARTS_PAGE_SIZE;
+        pages.add(pool.submit(() -> listPartsAfter(bucket, key, uploadId, marker, last)));
+      }
+      List<UploadedPart> all = new ArrayList<>(expectedPartCount);
+      for (Future<List<UploadedPart>> page : pages) {
+        all.addAll(page.get());
+      }
+      return all;
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException re) {
+        throw re;
+      }
+      throw new IllegalStateException(ex.getCause());
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while listing parts", ex);
+    }
+  }
+
+  /**
+   * Lists parts in {@code (marker, last]}, following pagination while the window is not exhausted.
+   */
+  private List<UploadedPart> listPartsAfter(String bucket, String key, String uploadId, int marker, int last) {
+    List<UploadedPart> out = new ArrayList<>();
+    Integer next = marker;
+    while (true) {
+      ListPartsResponse resp = s3.listParts(ListPartsRequest.builder()
+        .bucket(bucket)
+        .key(key)
+        .uploadId(uploadId)
+        .partNumberMarker(next)
+        .maxParts(LIST_PARTS_PAGE_SIZE)
+        .build());
+      for (Part p : resp.parts()) {
+        if (p.partNumber() > last) {
+          return out;
+        }
+        out.add(new UploadedPart(p.partNumber(), p.size(), p.eTag()));
+      }
+      if (!Boolean.TRUE.equals(resp.isTruncated())
+        || resp.nextPartNumberMarker() == null
+        || resp.nextPartNumberMarker() >= last) {
+        return out;
+      }
+      next = resp.nextPartNumberMarker();
+    }
+  }
+
   private void applySse(CreateMultipartUploadRequest.Builder req) {
+    applySse(props, req::serverSideEncryption, req::ssekmsKeyId);
+  }
+
+  private void applySse(PutObjectRequest.Builder req) {
+    applySse(props, req::serverSideEncryption, req::ssekmsKeyId);
+  }
+
+  /**
+   * Shared with {@link AwsS3AsyncMultipartOperations}.
+   */
+  static void applySse(S3Properties props, Consumer<ServerSideEncryption> sse, Consumer<String> kmsKeyId) {
     if (props.getSse() == null) {
       return;
     }
     switch (props.getSse()) {
-      case AES256 -> req.serverSideEncryption(ServerSideEncryption.AES256);
+      case AES256 -> sse.accept(ServerSideEncryption.AES256);
       case AWS_KMS -> {
-        req.serverSideEncryption(ServerSideEncryption.AWS_KMS);
+        sse.accept(ServerSideEncryption.AWS_KMS);
         if (props.getKmsKeyId() != null && !props.getKmsKeyId().isBlank()) {
-          req.ssekmsKeyId(props.getKmsKeyId());
+          kmsKeyId.accept(props.getKmsKeyId());
         }
       }
       case NONE -> { /* no-op */ }
@@ -0,0 +1,80 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import com.github.dimitryivaniuta.gateway.config.UploadPolicyProperties;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs batches of S3 calls for background jobs within one per-replica budget: at most
+ * {@code cleanupParallelism} in flight and {@code cleanupS3RequestsPerSecond} started per second,
+ * shared by every job using it.
+ */
+@Component
+public class BackgroundS3Calls {
+
+  private final int parallelism;
+  private final RatePacer pacer;
+
+  public BackgroundS3Calls(UploadPolicyProperties policy) {
+    this.parallelism = policy.getCleanupParallelism();
+    this.pacer = new RatePacer(policy.getCleanupS3RequestsPerSecond());
+  }
+
+  /**
+   * Outcome of {@link #runAll}. Items in neither list were not started because the caller was
+   * interrupted.
+   *
+   * @param failed the (unwrapped) failure of each item whose call failed
+   */
+  public record Result<T>(List<T> succeeded, Map<T, Throwable> failed, boolean interrupted) {
+  }
+
+  /**
+   * Starts {@code call} for each item and waits for every started call to finish.
+   */
+  public <T> Result<T> runAll(Collection<T> items, Function<T, CompletableFuture<?>> call) {
+    Semaphore inFlight = new Semaphore(parallelism);
+    Queue<T> succeeded = new ConcurrentLinkedQueue<>();
+    Map<T, Throwable> failed = new ConcurrentHashMap<>();
+    List<CompletableFuture<?>> calls = new ArrayList<>(items.size());
+    boolean interrupted = false;
+    try {
+      for (T item : items) {
+        pacer.acquire();
+        inFlight.acquire();
+        CompletableFuture<?> started;
+        try {
+          started = call.apply(item);
+        } catch (RuntimeException ex) {
+          started = CompletableFuture.failedFuture(ex);
+        }
+        calls.add(started.whenComplete((done, ex) -> {
+          inFlight.release();
+          if (ex == null) {
+            succeeded.add(item);
+          } else {
+            failed.put(item, ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+          }
+        }));
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      interrupted = true;
+    }
+
+    // failures are collected above; only wait here
+    CompletableFuture.allOf(calls.stream().map(f -> f.exceptionally(ex -> null)).toArray(CompletableFuture[]::new))
+      .join();
+    return new Result<>(List.copyOf(succeeded), Map.copyOf(failed), interrupted);
+  }
+}
@@ -0,0 +1,81 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+
+/**
+ * {@link S3MultipartAsyncOperations} over the blocking {@link S3MultipartOperations}
+ * ({@code app.s3.client-mode=SYNC}, the default).
+ *
+ * <p>Each call blocks a virtual thread instead of the request thread.</p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.s3", name = "client-mode", havingValue = "SYNC", matchIfMissing = true)
+public class BlockingS3MultipartAsyncOperations implements S3MultipartAsyncOperations {
+
+  private static final ThreadFactory VIRTUAL_THREADS = Thread.ofVirtual().name("s3-call-", 0).factory();
+
+  private final S3MultipartOperations delegate;
+  private final Executor executor;
+
+  @Autowired
+  public BlockingS3MultipartAsyncOperations(S3MultipartOperations delegate) {
+    this(delegate, r -> VIRTUAL_THREADS.newThread(r).start());
+  }
+
+  /**
+   * @param executor runs the blocking calls; tests pass {@code Runnable::run}
+   */
+  public BlockingS3MultipartAsyncOperations(S3MultipartOperations delegate, Executor executor) {
+    this.delegate = delegate;
+    this.executor = executor;
+  }
+
+  @Override
+  public CompletableFuture<String> createMultipartUpload(String bucket, String key, String contentType) {
+    return call(() -> delegate.createMultipartUpload(bucket, key, contentType));
+  }
+
+  @Override
+  public CompletableFuture<Void> completeMultipartUpload(String bucket, String key, String uploadId,
+                                                         List<CompletedPart> parts) {
+    return run(() -> delegate.completeMultipartUpload(bucket, key, uploadId, parts));
+  }
+
+  @Override
+  public CompletableFuture<Void> abortMultipartUpload(String bucket, String key, String uploadId) {
+    return run(() -> delegate.abortMultipartUpload(bucket, key, uploadId));
+  }
+
+  @Override
+  public CompletableFuture<List<UploadedPart>> listParts(String bucket, String key, String uploadId,
+                                                         int expectedPartCount) {
+    return call(() -> delegate.listParts(bucket, key, uploadId, expectedPartCount));
+  }
+
+  @Override
+  public CompletableFuture<OptionalLong> headObjectSize(String bucket, String key) {
+    return call(() -> delegate.headObjectSize(bucket, key));
+  }
+
+  @Override
+  public CompletableFuture<Void> deleteObject(String bucket, String key) {
+    return run(() -> delegate.deleteObject(bucket, key));
+  }
+
+  private <T> CompletableFuture<T> call(Supplier<T> s3Call) {
+    return CompletableFuture.supplyAsync(s3Call, executor);
+  }
+
+  private CompletableFuture<Void> run(Runnable s3Call) {
+    return CompletableFuture.runAsync(s3Call, executor);
+  }
+}
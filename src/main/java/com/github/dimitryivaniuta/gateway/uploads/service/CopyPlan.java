@@ -0,0 +1,92 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import com.github.dimitryivaniuta.gateway.web.errors.BadRequestException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * UploadPartCopy ranges of a server-side copy: the sources, in order, become parts
+ * {@code 1..parts.size()} of the target.
+ *
+ * @param partSize upper bound of every range
+ */
+record CopyPlan(long partSize, List<Range> parts) {
+
+  /** S3's lower bound for every part but the last. */
+  static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+  /** S3's upper bound for a part. */
+  static final long MAX_PART_SIZE = 5L * 1024 * 1024 * 1024;
+
+  /**
+   * @param source    index of the source upload
+   * @param firstByte inclusive
+   * @param lastByte  inclusive
+   */
+  record Range(int partNumber, int source, long firstByte, long lastByte) {
+
+    long length() {
+      return lastByte - firstByte + 1;
+    }
+  }
+
+  int partCount() {
+    return parts.size();
+  }
+
+  /**
+   * Splits every source into equal ranges of at most {@code partSize} bytes, doubling
+   * {@code partSize} until the copy fits into {@code maxParts}.
+   *
+   * <p>Equal ranges keep each part above half of {@code partSize}, so with a part size of at least
+   * 10 MiB only a source's single range can be smaller than S3's 5 MiB minimum. That is why every
+   * source but the last must be at least 5 MiB.</p>
+   *
+   * @throws BadRequestException if a source is empty or too small, or the copy needs too many parts
+   */
+  static CopyPlan of(long[] sourceSizes, long partSize, int maxParts) {
+    for (int i = 0; i < sourceSizes.length; i++) {
+      if (sourceSizes[i] <= 0) {
+        throw new BadRequestException("Source " + (i + 1) + " is empty");
+      }
+      if (i < sourceSizes.length - 1 && sourceSizes[i] < MIN_PART_SIZE) {
+        throw new BadRequestException("Every source but the last must be at least " + MIN_PART_SIZE
+          + " bytes; source " + (i + 1) + " has " + sourceSizes[i]);
+      }
+    }
+
+    long size = Math.clamp(partSize, 2 * MIN_PART_SIZE, MAX_PART_SIZE);
+    while (partCount(sourceSizes, size) > maxParts) {
+      if (size == MAX_PART_SIZE) {
+        throw new BadRequestException("Too many parts (" + partCount(sourceSizes, size) + ") to copy");
+      }
+      size = Math.min(MAX_PART_SIZE, size * 2);
+    }
+
+    List<Range> parts = new ArrayList<>((int) partCount(sourceSizes, size));
+    for (int s = 0; s < sourceSizes.length; s++) {
+      long sourceSize = sourceSizes[s];
+      long n = ranges(sourceSize, size);
+      long base = sourceSize / n;
+      long longer = sourceSize % n;
+      long first = 0;
+      for (long r = 0; r < n; r++) {
+        long length = r < longer ? base + 1 : base;
+        parts.add(new Range(parts.size() + 1, s, first, first + length - 1));
+        first += length;
+      }
+    }
+    return new CopyPlan(size, List.copyOf(parts));
+  }
+
+  private static long partCount(long[] sourceSizes, long partSize) {
+    long count = 0;
+    for (long sourceSize : sourceSizes) {
+      count += ranges(sourceSize, partSize);
+    }
+    return count;
+  }
+
+  private static long ranges(long sourceSize, long partSize) {
+    return (sourceSize + partSize - 1) / partSize;
+  }
+}
@@ -0,0 +1,82 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed number of equally sized direct buffers, allocated on first use and reused afterwards.
+ *
+ * <p>Buffers are handed out in all-or-nothing batches from a fair semaphore, so callers that each
+ * need several buffers cannot deadlock by holding part of what they need.</p>
+ */
+final class DirectBufferPool {
+
+  private final int bufferBytes;
+  private final int capacity;
+  private final Semaphore permits;
+  private final Queue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger allocated = new AtomicInteger();
+
+  DirectBufferPool(long poolBytes, int bufferBytes) {
+    if (bufferBytes <= 0 || poolBytes < bufferBytes) {
+      throw new IllegalArgumentException("Pool must hold at least one buffer");
+    }
+    this.bufferBytes = bufferBytes;
+    this.capacity = (int) Math.min(Integer.MAX_VALUE, poolBytes / bufferBytes);
+    this.permits = new Semaphore(capacity, true);
+  }
+
+  /** Buffers needed to hold {@code bytes}. */
+  int buffersFor(long bytes) {
+    return (int) Math.max(1, (bytes + bufferBytes - 1) / bufferBytes);
+  }
+
+  /**
+   * @return {@code count} cleared buffers, or {@code null} if they did not free up within the timeout
+   */
+  List<ByteBuffer> acquire(int count, long timeoutMillis) throws InterruptedException {
+    if (count > capacity) {
+      throw new IllegalArgumentException("Requested " + count + " buffers from a pool of " + capacity);
+    }
+    if (!permits.tryAcquire(count, timeoutMillis, TimeUnit.MILLISECONDS)) {
+      return null;
+    }
+    List<ByteBuffer> out = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      ByteBuffer b = free.poll();
+      if (b == null) {
+        // the permit guarantees we stay within capacity
+        allocated.incrementAndGet();
+        b = ByteBuffer.allocateDirect(bufferBytes);
+      }
+      out.add(b);
+    }
+    return out;
+  }
+
+  void release(List<ByteBuffer> buffers) {
+    for (ByteBuffer b : buffers) {
+      free.offer(b.clear());
+    }
+    permits.release(buffers.size());
+  }
+
+  int capacity() {
+    return capacity;
+  }
+
+  int available() {
+    return permits.availablePermits();
+  }
+
+  /** Direct memory held by the pool; never exceeds {@code capacity * bufferBytes}. */
+  long allocatedBytes() {
+    return (long) allocated.get() * bufferBytes;
+  }
+}
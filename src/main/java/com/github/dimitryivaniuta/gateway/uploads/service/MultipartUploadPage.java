@@ -0,0 +1,14 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One page of S3 ListMultipartUploads; pass the next markers back to read the following page.
+ */
+public record MultipartUploadPage(List<Upload> uploads, String nextKeyMarker, String nextUploadIdMarker,
+                                  boolean truncated) {
+
+  public record Upload(String key, String uploadId, Instant initiated) {
+  }
+}
@@ -0,0 +1,183 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import com.github.dimitryivaniuta.gateway.config.S3Properties;
+import com.github.dimitryivaniuta.gateway.config.UploadPolicyProperties;
+import com.github.dimitryivaniuta.gateway.uploads.api.dto.OrphanReconcileReport;
+import com.github.dimitryivaniuta.gateway.uploads.repo.UploadCleanupRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.s3.model.NoSuchUploadException;
+
+/**
+ * Aborts multipart uploads in the bucket that no upload session knows about: uploads whose row was
+ * lost (e.g. a crash before the S3 upload id was saved) or that were started by other tools.
+ *
+ * <p>The bucket is streamed one ListMultipartUploads page at a time and each page is checked
+ * against {@code uploads} with a single lookup, so memory stays bounded by the page size however
+ * many uploads the bucket holds. Aborts are idempotent, so replicas that run a pass at the same
+ * time only duplicate work.</p>
+ */
+@Slf4j
+@Component
+public class OrphanUploadReconciler {
+
+  /** ListMultipartUploads returns at most 1,000 uploads per page. */
+  private static final int LIST_PAGE_SIZE = 1000;
+
+  private final S3Properties s3Props;
+  private final UploadPolicyProperties policy;
+  private final UploadCleanupRepository cleanupRepo;
+  private final S3MultipartOperations s3;
+  private final S3MultipartAsyncOperations s3Async;
+  private final BackgroundS3Calls s3Calls;
+
+  private final Counter aborted;
+  private final Counter failed;
+
+  public OrphanUploadReconciler(S3Properties s3Props,
+                                UploadPolicyProperties policy,
+                                UploadCleanupRepository cleanupRepo,
+                                S3MultipartOperations s3,
+                                S3MultipartAsyncOperations s3Async,
+                                BackgroundS3Calls s3Calls,
+                                MeterRegistry registry) {
+    this.s3Props = s3Props;
+    this.policy = policy;
+    this.cleanupRepo = cleanupRepo;
+    this.s3 = s3;
+    this.s3Async = s3Async;
+    this.s3Calls = s3Calls;
+    this.aborted = Counter.builder("uploads.orphans")
+      .description("Multipart uploads without an upload session, by outcome of their abort")
+      .tag("outcome", "aborted")
+      .register(registry);
+    this.failed = Counter.builder("uploads.orphans")
+      .description("Multipart uploads without an upload session, by outcome of their abort")
+      .tag("outcome", "failed")
+      .register(registry);
+  }
+
+  @Scheduled(fixedDelayString = "${UPLOAD_ORPHAN_RECONCILE_DELAY_MS:3600000}",
+    initialDelayString = "${UPLOAD_ORPHAN_RECONCILE_DELAY_MS:3600000}")
+  public void reconcileOnSchedule() {
+    if (!policy.isOrphanReconcileEnabled()) {
+      return;
+    }
+    OrphanReconcileReport r = reconcile(false, null, null);
+    if (r.getOrphans() > 0 || r.isTruncated()) {
+      log.info("Orphan reconciliation: scanned={} orphans={} aborted={} failed={} truncated={}",
+        r.getScanned(), r.getOrphans(), r.getAborted(), r.getFailed(), r.isTruncated());
+    }
+  }
+
+  /**
+   * One pass over at most {@code orphanMaxPagesPerRun} pages, starting after the given markers.
+   *
+   * @param dryRun report orphans without aborting them
+   */
+  public OrphanReconcileReport reconcile(boolean dryRun, String keyMarker, String uploadIdMarker) {
+    String bucket = s3Props.getBucket();
+    String prefix = policy.getOrphanScanPrefix() == null || policy.getOrphanScanPrefix().isBlank()
+      ? null
+      : policy.getOrphanScanPrefix();
+    Instant cutoff = Instant.now().minusSeconds(policy.getOrphanAbortAfterMinutes() * 60);
+    int sampleSize = policy.getOrphanReportSampleSize();
+
+    long scanned = 0;
+    long recorded = 0;
+    long tooRecent = 0;
+    long orphans = 0;
+    long abortedCount = 0;
+    long failedCount = 0;
+    List<OrphanReconcileReport.Orphan> sample = new ArrayList<>();
+    boolean truncated = false;
+    int pages = 0;
+
+    while (true) {
+      MultipartUploadPage page = s3.listMultipartUploads(bucket, prefix, keyMarker, uploadIdMarker, LIST_PAGE_SIZE);
+      pages++;
+      scanned += page.uploads().size();
+
+      // only uploads past the threshold are looked up; younger ones may still be being created
+      Map<String, String> candidates = new HashMap<>();
+      for (MultipartUploadPage.Upload u : page.uploads()) {
+        if (u.initiated() != null && u.initiated().isBefore(cutoff)) {
+          candidates.put(u.uploadId(), u.key());
+        } else {
+          tooRecent++;
+        }
+      }
+      Set<String> recordedIds = cleanupRepo.findRecordedUploadIds(bucket, candidates);
+      recorded += recordedIds.size();
+
+      List<MultipartUploadPage.Upload> pageOrphans = page.uploads().stream()
+        .filter(u -> candidates.containsKey(u.uploadId()) && !recordedIds.contains(u.uploadId()))
+        .toList();
+      orphans += pageOrphans.size();
+      for (MultipartUploadPage.Upload u : pageOrphans) {
+        if (sample.size() < sampleSize) {
+          sample.add(new OrphanReconcileReport.Orphan(u.key(), u.uploadId(), u.initiated().atOffset(ZoneOffset.UTC)));
+        }
+      }
+
+      if (!dryRun && !pageOrphans.isEmpty()) {
+        BackgroundS3Calls.Result<MultipartUploadPage.Upload> result =
+          s3Calls.runAll(pageOrphans, u -> s3Async.abortMultipartUpload(bucket, u.key(), u.uploadId()));
+        abortedCount += result.succeeded().size();
+        for (var e : result.failed().entrySet()) {
+          // already gone: aborted meanwhile, or completed by whoever started it
+          if (e.getValue() instanceof NoSuchUploadException) {
+            abortedCount++;
+          } else {
+            log.warn("Failed to abort orphan multipart upload {} ({}): {}",
+              e.getKey().uploadId(), e.getKey().key(), e.getValue().toString());
+            failedCount++;
+          }
+        }
+        if (result.interrupted()) {
+          // resume at this page; aborting twice is harmless
+          truncated = true;
+          break;
+        }
+      }
+
+      if (!page.truncated()) {
+        break;
+      }
+      keyMarker = page.nextKeyMarker();
+      uploadIdMarker = page.nextUploadIdMarker();
+      if (pages >= policy.getOrphanMaxPagesPerRun()) {
+        truncated = true;
+        break;
+      }
+    }
+
+    aborted.increment(abortedCount);
+    failed.increment(failedCount);
+    return OrphanReconcileReport.builder()
+      .dryRun(dryRun)
+      .bucket(bucket)
+      .initiatedBefore(cutoff.atOffset(ZoneOffset.UTC))
+      .scanned(scanned)
+      .recorded(recorded)
+      .tooRecent(tooRecent)
+      .orphans(orphans)
+      .aborted(abortedCount)
+      .failed(failedCount)
+      .sample(sample)
+      .truncated(truncated)
+      .nextKeyMarker(truncated ? keyMarker : null)
+      .nextUploadIdMarker(truncated ? uploadIdMarker : null)
+      .build();
+  }
+}
@@ -0,0 +1,52 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.dimitryivaniuta.gateway.config.S3Properties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Short-lived cache of S3 ListParts results, keyed by S3 upload id.
+ *
+ * <p>Backs the resume manifest only; completion always lists parts fresh. Concurrent misses for
+ * the same upload (a client reconnect storm) share one ListParts call.</p>
+ */
+@Component
+public class PartListingCache {
+
+  private final AsyncCache<String, List<UploadedPart>> cache;
+  private final boolean enabled;
+
+  public PartListingCache(S3Properties props, MeterRegistry registry) {
+    this.enabled = props.getPartListingCacheTtlSeconds() > 0;
+    this.cache = Caffeine.newBuilder()
+      .maximumSize(props.getPartListingCacheMaxEntries())
+      .expireAfterWrite(Duration.ofSeconds(Math.max(1, props.getPartListingCacheTtlSeconds())))
+      // no pool hop for maintenance; waiters for the same upload share the in-flight listing
+      .executor(Runnable::run)
+      .recordStats()
+      .buildAsync();
+    CaffeineCacheMetrics.monitor(registry, cache, "uploadPartListings");
+  }
+
+  /**
+   * @param lister starts the ListParts call on a miss; a failed listing is not cached
+   */
+  public CompletableFuture<List<UploadedPart>> get(String s3UploadId,
+                                                   Supplier<CompletableFuture<List<UploadedPart>>> lister) {
+    if (!enabled) {
+      return lister.get();
+    }
+    return cache.get(s3UploadId, (k, executor) -> lister.get());
+  }
+
+  public void invalidate(String s3UploadId) {
+    cache.synchronous().invalidate(s3UploadId);
+  }
+}
@@ -0,0 +1,21 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+/**
+ * Part layout chosen for an upload by {@link PartSizePlanner}.
+ *
+ * @param recommendedConcurrency number of parts the client should upload in parallel
+ * @param strategy               what the base part size was derived from
+ */
+public record PartPlan(long partSize, int partCount, int recommendedConcurrency, Strategy strategy) {
+
+  public enum Strategy {
+    /** Planner disabled: fixed {@code app.s3.part-size-bytes}. */
+    FIXED,
+    /** {@code app.s3.part-size-bytes}, adjusted to the part-count band. */
+    DEFAULT,
+    /** A content-type rule, adjusted to the part-count band. */
+    CONTENT_TYPE,
+    /** The client's bandwidth and concurrency hints, adjusted to the part-count band. */
+    BANDWIDTH
+  }
+}
@@ -0,0 +1,103 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import com.github.dimitryivaniuta.gateway.config.PartSizePlannerProperties;
+import com.github.dimitryivaniuta.gateway.config.S3Properties;
+import com.github.dimitryivaniuta.gateway.web.errors.BadRequestException;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Picks part size per upload from file size, client hints and content-type policy.
+ *
+ * <p>Order of precedence, from soft to hard:</p>
+ * <ol>
+ *   <li>base size: bandwidth hint, else content-type rule, else {@code app.s3.part-size-bytes};</li>
+ *   <li>target part-count band {@code [max(targetMinParts, concurrency), targetMaxParts]}, where
+ *       staying under the upper end wins;</li>
+ *   <li>{@code [minPartSizeBytes, maxPartSizeBytes]}, rounded up to {@code alignmentBytes};</li>
+ *   <li>S3 limits: at least 5 MiB per part and at most {@code maxPartCount} parts.</li>
+ * </ol>
+ */
+@Component
+@RequiredArgsConstructor
+public class PartSizePlanner {
+
+  static final long S3_MIN_PART_SIZE = 5L * 1024 * 1024;
+  static final long S3_MAX_PART_SIZE = 5L * 1024 * 1024 * 1024;
+
+  private final S3Properties s3Props;
+  private final PartSizePlannerProperties props;
+  private final ContentTypeAllowlist contentTypes;
+
+  /**
+   * @param bandwidthBytesPerSecond optional client-measured upstream bandwidth (all connections)
+   * @param concurrencyHint         optional number of parallel part uploads the client intends to run
+   */
+  public PartPlan plan(long fileSize, String contentType, Long bandwidthBytesPerSecond, Integer concurrencyHint) {
+    int maxPartCount = s3Props.getMaxPartCount();
+    if (!props.isEnabled()) {
+      long partSize = Math.max(S3_MIN_PART_SIZE, s3Props.getPartSizeBytes() == null ? S3_MIN_PART_SIZE : s3Props.getPartSizeBytes());
+      int partCount = partCount(fileSize, partSize);
+      return new PartPlan(partSize, partCount, Math.min(partCount, props.getDefaultConcurrency()), PartPlan.Strategy.FIXED);
+    }
+
+    int concurrency = Math.clamp(concurrencyHint == null ? props.getDefaultConcurrency() : concurrencyHint, 1, props.getMaxConcurrency());
+    long minSize = Math.max(S3_MIN_PART_SIZE, props.getMinPartSizeBytes());
+    long maxSize = Math.max(minSize, Math.min(S3_MAX_PART_SIZE, props.getMaxPartSizeBytes()));
+
+    PartPlan.Strategy strategy;
+    long size;
+    Long ruleSize;
+    if (bandwidthBytesPerSecond != null && bandwidthBytesPerSecond > 0) {
+      strategy = PartPlan.Strategy.BANDWIDTH;
+      long perConnection = bandwidthBytesPerSecond / concurrency;
+      size = perConnection > Long.MAX_VALUE / props.getTargetPartSeconds()
+        ? Long.MAX_VALUE
+        : perConnection * props.getTargetPartSeconds();
+    } else if ((ruleSize = contentTypePartSize(contentType)) != null) {
+      strategy = PartPlan.Strategy.CONTENT_TYPE;
+      size = ruleSize;
+    } else {
+      strategy = PartPlan.Strategy.DEFAULT;
+      size = s3Props.getPartSizeBytes() == null ? minSize : s3Props.getPartSizeBytes();
+    }
+
+    // enough parts to keep every connection busy, but no more than the band allows
+    int bandMinParts = Math.max(props.getTargetMinParts(), concurrency);
+    size = Math.min(size, fileSize / bandMinParts);
+    size = Math.max(size, Math.ceilDiv(fileSize, props.getTargetMaxParts()));
+
+    size = alignUp(Math.clamp(size, minSize, maxSize), props.getAlignmentBytes());
+
+    long hardMin = Math.ceilDiv(fileSize, maxPartCount);
+    if (hardMin > S3_MAX_PART_SIZE) {
+      throw new BadRequestException("File is too large for a multipart upload");
+    }
+    if (size < hardMin) {
+      size = alignUp(hardMin, props.getAlignmentBytes());
+    }
+    size = Math.min(size, S3_MAX_PART_SIZE);
+
+    int partCount = partCount(fileSize, size);
+    return new PartPlan(size, partCount, Math.min(concurrency, partCount), strategy);
+  }
+
+  private Long contentTypePartSize(String contentType) {
+    for (PartSizePlannerProperties.ContentTypeRule rule : props.getContentTypeRules()) {
+      if (rule.getPattern() != null && rule.getPartSizeBytes() != null
+        && contentTypes.isAllowed(contentType, List.of(rule.getPattern()))) {
+        return rule.getPartSizeBytes();
+      }
+    }
+    return null;
+  }
+
+  static int partCount(long fileSize, long partSize) {
+    return (int) Math.max(1, Math.ceilDiv(fileSize, partSize));
+  }
+
+  private static long alignUp(long v, long alignment) {
+    return alignment <= 1 ? v : Math.ceilDiv(v, alignment) * alignment;
+  }
+}
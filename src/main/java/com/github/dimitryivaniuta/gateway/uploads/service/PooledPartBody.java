@@ -0,0 +1,63 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import software.amazon.awssdk.http.ContentStreamProvider;
+
+/**
+ * Request body over filled pool buffers. Every {@link #newStream()} starts from the beginning,
+ * so the SDK can retry without the bytes being copied.
+ */
+final class PooledPartBody implements ContentStreamProvider {
+
+  private final List<ByteBuffer> buffers;
+
+  /**
+   * @param buffers filled buffers, flipped for reading
+   */
+  PooledPartBody(List<ByteBuffer> buffers) {
+    this.buffers = buffers;
+  }
+
+  @Override
+  public InputStream newStream() {
+    return new InputStream() {
+      private int index;
+      private ByteBuffer current = buffers.get(0).duplicate();
+
+      @Override
+      public int read() {
+        return advance() ? current.get() & 0xFF : -1;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) {
+        if (len == 0) {
+          return 0;
+        }
+        if (!advance()) {
+          return -1;
+        }
+        int n = Math.min(len, current.remaining());
+        current.get(b, off, n);
+        return n;
+      }
+
+      @Override
+      public int available() {
+        return current.remaining();
+      }
+
+      private boolean advance() {
+        while (!current.hasRemaining()) {
+          if (index + 1 == buffers.size()) {
+            return false;
+          }
+          current = buffers.get(++index).duplicate();
+        }
+        return true;
+      }
+    };
+  }
+}
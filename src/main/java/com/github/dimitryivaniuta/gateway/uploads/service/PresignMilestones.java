@@ -0,0 +1,86 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import com.github.dimitryivaniuta.gateway.uploads.repo.PresignWindow;
+import com.github.dimitryivaniuta.gateway.uploads.repo.UploadMilestoneRepository;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Buffers the first/last presign time per upload and writes them in one statement per interval.
+ *
+ * <p>The presign path stays free of database access: recording is one map merge. A window still
+ * in the buffer when the upload is completed is written by {@link #flush(UUID)} instead.</p>
+ *
+ * <p>The buffer is per instance. When the completion is served by another instance than the one
+ * that presigned, a window not yet flushed is missing from the completed row until the next
+ * interval; throughput analytics skip such uploads rather than guess the transfer start.</p>
+ */
+@Slf4j
+@Component
+public class PresignMilestones {
+
+  private final UploadMilestoneRepository repo;
+  private final Clock clock;
+  private final ConcurrentHashMap<UUID, PresignWindow> pending = new ConcurrentHashMap<>();
+
+  @Autowired
+  public PresignMilestones(UploadMilestoneRepository repo) {
+    this(repo, Clock.systemUTC());
+  }
+
+  PresignMilestones(UploadMilestoneRepository repo, Clock clock) {
+    this.repo = repo;
+    this.clock = clock;
+  }
+
+  /** Records that part URLs of {@code uploadId} were just handed out. */
+  public void partsPresigned(UUID uploadId) {
+    Instant now = clock.instant();
+    pending.merge(uploadId, new PresignWindow(now, now), PresignWindow::merge);
+  }
+
+  /**
+   * Writes the buffered window of one upload now. Only this instance's window: one buffered by
+   * another instance arrives with that instance's next {@link #flush()}.
+   *
+   * @return the window written, or {@code null} if none was buffered
+   */
+  public PresignWindow flush(UUID uploadId) {
+    PresignWindow w = pending.remove(uploadId);
+    if (w != null) {
+      repo.mergePresignWindows(Map.of(uploadId, w));
+    }
+    return w;
+  }
+
+  @Scheduled(fixedDelayString = "${UPLOAD_MILESTONE_FLUSH_MS:5000}")
+  @PreDestroy
+  public void flush() {
+    if (pending.isEmpty()) {
+      return;
+    }
+    Map<UUID, PresignWindow> batch = new HashMap<>();
+    for (UUID id : pending.keySet()) {
+      PresignWindow w = pending.remove(id);
+      if (w != null) {
+        batch.put(id, w);
+      }
+    }
+    try {
+      repo.mergePresignWindows(batch);
+    } catch (RuntimeException ex) {
+      // put them back (merging with anything recorded meanwhile) for the next attempt
+      batch.forEach((id, w) -> pending.merge(id, w, PresignWindow::merge));
+      log.warn("Failed to write presign milestones of {} uploads: {}", batch.size(), ex.toString());
+    }
+  }
+}
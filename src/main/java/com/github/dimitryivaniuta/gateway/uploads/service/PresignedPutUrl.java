@@ -0,0 +1,10 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Pre-signed PutObject URL plus the headers the client must send unchanged (they are signed).
+ */
+public record PresignedPutUrl(String url, Instant expiresAt, Map<String, String> headers) {
+}
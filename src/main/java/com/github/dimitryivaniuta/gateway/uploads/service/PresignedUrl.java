@@ -0,0 +1,9 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import java.time.Instant;
+
+/**
+ * A pre-signed S3 URL together with the instant its signature stops being accepted.
+ */
+public record PresignedUrl(String url, Instant expiresAt) {
+}
@@ -0,0 +1,101 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.dimitryivaniuta.gateway.config.S3Properties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded in-process cache of pre-signed UploadPart URLs.
+ *
+ * <p>Entries are evicted long before the signature expires (at most half of
+ * {@code presignExpirationMinutes}), so a cached URL always leaves the client a usable window.
+ * Concurrent misses for the same part share one signing operation.</p>
+ */
+@Component
+public class PresignedUrlCache {
+
+  private final AsyncCache<PartKey, PresignedUrl> cache;
+  private final boolean enabled;
+
+  public PresignedUrlCache(S3Properties props, MeterRegistry registry) {
+    this.enabled = props.isPresignCacheEnabled();
+    long ttlSeconds = Math.min(
+      props.getPresignCacheTtlMinutes() * 60L,
+      props.getPresignExpirationMinutes() * 60L / 2);
+    this.cache = Caffeine.newBuilder()
+      .maximumSize(props.getPresignCacheMaxEntries())
+      .expireAfterWrite(Duration.ofSeconds(Math.max(1, ttlSeconds)))
+      // compute on the calling thread; waiters for the same key join its future
+      .executor(Runnable::run)
+      .recordStats()
+      .buildAsync();
+    CaffeineCacheMetrics.monitor(registry, cache, "presignedPartUrls");
+  }
+
+  public PresignedUrl get(String uploadId, int partNumber, Supplier<PresignedUrl> signer) {
+    if (!enabled) {
+      return signer.get();
+    }
+    return join(() -> cache.get(new PartKey(uploadId, partNumber), k -> signer.get()).join());
+  }
+
+  /**
+   * Returns URLs for all {@code partNumbers} (in order), signing only the missing ones in one call.
+   */
+  public List<PresignedUrl> getAll(String uploadId,
+                                   List<Integer> partNumbers,
+                                   Function<List<Integer>, List<PresignedUrl>> bulkSigner) {
+    if (!enabled) {
+      return bulkSigner.apply(partNumbers);
+    }
+    List<PartKey> keys = new ArrayList<>(partNumbers.size());
+    for (Integer pn : partNumbers) {
+      keys.add(new PartKey(uploadId, pn));
+    }
+
+    Map<PartKey, PresignedUrl> found = join(() -> cache.getAll(keys, missing -> {
+      List<Integer> missingParts = new ArrayList<>(missing.size());
+      for (PartKey k : missing) {
+        missingParts.add(k.partNumber());
+      }
+      List<PresignedUrl> signed = bulkSigner.apply(missingParts);
+      Map<PartKey, PresignedUrl> out = new HashMap<>(missing.size() * 2);
+      for (int i = 0; i < missingParts.size(); i++) {
+        out.put(new PartKey(uploadId, missingParts.get(i)), signed.get(i));
+      }
+      return out;
+    }).join());
+
+    List<PresignedUrl> out = new ArrayList<>(keys.size());
+    for (PartKey k : keys) {
+      out.add(found.get(k));
+    }
+    return out;
+  }
+
+  /** Unwraps loader failures so callers see the original (e.g. SDK) exception. */
+  private static <T> T join(Supplier<T> call) {
+    try {
+      return call.get();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException re) {
+        throw re;
+      }
+      throw ex;
+    }
+  }
+
+  private record PartKey(String uploadId, int partNumber) {
+  }
+}
@@ -0,0 +1,41 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces calls evenly at a fixed rate: each caller reserves the next free slot and sleeps until it.
+ *
+ * <p>No bursts are allowed, which suits background work that should not spike S3 request rates.</p>
+ */
+final class RatePacer {
+
+  private final long intervalNanos;
+  private long nextSlot = System.nanoTime();
+
+  /**
+   * @param permitsPerSecond maximum rate; 0 or less disables pacing
+   */
+  RatePacer(double permitsPerSecond) {
+    this.intervalNanos = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0;
+  }
+
+  void acquire() throws InterruptedException {
+    long waitNanos = reserve();
+    if (waitNanos > 0) {
+      TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+  }
+
+  /**
+   * @return how long the caller has to wait for its slot
+   */
+  synchronized long reserve() {
+    if (intervalNanos == 0) {
+      return 0;
+    }
+    long now = System.nanoTime();
+    long slot = Math.max(now, nextSlot);
+    nextSlot = slot + intervalNanos;
+    return slot - now;
+  }
+}
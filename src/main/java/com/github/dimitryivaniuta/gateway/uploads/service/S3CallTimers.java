@@ -0,0 +1,70 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * {@code uploads.s3.calls} timers with percentile histograms, tagged by operation, client
+ * (sync/async), outcome and exception.
+ *
+ * <p>Timers are cached per tag set, so the hot presign path does not rebuild meter ids.</p>
+ */
+final class S3CallTimers {
+
+  private final MeterRegistry registry;
+  private final String client;
+  private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+  S3CallTimers(MeterRegistry registry, String client) {
+    this.registry = registry;
+    this.client = client;
+  }
+
+  <T> T time(String operation, Supplier<T> call) {
+    long start = System.nanoTime();
+    try {
+      T result = call.get();
+      record(operation, null, start);
+      return result;
+    } catch (RuntimeException ex) {
+      record(operation, ex, start);
+      throw ex;
+    }
+  }
+
+  void time(String operation, Runnable call) {
+    time(operation, () -> {
+      call.run();
+      return null;
+    });
+  }
+
+  long start() {
+    return System.nanoTime();
+  }
+
+  /**
+   * @param failure the call's failure, or {@code null} if it succeeded
+   */
+  void record(String operation, Throwable failure, long startNanos) {
+    Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    String exception = cause == null ? "none" : cause.getClass().getSimpleName();
+    timers.computeIfAbsent(operation + '/' + exception, k -> Timer.builder("uploads.s3.calls")
+        .description("S3 multipart operations (pre-signing is local)")
+        .tag("operation", operation)
+        .tag("client", client)
+        .tag("outcome", cause == null ? "success" : "error")
+        .tag("exception", exception)
+        .publishPercentileHistogram()
+        .minimumExpectedValue(Duration.ofNanos(10_000))
+        .maximumExpectedValue(Duration.ofMinutes(2))
+        .register(registry))
+      .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+  }
+}
@@ -0,0 +1,36 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+
+/**
+ * Non-blocking variant of the S3 round-trips in {@link S3MultipartOperations}.
+ *
+ * <p>Pre-signing is local CPU work and stays on {@link S3MultipartOperations}. Futures fail with
+ * the SDK exception, possibly wrapped in a {@link java.util.concurrent.CompletionException}.</p>
+ *
+ * @see AwsS3AsyncMultipartOperations
+ * @see BlockingS3MultipartAsyncOperations
+ */
+public interface S3MultipartAsyncOperations {
+
+  CompletableFuture<String> createMultipartUpload(String bucket, String key, String contentType);
+
+  CompletableFuture<Void> completeMultipartUpload(String bucket, String key, String uploadId, List<CompletedPart> parts);
+
+  CompletableFuture<Void> abortMultipartUpload(String bucket, String key, String uploadId);
+
+  /**
+   * @see S3MultipartOperations#listParts
+   */
+  CompletableFuture<List<UploadedPart>> listParts(String bucket, String key, String uploadId, int expectedPartCount);
+
+  /**
+   * @return the object's size, or empty if it does not exist
+   */
+  CompletableFuture<OptionalLong> headObjectSize(String bucket, String key);
+
+  CompletableFuture<Void> deleteObject(String bucket, String key);
+}
@@ -1,6 +1,8 @@
 package com.github.dimitryivaniuta.gateway.uploads.service;
 
 import java.util.List;
+import java.util.OptionalLong;
+import software.amazon.awssdk.http.ContentStreamProvider;
 import software.amazon.awssdk.services.s3.model.CompletedPart;
 
 /**
@@ -12,9 +14,74 @@ public interface S3MultipartOperations {
 
   String createMultipartUpload(String bucket, String key, String contentType);
 
-  String presignUploadPartUrl(String bucket, String key, String uploadId, int partNumber);
+  PresignedUrl presignUploadPartUrl(String bucket, String key, String uploadId, int partNumber);
+
+  /**
+   * Pre-signs UploadPart URLs for several parts of the same upload in one pass.
+   *
+   * @return URLs in the same order as {@code partNumbers}
+   */
+  List<PresignedUrl> presignUploadPartUrls(String bucket, String key, String uploadId, List<Integer> partNumbers);
 
   void completeMultipartUpload(String bucket, String key, String uploadId, List<CompletedPart> parts);
 
   void abortMultipartUpload(String bucket, String key, String uploadId);
+
+  /**
+   * Uploads one part through this service (proxy uploads). {@code content} may be opened again
+   * when the SDK retries.
+   *
+   * @return the part's ETag as reported by S3
+   */
+  String uploadPart(String bucket, String key, String uploadId, int partNumber, ContentStreamProvider content,
+                    long contentLength);
+
+  /**
+   * Copies bytes {@code firstByte..lastByte} (inclusive) of an existing object into one part,
+   * server-side (UploadPartCopy).
+   *
+   * @return the part's ETag as reported by S3
+   */
+  String uploadPartCopy(String bucket, String key, String uploadId, int partNumber, String sourceBucket,
+                        String sourceKey, long firstByte, long lastByte);
+
+  /**
+   * Uploads a whole object through this service (proxied single-PUT sessions).
+   */
+  void putObject(String bucket, String key, String contentType, ContentStreamProvider content, long contentLength);
+
+  /**
+   * Pre-signs a single PutObject for small files. Content type and length are signed, so the
+   * client must upload exactly {@code contentLength} bytes.
+   */
+  PresignedPutUrl presignPutObjectUrl(String bucket, String key, String contentType, long contentLength);
+
+  /**
+   * Pre-signs a GetObject for a stored object. {@code Range} is not a signed header, so one URL
+   * serves every byte range of the object.
+   */
+  PresignedUrl presignGetObjectUrl(String bucket, String key);
+
+  /**
+   * @return the object's size, or empty if it does not exist
+   */
+  OptionalLong headObjectSize(String bucket, String key);
+
+  void deleteObject(String bucket, String key);
+
+  /**
+   * One page of in-progress multipart uploads under {@code prefix}, ordered by key and upload id.
+   *
+   * @param keyMarker      {@code nextKeyMarker} of the previous page, or {@code null}
+   * @param uploadIdMarker {@code nextUploadIdMarker} of the previous page, or {@code null}
+   */
+  MultipartUploadPage listMultipartUploads(String bucket, String prefix, String keyMarker, String uploadIdMarker,
+                                           int maxUploads);
+
+  /**
+   * Lists every part S3 has stored for the upload, ordered by part number.
+   *
+   * @param expectedPartCount planned number of parts; lets implementations fetch pages concurrently
+   */
+  List<UploadedPart> listParts(String bucket, String key, String uploadId, int expectedPartCount);
 }
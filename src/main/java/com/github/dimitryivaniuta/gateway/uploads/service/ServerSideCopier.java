@@ -0,0 +1,153 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import com.github.dimitryivaniuta.gateway.config.CopyProperties;
+import com.github.dimitryivaniuta.gateway.uploads.domain.UploadEntity;
+import com.github.dimitryivaniuta.gateway.uploads.repo.UploadMilestoneRepository;
+import com.github.dimitryivaniuta.gateway.web.errors.UpstreamException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+
+/**
+ * Copies the parts of a {@link CopyPlan} into a multipart upload with UploadPartCopy, so S3
+ * moves the bytes and nothing passes through this instance.
+ *
+ * <p>Each part is copied on a virtual thread. A copy keeps at most {@code maxParallelParts} parts
+ * in flight, and all copies on the instance together at most {@code maxConcurrentPartCopies}.</p>
+ *
+ * <p>A part can take minutes, and a copy can wait as long for a slot, so running copies are kept
+ * alive by a {@link #heartbeat} of their own rather than by finished parts.</p>
+ */
+@Slf4j
+@Component
+public class ServerSideCopier {
+
+  private static final ThreadFactory VIRTUAL_THREADS = Thread.ofVirtual().name("s3-copy-", 0).factory();
+
+  private final S3MultipartOperations s3;
+  private final UploadMilestoneRepository progress;
+  private final CopyProperties props;
+  private final Semaphore instanceSlots;
+  private final Executor executor;
+  /** Copies running on this instance, by target upload id. */
+  private final Set<UUID> running = ConcurrentHashMap.newKeySet();
+
+  @Autowired
+  public ServerSideCopier(S3MultipartOperations s3, UploadMilestoneRepository progress, CopyProperties props) {
+    this(s3, progress, props, r -> VIRTUAL_THREADS.newThread(r).start());
+  }
+
+  /**
+   * @param executor runs the copy loop and the UploadPartCopy calls
+   */
+  ServerSideCopier(S3MultipartOperations s3, UploadMilestoneRepository progress, CopyProperties props,
+                   Executor executor) {
+    this.s3 = s3;
+    this.progress = progress;
+    this.props = props;
+    this.instanceSlots = new Semaphore(Math.max(1, props.getMaxConcurrentPartCopies()), true);
+    this.executor = executor;
+  }
+
+  public long partSizeBytes() {
+    return props.getPartSizeBytes();
+  }
+
+  /**
+   * Copies every range of {@code plan} from {@code sources} into {@code target}'s multipart upload.
+   *
+   * <p>After the first failed part no further parts are started, and the future fails once the
+   * parts in flight have settled.</p>
+   *
+   * @return the parts, in order; fails with {@link UpstreamException} if S3 rejects a part
+   */
+  public CompletableFuture<List<CompletedPart>> copy(UploadEntity target, List<UploadEntity> sources, CopyPlan plan) {
+    CompletableFuture<List<CompletedPart>> copied = new CompletableFuture<>();
+    running.add(target.getId());
+    copied.whenComplete((parts, ex) -> running.remove(target.getId()));
+    executor.execute(() -> {
+      try {
+        copied.complete(copyParts(target, sources, plan));
+      } catch (RuntimeException ex) {
+        copied.completeExceptionally(ex);
+      }
+    });
+    return copied;
+  }
+
+  /**
+   * Refreshes {@code updated_at} of every copy running here, in one statement.
+   */
+  @Scheduled(fixedDelayString = "${app.uploads.copy.heartbeat-millis:60000}")
+  public void heartbeat() {
+    if (running.isEmpty()) {
+      return;
+    }
+    try {
+      progress.touch(Set.copyOf(running), "INITIATED");
+    } catch (RuntimeException ex) {
+      log.warn("Failed to refresh {} running copies: {}", running.size(), ex.toString());
+    }
+  }
+
+  private List<CompletedPart> copyParts(UploadEntity target, List<UploadEntity> sources, CopyPlan plan) {
+    CompletedPart[] parts = new CompletedPart[plan.partCount()];
+    int maxParallel = Math.max(1, props.getMaxParallelParts());
+    Semaphore inFlight = new Semaphore(maxParallel);
+    AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    try {
+      for (CopyPlan.Range range : plan.parts()) {
+        if (failure.get() != null) {
+          break;
+        }
+        inFlight.acquireUninterruptibly();
+        instanceSlots.acquireUninterruptibly();
+        executor.execute(() -> {
+          try {
+            if (failure.get() == null) {
+              parts[range.partNumber() - 1] = copyPart(target, sources.get(range.source()), range);
+            }
+          } catch (RuntimeException ex) {
+            failure.compareAndSet(null, ex);
+          } finally {
+            instanceSlots.release();
+            inFlight.release();
+          }
+        });
+      }
+    } finally {
+      // every part settled
+      inFlight.acquireUninterruptibly(maxParallel);
+    }
+
+    RuntimeException failed = failure.get();
+    if (failed != null) {
+      throw new UpstreamException("Failed to copy part in S3", failed);
+    }
+    return Arrays.asList(parts);
+  }
+
+  private CompletedPart copyPart(UploadEntity target, UploadEntity source, CopyPlan.Range range) {
+    String eTag = s3.uploadPartCopy(target.getBucket(), target.getObjectKey(), target.getS3UploadId(),
+      range.partNumber(), source.getBucket(), source.getObjectKey(), range.firstByte(), range.lastByte());
+    try {
+      progress.addCopyProgress(target.getId(), range.length());
+    } catch (RuntimeException ex) {
+      // progress is informational; the part itself is in S3
+      log.debug("Failed to record copy progress of upload {}: {}", target.getId(), ex.toString());
+    }
+    return CompletedPart.builder().partNumber(range.partNumber()).eTag(UploadService.normalizeEtag(eTag)).build();
+  }
+}
@@ -0,0 +1,244 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import com.github.dimitryivaniuta.gateway.config.ProxyUploadProperties;
+import com.github.dimitryivaniuta.gateway.uploads.api.dto.CompletedPartList;
+import com.github.dimitryivaniuta.gateway.uploads.repo.UploadMilestoneRepository;
+import com.github.dimitryivaniuta.gateway.web.errors.BadRequestException;
+import com.github.dimitryivaniuta.gateway.web.errors.ServiceUnavailableException;
+import com.github.dimitryivaniuta.gateway.web.errors.UpstreamException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Streams a request body to S3 for {@code PUT /api/uploads/{id}/content}.
+ *
+ * <p>The body is read into buffers from a shared {@link DirectBufferPool}, one part at a time,
+ * and every full part is handed to a virtual thread for UploadPart while reading continues. A
+ * stream holds at most {@code maxParallelParts} parts; reading pauses whenever that limit or the
+ * pool is exhausted, and a part's buffers go back to the pool as soon as S3 has it.</p>
+ *
+ * <p>A session is UPLOADING while its body streams; a {@link #heartbeat} keeps the sessions
+ * between {@link #started} and {@link #finished} from being taken for interrupted ones.</p>
+ */
+@Slf4j
+@Component
+public class StreamingPartUploader {
+
+  private static final ThreadFactory VIRTUAL_THREADS = Thread.ofVirtual().name("s3-part-", 0).factory();
+
+  private final S3MultipartOperations s3;
+  private final UploadMilestoneRepository progress;
+  private final ProxyUploadProperties props;
+  private final DirectBufferPool pool;
+  private final Executor executor;
+  /** Proxy uploads streaming on this instance, by upload id. */
+  private final Set<UUID> streaming = ConcurrentHashMap.newKeySet();
+
+  @Autowired
+  public StreamingPartUploader(S3MultipartOperations s3, UploadMilestoneRepository progress,
+                               ProxyUploadProperties props) {
+    this(s3, progress, props, r -> VIRTUAL_THREADS.newThread(r).start());
+  }
+
+  /**
+   * @param executor runs the UploadPart calls
+   */
+  StreamingPartUploader(S3MultipartOperations s3, UploadMilestoneRepository progress, ProxyUploadProperties props,
+                        Executor executor) {
+    this.s3 = s3;
+    this.progress = progress;
+    this.props = props;
+    this.pool = new DirectBufferPool(props.getBufferPoolBytes(), props.getBufferBytes());
+    this.executor = executor;
+  }
+
+  public boolean isEnabled() {
+    return props.isEnabled();
+  }
+
+  /** Keeps the UPLOADING session {@code uploadId} alive on the heartbeat until {@link #finished}. */
+  public void started(UUID uploadId) {
+    streaming.add(uploadId);
+  }
+
+  public void finished(UUID uploadId) {
+    streaming.remove(uploadId);
+  }
+
+  /**
+   * Refreshes {@code updated_at} of every proxy upload streaming here, in one statement.
+   */
+  @Scheduled(fixedDelayString = "${app.uploads.proxy.heartbeat-millis:60000}")
+  public void heartbeat() {
+    if (streaming.isEmpty()) {
+      return;
+    }
+    try {
+      progress.touch(Set.copyOf(streaming), "UPLOADING");
+    } catch (RuntimeException ex) {
+      log.warn("Failed to refresh {} proxy uploads: {}", streaming.size(), ex.toString());
+    }
+  }
+
+  /**
+   * Uploads exactly {@code fileSize} bytes of {@code body} as parts {@code 1..ceil(fileSize / partSize)}.
+   *
+   * <p>On failure every part still in flight is awaited before returning, so no buffer outlives
+   * the call. Parts already stored in S3 stay there; retrying the request overwrites them.</p>
+   *
+   * @return the part numbers and ETags, in order
+   * @throws BadRequestException if the body is shorter or longer than {@code fileSize}
+   * @throws ServiceUnavailableException if no buffers free up within {@code bufferWaitMillis}
+   * @throws UpstreamException if S3 rejects a part
+   */
+  public CompletedPartList uploadParts(String bucket, String key, String uploadId, long fileSize, long partSize,
+                                       InputStream body) {
+    requireFitsPool(partSize);
+    int partCount = (int) ((fileSize + partSize - 1) / partSize);
+    int[] partNumbers = new int[partCount];
+    String[] eTags = new String[partCount];
+
+    int maxParallel = Math.max(1, props.getMaxParallelParts());
+    Semaphore inFlight = new Semaphore(maxParallel);
+    AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    ReadableByteChannel in = Channels.newChannel(body);
+    try {
+      for (int pn = 1; pn <= partCount && failure.get() == null; pn++) {
+        long length = Math.min(partSize, fileSize - (pn - 1) * partSize);
+        inFlight.acquireUninterruptibly();
+        List<ByteBuffer> buffers;
+        try {
+          buffers = read(in, length, (pn - 1) * partSize, fileSize);
+        } catch (RuntimeException ex) {
+          inFlight.release();
+          throw ex;
+        }
+
+        int partNumber = pn;
+        executor.execute(() -> {
+          try {
+            if (failure.get() == null) {
+              partNumbers[partNumber - 1] = partNumber;
+              eTags[partNumber - 1] = s3.uploadPart(bucket, key, uploadId, partNumber, new PooledPartBody(buffers),
+                length);
+            }
+          } catch (RuntimeException ex) {
+            failure.compareAndSet(null, ex);
+          } finally {
+            pool.release(buffers);
+            inFlight.release();
+          }
+        });
+      }
+      if (failure.get() == null) {
+        requireEnd(in);
+      }
+    } finally {
+      // all parts settled and their buffers returned
+      inFlight.acquireUninterruptibly(maxParallel);
+    }
+
+    RuntimeException failed = failure.get();
+    if (failed != null) {
+      throw new UpstreamException("Failed to upload part to S3", failed);
+    }
+    return CompletedPartList.of(partNumbers, eTags);
+  }
+
+  /**
+   * Uploads a single-PUT session's {@code fileSize} bytes with one PutObject.
+   */
+  public void putObject(String bucket, String key, String contentType, long fileSize, InputStream body) {
+    requireFitsPool(fileSize);
+    ReadableByteChannel in = Channels.newChannel(body);
+    List<ByteBuffer> buffers = read(in, fileSize, 0, fileSize);
+    try {
+      requireEnd(in);
+      s3.putObject(bucket, key, contentType, new PooledPartBody(buffers), fileSize);
+    } catch (RuntimeException ex) {
+      if (ex instanceof BadRequestException) {
+        throw ex;
+      }
+      throw new UpstreamException("Failed to upload object to S3", ex);
+    } finally {
+      pool.release(buffers);
+    }
+  }
+
+  /** The shared buffer pool, for tests and diagnostics. */
+  DirectBufferPool pool() {
+    return pool;
+  }
+
+  /**
+   * Reads the next {@code length} bytes into pool buffers, flipped for reading.
+   */
+  private List<ByteBuffer> read(ReadableByteChannel in, long length, long offset, long fileSize) {
+    List<ByteBuffer> buffers = acquire(pool.buffersFor(length));
+    try {
+      long remaining = length;
+      for (ByteBuffer b : buffers) {
+        b.limit((int) Math.min(b.capacity(), remaining));
+        while (b.hasRemaining()) {
+          if (in.read(b) < 0) {
+            throw new BadRequestException("Request body ended after " + (offset + length - remaining + b.position())
+              + " of " + fileSize + " bytes");
+          }
+        }
+        remaining -= b.flip().remaining();
+      }
+      return buffers;
+    } catch (IOException ex) {
+      pool.release(buffers);
+      throw new BadRequestException("Failed to read request body: " + ex.getMessage());
+    } catch (RuntimeException ex) {
+      pool.release(buffers);
+      throw ex;
+    }
+  }
+
+  private List<ByteBuffer> acquire(int count) {
+    try {
+      List<ByteBuffer> buffers = pool.acquire(count, props.getBufferWaitMillis());
+      if (buffers == null) {
+        throw new ServiceUnavailableException("Too many proxy uploads in progress; retry later", 5);
+      }
+      return buffers;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new ServiceUnavailableException("Interrupted while waiting for upload buffers", 5);
+    }
+  }
+
+  private static void requireEnd(ReadableByteChannel in) {
+    try {
+      if (in.read(ByteBuffer.allocate(1)) > 0) {
+        throw new BadRequestException("Request body is longer than the upload's fileSize");
+      }
+    } catch (IOException ex) {
+      throw new BadRequestException("Failed to read request body: " + ex.getMessage());
+    }
+  }
+
+  private void requireFitsPool(long partSize) {
+    if (pool.buffersFor(partSize) > pool.capacity()) {
+      throw new BadRequestException("Part size " + partSize + " exceeds the proxy buffer pool ("
+        + props.getBufferPoolBytes() + " bytes)");
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+
+/**
+ * Times every {@link AwsS3AsyncMultipartOperations} call until its future completes
+ * ({@code uploads.s3.calls{client=async}}).
+ *
+ * <p>Only needed in ASYNC mode: in SYNC mode the blocking adapter already calls the timed
+ * {@link TimedS3MultipartOperations}.</p>
+ */
+@Primary
+@Component
+@ConditionalOnProperty(prefix = "app.s3", name = "client-mode", havingValue = "ASYNC")
+public class TimedS3MultipartAsyncOperations implements S3MultipartAsyncOperations {
+
+  private final S3MultipartAsyncOperations delegate;
+  private final S3CallTimers timers;
+
+  public TimedS3MultipartAsyncOperations(AwsS3AsyncMultipartOperations delegate, MeterRegistry registry) {
+    this.delegate = delegate;
+    this.timers = new S3CallTimers(registry, "async");
+  }
+
+  @Override
+  public CompletableFuture<String> createMultipartUpload(String bucket, String key, String contentType) {
+    long start = timers.start();
+    return timed("create_multipart_upload", start, delegate.createMultipartUpload(bucket, key, contentType));
+  }
+
+  @Override
+  public CompletableFuture<Void> completeMultipartUpload(String bucket, String key, String uploadId,
+                                                         List<CompletedPart> parts) {
+    long start = timers.start();
+    return timed("complete_multipart_upload", start, delegate.completeMultipartUpload(bucket, key, uploadId, parts));
+  }
+
+  @Override
+  public CompletableFuture<Void> abortMultipartUpload(String bucket, String key, String uploadId) {
+    long start = timers.start();
+    return timed("abort_multipart_upload", start, delegate.abortMultipartUpload(bucket, key, uploadId));
+  }
+
+  @Override
+  public CompletableFuture<List<UploadedPart>> listParts(String bucket, String key, String uploadId,
+                                                         int expectedPartCount) {
+    long start = timers.start();
+    return timed("list_parts", start, delegate.listParts(bucket, key, uploadId, expectedPartCount));
+  }
+
+  @Override
+  public CompletableFuture<OptionalLong> headObjectSize(String bucket, String key) {
+    long start = timers.start();
+    return timed("head_object", start, delegate.headObjectSize(bucket, key));
+  }
+
+  @Override
+  public CompletableFuture<Void> deleteObject(String bucket, String key) {
+    long start = timers.start();
+    return timed("delete_object", start, delegate.deleteObject(bucket, key));
+  }
+
+  private <T> CompletableFuture<T> timed(String operation, long start, CompletableFuture<T> call) {
+    return call.whenComplete((result, ex) -> timers.record(operation, ex, start));
+  }
+}
@@ -0,0 +1,106 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.OptionalLong;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.http.ContentStreamProvider;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+
+/**
+ * Times every {@link AwsS3MultipartOperations} call ({@code uploads.s3.calls{client=sync}}).
+ *
+ * <p>Primary, so it is what the services (and {@link BlockingS3MultipartAsyncOperations}) get.</p>
+ */
+@Primary
+@Component
+public class TimedS3MultipartOperations implements S3MultipartOperations {
+
+  private final S3MultipartOperations delegate;
+  private final S3CallTimers timers;
+
+  public TimedS3MultipartOperations(AwsS3MultipartOperations delegate, MeterRegistry registry) {
+    this.delegate = delegate;
+    this.timers = new S3CallTimers(registry, "sync");
+  }
+
+  @Override
+  public String createMultipartUpload(String bucket, String key, String contentType) {
+    return timers.time("create_multipart_upload", () -> delegate.createMultipartUpload(bucket, key, contentType));
+  }
+
+  @Override
+  public PresignedUrl presignUploadPartUrl(String bucket, String key, String uploadId, int partNumber) {
+    return timers.time("presign_upload_part", () -> delegate.presignUploadPartUrl(bucket, key, uploadId, partNumber));
+  }
+
+  @Override
+  public List<PresignedUrl> presignUploadPartUrls(String bucket, String key, String uploadId, List<Integer> partNumbers) {
+    return timers.time("presign_upload_parts",
+      () -> delegate.presignUploadPartUrls(bucket, key, uploadId, partNumbers));
+  }
+
+  @Override
+  public void completeMultipartUpload(String bucket, String key, String uploadId, List<CompletedPart> parts) {
+    timers.time("complete_multipart_upload", () -> delegate.completeMultipartUpload(bucket, key, uploadId, parts));
+  }
+
+  @Override
+  public void abortMultipartUpload(String bucket, String key, String uploadId) {
+    timers.time("abort_multipart_upload", () -> delegate.abortMultipartUpload(bucket, key, uploadId));
+  }
+
+  @Override
+  public String uploadPart(String bucket, String key, String uploadId, int partNumber, ContentStreamProvider content,
+                           long contentLength) {
+    return timers.time("upload_part",
+      () -> delegate.uploadPart(bucket, key, uploadId, partNumber, content, contentLength));
+  }
+
+  @Override
+  public String uploadPartCopy(String bucket, String key, String uploadId, int partNumber, String sourceBucket,
+                               String sourceKey, long firstByte, long lastByte) {
+    return timers.time("upload_part_copy", () ->
+      delegate.uploadPartCopy(bucket, key, uploadId, partNumber, sourceBucket, sourceKey, firstByte, lastByte));
+  }
+
+  @Override
+  public void putObject(String bucket, String key, String contentType, ContentStreamProvider content,
+                        long contentLength) {
+    timers.time("put_object", () -> delegate.putObject(bucket, key, contentType, content, contentLength));
+  }
+
+  @Override
+  public PresignedPutUrl presignPutObjectUrl(String bucket, String key, String contentType, long contentLength) {
+    return timers.time("presign_put_object",
+      () -> delegate.presignPutObjectUrl(bucket, key, contentType, contentLength));
+  }
+
+  @Override
+  public PresignedUrl presignGetObjectUrl(String bucket, String key) {
+    return timers.time("presign_get_object", () -> delegate.presignGetObjectUrl(bucket, key));
+  }
+
+  @Override
+  public OptionalLong headObjectSize(String bucket, String key) {
+    return timers.time("head_object", () -> delegate.headObjectSize(bucket, key));
+  }
+
+  @Override
+  public void deleteObject(String bucket, String key) {
+    timers.time("delete_object", () -> delegate.deleteObject(bucket, key));
+  }
+
+  @Override
+  public MultipartUploadPage listMultipartUploads(String bucket, String prefix, String keyMarker, String uploadIdMarker,
+                                                  int maxUploads) {
+    return timers.time("list_multipart_uploads",
+      () -> delegate.listMultipartUploads(bucket, prefix, keyMarker, uploadIdMarker, maxUploads));
+  }
+
+  @Override
+  public List<UploadedPart> listParts(String bucket, String key, String uploadId, int expectedPartCount) {
+    return timers.time("list_parts", () -> delegate.listParts(bucket, key, uploadId, expectedPartCount));
+  }
+}
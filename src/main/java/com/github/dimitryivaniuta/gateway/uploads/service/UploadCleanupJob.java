@@ -1,55 +1,317 @@
 package com.github.dimitryivaniuta.gateway.uploads.service;
 
 import com.github.dimitryivaniuta.gateway.config.UploadPolicyProperties;
+import com.github.dimitryivaniuta.gateway.observability.UploadMetrics;
+import com.github.dimitryivaniuta.gateway.uploads.domain.UploadEntity;
+import com.github.dimitryivaniuta.gateway.uploads.repo.ClaimedUpload;
+import com.github.dimitryivaniuta.gateway.uploads.repo.UploadCleanupRepository;
 import com.github.dimitryivaniuta.gateway.uploads.repo.UploadRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.time.OffsetDateTime;
-import lombok.RequiredArgsConstructor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import software.amazon.awssdk.services.s3.model.NoSuchUploadException;
 
 /**
- * Background cleanup job aborting stale INITIATED uploads.
+ * Background cleanup job aborting stale INITIATED uploads and recovering interrupted lifecycle steps.
  *
  * <p>Rationale: multipart uploads consume S3 storage for parts until completed/aborted.</p>
+ *
+ * <p>No transaction spans an S3 call: rows are claimed and settled with their own short statements.</p>
+ *
+ * <p>Stale uploads are drained in batches that every replica may run at once: a batch is claimed
+ * (INITIATED to ABORTING) with {@code FOR UPDATE SKIP LOCKED}, aborted in S3 with bounded
+ * parallelism and rate, and settled with one UPDATE per outcome. A replica dying mid-batch leaves
+ * ABORTING rows, which {@link #recoverStuckIntents} picks up once their claim is old enough.</p>
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class UploadCleanupJob {
 
   private final UploadPolicyProperties policy;
   private final UploadRepository repo;
+  private final UploadCleanupRepository cleanupRepo;
   private final S3MultipartOperations s3;
+  private final S3MultipartAsyncOperations s3Async;
+  private final UploadSessionCache sessionCache;
+  private final UploadCompletionExecutor completions;
+  private final BackgroundS3Calls s3Calls;
+  private final UploadMetrics metrics;
+  private final UploadTransitions transitions;
+
+  /** Rows of one status taken per recovery run. */
+  private static final int STUCK_BATCH_SIZE = 200;
+  private static final List<String> ALL_MODES = List.of("MULTIPART", "SINGLE_PUT", "COPY");
+
+  private final AtomicLong backlog = new AtomicLong();
+  private final Counter aborted;
+  private final Counter failed;
+  private final Timer batchTimer;
 
+  public UploadCleanupJob(UploadPolicyProperties policy,
+                          UploadRepository repo,
+                          UploadCleanupRepository cleanupRepo,
+                          S3MultipartOperations s3,
+                          S3MultipartAsyncOperations s3Async,
+                          UploadSessionCache sessionCache,
+                          UploadCompletionExecutor completions,
+                          BackgroundS3Calls s3Calls,
+                          UploadMetrics metrics,
+                          UploadTransitions transitions,
+                          MeterRegistry registry) {
+    this.policy = policy;
+    this.repo = repo;
+    this.cleanupRepo = cleanupRepo;
+    this.s3 = s3;
+    this.s3Async = s3Async;
+    this.sessionCache = sessionCache;
+    this.completions = completions;
+    this.s3Calls = s3Calls;
+    this.metrics = metrics;
+    this.transitions = transitions;
+
+    registry.gauge("uploads.cleanup.backlog", backlog);
+    this.aborted = Counter.builder("uploads.cleanup.aborts")
+      .description("Stale uploads settled by the cleanup job")
+      .tag("outcome", "aborted")
+      .register(registry);
+    this.failed = Counter.builder("uploads.cleanup.aborts")
+      .description("Stale uploads settled by the cleanup job")
+      .tag("outcome", "failed")
+      .register(registry);
+    this.batchTimer = Timer.builder("uploads.cleanup.batch")
+      .description("Claim, abort and settle one batch of stale uploads")
+      .register(registry);
+  }
+
+  /**
+   * Drains stale INITIATED uploads until a batch comes back short or the per-run batch limit is
+   * reached, then records the remaining backlog.
+   */
   @Scheduled(fixedDelayString = "${UPLOAD_CLEANUP_DELAY_MS:600000}")
-  @Transactional
   public void abortStaleUploads() {
     if (!policy.isCleanupEnabled()) {
       return;
     }
 
     OffsetDateTime cutoff = OffsetDateTime.now().minusMinutes(policy.getStaleAbortAfterMinutes());
-    var stale = repo.findTop200ByStatusAndCreatedAtBeforeOrderByCreatedAtAsc("INITIATED", cutoff);
-    if (stale.isEmpty()) {
+    int batchSize = policy.getCleanupBatchSize();
+    int batches = 0;
+    int claimedTotal = 0;
+    List<ClaimedUpload> claimed;
+    do {
+      claimed = cleanupRepo.claimStale(cutoff, batchSize);
+      if (claimed.isEmpty()) {
+        break;
+      }
+      metrics.transitioned("ABORTING", claimed.size());
+      List<ClaimedUpload> batch = claimed;
+      if (!batchTimer.record(() -> abortBatch(batch))) {
+        break;
+      }
+      batches++;
+      claimedTotal += claimed.size();
+    } while (claimed.size() == batchSize && batches < policy.getCleanupMaxBatchesPerRun());
+
+    backlog.set(cleanupRepo.countStale(cutoff));
+    if (claimedTotal > 0) {
+      log.info("Aborted {} stale uploads in {} batches (cutoff={}, backlog={})",
+        claimedTotal, batches, cutoff, backlog.get());
+    }
+  }
+
+  /**
+   * Finishes lifecycle steps whose request died midway (e.g. the instance restarted): CREATING,
+   * UPLOADING, COMPLETING and ABORTING rows untouched for {@code intentStuckAfterMinutes}, and
+   * copies that have not copied a part for as long.
+   */
+  @Scheduled(fixedDelayString = "${UPLOAD_CLEANUP_DELAY_MS:600000}")
+  public void recoverStuckIntents() {
+    if (!policy.isCleanupEnabled()) {
       return;
     }
 
-    log.info("Found {} stale uploads to abort (cutoff={})", stale.size(), cutoff);
+    OffsetDateTime cutoff = OffsetDateTime.now().minusMinutes(policy.getIntentStuckAfterMinutes());
 
-    for (var u : stale) {
+    for (UploadEntity u : claimStuck("CREATING", ALL_MODES, cutoff)) {
       try {
-        s3.abortMultipartUpload(u.getBucket(), u.getObjectKey(), u.getS3UploadId());
-        u.setStatus("ABORTED");
-        u.setUpdatedAt(OffsetDateTime.now());
+        abortUnrecordedMultipartUploads(u);
       } catch (Exception ex) {
-        // best-effort; keep record for inspection
-        log.warn("Failed to abort stale upload {} in S3: {}", u.getId(), ex.toString());
-        u.setStatus("FAILED");
-        u.setUpdatedAt(OffsetDateTime.now());
+        log.warn("Could not abort multipart uploads of interrupted creation {}: {}", u.getId(), ex.toString());
+        continue;
       }
-      repo.save(u);
+      // the create never finished; a retry with the same key may start over
+      u.setIdempotencyKey(null);
+      settle(u, "FAILED", "creation");
+    }
+
+    // a streaming proxy upload refreshes updated_at on a heartbeat; a silent one lost its stream
+    for (UploadEntity u : claimStuck("UPLOADING", ALL_MODES, cutoff)) {
+      settle(u, "INITIATED", "proxy upload");
+    }
+
+    for (UploadEntity u : claimStuck("COMPLETING", ALL_MODES, cutoff)) {
+      if (completions.inFlight(u.getId()).isPresent()) {
+        continue;
+      }
+      String status;
+      try {
+        status = resolveStuckCompletion(u);
+      } catch (Exception ex) {
+        log.warn("Could not resolve stuck completion of upload {}: {}", u.getId(), ex.toString());
+        continue;
+      }
+      if ("COMPLETED".equals(status)) {
+        u.setCompletedAt(OffsetDateTime.now());
+      }
+      settle(u, status, "completion");
+    }
+
+    try {
+      List<ClaimedUpload> aborting = cleanupRepo.claimStuck("ABORTING", ALL_MODES, cutoff, STUCK_BATCH_SIZE);
+      if (!aborting.isEmpty()) {
+        abortBatch(aborting);
+      }
+    } catch (RuntimeException ex) {
+      log.warn("Could not finish interrupted aborts: {}", ex.toString());
+    }
+
+    // a running copy refreshes updated_at on a heartbeat; a silent one lost the instance driving it
+    for (UploadEntity u : claimStuck("INITIATED", List.of("COPY"), cutoff)) {
+      try {
+        abortCopy(u);
+      } catch (Exception ex) {
+        log.warn("Could not abort interrupted copy {}: {}", u.getId(), ex.toString());
+        continue;
+      }
+      settle(u, "FAILED", "copy");
+    }
+  }
+
+  /**
+   * Aborts one claimed batch in S3 and settles it.
+   *
+   * @return {@code false} if interrupted; unsettled rows stay ABORTING for recovery
+   */
+  private boolean abortBatch(List<ClaimedUpload> batch) {
+    // the claim took these sessions out of INITIATED; stop serving them from the near cache
+    sessionCache.invalidateAll(batch.stream().map(ClaimedUpload::id).toList());
+
+    BackgroundS3Calls.Result<ClaimedUpload> result = s3Calls.runAll(batch, this::abortInS3);
+
+    List<UUID> abortedIds = new ArrayList<>(batch.size());
+    List<UUID> failedIds = new ArrayList<>();
+    result.succeeded().forEach(c -> abortedIds.add(c.id()));
+    result.failed().forEach((c, ex) -> {
+      // NoSuchUpload: aborted before, or it expired under a bucket lifecycle rule
+      if (ex instanceof NoSuchUploadException) {
+        abortedIds.add(c.id());
+      } else {
+        log.warn("Failed to abort stale upload {} in S3: {}", c.id(), ex.toString());
+        failedIds.add(c.id());
+      }
+    });
+
+    metrics.transitioned("ABORTED", cleanupRepo.settleAborting(abortedIds, "ABORTED"));
+    // best-effort; keep the record for inspection
+    metrics.transitioned("FAILED", cleanupRepo.settleAborting(failedIds, "FAILED"));
+    aborted.increment(abortedIds.size());
+    failed.increment(failedIds.size());
+    return !result.interrupted();
+  }
+
+  private CompletableFuture<Void> abortInS3(ClaimedUpload c) {
+    if ("SINGLE_PUT".equals(c.uploadMode())) {
+      return s3Async.deleteObject(c.bucket(), c.objectKey());
+    }
+    return s3Async.abortMultipartUpload(c.bucket(), c.objectKey(), c.s3UploadId());
+  }
+
+  /**
+   * Claims stuck rows and loads them; a failed claim skips this status for the run.
+   */
+  private List<UploadEntity> claimStuck(String status, List<String> uploadModes, OffsetDateTime cutoff) {
+    try {
+      List<UUID> ids = cleanupRepo.claimStuck(status, uploadModes, cutoff, STUCK_BATCH_SIZE).stream()
+        .map(ClaimedUpload::id)
+        .toList();
+      return ids.isEmpty() ? List.of() : repo.findAllById(ids);
+    } catch (RuntimeException ex) {
+      log.warn("Could not claim stuck {} uploads: {}", status, ex.toString());
+      return List.of();
+    }
+  }
+
+  /**
+   * Saves the outcome of a recovered step; an outcome saved meanwhile by the request that started
+   * the step, or by another replica, stands.
+   */
+  private void settle(UploadEntity u, String status, String step) {
+    if (transitions.settle(u, status)) {
+      log.info("Recovered interrupted {} of upload {} as {}", step, u.getId(), status);
+    }
+  }
+
+  private void abortCopy(UploadEntity u) {
+    try {
+      s3.abortMultipartUpload(u.getBucket(), u.getObjectKey(), u.getS3UploadId());
+    } catch (NoSuchUploadException ex) {
+      // completed or aborted before
+    }
+  }
+
+  /**
+   * A CREATING row has no upload id, but S3 may have created the multipart upload before the
+   * instance died. Object keys are unique per session, so every upload under the key is ours.
+   */
+  private void abortUnrecordedMultipartUploads(UploadEntity u) {
+    String keyMarker = null;
+    String uploadIdMarker = null;
+    MultipartUploadPage page;
+    do {
+      page = s3.listMultipartUploads(u.getBucket(), u.getObjectKey(), keyMarker, uploadIdMarker, 1000);
+      for (MultipartUploadPage.Upload mu : page.uploads()) {
+        if (mu.key().equals(u.getObjectKey())) {
+          s3.abortMultipartUpload(u.getBucket(), mu.key(), mu.uploadId());
+        }
+      }
+      keyMarker = page.nextKeyMarker();
+      uploadIdMarker = page.nextUploadIdMarker();
+    } while (page.truncated());
+  }
+
+  /**
+   * An object of the declared size means the completion went through. Otherwise a still-open
+   * multipart upload goes back to INITIATED so the client can retry; a vanished one, or an
+   * unfinished copy, has FAILED.
+   */
+  private String resolveStuckCompletion(UploadEntity u) {
+    OptionalLong size = s3.headObjectSize(u.getBucket(), u.getObjectKey());
+    if (size.isPresent() && size.getAsLong() == u.getFileSize()) {
+      return "COMPLETED";
+    }
+    if ("SINGLE_PUT".equals(u.getUploadMode())) {
+      return "INITIATED";
+    }
+    if ("COPY".equals(u.getUploadMode())) {
+      // no client to retry, and nothing resumes a copy
+      abortCopy(u);
+      return "FAILED";
+    }
+    try {
+      s3.listParts(u.getBucket(), u.getObjectKey(), u.getS3UploadId(), 1);
+      return "INITIATED";
+    } catch (NoSuchUploadException ex) {
+      return "FAILED";
     }
   }
 }
@@ -0,0 +1,106 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import com.github.dimitryivaniuta.gateway.config.UploadPolicyProperties;
+import com.github.dimitryivaniuta.gateway.uploads.api.dto.UploadDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded worker pool for asynchronous completions.
+ *
+ * <p>Capacity ({@code completionWorkers + completionQueueCapacity}) is reserved with
+ * {@link #tryReserve()} before a session is moved to COMPLETING, so a full queue is reported to
+ * the client instead of leaving a session that no worker will pick up.</p>
+ */
+@Slf4j
+@Component
+public class UploadCompletionExecutor {
+
+  private final ThreadPoolExecutor pool;
+  private final Semaphore slots;
+  private final ConcurrentHashMap<UUID, CompletableFuture<UploadDto>> inFlight = new ConcurrentHashMap<>();
+
+  public UploadCompletionExecutor(UploadPolicyProperties policy, MeterRegistry registry) {
+    int workers = policy.getCompletionWorkers();
+    int queue = policy.getCompletionQueueCapacity();
+    AtomicInteger seq = new AtomicInteger();
+    // the queue itself is unbounded: the semaphore is the bound, so execute() never rejects
+    this.pool = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+      new LinkedBlockingQueue<>(),
+      r -> {
+        Thread t = new Thread(r, "upload-complete-" + seq.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+      });
+    this.pool.allowCoreThreadTimeOut(true);
+    this.slots = new Semaphore(workers + queue);
+    ExecutorServiceMetrics.monitor(registry, pool, "uploadCompletion");
+  }
+
+  /**
+   * @return {@code true} if a completion slot was reserved; pair with {@link #submit} or {@link #release()}
+   */
+  public boolean tryReserve() {
+    return slots.tryAcquire();
+  }
+
+  public void release() {
+    slots.release();
+  }
+
+  /**
+   * Runs {@code task} in a previously reserved slot.
+   *
+   * @return a future completed with the final session view
+   */
+  public CompletableFuture<UploadDto> submit(UUID uploadId, Supplier<UploadDto> task) {
+    CompletableFuture<UploadDto> future = new CompletableFuture<>();
+    inFlight.put(uploadId, future);
+    future.whenComplete((dto, ex) -> inFlight.remove(uploadId, future));
+    try {
+      pool.execute(() -> {
+        try {
+          future.complete(task.get());
+        } catch (Throwable ex) {
+          log.warn("Asynchronous completion of upload {} failed: {}", uploadId, ex.toString());
+          future.completeExceptionally(ex);
+        } finally {
+          slots.release();
+        }
+      });
+    } catch (RuntimeException ex) {
+      // only on shutdown; the session stays COMPLETING and is resolved by the cleanup job
+      slots.release();
+      future.completeExceptionally(ex);
+    }
+    return future;
+  }
+
+  /**
+   * @return the pending completion of {@code uploadId} if this instance is running it
+   */
+  public Optional<CompletableFuture<UploadDto>> inFlight(UUID uploadId) {
+    return Optional.ofNullable(inFlight.get(uploadId));
+  }
+
+  @PreDestroy
+  void shutdown() throws InterruptedException {
+    pool.shutdown();
+    if (!pool.awaitTermination(30, TimeUnit.SECONDS)) {
+      log.warn("{} upload completions still running at shutdown", pool.getActiveCount());
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import com.github.dimitryivaniuta.gateway.web.errors.BadRequestException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset position in a user's upload listing: the {@code (created_at, id)} of the last row served.
+ *
+ * <p>Clients see it as an opaque URL-safe string and must not build one themselves.</p>
+ */
+record UploadListCursor(OffsetDateTime createdAt, UUID id) {
+
+  String encode() {
+    Instant t = createdAt.toInstant();
+    String raw = t.getEpochSecond() + "." + t.getNano() + "." + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @throws BadRequestException if {@code cursor} was not produced by {@link #encode()}
+   */
+  static UploadListCursor decode(String cursor) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      String[] f = raw.split("\\.", 3);
+      Instant t = Instant.ofEpochSecond(Long.parseLong(f[0]), Long.parseLong(f[1]));
+      return new UploadListCursor(t.atOffset(ZoneOffset.UTC), UUID.fromString(f[2]));
+    } catch (RuntimeException ex) {
+      throw new BadRequestException("Invalid cursor");
+    }
+  }
+}
@@ -0,0 +1,220 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.dimitryivaniuta.gateway.config.S3Properties;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.auth.credentials.AwsCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.AwsSessionCredentials;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.UploadPartPresignRequest;
+import software.amazon.awssdk.utils.BinaryUtils;
+import software.amazon.awssdk.utils.http.SdkHttpUtils;
+
+/**
+ * Specialized SigV4 query-string signer for S3 UploadPart URLs.
+ *
+ * <p>Produces the same URL as {@link S3Presigner#presignUploadPart} (covered by
+ * {@code UploadPartUrlSignerTest}) without the generic SDK pipeline:</p>
+ * <ul>
+ *   <li>the endpoint layout (scheme, host, path- vs virtual-host style) is learned once per bucket
+ *       from a single SDK presign;</li>
+ *   <li>the derived signing key is cached per (date, region, service, credentials);</li>
+ *   <li>the canonical request prefix/suffix and URL fragments are precomputed per upload, so signing
+ *       a part costs one SHA-256 and one HMAC over a presized buffer.</li>
+ * </ul>
+ */
+@Component
+public class UploadPartUrlSigner {
+
+  private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+  private static final String SERVICE = "s3";
+  private static final String TERMINATOR = "aws4_request";
+  private static final DateTimeFormatter AMZ_DATE =
+    DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+  private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  });
+  private static final ThreadLocal<Mac> HMAC = ThreadLocal.withInitial(() -> {
+    try {
+      return Mac.getInstance("HmacSHA256");
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  });
+
+  private final S3Presigner presigner;
+  private final AwsCredentialsProvider credentials;
+  private final S3Properties props;
+
+  private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+  private final Cache<String, UploadTemplate> templates = Caffeine.newBuilder()
+    .maximumSize(10_000)
+    .expireAfterAccess(Duration.ofMinutes(30))
+    .build();
+  private volatile SigningKey signingKey;
+
+  public UploadPartUrlSigner(S3Presigner presigner, AwsCredentialsProvider credentials, S3Properties props) {
+    this.presigner = presigner;
+    this.credentials = credentials;
+    this.props = props;
+  }
+
+  public boolean isEnabled() {
+    return props.isFastPresignEnabled();
+  }
+
+  public PresignedUrl sign(String bucket, String key, String uploadId, int partNumber, Duration expiry) {
+    return signAll(bucket, key, uploadId, List.of(partNumber), expiry, Instant.now()).get(0);
+  }
+
+  public List<PresignedUrl> signAll(String bucket, String key, String uploadId, List<Integer> partNumbers, Duration expiry) {
+    return signAll(bucket, key, uploadId, partNumbers, expiry, Instant.now());
+  }
+
+  /**
+   * Signs every part with the same timestamp; visible for tests that pin the signing time.
+   */
+  List<PresignedUrl> signAll(String bucket, String key, String uploadId, List<Integer> partNumbers,
+                             Duration expiry, Instant signingTime) {
+    UploadTemplate t = templates.get(bucket + '\n' + key + '\n' + uploadId, k -> template(bucket, key, uploadId));
+    AwsCredentials creds = credentials.resolveCredentials();
+    String sessionToken = creds instanceof AwsSessionCredentials s ? s.sessionToken() : null;
+
+    String amzDate = AMZ_DATE.format(signingTime);
+    String date = amzDate.substring(0, 8);
+    String scope = date + '/' + props.getRegion() + '/' + SERVICE + '/' + TERMINATOR;
+    byte[] key4 = signingKey(creds, date);
+    long expires = expiry.toSeconds();
+    Instant expiresAt = signingTime.plusSeconds(expires);
+
+    // Canonical query params are sorted by name: X-Amz-* (uppercase) before partNumber/uploadId.
+    String encodedCredential = SdkHttpUtils.urlEncode(creds.accessKeyId() + '/' + scope);
+    String encodedToken = sessionToken == null ? null : SdkHttpUtils.urlEncode(sessionToken);
+    StringBuilder authQuery = new StringBuilder(256)
+      .append("X-Amz-Algorithm=").append(ALGORITHM)
+      .append("&X-Amz-Credential=").append(encodedCredential)
+      .append("&X-Amz-Date=").append(amzDate)
+      .append("&X-Amz-Expires=").append(expires);
+    if (encodedToken != null) {
+      authQuery.append("&X-Amz-Security-Token=").append(encodedToken);
+    }
+    authQuery.append("&X-Amz-SignedHeaders=host&partNumber=");
+    String canonicalHead = t.canonicalPrefix + authQuery;
+
+    // URL query keeps the SDK's emission order.
+    StringBuilder urlAuth = new StringBuilder(256);
+    if (encodedToken != null) {
+      urlAuth.append("&X-Amz-Security-Token=").append(encodedToken);
+    }
+    urlAuth.append("&X-Amz-Algorithm=").append(ALGORITHM)
+      .append("&X-Amz-Date=").append(amzDate)
+      .append("&X-Amz-SignedHeaders=host&X-Amz-Credential=").append(encodedCredential)
+      .append("&X-Amz-Expires=").append(expires)
+      .append("&X-Amz-Signature=");
+    String urlTail = urlAuth.toString();
+
+    String stringToSignHead = ALGORITHM + '\n' + amzDate + '\n' + scope + '\n';
+    MessageDigest sha = SHA256.get();
+    Mac mac = HMAC.get();
+
+    List<PresignedUrl> out = new ArrayList<>(partNumbers.size());
+    StringBuilder canonical = new StringBuilder(canonicalHead.length() + t.canonicalSuffix.length() + 8);
+    for (Integer partNumber : partNumbers) {
+      canonical.setLength(0);
+      canonical.append(canonicalHead).append(partNumber.intValue()).append(t.canonicalSuffix);
+      String hashedRequest = BinaryUtils.toHex(sha.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+      String signature = BinaryUtils.toHex(hmac(mac, key4, stringToSignHead + hashedRequest));
+
+      String url = t.urlPrefix + partNumber.intValue() + t.urlUploadId + urlTail + signature;
+      out.add(new PresignedUrl(url, expiresAt));
+    }
+    return out;
+  }
+
+  private UploadTemplate template(String bucket, String key, String uploadId) {
+    Endpoint e = endpoints.computeIfAbsent(bucket, this::discoverEndpoint);
+    String path = e.pathPrefix + '/' + SdkHttpUtils.urlEncodeIgnoreSlashes(key);
+    String encodedUploadId = SdkHttpUtils.urlEncode(uploadId);
+    return new UploadTemplate(
+      "PUT\n" + path + '\n',
+      "&uploadId=" + encodedUploadId + "\nhost:" + e.host + "\n\nhost\nUNSIGNED-PAYLOAD",
+      e.scheme + "://" + e.host + path + "?partNumber=",
+      "&uploadId=" + encodedUploadId
+    );
+  }
+
+  /**
+   * Lets the SDK resolve scheme/host/addressing style for the bucket once (endpoint override,
+   * path-style for non-DNS bucket names, regional hosts), then reuses it for every upload.
+   */
+  private Endpoint discoverEndpoint(String bucket) {
+    URI probe = URI.create(presigner.presignUploadPart(UploadPartPresignRequest.builder()
+        .signatureDuration(Duration.ofMinutes(1))
+        .uploadPartRequest(UploadPartRequest.builder().bucket(bucket).key("k").uploadId("u").partNumber(1).build())
+        .build())
+      .url().toString());
+    String rawPath = probe.getRawPath();
+    String host = probe.getPort() == -1 ? probe.getHost() : probe.getHost() + ':' + probe.getPort();
+    return new Endpoint(probe.getScheme(), host, rawPath.substring(0, rawPath.length() - "/k".length()));
+  }
+
+  private byte[] signingKey(AwsCredentials creds, String date) {
+    SigningKey k = signingKey;
+    if (k != null && k.matches(date, props.getRegion(), creds)) {
+      return k.key;
+    }
+    Mac mac = HMAC.get();
+    byte[] kDate = hmac(mac, ("AWS4" + creds.secretAccessKey()).getBytes(StandardCharsets.UTF_8), date);
+    byte[] kRegion = hmac(mac, kDate, props.getRegion());
+    byte[] kService = hmac(mac, kRegion, SERVICE);
+    byte[] kSigning = hmac(mac, kService, TERMINATOR);
+    signingKey = new SigningKey(date, props.getRegion(), creds.accessKeyId(), creds.secretAccessKey(), kSigning);
+    return kSigning;
+  }
+
+  private static byte[] hmac(Mac mac, byte[] key, String data) {
+    try {
+      mac.init(new SecretKeySpec(key, "HmacSHA256"));
+      return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private record Endpoint(String scheme, String host, String pathPrefix) {
+  }
+
+  private record UploadTemplate(String canonicalPrefix, String canonicalSuffix, String urlPrefix, String urlUploadId) {
+  }
+
+  private record SigningKey(String date, String region, String accessKeyId, String secretAccessKey, byte[] key) {
+    boolean matches(String date, String region, AwsCredentials creds) {
+      return this.date.equals(date)
+        && this.region.equals(region)
+        && accessKeyId.equals(creds.accessKeyId())
+        && secretAccessKey.equals(creds.secretAccessKey());
+    }
+  }
+}
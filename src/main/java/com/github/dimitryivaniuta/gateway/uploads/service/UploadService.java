@@ -1,175 +1,846 @@
 package com.github.dimitryivaniuta.gateway.uploads.service;
 
+import com.github.dimitryivaniuta.gateway.admission.AdmissionControl;
 import com.github.dimitryivaniuta.gateway.config.S3Properties;
 import com.github.dimitryivaniuta.gateway.config.UploadPolicyProperties;
+import com.github.dimitryivaniuta.gateway.observability.UploadMetrics;
+import com.github.dimitryivaniuta.gateway.observability.UploadThroughputAnalytics;
 import com.github.dimitryivaniuta.gateway.uploads.api.dto.*;
 import com.github.dimitryivaniuta.gateway.uploads.domain.UploadEntity;
+import com.github.dimitryivaniuta.gateway.uploads.repo.PresignWindow;
+import com.github.dimitryivaniuta.gateway.uploads.repo.UploadListRow;
 import com.github.dimitryivaniuta.gateway.uploads.repo.UploadRepository;
 import com.github.dimitryivaniuta.gateway.web.errors.*;
+import java.io.InputStream;
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import software.amazon.awssdk.core.exception.SdkException;
 import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.NoSuchUploadException;
 
 /**
  * Core upload lifecycle service.
  *
  * <p>Design goals:</p>
  * <ul>
- *   <li>Do not proxy gigabytes through the backend.</li>
+ *   <li>Do not proxy gigabytes through the backend; {@link #proxyUpload} exists only for clients
+ *       that cannot reach S3, and streams with bounded memory.</li>
  *   <li>Use S3 Multipart Upload + pre-signed UploadPart URLs.</li>
  *   <li>Persist server-side session metadata for auditing and idempotency.</li>
+ *   <li>Never park a request thread on S3: lifecycle calls go through
+ *       {@link S3MultipartAsyncOperations} and the follow-up status change is chained onto the
+ *       returned future.</li>
  * </ul>
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class UploadService {
 
-  private static final long MIN_PART_SIZE_BYTES = 5L * 1024 * 1024;
+  /** S3 PutObject accepts at most 5 GiB in one request. */
+  private static final long SINGLE_PUT_LIMIT_BYTES = 5L * 1024 * 1024 * 1024;
+  /** How often a create that lost the idempotency race re-reads the winner's row. */
+  private static final long IDEMPOTENT_CREATE_POLL_MILLIS = 100;
+  /** Virtual threads for those re-reads, which block on JDBC and must stay off the common pool. */
+  private static final ThreadFactory IDEMPOTENT_CREATE_POLLS =
+    Thread.ofVirtual().name("idempotent-create-", 0).factory();
+  /** Sessions that count against {@code maxActiveSessionsPerUser}. */
+  private static final List<String> ACTIVE_STATUSES = List.of("CREATING", "INITIATED", "UPLOADING", "COMPLETING");
 
   private final S3Properties s3Props;
   private final UploadPolicyProperties uploadPolicy;
   private final UploadRepository repo;
   private final S3MultipartOperations s3;
+  private final S3MultipartAsyncOperations s3Async;
   private final KeyGenerator keyGenerator;
   private final ContentTypeAllowlist contentTypeAllowlist;
+  private final UploadSessionCache sessionCache;
+  private final UploadSessionTokens sessionTokens;
+  private final PartListingCache partListings;
+  private final PartSizePlanner partSizePlanner;
+  private final UploadCompletionExecutor completions;
+  private final TransactionTemplate tx;
+  private final AdmissionControl admission;
+  private final UploadMetrics metrics;
+  private final PresignMilestones milestones;
+  private final UploadThroughputAnalytics throughput;
+  private final StreamingPartUploader proxy;
+  private final ServerSideCopier copier;
+  private final UploadTransitions transitions;
 
-  @Transactional
-  public CreateUploadResponse create(Jwt jwt, CreateUploadRequest req, String baseUrl) {
+  /** Creates in progress on this instance, by user and idempotency key. */
+  private final ConcurrentMap<String, CompletableFuture<CreateUploadResponse>> creating = new ConcurrentHashMap<>();
+
+  /**
+   * Creates an upload session.
+   *
+   * <p>No transaction spans the S3 call: the session is first committed as CREATING (the intent),
+   * then the multipart upload is created, then the row moves to INITIATED. A crash in between
+   * leaves a CREATING row that {@link UploadCleanupJob} resolves.</p>
+   *
+   * <p>With an idempotency key the CREATING row doubles as the reservation: it is inserted with
+   * {@code ON CONFLICT DO NOTHING} before S3 is called, so of concurrent retries exactly one
+   * creates a multipart upload and the others return its session.</p>
+   *
+   * <p>Validation failures are thrown directly; idempotency conflicts and S3 failures fail the
+   * future.</p>
+   */
+  public CompletableFuture<CreateUploadResponse> create(Jwt jwt, CreateUploadRequest req, String baseUrl) {
     validateCreate(req);
 
     String userSub = jwt.getSubject();
     String idem = normalizeIdempotencyKey(req.getIdempotencyKey());
+    requireSessionCapacity(userSub, idem);
 
-    if (idem != null) {
-      Optional<UploadEntity> existing = repo.findByUserSubAndIdempotencyKey(userSub, idem);
-      if (existing.isPresent() && "INITIATED".equals(existing.get().getStatus())) {
-        UploadEntity u = existing.get();
-        return toCreateResponse(u, baseUrl);
-      }
-    }
-
-    long partSize = Math.max(MIN_PART_SIZE_BYTES, s3Props.getPartSizeBytes() == null ? MIN_PART_SIZE_BYTES : s3Props.getPartSizeBytes());
-    int partCount = calcPartCount(req.getFileSize(), partSize);
+    // small files: one pre-signed PutObject, no multipart upload to create or complete
+    boolean singlePut = req.getFileSize() <= singlePutMaxBytes();
+    PartPlan plan = singlePut ? null : partSizePlanner.plan(req.getFileSize(), req.getContentType(),
+      req.getBandwidthBytesPerSecond(), req.getConcurrency());
+    long partSize = singlePut ? req.getFileSize() : plan.partSize();
+    int partCount = singlePut ? 1 : plan.partCount();
 
-    if (partCount <= 0) {
-      throw new BadRequestException("Invalid partCount computed");
-    }
     if (partCount > s3Props.getMaxPartCount()) {
       throw new BadRequestException("Too many parts (" + partCount + "). Increase part size.");
     }
 
     String bucket = s3Props.getBucket();
     String key = keyGenerator.generate(userSub, req.getFileName());
-
-    String uploadId;
-    try {
-      uploadId = s3.createMultipartUpload(bucket, key, req.getContentType());
-    } catch (SdkException ex) {
-      throw new UpstreamException("Failed to create multipart upload in S3", ex);
-    }
-
-    UUID id = UUID.randomUUID();
     OffsetDateTime now = OffsetDateTime.now();
 
-    UploadEntity entity = UploadEntity.builder()
-      .id(id)
+    UploadEntity draft = UploadEntity.builder()
+      .id(UUID.randomUUID())
       .userSub(userSub)
       .username(jwt.getClaimAsString("preferred_username"))
       .bucket(bucket)
       .objectKey(key)
-      .s3UploadId(uploadId)
       .fileName(req.getFileName())
       .contentType(req.getContentType())
       .fileSize(req.getFileSize())
       .partSize(partSize)
       .partCount(partCount)
       .idempotencyKey(idem)
-      .status("INITIATED")
+      .uploadMode(singlePut ? "SINGLE_PUT" : "MULTIPART")
+      // a single PUT needs no S3 call here, so it is usable right away
+      .status(singlePut ? "INITIATED" : "CREATING")
       .createdAt(now)
       .updatedAt(now)
+      // the PUT URL goes out with the create response
+      .firstPartPresignedAt(singlePut ? now : null)
+      .lastPartPresignedAt(singlePut ? now : null)
       .version(0)
       .build();
 
-    repo.save(entity);
-    return toCreateResponse(entity, baseUrl);
+    if (idem == null) {
+      UploadEntity saved = tx.execute(status -> repo.save(draft));
+      metrics.transitioned(saved.getStatus());
+      return start(saved, baseUrl, plan);
+    }
+
+    // concurrent retries on this instance share one attempt; across instances the row insert decides
+    String flightKey = userSub + '\n' + idem;
+    CompletableFuture<CreateUploadResponse> mine = new CompletableFuture<>();
+    CompletableFuture<CreateUploadResponse> theirs = creating.putIfAbsent(flightKey, mine);
+    if (theirs != null) {
+      return theirs.copy();
+    }
+    mine.whenComplete((resp, ex) -> creating.remove(flightKey, mine));
+
+    CompletableFuture<CreateUploadResponse> attempt;
+    try {
+      attempt = reserveOrAwait(draft, baseUrl, plan,
+        System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(uploadPolicy.getIdempotentCreateWaitMillis()));
+    } catch (RuntimeException ex) {
+      attempt = CompletableFuture.failedFuture(ex);
+    }
+    attempt.whenComplete((resp, ex) -> {
+      if (ex != null) {
+        mine.completeExceptionally(unwrap(ex));
+      } else {
+        mine.complete(resp);
+      }
+    });
+    return mine.copy();
   }
 
-  @Transactional(readOnly = true)
-  public PresignedPartUrlResponse presignPartUrl(Jwt jwt, UUID uploadSessionId, int partNumber, String baseUrl) {
-    UploadEntity u = repo.findById(uploadSessionId).orElseThrow(() -> new NotFoundException("Upload not found"));
-    requireOwner(jwt, u);
-    if (!"INITIATED".equals(u.getStatus())) {
-      throw new ConflictException("Upload is not in INITIATED state");
+  /**
+   * Second half of {@link #create}, once {@code entity} is committed: creates the multipart upload
+   * and moves the row to INITIATED.
+   */
+  private CompletableFuture<CreateUploadResponse> start(UploadEntity entity, String baseUrl, PartPlan plan) {
+    boolean singlePut = "SINGLE_PUT".equals(entity.getUploadMode());
+    if (singlePut) {
+      return CompletableFuture.completedFuture(toCreateResponse(entity, baseUrl, null));
+    }
+
+    return s3Async.createMultipartUpload(entity.getBucket(), entity.getObjectKey(), entity.getContentType())
+      .handle((uploadId, ex) -> {
+        if (ex != null) {
+          RuntimeException failure = upstream("Failed to create multipart upload in S3", ex);
+          failCreate(entity, failure);
+          throw failure;
+        }
+        entity.setS3UploadId(uploadId);
+        UploadEntity created = transitions.save(entity, "INITIATED");
+        return toCreateResponse(created, baseUrl, plan);
+      });
+  }
+
+  /**
+   * Marks a session whose multipart upload could not be created FAILED and frees its idempotency
+   * key, so a retry with the same key starts over. If that write fails too, the S3 error is still
+   * the one reported; the CREATING row is then settled by {@link UploadCleanupJob}.
+   */
+  private void failCreate(UploadEntity entity, RuntimeException cause) {
+    try {
+      entity.setIdempotencyKey(null);
+      transitions.save(entity, "FAILED");
+    } catch (RuntimeException ex) {
+      log.warn("Failed to record failed creation of upload {}: {}", entity.getId(), ex.toString());
+      cause.addSuppressed(ex);
+    }
+  }
+
+  /**
+   * Reserves {@code draft}'s idempotency key and starts the session, or, if another request holds
+   * the key, resolves to that request's session.
+   */
+  private CompletableFuture<CreateUploadResponse> reserveOrAwait(UploadEntity draft, String baseUrl, PartPlan plan,
+                                                                long deadlineNanos) {
+    boolean reserved = Boolean.TRUE.equals(tx.execute(status -> repo.insertIfAbsent(draft)));
+    if (reserved) {
+      metrics.transitioned(draft.getStatus());
+      return start(draft, baseUrl, plan);
+    }
+    return awaitIdempotentCreate(draft, baseUrl, plan, deadlineNanos);
+  }
+
+  /**
+   * Resolves a create whose idempotency key another request already reserved: returns that
+   * request's session once it is INITIATED, polling while it is still CREATING. If that request
+   * failed to create its multipart upload, the key has been released and is reserved again here.
+   *
+   * <p>Fails with {@link ConflictException} if the session is still being created at
+   * {@code deadlineNanos}, or if the key belongs to a session that has ended.</p>
+   */
+  private CompletableFuture<CreateUploadResponse> awaitIdempotentCreate(UploadEntity draft, String baseUrl,
+                                                                       PartPlan plan, long deadlineNanos) {
+    UploadEntity winner = repo.findByUserSubAndIdempotencyKey(draft.getUserSub(), draft.getIdempotencyKey())
+      .orElse(null);
+    String status = winner == null ? null : winner.getStatus();
+    if ("INITIATED".equals(status)) {
+      return CompletableFuture.completedFuture(toCreateResponse(winner, baseUrl, null));
+    }
+    if (winner != null && !"CREATING".equals(status)) {
+      return CompletableFuture.failedFuture(
+        new ConflictException("Idempotency key is already used by an upload in status " + status));
+    }
+    if (System.nanoTime() - deadlineNanos >= 0) {
+      return CompletableFuture.failedFuture(
+        new ConflictException("Upload with this idempotency key is still being created; retry shortly"));
+    }
+    if (winner == null) {
+      // released by a failed create
+      return reserveOrAwait(draft, baseUrl, plan, deadlineNanos);
     }
-    if (partNumber < 1 || partNumber > u.getPartCount()) {
-      throw new BadRequestException("partNumber must be between 1 and " + u.getPartCount());
+    Executor later = CompletableFuture.delayedExecutor(IDEMPOTENT_CREATE_POLL_MILLIS, TimeUnit.MILLISECONDS,
+      r -> IDEMPOTENT_CREATE_POLLS.newThread(r).start());
+    return CompletableFuture.supplyAsync(() -> null, later)
+      .thenCompose(ignored -> awaitIdempotentCreate(draft, baseUrl, plan, deadlineNanos));
+  }
+
+  /**
+   * Not transactional: the session comes from a verified session token or from
+   * {@link UploadSessionCache}, and must not check out a JDBC connection.
+   *
+   * @param sessionToken optional token from {@link #create}; without one (or if it does not
+   *                     verify) the session is looked up as before
+   */
+  public PresignedPartUrlResponse presignPartUrl(Jwt jwt, UUID uploadSessionId, int partNumber, String baseUrl,
+                                                 String sessionToken) {
+    UploadSessionDescriptor u = loadForPresign(jwt, uploadSessionId, sessionToken);
+    if (partNumber < 1 || partNumber > u.partCount()) {
+      throw new BadRequestException("partNumber must be between 1 and " + u.partCount());
     }
 
-    String url;
+    PresignedUrl url;
     try {
-      url = s3.presignUploadPartUrl(u.getBucket(), u.getObjectKey(), u.getS3UploadId(), partNumber);
+      url = s3.presignUploadPartUrl(u.bucket(), u.objectKey(), u.s3UploadId(), partNumber);
     } catch (SdkException ex) {
       throw new UpstreamException("Failed to presign part url", ex);
     }
+    milestones.partsPresigned(u.id());
 
-    return new PresignedPartUrlResponse(
-      partNumber,
-      url,
-      OffsetDateTime.now().plusMinutes(s3Props.getPresignExpirationMinutes())
-    );
+    return toPartUrlResponse(partNumber, url);
   }
 
-  @Transactional
-  public void complete(Jwt jwt, UUID uploadSessionId, CompleteUploadRequest req) {
-    UploadEntity u = repo.findById(uploadSessionId).orElseThrow(() -> new NotFoundException("Upload not found"));
-    requireOwner(jwt, u);
-    if (!"INITIATED".equals(u.getStatus())) {
-      throw new ConflictException("Upload is not in INITIATED state");
+  /**
+   * Pre-signs URLs for a range or list of parts with a single session lookup.
+   */
+  public List<PresignedPartUrlResponse> presignPartUrls(Jwt jwt, UUID uploadSessionId, PresignPartUrlsRequest req,
+                                                        String sessionToken) {
+    UploadSessionDescriptor u = loadForPresign(jwt, uploadSessionId, sessionToken);
+    List<Integer> partNumbers = resolvePartNumbers(u.partCount(), req);
+
+    List<PresignedUrl> urls;
+    try {
+      urls = s3.presignUploadPartUrls(u.bucket(), u.objectKey(), u.s3UploadId(), partNumbers);
+    } catch (SdkException ex) {
+      throw new UpstreamException("Failed to presign part urls", ex);
     }
+    milestones.partsPresigned(u.id());
 
-    List<CompletedPart> parts = validateAndMapParts(u, req);
+    List<PresignedPartUrlResponse> out = new ArrayList<>(partNumbers.size());
+    for (int i = 0; i < partNumbers.size(); i++) {
+      out.add(toPartUrlResponse(partNumbers.get(i), urls.get(i)));
+    }
+    return out;
+  }
 
+  /**
+   * Resume manifest for an interrupted upload, built from S3's (briefly cached) part listing.
+   */
+  public CompletableFuture<UploadManifestDto> manifest(Jwt jwt, UUID uploadSessionId, String sessionToken) {
+    UploadSessionDescriptor u = loadForPresign(jwt, uploadSessionId, sessionToken);
+
+    return partListings.get(u.s3UploadId(),
+        () -> s3Async.listParts(u.bucket(), u.objectKey(), u.s3UploadId(), u.partCount()))
+      .handle((listed, ex) -> {
+        if (ex != null) {
+          throw upstream("Failed to list uploaded parts in S3", ex);
+        }
+        return toManifest(u, listed);
+      });
+  }
+
+  /**
+   * Proxy upload: streams the whole file from {@code body} to S3 and completes the session.
+   *
+   * <p>The session must be INITIATED and the body exactly {@code fileSize} bytes long. The session
+   * is claimed (UPLOADING) before the first byte is read, so a second stream, a presign, a
+   * complete or an abort of the same session is a 409 until this one ends. If the stream fails,
+   * the session returns to INITIATED; the request can be repeated, or the client can fall back to
+   * pre-signed URLs.</p>
+   *
+   * @param contentLength declared request length, or {@code null} if unknown (chunked)
+   * @return the COMPLETED session; fails like {@link #complete}
+   */
+  public CompletableFuture<UploadDto> proxyUpload(Jwt jwt, UUID uploadSessionId, Long contentLength, InputStream body) {
+    if (!proxy.isEnabled()) {
+      throw new NotFoundException("Proxy uploads are disabled");
+    }
+    UploadEntity u = claimForProxy(jwt, uploadSessionId, contentLength);
+
+    List<CompletedPart> parts;
+    proxy.started(u.getId());
     try {
-      s3.completeMultipartUpload(u.getBucket(), u.getObjectKey(), u.getS3UploadId(), parts);
-    } catch (SdkException ex) {
-      u.setStatus("FAILED");
-      u.setUpdatedAt(OffsetDateTime.now());
-      repo.save(u);
-      throw new UpstreamException("Failed to complete multipart upload in S3", ex);
+      // the transfer starts now; recorded like the first part URL of a direct upload
+      milestones.partsPresigned(u.getId());
+      CompleteUploadRequest uploaded = new CompleteUploadRequest();
+      if ("SINGLE_PUT".equals(u.getUploadMode())) {
+        proxy.putObject(u.getBucket(), u.getObjectKey(), u.getContentType(), u.getFileSize(), body);
+      } else {
+        uploaded.setParts(proxy.uploadParts(u.getBucket(), u.getObjectKey(), u.getS3UploadId(), u.getFileSize(),
+          u.getPartSize(), body));
+      }
+      parts = beginCompletion(jwt, uploadSessionId, uploaded, "UPLOADING");
+    } catch (RuntimeException ex) {
+      releaseProxyClaim(u, ex);
+      throw ex;
+    } finally {
+      proxy.finished(u.getId());
     }
+    return runCompletion(uploadSessionId, parts);
+  }
 
-    u.setStatus("COMPLETED");
-    u.setCompletedAt(OffsetDateTime.now());
-    u.setUpdatedAt(OffsetDateTime.now());
-    repo.save(u);
+  /**
+   * Moves an INITIATED session to UPLOADING. Two concurrent claims read the same version, so the
+   * second one fails on save.
+   */
+  private UploadEntity claimForProxy(Jwt jwt, UUID uploadSessionId, Long contentLength) {
+    return tx.execute(status -> {
+      UploadEntity u = repo.findById(uploadSessionId).orElseThrow(() -> new NotFoundException("Upload not found"));
+      requireOwner(jwt, u);
+      requireClientDriven(u);
+      if (!"INITIATED".equals(u.getStatus())) {
+        throw new ConflictException("Upload is not in INITIATED state");
+      }
+      if (contentLength != null && contentLength != u.getFileSize()) {
+        throw new BadRequestException("Content-Length must equal the upload's fileSize (" + u.getFileSize() + ")");
+      }
+      UploadEntity claimed = transitions.save(u, "UPLOADING");
+      dropPartListing(claimed);
+      return claimed;
+    });
   }
 
-  @Transactional
-  public void abort(Jwt jwt, UUID uploadSessionId) {
+  /**
+   * Returns a failed stream's session to INITIATED. Parts already in S3 stay there; a retried
+   * stream overwrites them.
+   */
+  private void releaseProxyClaim(UploadEntity claimed, RuntimeException cause) {
+    try {
+      UploadEntity current = repo.findById(claimed.getId()).orElse(null);
+      if (current != null && "UPLOADING".equals(current.getStatus())) {
+        transitions.save(current, "INITIATED");
+      }
+    } catch (RuntimeException ex) {
+      log.warn("Failed to release proxy upload {}: {}", claimed.getId(), ex.toString());
+      cause.addSuppressed(ex);
+    }
+  }
+
+  /**
+   * Copies completed uploads, concatenated in the given order, into a new upload of mode COPY.
+   *
+   * <p>S3 copies the bytes (UploadPartCopy); nothing is streamed through this instance. The
+   * session is returned as soon as it is committed (CREATING) and then moves on its own through
+   * INITIATED, while parts are copied ({@code copiedParts}, {@code copiedBytes}), and COMPLETING
+   * to COMPLETED, or to FAILED. Aborting it while INITIATED stops the copy. The sources are left
+   * untouched.</p>
+   */
+  public UploadDto copy(Jwt jwt, CopyUploadRequest req) {
+    String userSub = jwt.getSubject();
+    List<UploadEntity> sources = loadCopySources(jwt, req.getSourceUploadIds());
+
+    String contentType = req.getContentType() == null || req.getContentType().isBlank()
+      ? sources.get(0).getContentType()
+      : req.getContentType();
+    if (!contentTypeAllowlist.isAllowed(contentType, uploadPolicy.getAllowedContentTypes())) {
+      throw new BadRequestException("Content-Type is not allowed");
+    }
+    long[] sizes = sources.stream().mapToLong(UploadEntity::getFileSize).toArray();
+    long fileSize = Arrays.stream(sizes).sum();
+    if (fileSize > uploadPolicy.getMaxFileSizeBytes()) {
+      throw new BadRequestException("File size exceeds maxFileSizeBytes");
+    }
+    CopyPlan plan = CopyPlan.of(sizes, copier.partSizeBytes(), s3Props.getMaxPartCount());
+    requireSessionCapacity(userSub, null);
+
+    OffsetDateTime now = OffsetDateTime.now();
+    UploadEntity draft = UploadEntity.builder()
+      .id(UUID.randomUUID())
+      .userSub(userSub)
+      .username(jwt.getClaimAsString("preferred_username"))
+      .bucket(s3Props.getBucket())
+      .objectKey(keyGenerator.generate(userSub, req.getFileName()))
+      .fileName(req.getFileName())
+      .contentType(contentType)
+      .fileSize(fileSize)
+      .partSize(plan.partSize())
+      .partCount(plan.partCount())
+      .uploadMode("COPY")
+      .sourceUploadIds(req.getSourceUploadIds().toArray(UUID[]::new))
+      .status("CREATING")
+      .createdAt(now)
+      .updatedAt(now)
+      .version(0)
+      .build();
+    UploadEntity saved = tx.execute(status -> repo.save(draft));
+    metrics.transitioned(saved.getStatus());
+
+    // read before handing off; the copy goes on updating the entity
+    UploadDto accepted = toDto(saved);
+    runCopy(saved, sources, plan);
+    return accepted;
+  }
+
+  /**
+   * @return the sources in request order (an upload may be listed more than once)
+   */
+  private List<UploadEntity> loadCopySources(Jwt jwt, List<UUID> ids) {
+    Map<UUID, UploadEntity> byId = new HashMap<>();
+    repo.findAllById(new LinkedHashSet<>(ids)).forEach(u -> byId.put(u.getId(), u));
+    List<UploadEntity> sources = new ArrayList<>(ids.size());
+    for (UUID id : ids) {
+      UploadEntity u = byId.get(id);
+      if (u == null) {
+        throw new NotFoundException("Upload not found: " + id);
+      }
+      requireOwner(jwt, u);
+      if (!"COMPLETED".equals(u.getStatus())) {
+        throw new ConflictException("Upload " + id + " is not COMPLETED");
+      }
+      sources.add(u);
+    }
+    return sources;
+  }
+
+  /**
+   * Second half of {@link #copy}, with no caller waiting: creates the multipart upload, copies the
+   * parts and completes. Each step commits its status like a client-driven upload, so
+   * {@link UploadCleanupJob} can settle a copy this instance did not live to finish.
+   */
+  private CompletableFuture<Void> runCopy(UploadEntity entity, List<UploadEntity> sources, CopyPlan plan) {
+    return s3Async.createMultipartUpload(entity.getBucket(), entity.getObjectKey(), entity.getContentType())
+      .thenCompose(uploadId -> {
+        entity.setS3UploadId(uploadId);
+        UploadEntity copying = transitions.save(entity, "INITIATED");
+        return copier.copy(copying, sources, plan).thenCompose(parts -> {
+          copying.setCompleteRequestedAt(OffsetDateTime.now());
+          UploadEntity completing = transitions.save(copying, "COMPLETING");
+          return s3Async.completeMultipartUpload(completing.getBucket(), completing.getObjectKey(), uploadId, parts)
+            .thenRun(() -> {
+              completing.setCompletedAt(OffsetDateTime.now());
+              transitions.save(completing, "COMPLETED");
+            });
+        });
+      })
+      .handle((done, ex) -> ex)
+      .thenCompose(ex -> ex == null ? CompletableFuture.<Void>completedFuture(null) : failCopy(entity.getId(), unwrap(ex)));
+  }
+
+  /**
+   * Aborts the multipart upload of a failed copy and marks it FAILED, unless the owner has
+   * aborted it meanwhile (which is also what made its remaining part copies fail).
+   */
+  private CompletableFuture<Void> failCopy(UUID uploadSessionId, Throwable cause) {
+    log.warn("Copy {} failed: {}", uploadSessionId, cause.toString());
+    UploadEntity u;
+    try {
+      u = repo.findById(uploadSessionId).orElse(null);
+    } catch (RuntimeException ex) {
+      // left CREATING or INITIATED for UploadCleanupJob
+      log.warn("Failed to load failed copy {}: {}", uploadSessionId, ex.toString());
+      return CompletableFuture.completedFuture(null);
+    }
+    if (u == null || !ACTIVE_STATUSES.contains(u.getStatus())) {
+      return CompletableFuture.completedFuture(null);
+    }
+    CompletableFuture<Void> abort = u.getS3UploadId() == null
+      ? CompletableFuture.completedFuture(null)
+      : s3Async.abortMultipartUpload(u.getBucket(), u.getObjectKey(), u.getS3UploadId())
+        .exceptionally(ex -> {
+          // left to the bucket's lifecycle rule for incomplete uploads
+          log.warn("Failed to abort multipart upload of copy {}: {}", uploadSessionId, unwrap(ex).toString());
+          return null;
+        });
+    return abort.thenRun(() -> transitions.settle(u, "FAILED"));
+  }
+
+  /**
+   * Completes the upload.
+   *
+   * <p>If the request carries no {@code parts}, the authoritative part list is read from S3
+   * (ListParts) and checked against the planned part count and sizes instead.</p>
+   *
+   * <p>The session is committed as COMPLETING before S3 is called and settled afterwards, each in
+   * its own short transaction; see {@link #completeAsync} for the queued variant.</p>
+   *
+   * @return the COMPLETED session; fails like {@link #runCompletion}
+   */
+  public CompletableFuture<UploadDto> complete(Jwt jwt, UUID uploadSessionId, CompleteUploadRequest req) {
+    List<CompletedPart> parts = beginCompletion(jwt, uploadSessionId, req, "INITIATED");
+    return runCompletion(uploadSessionId, parts);
+  }
+
+  /**
+   * Asynchronous variant of {@link #complete}: validates the request, moves the session to
+   * COMPLETING and leaves the S3 call to {@link UploadCompletionExecutor}.
+   *
+   * <p>If the uploaded parts turn out to be incomplete, the worker returns the session to
+   * INITIATED so the client can upload the rest and retry.</p>
+   *
+   * @return the session in COMPLETING state
+   * @throws ServiceUnavailableException if the completion queue is full
+   */
+  public UploadDto completeAsync(Jwt jwt, UUID uploadSessionId, CompleteUploadRequest req) {
+    if (!completions.tryReserve()) {
+      throw new ServiceUnavailableException("Too many uploads are completing; retry later", 5);
+    }
+    List<CompletedPart> parts;
+    UploadDto accepted;
+    try {
+      parts = beginCompletion(jwt, uploadSessionId, req, "INITIATED");
+      // read before handing off, so the response shows COMPLETING even if the worker is quick
+      accepted = get(jwt, uploadSessionId);
+    } catch (RuntimeException ex) {
+      completions.release();
+      throw ex;
+    }
+
+    completions.submit(uploadSessionId, () -> finishCompletion(uploadSessionId, parts));
+    return accepted;
+  }
+
+  /**
+   * Waits up to {@code timeout} for a COMPLETING session to reach its final state.
+   *
+   * <p>Only completions running on this instance can be awaited; otherwise (or on timeout) the
+   * current state is returned and the client keeps polling.</p>
+   */
+  public CompletableFuture<UploadDto> awaitCompletion(Jwt jwt, UUID uploadSessionId, Duration timeout) {
+    UploadDto current = get(jwt, uploadSessionId);
+    if (!"COMPLETING".equals(current.getStatus())) {
+      return CompletableFuture.completedFuture(current);
+    }
+    return completions.inFlight(uploadSessionId)
+      .map(f -> f.thenApply(dto -> dto)
+        .completeOnTimeout(null, timeout.toMillis(), TimeUnit.MILLISECONDS)
+        .exceptionally(ex -> null)
+        .thenApplyAsync(dto -> dto != null ? dto : get(jwt, uploadSessionId)))
+      // not running here, or finished since the first read
+      .orElseGet(() -> CompletableFuture.completedFuture(get(jwt, uploadSessionId)));
+  }
+
+  /**
+   * Validates the request and commits the COMPLETING intent.
+   *
+   * @param from INITIATED, or UPLOADING for the proxy upload holding the session
+   * @return client-supplied parts, or {@code null} when they are to be read from S3
+   */
+  private List<CompletedPart> beginCompletion(Jwt jwt, UUID uploadSessionId, CompleteUploadRequest req,
+                                              String from) {
+    return tx.execute(status -> {
+      UploadEntity u = repo.findById(uploadSessionId).orElseThrow(() -> new NotFoundException("Upload not found"));
+      requireOwner(jwt, u);
+      requireClientDriven(u);
+      if (!from.equals(u.getStatus())) {
+        throw new ConflictException("Upload is not in " + from + " state");
+      }
+
+      // client-supplied parts are validated now; an omitted list is read from S3 afterwards
+      boolean multipart = !"SINGLE_PUT".equals(u.getUploadMode());
+      List<CompletedPart> parts = multipart && req != null && req.getParts() != null
+        ? validateAndMapParts(u, req)
+        : null;
+
+      PresignWindow presigned = milestones.flush(u.getId());
+      if (presigned != null) {
+        applyPresignWindow(u, presigned);
+      }
+
+      OffsetDateTime now = OffsetDateTime.now();
+      u.setCompleteRequestedAt(now);
+      u.setStatus("COMPLETING");
+      u.setUpdatedAt(now);
+      repo.save(u);
+      sessionCache.invalidate(u.getId());
+      dropPartListing(u);
+      metrics.transitioned("COMPLETING");
+      return parts;
+    });
+  }
+
+  /**
+   * Worker side of {@link #completeAsync}: like {@link #runCompletion}, but reports failures as
+   * the resulting session state instead of throwing.
+   */
+  UploadDto finishCompletion(UUID uploadSessionId, List<CompletedPart> clientParts) {
+    try {
+      return runCompletion(uploadSessionId, clientParts).join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof ConflictException c) {
+        log.info("Upload {} is not ready to complete: {}", uploadSessionId, c.getMessage());
+      } else if (ex.getCause() instanceof UpstreamException u) {
+        log.warn("Failed to complete upload {} in S3: {}", uploadSessionId, u.toString());
+      } else {
+        throw ex;
+      }
+    }
+    return toDto(repo.findById(uploadSessionId).orElseThrow(() -> new NotFoundException("Upload not found")));
+  }
+
+  /**
+   * Calls S3 for a COMPLETING session (no transaction open) and settles the row once S3 answers.
+   *
+   * <p>The future fails with {@link ConflictException} when parts are missing (the session is back
+   * in INITIATED) or with {@link UpstreamException} when S3 fails (the session is FAILED).</p>
+   */
+  private CompletableFuture<UploadDto> runCompletion(UUID uploadSessionId, List<CompletedPart> clientParts) {
     UploadEntity u = repo.findById(uploadSessionId).orElseThrow(() -> new NotFoundException("Upload not found"));
-    requireOwner(jwt, u);
+    if (!"COMPLETING".equals(u.getStatus())) {
+      return CompletableFuture.completedFuture(toDto(u));
+    }
 
-    if ("COMPLETED".equals(u.getStatus())) {
-      throw new ConflictException("Cannot abort a COMPLETED upload");
+    CompletableFuture<Void> s3Call;
+    if ("SINGLE_PUT".equals(u.getUploadMode())) {
+      s3Call = verifySinglePut(u);
+    } else if (clientParts != null) {
+      s3Call = s3Async.completeMultipartUpload(u.getBucket(), u.getObjectKey(), u.getS3UploadId(), clientParts);
+    } else {
+      s3Call = partsFromS3Listing(u).thenCompose(parts ->
+        s3Async.completeMultipartUpload(u.getBucket(), u.getObjectKey(), u.getS3UploadId(), parts));
     }
-    if ("ABORTED".equals(u.getStatus())) {
-      return;
+
+    return s3Call.handle((done, ex) -> {
+      if (ex == null) {
+        u.setCompletedAt(OffsetDateTime.now());
+        UploadEntity completed = transitions.save(u, "COMPLETED");
+        throughput.recordCompleted(completed);
+        return toDto(completed);
+      }
+      Throwable cause = unwrap(ex);
+      if (cause instanceof ConflictException conflict) {
+        // not everything has been uploaded yet; let the client finish and retry
+        transitions.save(u, "INITIATED");
+        throw conflict;
+      }
+      if (cause instanceof SdkException || cause instanceof UpstreamException) {
+        transitions.save(u, "FAILED");
+      }
+      throw upstream("Failed to complete multipart upload in S3", cause);
+    });
+  }
+
+  /**
+   * Mirrors a just-written presign window on the loaded entity (the columns are not written by JPA).
+   */
+  private static void applyPresignWindow(UploadEntity u, PresignWindow w) {
+    OffsetDateTime first = w.first().atOffset(ZoneOffset.UTC);
+    OffsetDateTime last = w.last().atOffset(ZoneOffset.UTC);
+    if (u.getFirstPartPresignedAt() == null || first.isBefore(u.getFirstPartPresignedAt())) {
+      u.setFirstPartPresignedAt(first);
+    }
+    if (u.getLastPartPresignedAt() == null || last.isAfter(u.getLastPartPresignedAt())) {
+      u.setLastPartPresignedAt(last);
+    }
+  }
+
+  /**
+   * Drops the cached part listing of a session leaving INITIATED. Its parts change from here on,
+   * and a session that comes back to INITIATED must not be resumed from the old listing.
+   */
+  private void dropPartListing(UploadEntity u) {
+    if (u.getS3UploadId() != null) {
+      partListings.invalidate(u.getS3UploadId());
     }
+  }
+
+  /**
+   * Saves a status change in its own short transaction and drops the cached session.
+   *
+   * @return the saved entity (carrying the new version)
+   */
+  /**
+   * A single PUT has nothing to assemble; HeadObject confirms the object landed with the declared size.
+   */
+  private CompletableFuture<Void> verifySinglePut(UploadEntity u) {
+    return s3Async.headObjectSize(u.getBucket(), u.getObjectKey()).handle((size, ex) -> {
+      if (ex != null) {
+        throw upstream("Failed to check uploaded object in S3", ex);
+      }
+      if (size.isEmpty()) {
+        throw new ConflictException("Object has not been uploaded yet");
+      }
+      if (size.getAsLong() != u.getFileSize()) {
+        throw new ConflictException("Uploaded object has " + size.getAsLong() + " bytes, expected " + u.getFileSize());
+      }
+      return null;
+    });
+  }
+
+  /**
+   * Aborts the upload: commits ABORTING, aborts in S3, then commits ABORTED. If S3 fails the
+   * previous status is restored; a crash in between is finished by {@link UploadCleanupJob}.
+   */
+  public CompletableFuture<Void> abort(Jwt jwt, UUID uploadSessionId) {
+    String[] previous = new String[1];
+    UploadEntity u = tx.execute(status -> {
+      UploadEntity e = repo.findById(uploadSessionId).orElseThrow(() -> new NotFoundException("Upload not found"));
+      requireOwner(jwt, e);
 
+      if ("COMPLETED".equals(e.getStatus())) {
+        throw new ConflictException("Cannot abort a COMPLETED upload");
+      }
+      if ("COMPLETING".equals(e.getStatus()) || "CREATING".equals(e.getStatus())
+        || "UPLOADING".equals(e.getStatus())) {
+        throw new ConflictException("Cannot abort an upload that is " + e.getStatus());
+      }
+      if ("ABORTED".equals(e.getStatus())) {
+        return null;
+      }
+      previous[0] = e.getStatus();
+      UploadEntity aborting = transitions.save(e, "ABORTING");
+      dropPartListing(aborting);
+      return aborting;
+    });
+    if (u == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    CompletableFuture<Void> s3Call = "SINGLE_PUT".equals(u.getUploadMode())
+      // the pre-signed PUT may already have landed; nothing else to abort
+      ? s3Async.deleteObject(u.getBucket(), u.getObjectKey())
+      : s3Async.abortMultipartUpload(u.getBucket(), u.getObjectKey(), u.getS3UploadId());
+
+    return s3Call.handle((done, ex) -> {
+      // NoSuchUpload: already gone in S3 (e.g. a retried abort); nothing left to clean up
+      if (ex != null && !(unwrap(ex) instanceof NoSuchUploadException)) {
+        transitions.save(u, previous[0]);
+        throw upstream("Failed to abort multipart upload in S3", ex);
+      }
+      transitions.save(u, "ABORTED");
+      return null;
+    });
+  }
+
+
+  /**
+   * Download plan of a COMPLETED upload: one range per uploaded part, all fetched through one
+   * pre-signed GetObject URL. Signing costs one signature per plan however many ranges it has.
+   *
+   * <p>Client-driven uploads are cut at every {@code partSize}. The parts of a COPY are equal
+   * ranges of each source (see {@link CopyPlan}), so its ranges are rebuilt from the sources'
+   * sizes.</p>
+   */
+  public DownloadPlanDto downloadPlan(Jwt jwt, UUID uploadSessionId) {
+    UploadEntity u = repo.findById(uploadSessionId).orElseThrow(() -> new NotFoundException("Upload not found"));
+    requireOwner(jwt, u);
+    if (!"COMPLETED".equals(u.getStatus())) {
+      throw new ConflictException("Upload is not COMPLETED");
+    }
+    List<DownloadPlanDto.Range> ranges = "COPY".equals(u.getUploadMode()) ? copiedRanges(u) : partRanges(u);
+
+    PresignedUrl url;
     try {
-      s3.abortMultipartUpload(u.getBucket(), u.getObjectKey(), u.getS3UploadId());
+      url = s3.presignGetObjectUrl(u.getBucket(), u.getObjectKey());
     } catch (SdkException ex) {
-      throw new UpstreamException("Failed to abort multipart upload in S3", ex);
+      throw new UpstreamException("Failed to presign download url", ex);
     }
+    return toDownloadPlan(u, ranges, url);
+  }
 
-    u.setStatus("ABORTED");
-    u.setUpdatedAt(OffsetDateTime.now());
-    repo.save(u);
+  /**
+   * The parts S3 holds for a COPY: its {@link CopyPlan} again, from the sources' sizes. With the
+   * copy's own part size and count as bounds, {@link CopyPlan#of} lands on the same plan.
+   */
+  private List<DownloadPlanDto.Range> copiedRanges(UploadEntity u) {
+    UUID[] ids = u.getSourceUploadIds();
+    Map<UUID, Long> sizes = new HashMap<>();
+    repo.findAllById(new LinkedHashSet<>(Arrays.asList(ids))).forEach(s -> sizes.put(s.getId(), s.getFileSize()));
+    long[] sourceSizes = new long[ids.length];
+    // where each source starts in the copy
+    long[] offsets = new long[ids.length];
+    for (int i = 0; i < ids.length; i++) {
+      Long size = sizes.get(ids[i]);
+      if (size == null) {
+        throw new NotFoundException("Source upload not found: " + ids[i]);
+      }
+      sourceSizes[i] = size;
+      offsets[i] = i == 0 ? 0 : offsets[i - 1] + sourceSizes[i - 1];
+    }
+    CopyPlan plan = CopyPlan.of(sourceSizes, u.getPartSize(), u.getPartCount());
+    List<DownloadPlanDto.Range> ranges = new ArrayList<>(plan.partCount());
+    for (CopyPlan.Range r : plan.parts()) {
+      long offset = offsets[r.source()];
+      ranges.add(downloadRange(r.partNumber(), offset + r.firstByte(), offset + r.lastByte()));
+    }
+    return ranges;
   }
 
   @Transactional(readOnly = true)
@@ -179,11 +850,108 @@ public class UploadService {
     return toDto(u);
   }
 
+  /**
+   * Keyset-paginated listing of the caller's uploads, newest first.
+   *
+   * @param statuses optional status filter
+   * @param cursor   {@code nextCursor} of the previous page, or {@code null} for the first page
+   */
   @Transactional(readOnly = true)
-  public List<UploadDto> listMine(Jwt jwt) {
-    return repo.findTop50ByUserSubOrderByCreatedAtDesc(jwt.getSubject()).stream()
-      .map(this::toDto)
+  public UploadPageDto listMine(Jwt jwt, List<String> statuses, OffsetDateTime createdFrom, OffsetDateTime createdTo,
+                                String cursor, int limit) {
+    UploadListCursor after = cursor == null || cursor.isBlank() ? null : UploadListCursor.decode(cursor);
+    List<String> normalized = statuses == null ? List.of() : statuses.stream()
+      .filter(st -> st != null && !st.isBlank())
+      .map(st -> st.trim().toUpperCase(Locale.ROOT))
       .toList();
+
+    // one extra row tells whether another page follows
+    List<UploadListRow> rows = repo.findPageByUserSub(jwt.getSubject(), normalized, createdFrom, createdTo,
+      after == null ? null : after.createdAt(), after == null ? null : after.id(), limit + 1);
+
+    boolean more = rows.size() > limit;
+    List<UploadListRow> page = more ? rows.subList(0, limit) : rows;
+    UploadListRow last = page.isEmpty() ? null : page.get(page.size() - 1);
+    return UploadPageDto.builder()
+      .items(page.stream().map(UploadService::toDto).toList())
+      .nextCursor(more ? new UploadListCursor(last.createdAt(), last.id()).encode() : null)
+      .build();
+  }
+
+  private UploadSessionDescriptor loadForPresign(Jwt jwt, UUID uploadSessionId, String sessionToken) {
+    Optional<UploadSessionDescriptor> fromToken = sessionTokens.verify(sessionToken)
+      .filter(t -> t.id().equals(uploadSessionId) && Objects.equals(t.userSub(), jwt.getSubject()));
+    if (fromToken.isPresent()) {
+      // the token was issued to the INITIATED session and carries no status; a status cached here
+      // is newer. Without one, the token is trusted until it expires (session-token.ttl-minutes).
+      sessionCache.peek(uploadSessionId).ifPresent(UploadService::requireInitiated);
+      requireClientDriven(fromToken.get());
+      return fromToken.get();
+    }
+
+    UploadSessionDescriptor u = sessionCache.find(uploadSessionId)
+      .orElseThrow(() -> new NotFoundException("Upload not found"));
+    requireOwner(jwt, u.userSub());
+    requireInitiated(u);
+    requireClientDriven(u);
+    if (u.s3UploadId() == null) {
+      throw new ConflictException("Upload uses a single PUT; use putUrl from the create response");
+    }
+    return u;
+  }
+
+  private List<Integer> resolvePartNumbers(int partCount, PresignPartUrlsRequest req) {
+    boolean hasRange = req.getFromPartNumber() != null || req.getToPartNumber() != null;
+    boolean hasList = req.getPartNumbers() != null && !req.getPartNumbers().isEmpty();
+    if (hasRange == hasList) {
+      throw new BadRequestException("Specify either fromPartNumber/toPartNumber or partNumbers");
+    }
+
+    List<Integer> partNumbers;
+    if (hasRange) {
+      int from = req.getFromPartNumber() == null ? 1 : req.getFromPartNumber();
+      int to = req.getToPartNumber() == null ? partCount : req.getToPartNumber();
+      if (from < 1 || to > partCount || from > to) {
+        throw new BadRequestException("Part range must be within 1.." + partCount);
+      }
+      if (to - from + 1 > s3Props.getPresignBatchMaxParts()) {
+        throw new BadRequestException("At most " + s3Props.getPresignBatchMaxParts() + " parts per request");
+      }
+      partNumbers = new ArrayList<>(to - from + 1);
+      for (int pn = from; pn <= to; pn++) {
+        partNumbers.add(pn);
+      }
+    } else {
+      partNumbers = req.getPartNumbers();
+      if (partNumbers.size() > s3Props.getPresignBatchMaxParts()) {
+        throw new BadRequestException("At most " + s3Props.getPresignBatchMaxParts() + " parts per request");
+      }
+      for (Integer pn : partNumbers) {
+        if (pn == null || pn < 1 || pn > partCount) {
+          throw new BadRequestException("Invalid partNumber: " + pn);
+        }
+      }
+    }
+    return partNumbers;
+  }
+
+  /**
+   * Caps the user's open sessions. Soft: concurrent creates may overshoot by the number in flight.
+   */
+  private void requireSessionCapacity(String userSub, String idem) {
+    if (!admission.limitsActiveSessions()
+      || admission.hasSessionCapacity(repo.countByUserSubAndStatusIn(userSub, ACTIVE_STATUSES))) {
+      return;
+    }
+    // a retry of an existing session opens nothing new
+    if (idem == null || repo.findByUserSubAndIdempotencyKey(userSub, idem).isEmpty()) {
+      throw admission.sessionCapacityExceeded();
+    }
+  }
+
+  private long singlePutMaxBytes() {
+    Long max = uploadPolicy.getSinglePutMaxBytes();
+    return max == null ? 0 : Math.min(max, SINGLE_PUT_LIMIT_BYTES);
   }
 
   private void validateCreate(CreateUploadRequest req) {
@@ -201,66 +969,296 @@ public class UploadService {
     return v.isBlank() ? null : v;
   }
 
-  private static int calcPartCount(long fileSize, long partSize) {
-    return (int) ((fileSize + partSize - 1) / partSize);
+  private static void requireInitiated(UploadSessionDescriptor u) {
+    if (!"INITIATED".equals(u.status())) {
+      throw new ConflictException("Upload is not in INITIATED state");
+    }
+  }
+
+  /** COPY sessions are completed by {@link #runCopy}, not by the client. */
+  private static void requireClientDriven(UploadEntity u) {
+    requireClientDriven(u.getUploadMode());
+  }
+
+  private static void requireClientDriven(UploadSessionDescriptor u) {
+    requireClientDriven(u.uploadMode());
+  }
+
+  private static void requireClientDriven(String uploadMode) {
+    if ("COPY".equals(uploadMode)) {
+      throw new ConflictException("A copy completes on its own");
+    }
   }
 
   private static void requireOwner(Jwt jwt, UploadEntity u) {
-    if (!Objects.equals(jwt.getSubject(), u.getUserSub())) {
+    requireOwner(jwt, u.getUserSub());
+  }
+
+  private static void requireOwner(Jwt jwt, String ownerSub) {
+    if (!Objects.equals(jwt.getSubject(), ownerSub)) {
       throw new ForbiddenException("Not owner of upload");
     }
   }
 
-  private List<CompletedPart> validateAndMapParts(UploadEntity u, CompleteUploadRequest req) {
-    if (req.getParts() == null || req.getParts().isEmpty()) {
+  /**
+   * Validates the client's part list and maps it to SDK parts ordered by part number.
+   *
+   * <p>Single pass over primitive arrays: duplicates are tracked in a {@link BitSet} and each
+   * ETag is placed directly at index {@code partNumber - 1}, so no boxing or sort is needed.</p>
+   *
+   * <p>Package-private and static so it can be benchmarked in isolation (see src/jmh).</p>
+   */
+  static List<CompletedPart> validateAndMapParts(UploadEntity u, CompleteUploadRequest req) {
+    CompletedPartList parts = req.getParts();
+    if (parts == null || parts.isEmpty()) {
       throw new BadRequestException("Parts list is required");
     }
 
-    // Validate uniqueness and range
-    Set<Integer> seen = new HashSet<>();
-    for (CompletedPartDto p : req.getParts()) {
-      int pn = p.getPartNumber();
-      if (pn < 1 || pn > u.getPartCount()) {
+    int partCount = u.getPartCount();
+    BitSet seen = new BitSet(partCount + 1);
+    String[] eTagByPart = new String[partCount];
+    for (int i = 0; i < parts.size(); i++) {
+      int pn = parts.partNumber(i);
+      if (pn < 1 || pn > partCount) {
         throw new BadRequestException("Invalid partNumber: " + pn);
       }
-      if (!seen.add(pn)) {
+      if (seen.get(pn)) {
         throw new BadRequestException("Duplicate partNumber: " + pn);
       }
-      if (p.getETag() == null || p.getETag().isBlank()) {
+      seen.set(pn);
+      String eTag = normalizeEtag(parts.eTag(i));
+      if (eTag == null) {
         throw new BadRequestException("Missing ETag for partNumber: " + pn);
       }
+      eTagByPart[pn - 1] = eTag;
     }
 
     // In strict mode, we require all parts.
-    if (seen.size() != u.getPartCount()) {
-      throw new BadRequestException("Expected " + u.getPartCount() + " parts, got " + seen.size());
+    if (parts.size() != partCount) {
+      throw new BadRequestException("Expected " + partCount + " parts, got " + parts.size());
     }
 
-    return req.getParts().stream()
-      .sorted(Comparator.comparingInt(CompletedPartDto::getPartNumber))
-      .map(p -> CompletedPart.builder()
-        .partNumber(p.getPartNumber())
-        .eTag(normalizeEtag(p.getETag()))
-        .build())
-      .toList();
+    CompletedPart[] ordered = new CompletedPart[partCount];
+    for (int i = 0; i < partCount; i++) {
+      ordered[i] = CompletedPart.builder().partNumber(i + 1).eTag(eTagByPart[i]).build();
+    }
+    return Arrays.asList(ordered);
+  }
+
+  private CompletableFuture<List<CompletedPart>> partsFromS3Listing(UploadEntity u) {
+    return s3Async.listParts(u.getBucket(), u.getObjectKey(), u.getS3UploadId(), u.getPartCount())
+      .handle((listed, ex) -> {
+        if (ex != null) {
+          throw upstream("Failed to list uploaded parts in S3", ex);
+        }
+        return verifyListedParts(u, listed);
+      });
+  }
+
+  private static Throwable unwrap(Throwable ex) {
+    return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
   }
 
-  private static String normalizeEtag(String etag) {
-    String e = etag.trim();
-    if (e.startsWith(""") && e.endsWith(""") && e.length() >= 2) {
-      return e.substring(1, e.length() - 1);
+  /**
+   * Maps a failed S3 future to the exception to rethrow: SDK errors become {@link UpstreamException},
+   * anything already translated (or unexpected) passes through unchanged.
+   */
+  private static RuntimeException upstream(String message, Throwable ex) {
+    Throwable cause = unwrap(ex);
+    if (cause instanceof SdkException) {
+      return new UpstreamException(message, cause);
     }
-    return e;
+    return cause instanceof RuntimeException re ? re : new CompletionException(cause);
   }
 
-  private CreateUploadResponse toCreateResponse(UploadEntity u, String baseUrl) {
+  /**
+   * A listed part counts as uploaded only if it has the planned size; anything else (including a
+   * short non-final part from an interrupted PUT) is reported as missing so the client re-sends it.
+   */
+  static UploadManifestDto toManifest(UploadSessionDescriptor u, List<UploadedPart> listed) {
+    int partCount = u.partCount();
+    long lastPartSize = u.fileSize() - (partCount - 1) * u.partSize();
+
+    List<UploadManifestDto.Part> parts = new ArrayList<>(Math.min(listed.size(), partCount));
+    List<UploadManifestDto.Range> missing = new ArrayList<>();
+    long uploadedBytes = 0;
+    int next = 1;
+    for (UploadedPart p : listed) {
+      int pn = p.partNumber();
+      if (pn < next || pn > partCount) {
+        continue;
+      }
+      long expectedSize = pn == partCount ? lastPartSize : u.partSize();
+      if (p.size() != expectedSize) {
+        continue;
+      }
+      if (pn > next) {
+        missing.add(new UploadManifestDto.Range(next, pn - 1));
+      }
+      parts.add(new UploadManifestDto.Part(pn, p.size(), normalizeEtag(p.eTag())));
+      uploadedBytes += p.size();
+      next = pn + 1;
+    }
+    if (next <= partCount) {
+      missing.add(new UploadManifestDto.Range(next, partCount));
+    }
+
+    return UploadManifestDto.builder()
+      .uploadId(u.id())
+      .fileSize(u.fileSize())
+      .partSize(u.partSize())
+      .partCount(partCount)
+      .uploadedBytes(uploadedBytes)
+      .parts(parts)
+      .missing(missing)
+      .build();
+  }
+
+  /**
+   * Checks S3's part list against the session plan: parts 1..partCount, each exactly once, every
+   * part {@code partSize} bytes except the last, which holds the remainder of {@code fileSize}.
+   */
+  static List<CompletedPart> verifyListedParts(UploadEntity u, List<UploadedPart> listed) {
+    int partCount = u.getPartCount();
+    long lastPartSize = u.getFileSize() - (partCount - 1) * u.getPartSize();
+
+    CompletedPart[] ordered = new CompletedPart[partCount];
+    int expected = 1;
+    for (UploadedPart p : listed) {
+      int pn = p.partNumber();
+      if (pn > partCount) {
+        throw new ConflictException("Unexpected part " + pn + " (partCount is " + partCount + ")");
+      }
+      if (pn != expected) {
+        throw new ConflictException("Upload incomplete: part " + expected + " is missing");
+      }
+      long expectedSize = pn == partCount ? lastPartSize : u.getPartSize();
+      if (p.size() != expectedSize) {
+        throw new ConflictException("Part " + pn + " has " + p.size() + " bytes, expected " + expectedSize);
+      }
+      ordered[pn - 1] = CompletedPart.builder().partNumber(pn).eTag(normalizeEtag(p.eTag())).build();
+      expected++;
+    }
+    if (expected <= partCount) {
+      throw new ConflictException("Upload incomplete: part " + expected + " is missing");
+    }
+    return Arrays.asList(ordered);
+  }
+
+  /**
+   * Trims whitespace and one pair of surrounding quotes with at most one substring.
+   *
+   * @return the normalized ETag, or {@code null} if it is missing or blank
+   */
+  static String normalizeEtag(String etag) {
+    if (etag == null) {
+      return null;
+    }
+    int start = 0;
+    int end = etag.length();
+    while (start < end && etag.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && etag.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    if (start == end) {
+      return null;
+    }
+    if (end - start >= 2 && etag.charAt(start) == '"' && etag.charAt(end - 1) == '"') {
+      start++;
+      end--;
+    }
+    return start == 0 && end == etag.length() ? etag : etag.substring(start, end);
+  }
+
+  /** {@code fileSize} cut at every {@code partSize}. */
+  static List<DownloadPlanDto.Range> partRanges(UploadEntity u) {
+    long fileSize = u.getFileSize();
+    long partSize = Math.max(1, u.getPartSize());
+    int rangeCount = (int) ((fileSize + partSize - 1) / partSize);
+    List<DownloadPlanDto.Range> ranges = new ArrayList<>(rangeCount);
+    for (int i = 0; i < rangeCount; i++) {
+      long first = i * partSize;
+      ranges.add(downloadRange(i + 1, first, Math.min(fileSize, first + partSize) - 1));
+    }
+    return ranges;
+  }
+
+  private static DownloadPlanDto.Range downloadRange(int partNumber, long first, long last) {
+    return new DownloadPlanDto.Range(partNumber, first, last, "bytes=" + first + '-' + last);
+  }
+
+  static DownloadPlanDto toDownloadPlan(UploadEntity u, List<DownloadPlanDto.Range> ranges, PresignedUrl url) {
+    return DownloadPlanDto.builder()
+      .uploadId(u.getId())
+      .fileName(u.getFileName())
+      .contentType(u.getContentType())
+      .fileSize(u.getFileSize())
+      .partSize(Math.max(1, u.getPartSize()))
+      .rangeCount(ranges.size())
+      .url(url.url())
+      .expiresAt(url.expiresAt().atOffset(ZoneOffset.UTC))
+      .ranges(ranges)
+      .build();
+  }
+
+  private static PresignedPartUrlResponse toPartUrlResponse(int partNumber, PresignedUrl url) {
+    // cached URLs may be older than this request, so report the signature's own expiry
+    return new PresignedPartUrlResponse(partNumber, url.url(), url.expiresAt().atOffset(ZoneOffset.UTC));
+  }
+
+  /**
+   * @param plan the plan the session was just created with, or {@code null} for an idempotent replay
+   *             and single-PUT uploads
+   */
+  private CreateUploadResponse toCreateResponse(UploadEntity u, String baseUrl, PartPlan plan) {
+    if ("SINGLE_PUT".equals(u.getUploadMode())) {
+      PresignedPutUrl put;
+      try {
+        put = s3.presignPutObjectUrl(u.getBucket(), u.getObjectKey(), u.getContentType(), u.getFileSize());
+      } catch (SdkException ex) {
+        throw new UpstreamException("Failed to presign put url", ex);
+      }
+      return CreateUploadResponse.builder()
+        .uploadId(u.getId())
+        .objectKey(u.getObjectKey())
+        .uploadMode(u.getUploadMode())
+        .partSize(u.getPartSize())
+        .partCount(u.getPartCount())
+        .expiresAt(put.expiresAt().atOffset(ZoneOffset.UTC))
+        .putUrl(put.url())
+        .putHeaders(put.headers())
+        .build();
+    }
+
     return CreateUploadResponse.builder()
       .uploadId(u.getId())
       .objectKey(u.getObjectKey())
+      .uploadMode(u.getUploadMode())
       .partSize(u.getPartSize())
       .partCount(u.getPartCount())
+      .recommendedConcurrency(plan == null ? null : plan.recommendedConcurrency())
+      .partSizeStrategy(plan == null ? null : plan.strategy().name())
       .expiresAt(OffsetDateTime.now().plusMinutes(s3Props.getPresignExpirationMinutes()))
       .partUrlEndpoint(baseUrl + "/api/uploads/" + u.getId() + "/parts/{partNumber}/url")
+      .sessionToken(sessionTokens.issue(u))
+      .build();
+  }
+
+  private static UploadDto toDto(UploadListRow r) {
+    return UploadDto.builder()
+      .id(r.id())
+      .objectKey(r.objectKey())
+      .fileName(r.fileName())
+      .contentType(r.contentType())
+      .fileSize(r.fileSize())
+      .status(r.status())
+      .uploadMode(r.uploadMode())
+      .partSize(r.partSize())
+      .partCount(r.partCount())
+      .createdAt(r.createdAt())
+      .completedAt(r.completedAt())
       .build();
   }
 
@@ -272,10 +1270,27 @@ public class UploadService {
       .contentType(u.getContentType())
       .fileSize(u.getFileSize())
       .status(u.getStatus())
+      .uploadMode(u.getUploadMode())
       .partSize(u.getPartSize())
       .partCount(u.getPartCount())
       .createdAt(u.getCreatedAt())
       .completedAt(u.getCompletedAt())
+      .firstPartPresignedAt(u.getFirstPartPresignedAt())
+      .lastPartPresignedAt(u.getLastPartPresignedAt())
+      .completeRequestedAt(u.getCompleteRequestedAt())
+      .bytesPerSecond(transferBytesPerSecond(u))
+      .sourceUploadIds(u.getSourceUploadIds() == null ? null : List.of(u.getSourceUploadIds()))
+      .copiedParts(u.getCopiedParts())
+      .copiedBytes(u.getCopiedBytes())
       .build();
   }
+
+  private static Long transferBytesPerSecond(UploadEntity u) {
+    if (u.getCompleteRequestedAt() == null) {
+      return null;
+    }
+    OffsetDateTime start = u.getFirstPartPresignedAt() != null ? u.getFirstPartPresignedAt() : u.getCreatedAt();
+    return UploadThroughputAnalytics.effectiveBytesPerSecond(u.getFileSize(),
+      Duration.between(start, u.getCompleteRequestedAt()).toMillis());
+  }
 }
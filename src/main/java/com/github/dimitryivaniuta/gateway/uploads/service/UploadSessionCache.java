@@ -0,0 +1,126 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.dimitryivaniuta.gateway.config.UploadPolicyProperties;
+import com.github.dimitryivaniuta.gateway.uploads.repo.UploadRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Read-through near cache of {@link UploadSessionDescriptor}s in front of {@link UploadRepository}.
+ *
+ * <p>Every status change must call {@link #invalidate(UUID)}. Local entries are dropped after the
+ * surrounding transaction commits, and other replicas are told via PostgreSQL {@code NOTIFY}
+ * (delivered on commit) — see {@link UploadSessionInvalidationListener}. The TTL bounds staleness
+ * if a notification is ever missed.</p>
+ */
+@Slf4j
+@Component
+public class UploadSessionCache {
+
+  public static final String CHANNEL = "upload_session_invalidated";
+
+  private final UploadPolicyProperties policy;
+  private final UploadRepository repo;
+  private final JdbcTemplate jdbc;
+  private final Cache<UUID, UploadSessionDescriptor> cache;
+
+  public UploadSessionCache(UploadPolicyProperties policy,
+                            UploadRepository repo,
+                            JdbcTemplate jdbc,
+                            MeterRegistry registry) {
+    this.policy = policy;
+    this.repo = repo;
+    this.jdbc = jdbc;
+    this.cache = Caffeine.newBuilder()
+      .maximumSize(policy.getSessionCacheMaxEntries())
+      .expireAfterWrite(Duration.ofSeconds(policy.getSessionCacheTtlSeconds()))
+      .recordStats()
+      .build();
+    CaffeineCacheMetrics.monitor(registry, cache, "uploadSessions");
+  }
+
+  public Optional<UploadSessionDescriptor> find(UUID id) {
+    if (!policy.isSessionCacheEnabled()) {
+      return repo.findById(id).map(UploadSessionDescriptor::of);
+    }
+    // a null mapping is not cached, so unknown ids always go to the database
+    return Optional.ofNullable(cache.get(id, k -> repo.findById(k).map(UploadSessionDescriptor::of).orElse(null)));
+  }
+
+  /**
+   * The cached descriptor, if this replica holds one; never goes to the database.
+   */
+  public Optional<UploadSessionDescriptor> peek(UUID id) {
+    return Optional.ofNullable(cache.getIfPresent(id));
+  }
+
+  /**
+   * Drops the session locally once the current transaction commits and notifies other replicas.
+   */
+  public void invalidate(UUID id) {
+    if (!policy.isSessionCacheEnabled()) {
+      return;
+    }
+    if (policy.isSessionCacheNotifyEnabled()) {
+      try {
+        jdbc.query("SELECT pg_notify(?, ?)", rs -> null, CHANNEL, id.toString());
+      } catch (RuntimeException ex) {
+        // peers fall back to TTL expiry
+        log.warn("Failed to publish session invalidation for {}: {}", id, ex.toString());
+      }
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          cache.invalidate(id);
+        }
+      });
+    } else {
+      cache.invalidate(id);
+    }
+  }
+
+  /**
+   * Batch form of {@link #invalidate(UUID)} for callers outside a transaction: one NOTIFY
+   * statement for all ids.
+   */
+  public void invalidateAll(Collection<UUID> ids) {
+    if (!policy.isSessionCacheEnabled() || ids.isEmpty()) {
+      return;
+    }
+    if (policy.isSessionCacheNotifyEnabled()) {
+      try {
+        jdbc.query(con -> {
+          PreparedStatement ps = con.prepareStatement("SELECT pg_notify(?, id::text) FROM unnest(?) AS t(id)");
+          ps.setString(1, CHANNEL);
+          ps.setArray(2, con.createArrayOf("uuid", ids.toArray()));
+          return ps;
+        }, rs -> null);
+      } catch (RuntimeException ex) {
+        log.warn("Failed to publish session invalidation for {} uploads: {}", ids.size(), ex.toString());
+      }
+    }
+    cache.invalidateAll(ids);
+  }
+
+  void invalidateLocal(UUID id) {
+    cache.invalidate(id);
+  }
+
+  void invalidateAllLocal() {
+    cache.invalidateAll();
+  }
+}
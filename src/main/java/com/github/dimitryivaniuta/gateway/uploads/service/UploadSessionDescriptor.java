@@ -0,0 +1,40 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import com.github.dimitryivaniuta.gateway.uploads.domain.UploadEntity;
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of the upload session fields needed to authorize and sign part URLs
+ * and to build the resume manifest.
+ *
+ * @param uploadMode MULTIPART, SINGLE_PUT or COPY
+ * @param status the session status, or {@code null} when read from a session token
+ */
+public record UploadSessionDescriptor(
+  UUID id,
+  String userSub,
+  String bucket,
+  String objectKey,
+  String s3UploadId,
+  long fileSize,
+  long partSize,
+  int partCount,
+  String uploadMode,
+  String status
+) {
+
+  public static UploadSessionDescriptor of(UploadEntity u) {
+    return new UploadSessionDescriptor(
+      u.getId(),
+      u.getUserSub(),
+      u.getBucket(),
+      u.getObjectKey(),
+      u.getS3UploadId(),
+      u.getFileSize(),
+      u.getPartSize(),
+      u.getPartCount(),
+      u.getUploadMode(),
+      u.getStatus()
+    );
+  }
+}
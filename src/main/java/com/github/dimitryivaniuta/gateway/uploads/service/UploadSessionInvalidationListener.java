@@ -0,0 +1,107 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import com.github.dimitryivaniuta.gateway.config.UploadPolicyProperties;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies session invalidations published by other replicas via PostgreSQL {@code LISTEN}.
+ *
+ * <p>Uses its own connection outside the pool so it never pins a Hikari connection. After a
+ * connection loss, or any other failure of the loop, the whole near cache is cleared, since
+ * notifications may have been missed.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UploadSessionInvalidationListener implements SmartLifecycle {
+
+  private static final int POLL_TIMEOUT_MS = 5_000;
+  private static final long RECONNECT_DELAY_MS = 5_000;
+
+  private final UploadSessionCache cache;
+  private final UploadPolicyProperties policy;
+  private final DataSourceProperties dataSource;
+
+  private volatile boolean running;
+  private Thread worker;
+
+  @Override
+  public void start() {
+    if (!policy.isSessionCacheEnabled() || !policy.isSessionCacheNotifyEnabled()) {
+      return;
+    }
+    running = true;
+    worker = Thread.ofPlatform().name("upload-session-listener").daemon().start(this::run);
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    if (worker != null) {
+      worker.interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void run() {
+    while (running) {
+      try (Connection conn = DriverManager.getConnection(
+        dataSource.determineUrl(), dataSource.determineUsername(), dataSource.determinePassword())) {
+        try (Statement st = conn.createStatement()) {
+          st.execute("LISTEN " + UploadSessionCache.CHANNEL);
+        }
+        // anything published while we were disconnected is lost
+        cache.invalidateAllLocal();
+        PGConnection pg = conn.unwrap(PGConnection.class);
+        while (running) {
+          PGNotification[] notifications = pg.getNotifications(POLL_TIMEOUT_MS);
+          if (notifications == null) {
+            continue;
+          }
+          for (PGNotification n : notifications) {
+            apply(n.getParameter());
+          }
+        }
+      } catch (SQLException | RuntimeException ex) {
+        // a runtime failure (driver bug, cache error) must not end the thread for good
+        if (!running) {
+          return;
+        }
+        log.warn("Session invalidation listener disconnected: {}", ex.toString());
+        cache.invalidateAllLocal();
+        sleepBeforeReconnect();
+      }
+    }
+  }
+
+  private void apply(String payload) {
+    try {
+      cache.invalidateLocal(UUID.fromString(payload));
+    } catch (IllegalArgumentException ex) {
+      log.warn("Ignoring malformed session invalidation payload: {}", payload);
+    }
+  }
+
+  private void sleepBeforeReconnect() {
+    try {
+      Thread.sleep(RECONNECT_DELAY_MS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
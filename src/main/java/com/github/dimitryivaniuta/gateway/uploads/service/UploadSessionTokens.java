@@ -0,0 +1,147 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import com.github.dimitryivaniuta.gateway.config.SessionTokenProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dimitryivaniuta.gateway.uploads.domain.UploadEntity;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import java.io.IOException;
+import java.security.Key;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Issues and verifies HMAC-signed upload session tokens (compact JWS, HS256).
+ *
+ * <p>A token carries everything needed to sign part URLs, so the presign path can skip the
+ * database entirely. It is issued to an INITIATED session but does not carry or track the status:
+ * callers check it against what they know of the session (see {@code UploadService}). A token
+ * kept past a status change the caller has not seen still verifies until it expires; S3 rejects
+ * URLs of a completed or aborted multipart upload.</p>
+ */
+@Slf4j
+@Component
+public class UploadSessionTokens {
+
+  private static final String CLAIM_SESSION = "sid";
+  private static final String CLAIM_BUCKET = "bkt";
+  private static final String CLAIM_KEY = "key";
+  private static final String CLAIM_UPLOAD_ID = "uid";
+  private static final String CLAIM_FILE_SIZE = "fsz";
+  private static final String CLAIM_PART_SIZE = "psz";
+  private static final String CLAIM_PART_COUNT = "pcn";
+  private static final String CLAIM_UPLOAD_MODE = "mod";
+
+  private static final ObjectMapper JSON = new ObjectMapper();
+
+  private final SessionTokenProperties props;
+  private final Map<String, Key> keys = new HashMap<>();
+
+  public UploadSessionTokens(SessionTokenProperties props) {
+    this.props = props;
+    props.getKeys().forEach((kid, secret) -> keys.put(kid, Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret))));
+  }
+
+  public boolean isEnabled() {
+    return props.isEnabled();
+  }
+
+  /**
+   * @return a signed token, or {@code null} when no signing key is configured
+   */
+  public String issue(UploadEntity u) {
+    if (!isEnabled()) {
+      return null;
+    }
+    Instant now = Instant.now();
+    return Jwts.builder()
+      .setHeaderParam(JwsHeader.KEY_ID, props.getActiveKeyId())
+      .setSubject(u.getUserSub())
+      .claim(CLAIM_SESSION, u.getId().toString())
+      .claim(CLAIM_BUCKET, u.getBucket())
+      .claim(CLAIM_KEY, u.getObjectKey())
+      .claim(CLAIM_UPLOAD_ID, u.getS3UploadId())
+      .claim(CLAIM_FILE_SIZE, u.getFileSize())
+      .claim(CLAIM_PART_SIZE, u.getPartSize())
+      .claim(CLAIM_PART_COUNT, u.getPartCount())
+      .claim(CLAIM_UPLOAD_MODE, u.getUploadMode())
+      .setIssuedAt(Date.from(now))
+      .setExpiration(Date.from(now.plusSeconds(props.getTtlMinutes() * 60)))
+      .signWith(keys.get(props.getActiveKeyId()), SignatureAlgorithm.HS256)
+      .compact();
+  }
+
+  /**
+   * Verifies signature and expiry.
+   *
+   * @return the session described by the token, with a {@code null} status, or empty if it is
+   *         missing, invalid or expired
+   */
+  public Optional<UploadSessionDescriptor> verify(String token) {
+    if (token == null || token.isBlank() || keys.isEmpty()) {
+      return Optional.empty();
+    }
+    try {
+      Claims c = Jwts.parserBuilder()
+        .setSigningKey(signingKey(token))
+        .build()
+        .parseClaimsJws(token)
+        .getBody();
+
+      return Optional.of(new UploadSessionDescriptor(
+        UUID.fromString(required(c, CLAIM_SESSION, String.class)),
+        required(c, Claims.SUBJECT, String.class),
+        required(c, CLAIM_BUCKET, String.class),
+        required(c, CLAIM_KEY, String.class),
+        required(c, CLAIM_UPLOAD_ID, String.class),
+        required(c, CLAIM_FILE_SIZE, Number.class).longValue(),
+        required(c, CLAIM_PART_SIZE, Number.class).longValue(),
+        required(c, CLAIM_PART_COUNT, Number.class).intValue(),
+        required(c, CLAIM_UPLOAD_MODE, String.class),
+        null
+      ));
+    } catch (JwtException | IllegalArgumentException ex) {
+      log.debug("Rejected upload session token: {}", ex.toString());
+      return Optional.empty();
+    }
+  }
+
+  /** Key named by the token's {@code kid} header; the signature is checked by the parser. */
+  private Key signingKey(String token) {
+    int dot = token.indexOf('.');
+    if (dot < 0) {
+      throw new MalformedJwtException("Session token is not a compact JWS");
+    }
+    String kid;
+    try {
+      kid = JSON.readTree(Decoders.BASE64URL.decode(token.substring(0, dot))).path(JwsHeader.KEY_ID).asText(null);
+    } catch (IOException ex) {
+      throw new MalformedJwtException("Unreadable session token header", ex);
+    }
+    Key key = kid == null ? null : keys.get(kid);
+    if (key == null) {
+      throw new JwtException("Unknown session token key id");
+    }
+    return key;
+  }
+
+  private static <T> T required(Claims c, String name, Class<T> type) {
+    T value = c.get(name, type);
+    if (value == null) {
+      throw new MalformedJwtException("Session token has no " + name + " claim");
+    }
+    return value;
+  }
+}
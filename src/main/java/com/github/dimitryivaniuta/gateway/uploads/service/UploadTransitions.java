@@ -0,0 +1,57 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import com.github.dimitryivaniuta.gateway.observability.UploadMetrics;
+import com.github.dimitryivaniuta.gateway.uploads.domain.UploadEntity;
+import com.github.dimitryivaniuta.gateway.uploads.repo.UploadRepository;
+import java.time.OffsetDateTime;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Saves status changes of single upload sessions for {@link UploadService} and
+ * {@link UploadCleanupJob}: moves {@code updated_at}, drops the session from the near cache and
+ * counts the transition.
+ *
+ * <p>The entity's version is checked on save, so a row changed by another request or replica
+ * since it was read fails with {@link ObjectOptimisticLockingFailureException}.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UploadTransitions {
+
+  private final UploadRepository repo;
+  private final UploadSessionCache sessionCache;
+  private final UploadMetrics metrics;
+
+  public UploadEntity save(UploadEntity u, String status) {
+    u.setStatus(status);
+    u.setUpdatedAt(OffsetDateTime.now());
+    UploadEntity saved = repo.save(u);
+    sessionCache.invalidate(u.getId());
+    metrics.transitioned(status);
+    return saved;
+  }
+
+  /**
+   * Saves the outcome of a step that finished away from the request that started it (a failed
+   * copy, a recovered intent). A version conflict means the session was settled elsewhere
+   * meanwhile; that outcome stands. Other failures are logged, and the row is left for a later
+   * run.
+   *
+   * @return whether {@code status} was saved
+   */
+  public boolean settle(UploadEntity u, String status) {
+    try {
+      save(u, status);
+      return true;
+    } catch (ObjectOptimisticLockingFailureException ex) {
+      log.info("Upload {} was settled elsewhere before it could become {}", u.getId(), status);
+    } catch (RuntimeException ex) {
+      log.warn("Could not save upload {} as {}: {}", u.getId(), status, ex.toString());
+    }
+    return false;
+  }
+}
@@ -0,0 +1,7 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+/**
+ * A part that S3 has already stored for a multipart upload (as reported by ListParts).
+ */
+public record UploadedPart(int partNumber, long size, String eTag) {
+}
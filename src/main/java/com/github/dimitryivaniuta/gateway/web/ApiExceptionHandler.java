@@ -2,8 +2,12 @@ package com.github.dimitryivaniuta.gateway.web;
 
 import com.github.dimitryivaniuta.gateway.web.errors.*;
 import org.slf4j.MDC;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -35,6 +39,12 @@ public class ApiExceptionHandler {
     return pd(HttpStatus.FORBIDDEN, "forbidden", ex.getMessage());
   }
 
+  /** {@code @PreAuthorize} denials; without this they would fall through to the 500 handler. */
+  @ExceptionHandler(AccessDeniedException.class)
+  public ProblemDetail accessDenied(AccessDeniedException ex) {
+    return pd(HttpStatus.FORBIDDEN, "forbidden", "Access denied");
+  }
+
   @ExceptionHandler(NotFoundException.class)
   public ProblemDetail notFound(NotFoundException ex) {
     return pd(HttpStatus.NOT_FOUND, "not_found", ex.getMessage());
@@ -45,6 +55,25 @@ public class ApiExceptionHandler {
     return pd(HttpStatus.CONFLICT, "conflict", ex.getMessage());
   }
 
+  @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+  public ProblemDetail concurrentUpdate(ObjectOptimisticLockingFailureException ex) {
+    return pd(HttpStatus.CONFLICT, "conflict", "Upload was modified concurrently; reload and retry");
+  }
+
+  @ExceptionHandler(ServiceUnavailableException.class)
+  public ResponseEntity<ProblemDetail> unavailable(ServiceUnavailableException ex) {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+      .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+      .body(pd(HttpStatus.SERVICE_UNAVAILABLE, "unavailable", ex.getMessage()));
+  }
+
+  @ExceptionHandler(TooManyRequestsException.class)
+  public ResponseEntity<ProblemDetail> tooManyRequests(TooManyRequestsException ex) {
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+      .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+      .body(pd(HttpStatus.TOO_MANY_REQUESTS, "too_many_requests", ex.getMessage()));
+  }
+
   @ExceptionHandler(UpstreamException.class)
   public ProblemDetail upstream(UpstreamException ex) {
     return pd(HttpStatus.BAD_GATEWAY, "upstream_error", ex.getMessage());
@@ -0,0 +1,14 @@
+package com.github.dimitryivaniuta.gateway.web.errors;
+
+/** 503 Service Unavailable: the request was shed because of load; the client should retry later. */
+public class ServiceUnavailableException extends RuntimeException {
+
+  private final long retryAfterSeconds;
+
+  public ServiceUnavailableException(String message, long retryAfterSeconds) {
+    super(message);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  public long getRetryAfterSeconds() { return retryAfterSeconds; }
+}
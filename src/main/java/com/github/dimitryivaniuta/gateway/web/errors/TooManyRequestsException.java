@@ -0,0 +1,14 @@
+package com.github.dimitryivaniuta.gateway.web.errors;
+
+/** 429 Too Many Requests: the caller exceeded an admission limit and should retry later. */
+public class TooManyRequestsException extends RuntimeException {
+
+  private final long retryAfterSeconds;
+
+  public TooManyRequestsException(String message, long retryAfterSeconds) {
+    super(message);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  public long getRetryAfterSeconds() { return retryAfterSeconds; }
+}
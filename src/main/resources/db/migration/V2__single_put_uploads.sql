@@ -0,0 +1,3 @@
+-- Small files are uploaded with one pre-signed PutObject and have no S3 multipart upload id.
+ALTER TABLE uploads ADD COLUMN IF NOT EXISTS upload_mode VARCHAR(16) NOT NULL DEFAULT 'MULTIPART';
+ALTER TABLE uploads ALTER COLUMN s3_upload_id DROP NOT NULL;
@@ -0,0 +1,5 @@
+-- Timing milestones for throughput analytics (created_at and completed_at already exist).
+-- Presign times are written in batches, merged with LEAST/GREATEST, so they are never moved backwards.
+ALTER TABLE uploads ADD COLUMN IF NOT EXISTS first_part_presigned_at TIMESTAMPTZ NULL;
+ALTER TABLE uploads ADD COLUMN IF NOT EXISTS last_part_presigned_at TIMESTAMPTZ NULL;
+ALTER TABLE uploads ADD COLUMN IF NOT EXISTS complete_requested_at TIMESTAMPTZ NULL;
@@ -0,0 +1,5 @@
+-- Server-side copies (upload_mode = 'COPY'): the sources the object is assembled from, in order,
+-- and copy progress. Progress is added per copied part and also refreshes updated_at as a heartbeat.
+ALTER TABLE uploads ADD COLUMN IF NOT EXISTS source_upload_ids UUID[] NULL;
+ALTER TABLE uploads ADD COLUMN IF NOT EXISTS copied_parts INT NULL;
+ALTER TABLE uploads ADD COLUMN IF NOT EXISTS copied_bytes BIGINT NULL;
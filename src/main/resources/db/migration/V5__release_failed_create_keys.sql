@@ -0,0 +1,8 @@
+-- A multipart session that FAILED without an S3 upload id never started: release its idempotency
+-- key so a retry with the same key can create the session (new failures release it themselves).
+UPDATE uploads
+SET idempotency_key = NULL
+WHERE status = 'FAILED'
+  AND upload_mode = 'MULTIPART'
+  AND s3_upload_id IS NULL
+  AND idempotency_key IS NOT NULL;
@@ -0,0 +1,118 @@
+package com.github.dimitryivaniuta.gateway.admission;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.github.dimitryivaniuta.gateway.config.AdmissionProperties;
+import com.github.dimitryivaniuta.gateway.web.errors.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+class AdmissionControlFilterTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final HandlerExceptionResolver errors = mock(HandlerExceptionResolver.class);
+  private AdmissionProperties props;
+
+  @BeforeEach
+  void setUp() {
+    props = new AdmissionProperties();
+    SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("user-1", null, "ROLE_UPLOADER"));
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void rejectsOverRateWith429AndKeepsOtherUsersAndEndpointsApart() throws Exception {
+    props.setCreate(new AdmissionProperties.Limit(1.0, 2));
+    var filter = new AdmissionControlFilter(new AdmissionControl(props, registry), errors);
+    FilterChain chain = mock(FilterChain.class);
+
+    for (int i = 0; i < 3; i++) {
+      filter.doFilter(request("POST", "/api/uploads"), new MockHttpServletResponse(), chain);
+    }
+    filter.doFilter(request("GET", "/api/uploads/" + UUID.randomUUID() + "/parts/1/url"),
+      new MockHttpServletResponse(), chain);
+    SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("user-2", null));
+    filter.doFilter(request("POST", "/api/uploads"), new MockHttpServletResponse(), chain);
+
+    verify(chain, times(4)).doFilter(any(), any());
+    verify(errors).resolveException(any(), any(), isNull(), argThat(ex ->
+      ex instanceof TooManyRequestsException tmr && tmr.getRetryAfterSeconds() == 1));
+    assertEquals(1.0, registry.get("uploads.admission.rejected")
+      .tags("endpoint", "create", "reason", "rate").counter().count());
+  }
+
+  @Test
+  void lifecycleSlotIsHeldUntilTheRequestFinishes() throws Exception {
+    props.setMaxConcurrentLifecycleCalls(1);
+    var filter = new AdmissionControlFilter(new AdmissionControl(props, registry), errors);
+    String complete = "/api/uploads/" + UUID.randomUUID() + "/complete";
+
+    // a second complete arrives while the first is still inside the chain
+    filter.doFilter(request("POST", complete), new MockHttpServletResponse(), (req, resp) -> {
+      try {
+        filter.doFilter(request("POST", "/api/uploads"), new MockHttpServletResponse(), (r2, s2) -> fail("admitted"));
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    verify(errors).resolveException(any(), any(), isNull(), any(TooManyRequestsException.class));
+
+    FilterChain chain = mock(FilterChain.class);
+    filter.doFilter(request("POST", complete), new MockHttpServletResponse(), chain);
+    verify(chain).doFilter(any(), any());
+  }
+
+  @Test
+  void proxyUploadHoldsALifecycleSlotForTheWholeStream() throws Exception {
+    props.setMaxConcurrentLifecycleCalls(1);
+    var filter = new AdmissionControlFilter(new AdmissionControl(props, registry), errors);
+
+    filter.doFilter(request("PUT", "/api/uploads/x/content"), new MockHttpServletResponse(), (req, resp) -> {
+      try {
+        filter.doFilter(request("POST", "/api/uploads/x/complete"), new MockHttpServletResponse(),
+          (r2, s2) -> fail("admitted"));
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+    });
+
+    verify(errors).resolveException(any(), any(), isNull(), any(TooManyRequestsException.class));
+    assertEquals(AdmissionEndpoint.COMPLETE, AdmissionEndpoint.match("PUT", "/api/uploads/x/content"));
+    assertNull(AdmissionEndpoint.match("PUT", "/api/uploads/x"));
+  }
+
+  @Test
+  void ignoresUnauthenticatedAndUnthrottledRequests() throws Exception {
+    props.setPresign(new AdmissionProperties.Limit(1.0, 1));
+    var filter = new AdmissionControlFilter(new AdmissionControl(props, registry), errors);
+    FilterChain chain = mock(FilterChain.class);
+
+    filter.doFilter(request("GET", "/api/uploads"), new MockHttpServletResponse(), chain);
+    filter.doFilter(request("GET", "/api/uploads"), new MockHttpServletResponse(), chain);
+    SecurityContextHolder.clearContext();
+    filter.doFilter(request("POST", "/api/uploads/x/parts/urls"), new MockHttpServletResponse(), chain);
+    filter.doFilter(request("POST", "/api/uploads/x/parts/urls"), new MockHttpServletResponse(), chain);
+
+    verify(chain, times(4)).doFilter(any(), any());
+    verifyNoInteractions(errors);
+  }
+
+  private static MockHttpServletRequest request(String method, String uri) {
+    return new MockHttpServletRequest(method, uri);
+  }
+}
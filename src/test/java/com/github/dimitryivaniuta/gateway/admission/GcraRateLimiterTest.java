@@ -0,0 +1,63 @@
+package com.github.dimitryivaniuta.gateway.admission;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class GcraRateLimiterTest {
+
+  private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+  @Test
+  void admitsBurstThenOneRequestPerEmissionInterval() {
+    GcraRateLimiter limiter = new GcraRateLimiter(10, 3, 100, clock::get);
+
+    assertEquals(0, limiter.tryAcquire("u"));
+    assertEquals(0, limiter.tryAcquire("u"));
+    assertEquals(0, limiter.tryAcquire("u"));
+    long wait = limiter.tryAcquire("u");
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(100), wait);
+
+    clock.addAndGet(wait);
+    assertEquals(0, limiter.tryAcquire("u"));
+    assertTrue(limiter.tryAcquire("u") > 0);
+  }
+
+  @Test
+  void keysAreIndependentAndRefillWhileIdle() {
+    GcraRateLimiter limiter = new GcraRateLimiter(1, 2, 100, clock::get);
+
+    assertEquals(0, limiter.tryAcquire("a"));
+    assertEquals(0, limiter.tryAcquire("a"));
+    assertTrue(limiter.tryAcquire("a") > 0);
+    assertEquals(0, limiter.tryAcquire("b"));
+
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+    assertEquals(0, limiter.tryAcquire("a"));
+    assertEquals(0, limiter.tryAcquire("a"));
+    assertTrue(limiter.tryAcquire("a") > 0);
+  }
+
+  @Test
+  void concurrentCallersNeverExceedTheBurst() throws Exception {
+    GcraRateLimiter limiter = new GcraRateLimiter(1, 50, 100, clock::get);
+    AtomicLong admitted = new AtomicLong();
+    Thread[] threads = new Thread[8];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(() -> {
+        for (int i = 0; i < 100; i++) {
+          if (limiter.tryAcquire("u") == 0) {
+            admitted.incrementAndGet();
+          }
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread t : threads) {
+      t.join();
+    }
+    assertEquals(50, admitted.get());
+  }
+}
@@ -0,0 +1,60 @@
+package com.github.dimitryivaniuta.gateway.observability;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.github.dimitryivaniuta.gateway.uploads.repo.UploadRepository;
+import com.github.dimitryivaniuta.gateway.uploads.repo.UploadStatusTotals;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class UploadMetricsTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final UploadRepository repo = mock(UploadRepository.class);
+  private final UploadMetrics metrics = new UploadMetrics(registry, repo);
+
+  @Test
+  void sessionGaugesFollowTheLastRefreshAndResetMissingStatuses() {
+    when(repo.totalsByStatus(UploadMetrics.OPEN_STATUSES))
+      .thenReturn(List.of(new UploadStatusTotals("INITIATED", 3, 300), new UploadStatusTotals("COMPLETING", 1, 50)))
+      .thenReturn(List.of(new UploadStatusTotals("INITIATED", 2, 200)));
+
+    metrics.refreshSessionGauges();
+    assertEquals(3.0, gauge("uploads.sessions", "INITIATED"));
+    assertEquals(300.0, gauge("uploads.sessions.bytes", "INITIATED"));
+    assertEquals(50.0, gauge("uploads.sessions.bytes", "COMPLETING"));
+
+    metrics.refreshSessionGauges();
+    assertEquals(2.0, gauge("uploads.sessions", "INITIATED"));
+    assertEquals(0.0, gauge("uploads.sessions.bytes", "COMPLETING"));
+  }
+
+  @Test
+  void failedRefreshKeepsLastValues() {
+    when(repo.totalsByStatus(UploadMetrics.OPEN_STATUSES))
+      .thenReturn(List.of(new UploadStatusTotals("INITIATED", 3, 300)))
+      .thenThrow(new IllegalStateException("pool exhausted"));
+
+    metrics.refreshSessionGauges();
+    metrics.refreshSessionGauges();
+
+    assertEquals(3.0, gauge("uploads.sessions", "INITIATED"));
+  }
+
+  @Test
+  void transitionsAreCountedPerStatus() {
+    metrics.transitioned("COMPLETED");
+    metrics.transitioned("ABORTED", 4);
+    metrics.transitioned("FAILED", 0);
+
+    assertEquals(1.0, registry.get("uploads.transitions").tag("status", "COMPLETED").counter().count());
+    assertEquals(4.0, registry.get("uploads.transitions").tag("status", "ABORTED").counter().count());
+    assertNull(registry.find("uploads.transitions").tag("status", "FAILED").counter());
+  }
+
+  private double gauge(String name, String status) {
+    return registry.get(name).tag("status", status).gauge().value();
+  }
+}
@@ -0,0 +1,94 @@
+package com.github.dimitryivaniuta.gateway.observability;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.dimitryivaniuta.gateway.uploads.api.dto.UploadThroughputReport;
+import com.github.dimitryivaniuta.gateway.uploads.domain.UploadEntity;
+import java.nio.ByteBuffer;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.List;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+
+class UploadThroughputAnalyticsTest {
+
+  private static final long MIB = 1024L * 1024;
+  private static final OffsetDateTime T0 = OffsetDateTime.parse("2025-01-01T10:00:00Z");
+
+  private final UploadThroughputAnalytics analytics = new UploadThroughputAnalytics();
+
+  @Test
+  void groupsByContentTypeAndSizeUsingTheTransferWindow() {
+    // 100 MiB transferred in 10 s starting 2 s after creation; completed 13 s after creation
+    analytics.recordCompleted(completed("video/mp4", 100 * MIB, 2, 12, 13));
+    analytics.recordCompleted(completed("Video/MP4", 10 * MIB, 0, 1, 1));
+    analytics.recordCompleted(completed("application/octet-stream", 5L * 1024 * MIB, 0, 100, 101));
+
+    UploadThroughputReport report = analytics.report(false);
+
+    assertEquals(3, report.getAll().getUploads());
+    UploadThroughputReport.Group mp4 = report.getByContentType().get("video/mp4");
+    assertEquals(2, mp4.getUploads());
+    assertEquals(110 * MIB, mp4.getBytes());
+    assertEquals(List.of("<16MiB", "16MiB-256MiB", ">=4GiB"), List.copyOf(report.getBySize().keySet()));
+
+    UploadThroughputReport.Group medium = report.getBySize().get("16MiB-256MiB");
+    assertEquals(10 * MIB, medium.getBytesPerSecond().getP50(), 10 * MIB / 500.0);
+    assertEquals(10_000, medium.getTransferMillis().getMax(), 10);
+    assertEquals(13_000, medium.getTotalMillis().getMax(), 13);
+    assertNull(medium.getBytesPerSecond().getHistogram());
+  }
+
+  @Test
+  void uploadWithoutPresignWindowIsNotSampled() {
+    UploadEntity u = completed("video/mp4", 100 * MIB, 2, 12, 13);
+    // presigned on an instance that has not flushed its window yet
+    u.setFirstPartPresignedAt(null);
+
+    analytics.recordCompleted(u);
+
+    assertEquals(0, analytics.report(false).getAll().getUploads());
+  }
+
+  @Test
+  void encodedHistogramsOfTwoReportsMergeExactly() throws Exception {
+    UploadThroughputAnalytics other = new UploadThroughputAnalytics();
+    analytics.recordCompleted(completed("video/mp4", 100 * MIB, 0, 10, 10));
+    other.recordCompleted(completed("video/mp4", 100 * MIB, 0, 1, 1));
+
+    Histogram merged = decode(analytics.report(true).getAll().getTransferMillis().getHistogram());
+    merged.add(decode(other.report(true).getAll().getTransferMillis().getHistogram()));
+
+    assertEquals(2, merged.getTotalCount());
+    assertEquals(1_000, merged.getMinValue(), 1);
+    assertEquals(10_000, merged.getMaxValue(), 10);
+  }
+
+  @Test
+  void contentTypesBeyondTheCapAreReportedAsOther() {
+    for (int i = 0; i < UploadThroughputAnalytics.MAX_CONTENT_TYPES + 5; i++) {
+      analytics.recordCompleted(completed("video/x-" + i, MIB, 0, 1, 1));
+    }
+
+    var types = analytics.report(false).getByContentType();
+    assertEquals(UploadThroughputAnalytics.MAX_CONTENT_TYPES + 1, types.size());
+    assertEquals(5, types.get("other").getUploads());
+  }
+
+  private static Histogram decode(String base64) throws Exception {
+    return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(Base64.getDecoder().decode(base64)), 0);
+  }
+
+  private static UploadEntity completed(String contentType, long size, int firstPresignS, int completeRequestS,
+                                        int completedS) {
+    return UploadEntity.builder()
+      .contentType(contentType)
+      .fileSize(size)
+      .createdAt(T0)
+      .firstPartPresignedAt(T0.plusSeconds(firstPresignS))
+      .completeRequestedAt(T0.plusSeconds(completeRequestS))
+      .completedAt(T0.plusSeconds(completedS))
+      .build();
+  }
+}
@@ -0,0 +1,117 @@
+package com.github.dimitryivaniuta.gateway.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.dimitryivaniuta.gateway.config.JwtCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+class CachingJwtDecoderTest {
+
+  private static final Instant T0 = Instant.parse("2025-01-01T10:00:00Z");
+
+  private final AtomicLong nanos = new AtomicLong();
+  private final Clock clock = new Clock() {
+    @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+    @Override public Clock withZone(ZoneId zone) { return this; }
+    @Override public Instant instant() { return T0.plusNanos(nanos.get()); }
+  };
+  private final Ticker ticker = nanos::get;
+  private final JwtDecoder delegate = mock(JwtDecoder.class);
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final JwtCacheProperties props = new JwtCacheProperties();
+  private final CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, props, registry, clock, ticker);
+
+  @Test
+  void repeatedTokenIsVerifiedOnce() {
+    Jwt jwt = jwt("t1", "k1", T0.plusSeconds(60));
+    when(delegate.decode("t1")).thenReturn(jwt);
+
+    assertSame(jwt, decoder.decode("t1"));
+    assertSame(jwt, decoder.decode("t1"));
+    assertSame(jwt, decoder.decode("t1"));
+
+    verify(delegate, times(1)).decode("t1");
+    assertEquals(2.0, registry.get("cache.gets").tag("cache", "jwt").tag("result", "hit").functionCounter().count());
+    assertEquals(1.0, registry.get("cache.gets").tag("cache", "jwt").tag("result", "miss").functionCounter().count());
+  }
+
+  @Test
+  void tokenIsReverifiedAfterExpOrMaxTtl() {
+    props.setMaxTtlSeconds(30L);
+    CachingJwtDecoder capped = new CachingJwtDecoder(delegate, props, registry, clock, ticker);
+    when(delegate.decode("short")).thenReturn(jwt("short", "k1", T0.plusSeconds(10)));
+    when(delegate.decode("long")).thenReturn(jwt("long", "k1", T0.plusSeconds(3600)));
+
+    capped.decode("short");
+    capped.decode("long");
+    advance(Duration.ofSeconds(11));
+    capped.decode("short");
+    capped.decode("long");
+    advance(Duration.ofSeconds(20));
+    capped.decode("long");
+
+    verify(delegate, times(2)).decode("short");
+    verify(delegate, times(2)).decode("long");
+  }
+
+  @Test
+  void failuresAndTokensWithoutExpAreNotCached() {
+    when(delegate.decode("bad")).thenThrow(new BadJwtException("signature"));
+    when(delegate.decode("no-exp")).thenReturn(jwt("no-exp", "k1", null));
+
+    assertThrows(BadJwtException.class, () -> decoder.decode("bad"));
+    assertThrows(BadJwtException.class, () -> decoder.decode("bad"));
+    decoder.decode("no-exp");
+    decoder.decode("no-exp");
+
+    verify(delegate, times(2)).decode("bad");
+    verify(delegate, times(2)).decode("no-exp");
+    assertEquals(0, decoder.size());
+  }
+
+  @Test
+  void tokensSignedByRetiredKeysAreDropped() {
+    when(delegate.decode("a")).thenReturn(jwt("a", "old", T0.plusSeconds(60)));
+    when(delegate.decode("b")).thenReturn(jwt("b", "new", T0.plusSeconds(60)));
+    when(delegate.decode("c")).thenReturn(jwt("c", null, T0.plusSeconds(60)));
+    decoder.decode("a");
+    decoder.decode("b");
+    decoder.decode("c");
+
+    assertEquals(2, decoder.retainSigningKeys(Set.of("new")));
+    decoder.decode("a");
+    decoder.decode("b");
+
+    verify(delegate, times(2)).decode("a");
+    verify(delegate, times(1)).decode("b");
+    assertEquals(2.0, registry.get("security.jwt.cache.invalidated").counter().count());
+  }
+
+  private void advance(Duration d) {
+    nanos.addAndGet(d.toNanos());
+  }
+
+  private static Jwt jwt(String token, String kid, Instant exp) {
+    Jwt.Builder b = Jwt.withTokenValue(token).header("alg", "RS256").subject("user-1").issuedAt(T0);
+    if (kid != null) {
+      b.header("kid", kid);
+    }
+    if (exp != null) {
+      b.expiresAt(exp);
+    }
+    return b.build();
+  }
+}
@@ -0,0 +1,35 @@
+package com.github.dimitryivaniuta.gateway.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+class KeycloakJwtAuthConverterTest {
+
+  private final KeycloakJwtAuthConverter converter = new KeycloakJwtAuthConverter();
+
+  @Test
+  void mapsRealmRolesAndScopesOncePerToken() {
+    Jwt jwt = Jwt.withTokenValue("t")
+      .header("alg", "RS256")
+      .subject("user-1")
+      .claim("realm_access", Map.of("roles", List.of("uploader", "upload_admin")))
+      .claim("scope", "openid profile")
+      .build();
+
+    var first = converter.convert(jwt);
+    var second = converter.convert(jwt);
+
+    assertEquals(Set.of("ROLE_UPLOADER", "ROLE_UPLOAD_ADMIN", "SCOPE_openid", "SCOPE_profile"),
+      first.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toSet()));
+    assertEquals("user-1", second.getName());
+    assertNotSame(first, second);
+    assertEquals(first.getAuthorities(), second.getAuthorities());
+  }
+}
@@ -0,0 +1,70 @@
+package com.github.dimitryivaniuta.gateway.uploads.api;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.github.dimitryivaniuta.gateway.observability.UploadThroughputAnalytics;
+import com.github.dimitryivaniuta.gateway.security.KeycloakJwtAuthConverter;
+import com.github.dimitryivaniuta.gateway.security.SecurityConfig;
+import com.github.dimitryivaniuta.gateway.uploads.api.dto.OrphanReconcileReport;
+import com.github.dimitryivaniuta.gateway.uploads.api.dto.UploadThroughputReport;
+import com.github.dimitryivaniuta.gateway.uploads.service.OrphanUploadReconciler;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(controllers = UploadAdminController.class)
+@Import({SecurityConfig.class, KeycloakJwtAuthConverter.class})
+class UploadAdminControllerSecurityTest {
+
+  @Autowired MockMvc mvc;
+
+  @MockitoBean OrphanUploadReconciler reconciler;
+  @MockitoBean UploadThroughputAnalytics throughput;
+  @MockitoBean JwtDecoder jwtDecoder;
+
+  @Test
+  void uploaderCannotReconcile() throws Exception {
+    mvc.perform(post("/api/admin/uploads/orphans/reconcile")
+        .with(jwt().authorities(new SimpleGrantedAuthority("ROLE_UPLOADER"))))
+      .andExpect(status().isForbidden());
+
+    verifyNoInteractions(reconciler);
+  }
+
+  @Test
+  void adminGetsDryRunByDefault() throws Exception {
+    when(reconciler.reconcile(true, null, null))
+      .thenReturn(OrphanReconcileReport.builder().dryRun(true).orphans(3).build());
+
+    mvc.perform(post("/api/admin/uploads/orphans/reconcile")
+        .with(jwt().authorities(new SimpleGrantedAuthority("ROLE_UPLOAD_ADMIN"))))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.dryRun").value(true))
+      .andExpect(jsonPath("$.orphans").value(3));
+  }
+
+  @Test
+  void throughputReportIsAdminOnly() throws Exception {
+    when(throughput.report(false)).thenReturn(UploadThroughputReport.builder()
+      .all(UploadThroughputReport.Group.builder().uploads(7).build())
+      .build());
+
+    mvc.perform(get("/api/admin/uploads/throughput")
+        .with(jwt().authorities(new SimpleGrantedAuthority("ROLE_UPLOADER"))))
+      .andExpect(status().isForbidden());
+    mvc.perform(get("/api/admin/uploads/throughput")
+        .with(jwt().authorities(new SimpleGrantedAuthority("ROLE_UPLOAD_ADMIN"))))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.all.uploads").value(7));
+  }
+}
@@ -0,0 +1,73 @@
+package com.github.dimitryivaniuta.gateway.uploads.api.dto;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class CompleteUploadRequestJsonTest {
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  @Test
+  void streamsPartsIntoArraysAcceptingEtagSpellings() throws Exception {
+    String json = "{\"parts\":[{\"partNumber\":2,\"eTag\":\"\\\"b\\\"\",\"size\":5},"
+      + "{\"ETag\":\"a\",\"partNumber\":1},{\"partNumber\":3,\"etag\":null,\"extra\":{\"x\":[1]}}]}";
+
+    CompleteUploadRequest req = mapper.readValue(json, CompleteUploadRequest.class);
+
+    CompletedPartList parts = req.getParts();
+    assertEquals(3, parts.size());
+    assertEquals(2, parts.partNumber(0));
+    assertEquals("\"b\"", parts.eTag(0));
+    assertEquals(1, parts.partNumber(1));
+    assertEquals("a", parts.eTag(1));
+    assertNull(parts.eTag(2));
+  }
+
+  @Test
+  void roundTripsManyParts() throws Exception {
+    int n = 10_000;
+    int[] numbers = new int[n];
+    String[] eTags = new String[n];
+    for (int i = 0; i < n; i++) {
+      numbers[i] = i + 1;
+      eTags[i] = "etag-" + (i + 1);
+    }
+    CompleteUploadRequest req = new CompleteUploadRequest();
+    req.setParts(CompletedPartList.of(numbers, eTags));
+
+    CompleteUploadRequest back = mapper.readValue(mapper.writeValueAsBytes(req), CompleteUploadRequest.class);
+
+    assertEquals(n, back.getParts().size());
+    assertEquals(n, back.getParts().partNumber(n - 1));
+    assertEquals("etag-" + n, back.getParts().eTag(n - 1));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"\"abc\"", "\"2\"", "1.5", "true", "[1]"})
+  void rejectsPartNumberThatIsNotAnInteger(String partNumber) {
+    String json = "{\"parts\":[{\"partNumber\":" + partNumber + ",\"eTag\":\"a\"}]}";
+
+    assertThrows(MismatchedInputException.class, () -> mapper.readValue(json, CompleteUploadRequest.class));
+  }
+
+  @Test
+  void rejectsMorePartsThanS3Allows() {
+    StringBuilder json = new StringBuilder("{\"parts\":[");
+    for (int i = 1; i <= 10_001; i++) {
+      json.append(i > 1 ? "," : "").append("{\"partNumber\":").append(i).append(",\"eTag\":\"e\"}");
+    }
+    json.append("]}");
+
+    assertThrows(MismatchedInputException.class, () -> mapper.readValue(json.toString(), CompleteUploadRequest.class));
+  }
+
+  @Test
+  void missingPartsStaysNull() throws Exception {
+    assertNull(mapper.readValue("{}", CompleteUploadRequest.class).getParts());
+  }
+}
@@ -0,0 +1,34 @@
+package com.github.dimitryivaniuta.gateway.uploads.repo;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.OffsetDateTime;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+class UploadCleanupRepositoryTest {
+
+  private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+  private final UploadCleanupRepository repo = new UploadCleanupRepository(jdbc);
+
+  @Test
+  void longRunningCopyWithAFreshHeartbeatIsNotClaimedAsStale() {
+    // a copy created a day ago is still INITIATED while its parts copy; only its updated_at is fresh
+    OffsetDateTime cutoff = OffsetDateTime.now().minusDays(1);
+    ArgumentCaptor<String> claim = ArgumentCaptor.forClass(String.class);
+    ArgumentCaptor<String> count = ArgumentCaptor.forClass(String.class);
+
+    repo.claimStale(cutoff, 10);
+    repo.countStale(cutoff);
+
+    verify(jdbc).query(claim.capture(), ArgumentMatchers.<RowMapper<ClaimedUpload>>any(), eq(cutoff), eq(10));
+    verify(jdbc).queryForObject(count.capture(), eq(Long.class), eq(cutoff));
+    assertTrue(claim.getValue().contains("upload_mode <> 'COPY'"), claim.getValue());
+    assertTrue(count.getValue().contains("upload_mode <> 'COPY'"), count.getValue());
+  }
+}
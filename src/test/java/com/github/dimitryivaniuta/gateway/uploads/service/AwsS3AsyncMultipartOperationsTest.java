@@ -0,0 +1,97 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.github.dimitryivaniuta.gateway.config.S3Properties;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListPartsRequest;
+import software.amazon.awssdk.services.s3.model.ListPartsResponse;
+import software.amazon.awssdk.services.s3.model.Part;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.ServerSideEncryption;
+
+class AwsS3AsyncMultipartOperationsTest {
+
+  @Test
+  void listPartsRequestsEveryWindowAndReturnsEveryPartOnce() {
+    S3AsyncClient s3 = pagingClient(2_345);
+    var ops = new AwsS3AsyncMultipartOperations(s3, new S3Properties());
+
+    List<UploadedPart> parts = ops.listParts("bucket", "k", "upload-1", 2_345).join();
+
+    assertEquals(IntStream.rangeClosed(1, 2_345).boxed().toList(),
+      parts.stream().map(UploadedPart::partNumber).toList());
+    verify(s3, times(3)).listParts(any(ListPartsRequest.class));
+  }
+
+  @Test
+  void listPartsChainsPagesWhenMorePartsThanExpectedExist() {
+    S3AsyncClient s3 = pagingClient(1_500);
+    var ops = new AwsS3AsyncMultipartOperations(s3, new S3Properties());
+
+    List<UploadedPart> parts = ops.listParts("bucket", "k", "upload-1", 10).join();
+
+    assertEquals(1_500, parts.size());
+    assertEquals(1_500, parts.get(1_499).partNumber());
+  }
+
+  @Test
+  void createAppliesServerSideEncryption() {
+    S3Properties props = new S3Properties();
+    props.setSse(S3Properties.SseMode.AES256);
+    S3AsyncClient s3 = mock(S3AsyncClient.class);
+    when(s3.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+      .thenReturn(CompletableFuture.completedFuture(CreateMultipartUploadResponse.builder().uploadId("u-1").build()));
+    var ops = new AwsS3AsyncMultipartOperations(s3, props);
+
+    assertEquals("u-1", ops.createMultipartUpload("bucket", "k", "video/mp4").join());
+    verify(s3).createMultipartUpload(argThat((CreateMultipartUploadRequest r) ->
+      r.serverSideEncryption() == ServerSideEncryption.AES256 && "video/mp4".equals(r.contentType())));
+  }
+
+  @Test
+  void headObjectSizeIsEmptyForMissingKeyAndFailsOtherwise() {
+    S3AsyncClient s3 = mock(S3AsyncClient.class);
+    when(s3.headObject(any(HeadObjectRequest.class)))
+      .thenReturn(CompletableFuture.failedFuture(S3Exception.builder().statusCode(404).build()))
+      .thenReturn(CompletableFuture.completedFuture(HeadObjectResponse.builder().contentLength(42L).build()))
+      .thenReturn(CompletableFuture.failedFuture(S3Exception.builder().statusCode(403).build()));
+    var ops = new AwsS3AsyncMultipartOperations(s3, new S3Properties());
+
+    assertTrue(ops.headObjectSize("bucket", "k").join().isEmpty());
+    assertEquals(42L, ops.headObjectSize("bucket", "k").join().getAsLong());
+    var ex = assertThrows(CompletionException.class, () -> ops.headObjectSize("bucket", "k").join());
+    assertInstanceOf(S3Exception.class, ex.getCause());
+  }
+
+  /** Emulates S3 ListParts over parts 1..total, answering each page on another thread. */
+  private static S3AsyncClient pagingClient(int total) {
+    S3AsyncClient s3 = mock(S3AsyncClient.class);
+    when(s3.listParts(any(ListPartsRequest.class))).thenAnswer(inv -> CompletableFuture.supplyAsync(() -> {
+      ListPartsRequest req = inv.getArgument(0);
+      int from = req.partNumberMarker() == null ? 0 : req.partNumberMarker();
+      int to = Math.min(total, from + req.maxParts());
+      List<Part> page = new ArrayList<>();
+      for (int pn = from + 1; pn <= to; pn++) {
+        page.add(Part.builder().partNumber(pn).size(5L).eTag("\"e" + pn + "\"").build());
+      }
+      return ListPartsResponse.builder()
+        .parts(page)
+        .isTruncated(to < total)
+        .nextPartNumberMarker(to < total ? to : null)
+        .build();
+    }));
+    return s3;
+  }
+}
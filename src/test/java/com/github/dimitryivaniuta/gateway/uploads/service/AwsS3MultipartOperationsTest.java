@@ -0,0 +1,98 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.github.dimitryivaniuta.gateway.config.S3Properties;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListPartsRequest;
+import software.amazon.awssdk.services.s3.model.ListPartsResponse;
+import software.amazon.awssdk.services.s3.model.Part;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+class AwsS3MultipartOperationsTest {
+
+  @Test
+  void listPartsFetchesWindowsConcurrentlyAndReturnsEveryPartOnce() {
+    S3Client s3 = pagingClient(2_345);
+    var ops = new AwsS3MultipartOperations(s3, mock(S3Presigner.class), new S3Properties(), null, null);
+
+    List<UploadedPart> parts = ops.listParts("bucket", "k", "upload-1", 2_345);
+
+    assertEquals(IntStream.rangeClosed(1, 2_345).boxed().toList(),
+      parts.stream().map(UploadedPart::partNumber).toList());
+    // windows after 0, 1000 and 2000; none of them follows the pagination chain into the next window
+    verify(s3, times(3)).listParts(any(ListPartsRequest.class));
+  }
+
+  @Test
+  void listPartsFollowsPaginationWhenMorePartsThanExpectedExist() {
+    S3Client s3 = pagingClient(1_500);
+    var ops = new AwsS3MultipartOperations(s3, mock(S3Presigner.class), new S3Properties(), null, null);
+
+    List<UploadedPart> parts = ops.listParts("bucket", "k", "upload-1", 10);
+
+    assertEquals(1_500, parts.size());
+    assertEquals(1_500, parts.get(1_499).partNumber());
+  }
+
+  @Test
+  void presignPutObjectSignsContentTypeAndLength() {
+    S3Properties props = new S3Properties();
+    props.setPresignExpirationMinutes(20);
+    S3Presigner presigner = S3Presigner.builder()
+      .region(Region.EU_CENTRAL_1)
+      .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("AKIDEXAMPLE", "secret")))
+      .build();
+    var ops = new AwsS3MultipartOperations(mock(S3Client.class), presigner, props, null, null);
+
+    PresignedPutUrl put = ops.presignPutObjectUrl("bucket", "u/a.srt", "text/plain", 1234);
+
+    assertTrue(put.url().startsWith("https://bucket.s3.eu-central-1.amazonaws.com/u/a.srt?"), put.url());
+    assertEquals("text/plain", put.headers().get("content-type"));
+    assertEquals("1234", put.headers().get("content-length"));
+    assertFalse(put.headers().containsKey("host"));
+  }
+
+  @Test
+  void headObjectSizeIsEmptyForMissingKey() {
+    S3Client s3 = mock(S3Client.class);
+    when(s3.headObject(any(HeadObjectRequest.class)))
+      .thenThrow(S3Exception.builder().statusCode(404).build())
+      .thenReturn(HeadObjectResponse.builder().contentLength(42L).build());
+    var ops = new AwsS3MultipartOperations(s3, mock(S3Presigner.class), new S3Properties(), null, null);
+
+    assertTrue(ops.headObjectSize("bucket", "k").isEmpty());
+    assertEquals(42L, ops.headObjectSize("bucket", "k").getAsLong());
+  }
+
+  /** Emulates S3 ListParts over parts 1..total, honouring partNumberMarker and maxParts. */
+  private static S3Client pagingClient(int total) {
+    S3Client s3 = mock(S3Client.class);
+    when(s3.listParts(any(ListPartsRequest.class))).thenAnswer(inv -> {
+      ListPartsRequest req = inv.getArgument(0);
+      int from = req.partNumberMarker() == null ? 0 : req.partNumberMarker();
+      int to = Math.min(total, from + req.maxParts());
+      List<Part> page = new ArrayList<>();
+      for (int pn = from + 1; pn <= to; pn++) {
+        page.add(Part.builder().partNumber(pn).size(5L).eTag("\"e" + pn + "\"").build());
+      }
+      return ListPartsResponse.builder()
+        .parts(page)
+        .isTruncated(to < total)
+        .nextPartNumberMarker(to < total ? to : null)
+        .build();
+    });
+    return s3;
+  }
+}
@@ -0,0 +1,42 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.dimitryivaniuta.gateway.web.errors.BadRequestException;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CopyPlanTest {
+
+  private static final long MIB = 1024 * 1024;
+
+  @Test
+  void splitsEverySourceIntoEqualRangesInOrder() {
+    CopyPlan plan = CopyPlan.of(new long[] {25 * MIB, 3}, 10 * MIB, 10_000);
+
+    assertEquals(10 * MIB, plan.partSize());
+    assertEquals(List.of(
+      new CopyPlan.Range(1, 0, 0, 25 * MIB / 3),
+      new CopyPlan.Range(2, 0, 25 * MIB / 3 + 1, 2 * (25 * MIB / 3)),
+      new CopyPlan.Range(3, 0, 2 * (25 * MIB / 3) + 1, 25 * MIB - 1),
+      new CopyPlan.Range(4, 1, 0, 2)), plan.parts());
+    assertEquals(25 * MIB + 3, plan.parts().stream().mapToLong(CopyPlan.Range::length).sum());
+    assertTrue(plan.parts().stream().limit(3).allMatch(r -> r.length() >= CopyPlan.MIN_PART_SIZE));
+  }
+
+  @Test
+  void growsThePartSizeToStayWithinThePartLimit() {
+    CopyPlan plan = CopyPlan.of(new long[] {100 * MIB, 100 * MIB}, 10 * MIB, 8);
+
+    assertEquals(40 * MIB, plan.partSize());
+    assertEquals(6, plan.partCount());
+    assertTrue(plan.parts().stream().allMatch(r -> r.length() <= plan.partSize()));
+  }
+
+  @Test
+  void rejectsSmallLeadingAndEmptySources() {
+    assertThrows(BadRequestException.class, () -> CopyPlan.of(new long[] {MIB, 10 * MIB}, 10 * MIB, 10_000));
+    assertThrows(BadRequestException.class, () -> CopyPlan.of(new long[] {10 * MIB, 0}, 10 * MIB, 10_000));
+    assertThrows(BadRequestException.class, () -> CopyPlan.of(new long[] {CopyPlan.MAX_PART_SIZE * 3}, 10 * MIB, 2));
+  }
+}
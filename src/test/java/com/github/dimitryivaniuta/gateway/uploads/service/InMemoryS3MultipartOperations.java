@@ -0,0 +1,216 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import software.amazon.awssdk.http.ContentStreamProvider;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.NoSuchUploadException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+/**
+ * Thread-safe in-memory stand-in for S3 multipart uploads, used by service tests.
+ *
+ * <p>Tests simulate client uploads with {@link #putPart} and inspect call counters.</p>
+ */
+class InMemoryS3MultipartOperations implements S3MultipartOperations {
+
+  record Upload(String bucket, String key, Instant initiated, NavigableMap<Integer, UploadedPart> parts) {
+  }
+
+  final Map<String, Upload> uploads = new ConcurrentHashMap<>();
+  final Map<String, List<CompletedPart>> completed = new ConcurrentHashMap<>();
+  /** Stored objects (bucket/key to size). */
+  final Map<String, Long> objects = new ConcurrentHashMap<>();
+  final AtomicInteger createCalls = new AtomicInteger();
+  final AtomicInteger listCalls = new AtomicInteger();
+  /** Runs at the start of every S3 call, e.g. to assert that no database transaction is open. */
+  volatile Runnable beforeEachCall = () -> { };
+
+  @Override
+  public String createMultipartUpload(String bucket, String key, String contentType) {
+    beforeEachCall.run();
+    createCalls.incrementAndGet();
+    String uploadId = UUID.randomUUID().toString();
+    uploads.put(uploadId, new Upload(bucket, key, Instant.now(), new ConcurrentSkipListMap<>()));
+    return uploadId;
+  }
+
+  @Override
+  public PresignedUrl presignUploadPartUrl(String bucket, String key, String uploadId, int partNumber) {
+    beforeEachCall.run();
+    return new PresignedUrl("https://s3.test/" + bucket + "/" + key + "?partNumber=" + partNumber
+      + "&uploadId=" + uploadId, Instant.now().plusSeconds(1200));
+  }
+
+  @Override
+  public List<PresignedUrl> presignUploadPartUrls(String bucket, String key, String uploadId, List<Integer> partNumbers) {
+    beforeEachCall.run();
+    List<PresignedUrl> out = new ArrayList<>(partNumbers.size());
+    for (int pn : partNumbers) {
+      out.add(presignUploadPartUrl(bucket, key, uploadId, pn));
+    }
+    return out;
+  }
+
+  @Override
+  public void completeMultipartUpload(String bucket, String key, String uploadId, List<CompletedPart> parts) {
+    beforeEachCall.run();
+    Upload u = require(uploadId);
+    for (CompletedPart p : parts) {
+      UploadedPart stored = u.parts().get(p.partNumber());
+      if (stored == null || !stored.eTag().replace("\"", "").equals(p.eTag())) {
+        throw NoSuchUploadException.builder().message("InvalidPart " + p.partNumber()).build();
+      }
+    }
+    uploads.remove(uploadId);
+    completed.put(uploadId, List.copyOf(parts));
+    objects.put(bucket + "/" + key, u.parts().values().stream().mapToLong(UploadedPart::size).sum());
+  }
+
+  @Override
+  public void abortMultipartUpload(String bucket, String key, String uploadId) {
+    beforeEachCall.run();
+    require(uploadId);
+    uploads.remove(uploadId);
+  }
+
+  @Override
+  public String uploadPart(String bucket, String key, String uploadId, int partNumber, ContentStreamProvider content,
+                           long contentLength) {
+    beforeEachCall.run();
+    require(uploadId);
+    long size = drain(content);
+    if (size != contentLength) {
+      throw new IllegalStateException("Part " + partNumber + " has " + size + " bytes, declared " + contentLength);
+    }
+    putPart(uploadId, partNumber, size);
+    return "\"etag-" + partNumber + "\"";
+  }
+
+  @Override
+  public String uploadPartCopy(String bucket, String key, String uploadId, int partNumber, String sourceBucket,
+                               String sourceKey, long firstByte, long lastByte) {
+    beforeEachCall.run();
+    require(uploadId);
+    Long size = objects.get(sourceBucket + "/" + sourceKey);
+    if (size == null) {
+      throw NoSuchKeyException.builder().message("NoSuchKey " + sourceKey).build();
+    }
+    if (firstByte < 0 || lastByte < firstByte || lastByte >= size) {
+      throw S3Exception.builder().statusCode(400).message("InvalidRange " + firstByte + "-" + lastByte).build();
+    }
+    putPart(uploadId, partNumber, lastByte - firstByte + 1);
+    return "\"etag-" + partNumber + "\"";
+  }
+
+  @Override
+  public void putObject(String bucket, String key, String contentType, ContentStreamProvider content,
+                        long contentLength) {
+    beforeEachCall.run();
+    putObject(bucket, key, drain(content));
+  }
+
+  @Override
+  public PresignedPutUrl presignPutObjectUrl(String bucket, String key, String contentType, long contentLength) {
+    beforeEachCall.run();
+    return new PresignedPutUrl("https://s3.test/" + bucket + "/" + key, Instant.now().plusSeconds(1200),
+      Map.of("content-type", contentType, "content-length", Long.toString(contentLength)));
+  }
+
+  @Override
+  public PresignedUrl presignGetObjectUrl(String bucket, String key) {
+    beforeEachCall.run();
+    return new PresignedUrl("https://s3.test/" + bucket + "/" + key + "?X-Amz-Signature=get",
+      Instant.now().plusSeconds(1200));
+  }
+
+  @Override
+  public OptionalLong headObjectSize(String bucket, String key) {
+    beforeEachCall.run();
+    Long size = objects.get(bucket + "/" + key);
+    return size == null ? OptionalLong.empty() : OptionalLong.of(size);
+  }
+
+  @Override
+  public void deleteObject(String bucket, String key) {
+    beforeEachCall.run();
+    objects.remove(bucket + "/" + key);
+  }
+
+  @Override
+  public List<UploadedPart> listParts(String bucket, String key, String uploadId, int expectedPartCount) {
+    beforeEachCall.run();
+    listCalls.incrementAndGet();
+    return List.copyOf(require(uploadId).parts().values());
+  }
+
+  @Override
+  public MultipartUploadPage listMultipartUploads(String bucket, String prefix, String keyMarker, String uploadIdMarker,
+                                                  int maxUploads) {
+    beforeEachCall.run();
+    List<MultipartUploadPage.Upload> all = uploads.entrySet().stream()
+      .filter(e -> e.getValue().bucket().equals(bucket) && (prefix == null || e.getValue().key().startsWith(prefix)))
+      .map(e -> new MultipartUploadPage.Upload(e.getValue().key(), e.getKey(), e.getValue().initiated()))
+      .filter(u -> keyMarker == null || u.key().compareTo(keyMarker) > 0
+        || (u.key().equals(keyMarker) && uploadIdMarker != null && u.uploadId().compareTo(uploadIdMarker) > 0))
+      .sorted(Comparator.comparing(MultipartUploadPage.Upload::key).thenComparing(MultipartUploadPage.Upload::uploadId))
+      .toList();
+    List<MultipartUploadPage.Upload> page = all.subList(0, Math.min(maxUploads, all.size()));
+    boolean truncated = all.size() > maxUploads;
+    MultipartUploadPage.Upload last = page.isEmpty() ? null : page.get(page.size() - 1);
+    return new MultipartUploadPage(page, truncated ? last.key() : null, truncated ? last.uploadId() : null, truncated);
+  }
+
+  /** Simulates a multipart upload started at {@code initiated}, e.g. by another tool. */
+  String initiateAt(String bucket, String key, Instant initiated) {
+    String uploadId = UUID.randomUUID().toString();
+    uploads.put(uploadId, new Upload(bucket, key, initiated, new ConcurrentSkipListMap<>()));
+    return uploadId;
+  }
+
+  /** Simulates a client PUT of one part; S3 reports ETags quoted. */
+  void putPart(String uploadId, int partNumber, long size) {
+    require(uploadId).parts().put(partNumber, new UploadedPart(partNumber, size, "\"etag-" + partNumber + "\""));
+  }
+
+  /** Simulates a client PUT of a whole object (single-PUT uploads). */
+  void putObject(String bucket, String key, long size) {
+    objects.put(bucket + "/" + key, size);
+  }
+
+  /** Reads a request body to the end without keeping it. */
+  static long drain(ContentStreamProvider content) {
+    byte[] scratch = new byte[64 * 1024];
+    long size = 0;
+    try (InputStream in = content.newStream()) {
+      int n;
+      while ((n = in.read(scratch)) >= 0) {
+        size += n;
+      }
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    return size;
+  }
+
+  private Upload require(String uploadId) {
+    Upload u = uploads.get(uploadId);
+    if (u == null) {
+      throw NoSuchUploadException.builder().message("NoSuchUpload " + uploadId).build();
+    }
+    return u;
+  }
+}
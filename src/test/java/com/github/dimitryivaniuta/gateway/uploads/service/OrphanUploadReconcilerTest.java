@@ -0,0 +1,86 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.github.dimitryivaniuta.gateway.config.S3Properties;
+import com.github.dimitryivaniuta.gateway.config.UploadPolicyProperties;
+import com.github.dimitryivaniuta.gateway.uploads.repo.UploadCleanupRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class OrphanUploadReconcilerTest {
+
+  private final InMemoryS3MultipartOperations s3 = new InMemoryS3MultipartOperations();
+  private final UploadCleanupRepository cleanupRepo = mock(UploadCleanupRepository.class);
+  private final Set<String> sessionUploadIds = new HashSet<>();
+  private final Set<String> orphanUploadIds = new HashSet<>();
+  private UploadPolicyProperties policy;
+  private OrphanUploadReconciler reconciler;
+
+  @BeforeEach
+  void setUp() {
+    S3Properties s3Props = new S3Properties();
+    s3Props.setBucket("bucket");
+    policy = new UploadPolicyProperties();
+    policy.setCleanupS3RequestsPerSecond(0.0);
+    policy.setOrphanMaxPagesPerRun(2);
+    reconciler = new OrphanUploadReconciler(s3Props, policy, cleanupRepo, s3,
+      new BlockingS3MultipartAsyncOperations(s3, Runnable::run), new BackgroundS3Calls(policy), new SimpleMeterRegistry());
+
+    // 2,500 old uploads, every tenth with a session, plus a few that are too young to judge
+    Instant old = Instant.now().minus(Duration.ofDays(3));
+    for (int i = 0; i < 2_500; i++) {
+      String id = s3.initiateAt("bucket", "u/%05d.mp4".formatted(i), old);
+      (i % 10 == 0 ? sessionUploadIds : orphanUploadIds).add(id);
+    }
+    for (int i = 0; i < 5; i++) {
+      s3.initiateAt("bucket", "u/new-%d.mp4".formatted(i), Instant.now());
+    }
+    when(cleanupRepo.findRecordedUploadIds(eq("bucket"), anyMap())).thenAnswer(inv -> inv.<Map<String, String>>getArgument(1)
+      .keySet().stream().filter(sessionUploadIds::contains).collect(Collectors.toSet()));
+  }
+
+  @Test
+  void dryRunReportsOrphansWithoutAborting() {
+    policy.setOrphanMaxPagesPerRun(10);
+
+    var report = reconciler.reconcile(true, null, null);
+
+    assertEquals(2_505, report.getScanned());
+    assertEquals(250, report.getRecorded());
+    assertEquals(5, report.getTooRecent());
+    assertEquals(2_250, report.getOrphans());
+    assertEquals(0, report.getAborted());
+    assertEquals(100, report.getSample().size());
+    assertFalse(report.isTruncated());
+    assertEquals(2_505, s3.uploads.size());
+    // one lookup per listed page
+    verify(cleanupRepo, times(3)).findRecordedUploadIds(eq("bucket"), anyMap());
+  }
+
+  @Test
+  void abortsOrphansAcrossTruncatedPassesAndKeepsSessionUploads() {
+    var first = reconciler.reconcile(false, null, null);
+
+    assertTrue(first.isTruncated());
+    assertEquals(2_000, first.getScanned());
+    assertEquals(1_800, first.getAborted());
+
+    var rest = reconciler.reconcile(false, first.getNextKeyMarker(), first.getNextUploadIdMarker());
+
+    assertFalse(rest.isTruncated());
+    assertEquals(505, rest.getScanned());
+    assertEquals(450, rest.getAborted());
+    assertTrue(orphanUploadIds.stream().noneMatch(s3.uploads::containsKey));
+    assertTrue(s3.uploads.keySet().containsAll(sessionUploadIds));
+    assertEquals(255, s3.uploads.size());
+  }
+}
@@ -0,0 +1,144 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.dimitryivaniuta.gateway.config.PartSizePlannerProperties;
+import com.github.dimitryivaniuta.gateway.config.S3Properties;
+import com.github.dimitryivaniuta.gateway.web.errors.BadRequestException;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class PartSizePlannerTest {
+
+  private static final long MiB = 1024L * 1024;
+  private static final long GiB = 1024 * MiB;
+
+  @Test
+  void defaultsFollowThePartCountBand() {
+    PartSizePlanner planner = planner(new S3Properties(), new PartSizePlannerProperties());
+
+    // small file: as many parts as the band asks for is impossible, so the 5 MiB floor wins
+    PartPlan tiny = planner.plan(6 * MiB, "video/mp4", null, null);
+    assertEquals(5 * MiB, tiny.partSize());
+    assertEquals(2, tiny.partCount());
+    assertEquals(2, tiny.recommendedConcurrency());
+
+    // 3 GiB: the fixed 16 MiB would give 192 parts; the band caps it at 128
+    PartPlan big = planner.plan(3 * GiB, "video/mp4", null, null);
+    assertEquals(24 * MiB, big.partSize());
+    assertEquals(128, big.partCount());
+    assertEquals(PartPlan.Strategy.DEFAULT, big.strategy());
+  }
+
+  @Test
+  void bandwidthHintSizesPartsPerConnection() {
+    PartSizePlanner planner = planner(new S3Properties(), new PartSizePlannerProperties());
+
+    // 8 MiB/s over 4 connections, 10 s per part -> 20 MiB parts
+    PartPlan plan = planner.plan(1 * GiB, "video/mp4", 8 * MiB, 4);
+
+    assertEquals(PartPlan.Strategy.BANDWIDTH, plan.strategy());
+    assertEquals(20 * MiB, plan.partSize());
+    assertEquals(52, plan.partCount());
+    assertEquals(4, plan.recommendedConcurrency());
+  }
+
+  @Test
+  void contentTypeRuleSetsBaseSizeAndDisabledPlannerKeepsFixedSize() {
+    PartSizePlannerProperties props = new PartSizePlannerProperties();
+    PartSizePlannerProperties.ContentTypeRule rule = new PartSizePlannerProperties.ContentTypeRule();
+    rule.setPattern("video/*");
+    rule.setPartSizeBytes(64 * MiB);
+    props.setContentTypeRules(List.of(rule));
+
+    PartPlan video = planner(new S3Properties(), props).plan(2 * GiB, "video/mp4", null, null);
+    assertEquals(PartPlan.Strategy.CONTENT_TYPE, video.strategy());
+    assertEquals(64 * MiB, video.partSize());
+
+    props.setEnabled(false);
+    PartPlan fixed = planner(new S3Properties(), props).plan(2 * GiB, "video/mp4", null, null);
+    assertEquals(PartPlan.Strategy.FIXED, fixed.strategy());
+    assertEquals(16 * MiB, fixed.partSize());
+    assertEquals(128, fixed.partCount());
+  }
+
+  @Test
+  void rejectsFilesBeyondS3Limits() {
+    S3Properties s3 = new S3Properties();
+    s3.setMaxPartCount(10);
+    PartSizePlanner planner = planner(s3, new PartSizePlannerProperties());
+
+    assertThrows(BadRequestException.class, () -> planner.plan(51 * GiB, "video/mp4", null, null));
+  }
+
+  /**
+   * Property test: random configurations, files and hints (fixed seed) must always yield a plan
+   * within S3 limits and the configured band.
+   */
+  @Test
+  void randomizedPlansRespectLimits() {
+    SplittableRandom rnd = new SplittableRandom(0x5EED_0010L);
+    for (int i = 0; i < 20_000; i++) {
+      S3Properties s3 = new S3Properties();
+      s3.setMaxPartCount(rnd.nextInt(1, 10_001));
+      s3.setPartSizeBytes(rnd.nextLong(1, 256 * MiB));
+
+      PartSizePlannerProperties props = new PartSizePlannerProperties();
+      props.setMinPartSizeBytes(rnd.nextLong(1, 64 * MiB));
+      props.setMaxPartSizeBytes(rnd.nextLong(1, 6 * GiB));
+      props.setTargetMinParts(rnd.nextInt(1, 33));
+      props.setTargetMaxParts(rnd.nextInt(props.getTargetMinParts(), 2_001));
+      props.setMaxConcurrency(rnd.nextInt(1, 33));
+      props.setAlignmentBytes(List.of(1L, MiB, 4 * MiB).get(rnd.nextInt(3)));
+
+      long maxFile = 5 * GiB * s3.getMaxPartCount();
+      long fileSize = (long) Math.exp(rnd.nextDouble() * Math.log(maxFile)) + rnd.nextLong(0, 1024);
+      Long bandwidth = rnd.nextBoolean() ? null : rnd.nextLong(1, 10 * GiB);
+      Integer concurrency = rnd.nextBoolean() ? null : rnd.nextInt(1, 65);
+
+      PartSizePlanner planner = planner(s3, props);
+      if (Math.ceilDiv(fileSize, s3.getMaxPartCount()) > PartSizePlanner.S3_MAX_PART_SIZE) {
+        assertThrows(BadRequestException.class, () -> planner.plan(fileSize, "video/mp4", bandwidth, concurrency));
+        continue;
+      }
+
+      PartPlan p = planner.plan(fileSize, "video/mp4", bandwidth, concurrency);
+      String ctx = "case " + i + ": file=" + fileSize + " props=" + props + " plan=" + p;
+
+      assertTrue(p.partSize() >= PartSizePlanner.S3_MIN_PART_SIZE, ctx);
+      assertTrue(p.partSize() <= PartSizePlanner.S3_MAX_PART_SIZE, ctx);
+      assertEquals(0, p.partSize() % props.getAlignmentBytes(), ctx);
+      assertEquals(PartSizePlanner.partCount(fileSize, p.partSize()), p.partCount(), ctx);
+      assertTrue(p.partCount() >= 1 && p.partCount() <= s3.getMaxPartCount(), ctx);
+      assertTrue(p.recommendedConcurrency() >= 1, ctx);
+      assertTrue(p.recommendedConcurrency() <= Math.min(p.partCount(), props.getMaxConcurrency()), ctx);
+
+      long minSize = Math.max(PartSizePlanner.S3_MIN_PART_SIZE, props.getMinPartSizeBytes());
+      long maxSize = Math.max(minSize, Math.min(PartSizePlanner.S3_MAX_PART_SIZE, props.getMaxPartSizeBytes()));
+      // above the band only when parts are already as large as allowed
+      assertTrue(p.partCount() <= props.getTargetMaxParts() || p.partSize() >= maxSize, ctx);
+      // never larger than needed to reach the band, unless a floor forces it
+      int bandMin = Math.max(props.getTargetMinParts(), Math.clamp(
+        concurrency == null ? props.getDefaultConcurrency() : concurrency, 1, props.getMaxConcurrency()));
+      long floor = Math.max(Math.max(minSize, Math.ceilDiv(fileSize, props.getTargetMaxParts())),
+        Math.ceilDiv(fileSize, s3.getMaxPartCount()));
+      assertTrue(p.partSize() <= alignUp(Math.max(floor, fileSize / bandMin), props.getAlignmentBytes()), ctx);
+
+      // larger files never get smaller parts
+      long largerFile = fileSize + rnd.nextLong(1, GiB);
+      if (Math.ceilDiv(largerFile, s3.getMaxPartCount()) <= PartSizePlanner.S3_MAX_PART_SIZE) {
+        PartPlan larger = planner.plan(largerFile, "video/mp4", bandwidth, concurrency);
+        assertTrue(larger.partSize() >= p.partSize(), ctx + " larger=" + larger);
+      }
+    }
+  }
+
+  private static long alignUp(long v, long alignment) {
+    return Math.ceilDiv(v, alignment) * alignment;
+  }
+
+  private static PartSizePlanner planner(S3Properties s3, PartSizePlannerProperties props) {
+    return new PartSizePlanner(s3, props, new ContentTypeAllowlist());
+  }
+}
@@ -0,0 +1,74 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.github.dimitryivaniuta.gateway.uploads.repo.PresignWindow;
+import com.github.dimitryivaniuta.gateway.uploads.repo.UploadMilestoneRepository;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+class PresignMilestonesTest {
+
+  private final UploadMilestoneRepository repo = mock(UploadMilestoneRepository.class);
+  private final AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2025-01-01T10:00:00Z"));
+  private final Clock clock = new Clock() {
+    @Override public ZoneOffset getZone() { return ZoneOffset.UTC; }
+    @Override public Clock withZone(ZoneId zone) { return this; }
+    @Override public Instant instant() { return now.get(); }
+  };
+  private final PresignMilestones milestones = new PresignMilestones(repo, clock);
+
+  @Test
+  void flushWritesOneWindowPerUploadInOneBatch() {
+    UUID a = UUID.randomUUID();
+    UUID b = UUID.randomUUID();
+    Instant t0 = now.get();
+    milestones.partsPresigned(a);
+    now.set(t0.plusSeconds(5));
+    milestones.partsPresigned(a);
+    milestones.partsPresigned(b);
+
+    milestones.flush();
+    milestones.flush();
+
+    verify(repo).mergePresignWindows(Map.of(
+      a, new PresignWindow(t0, t0.plusSeconds(5)),
+      b, new PresignWindow(t0.plusSeconds(5), t0.plusSeconds(5))));
+    verifyNoMoreInteractions(repo);
+  }
+
+  @Test
+  void failedFlushKeepsWindowsForTheNextAttempt() {
+    UUID a = UUID.randomUUID();
+    Instant t0 = now.get();
+    milestones.partsPresigned(a);
+    when(repo.mergePresignWindows(any())).thenThrow(new IllegalStateException("db down")).thenReturn(1);
+
+    milestones.flush();
+    now.set(t0.plusSeconds(3));
+    milestones.partsPresigned(a);
+    milestones.flush();
+
+    verify(repo, times(2)).mergePresignWindows(any());
+    verify(repo).mergePresignWindows(Map.of(a, new PresignWindow(t0, t0.plusSeconds(3))));
+  }
+
+  @Test
+  void flushOfOneUploadTakesItOutOfTheBatch() {
+    UUID a = UUID.randomUUID();
+    milestones.partsPresigned(a);
+
+    assertNotNull(milestones.flush(a));
+    assertNull(milestones.flush(a));
+    milestones.flush();
+
+    verify(repo, times(1)).mergePresignWindows(any());
+  }
+}
@@ -0,0 +1,72 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.dimitryivaniuta.gateway.config.S3Properties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class PresignedUrlCacheTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final PresignedUrlCache cache = new PresignedUrlCache(new S3Properties(), registry);
+
+  @Test
+  void concurrentMissesShareOneSigningCall() throws Exception {
+    AtomicInteger signs = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<PresignedUrl>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        results.add(pool.submit(() -> cache.get("u-1", 3, () -> {
+          signs.incrementAndGet();
+          await(release);
+          return new PresignedUrl("url-3", Instant.now().plusSeconds(1200));
+        })));
+      }
+      Thread.sleep(100);
+      release.countDown();
+      for (Future<PresignedUrl> f : results) {
+        assertEquals("url-3", f.get(5, TimeUnit.SECONDS).url());
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    assertEquals(1, signs.get());
+  }
+
+  @Test
+  void bulkLookupSignsOnlyMissingParts() {
+    cache.get("u-2", 2, () -> new PresignedUrl("url-2", Instant.now().plusSeconds(1200)));
+
+    List<List<Integer>> bulkCalls = new ArrayList<>();
+    List<PresignedUrl> urls = cache.getAll("u-2", List.of(1, 2, 3), missing -> {
+      bulkCalls.add(List.copyOf(missing));
+      return missing.stream().map(pn -> new PresignedUrl("url-" + pn, Instant.now().plusSeconds(1200))).toList();
+    });
+
+    assertEquals(List.of("url-1", "url-2", "url-3"), urls.stream().map(PresignedUrl::url).toList());
+    assertEquals(1, bulkCalls.size());
+    assertEquals(List.of(1, 3), bulkCalls.get(0).stream().sorted().toList());
+    assertEquals(1.0, registry.get("cache.gets").tag("cache", "presignedPartUrls").tag("result", "hit")
+      .functionCounter().count());
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.github.dimitryivaniuta.gateway.config.CopyProperties;
+import com.github.dimitryivaniuta.gateway.uploads.domain.UploadEntity;
+import com.github.dimitryivaniuta.gateway.uploads.repo.UploadMilestoneRepository;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class ServerSideCopierTest {
+
+  private static final long MIB = 1024 * 1024;
+
+  private final InMemoryS3MultipartOperations s3 = new InMemoryS3MultipartOperations();
+  private final UploadMilestoneRepository progress = mock(UploadMilestoneRepository.class);
+
+  @Test
+  void heartbeatKeepsACopyAliveWhileNoPartHasFinished() throws Exception {
+    CountDownLatch copying = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ServerSideCopier copier = new ServerSideCopier(s3, progress, new CopyProperties(),
+      r -> Thread.ofVirtual().start(r));
+    UploadEntity source = upload("src", 12 * MIB);
+    s3.putObject("bucket", "src", 12 * MIB);
+    UploadEntity target = upload("dst", 12 * MIB);
+    target.setS3UploadId(s3.createMultipartUpload("bucket", "dst", "video/mp4"));
+    s3.beforeEachCall = () -> {
+      copying.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    };
+
+    var copied = copier.copy(target, List.of(source), CopyPlan.of(new long[] {12 * MIB}, 256 * MIB, 10_000));
+    assertTrue(copying.await(5, TimeUnit.SECONDS));
+    copier.heartbeat();
+
+    verify(progress).touch(Set.of(target.getId()), "INITIATED");
+    verifyNoMoreInteractions(progress);
+
+    release.countDown();
+    assertEquals(1, copied.get(5, TimeUnit.SECONDS).size());
+    copier.heartbeat();
+    verify(progress, times(1)).touch(any(), any());
+  }
+
+  private static UploadEntity upload(String key, long size) {
+    return UploadEntity.builder()
+      .id(UUID.randomUUID())
+      .userSub("user-1")
+      .bucket("bucket")
+      .objectKey(key)
+      .fileName(key + ".mp4")
+      .contentType("video/mp4")
+      .fileSize(size)
+      .partSize(size)
+      .partCount(1)
+      .status("COMPLETED")
+      .build();
+  }
+}
@@ -0,0 +1,263 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.github.dimitryivaniuta.gateway.config.ProxyUploadProperties;
+import com.github.dimitryivaniuta.gateway.uploads.api.dto.CompletedPartList;
+import com.github.dimitryivaniuta.gateway.uploads.repo.UploadMilestoneRepository;
+import com.github.dimitryivaniuta.gateway.web.errors.BadRequestException;
+import com.github.dimitryivaniuta.gateway.web.errors.UpstreamException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.http.ContentStreamProvider;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+class StreamingPartUploaderTest {
+
+  private static final long MIB = 1024L * 1024;
+  /** Byte {@code p} of every test stream is {@code p % 251}; 251 is prime, so parts never line up with it. */
+  private static final int PERIOD = 251;
+  private static final byte[] PATTERN = new byte[64 * 1024 + PERIOD];
+
+  static {
+    for (int i = 0; i < PATTERN.length; i++) {
+      PATTERN[i] = (byte) (i % PERIOD);
+    }
+  }
+
+  private final UploadMilestoneRepository progress = mock(UploadMilestoneRepository.class);
+
+  @Test
+  void heartbeatKeepsStreamingSessionsAlive() {
+    StreamingPartUploader uploader = new StreamingPartUploader(new VerifyingS3(16 * MIB), progress, props(16 * MIB, 2));
+    UUID uploadId = UUID.randomUUID();
+
+    uploader.started(uploadId);
+    uploader.heartbeat();
+    verify(progress).touch(Set.of(uploadId), "UPLOADING");
+
+    uploader.finished(uploadId);
+    uploader.heartbeat();
+    verify(progress, times(1)).touch(any(), any());
+  }
+
+  @Test
+  void multiGigabyteStreamUsesConstantMemory() {
+    long fileSize = 3L * 1024 * MIB + 12_345;
+    long partSize = 16 * MIB;
+    ProxyUploadProperties props = props(64 * MIB, 4);
+    VerifyingS3 s3 = new VerifyingS3(partSize);
+    StreamingPartUploader uploader = new StreamingPartUploader(s3, progress, props);
+    s3.pool = uploader.pool();
+    String uploadId = s3.createMultipartUpload("bucket", "k", "video/mp4");
+    long directBefore = directMemoryUsed();
+
+    CompletedPartList parts = uploader.uploadParts("bucket", "k", uploadId, fileSize, partSize,
+      new PatternStream(fileSize));
+
+    int partCount = (int) ((fileSize + partSize - 1) / partSize);
+    assertEquals(partCount, parts.size());
+    assertEquals("\"etag-" + partCount + "\"", parts.eTag(partCount - 1));
+    assertEquals(fileSize, s3.uploads.get(uploadId).parts().values().stream().mapToLong(UploadedPart::size).sum());
+    assertEquals(0, s3.mismatchedParts.get());
+    assertTrue(s3.maxConcurrent.get() <= 4);
+    // the pool never grows past its budget, however long the stream
+    assertTrue(uploader.pool().allocatedBytes() <= 64 * MIB);
+    assertTrue(s3.peakDirectMemory.get() - directBefore <= 64 * MIB + MIB,
+      "direct memory grew by " + (s3.peakDirectMemory.get() - directBefore));
+    assertEquals(uploader.pool().capacity(), uploader.pool().available());
+  }
+
+  @Test
+  void readingStopsWhileThePoolIsExhausted() throws Exception {
+    long partSize = 8 * MIB;
+    long fileSize = 25 * partSize;
+    CountDownLatch s3Slow = new CountDownLatch(1);
+    AtomicInteger inS3 = new AtomicInteger();
+    InMemoryS3MultipartOperations s3 = new InMemoryS3MultipartOperations() {
+      @Override
+      public String uploadPart(String bucket, String key, String uploadId, int partNumber,
+                               ContentStreamProvider content, long contentLength) {
+        inS3.incrementAndGet();
+        await(s3Slow);
+        return super.uploadPart(bucket, key, uploadId, partNumber, content, contentLength);
+      }
+    };
+    // the pool (4 parts) binds before the per-upload limit (8 parts)
+    StreamingPartUploader uploader = new StreamingPartUploader(s3, progress, props(32 * MIB, 8));
+    String uploadId = s3.createMultipartUpload("bucket", "k", "video/mp4");
+    PatternStream body = new PatternStream(fileSize);
+
+    CompletableFuture<CompletedPartList> done = CompletableFuture.supplyAsync(() ->
+      uploader.uploadParts("bucket", "k", uploadId, fileSize, partSize, body));
+    while (inS3.get() < 4) {
+      Thread.sleep(5);
+    }
+    Thread.sleep(200);
+
+    assertEquals(32 * MIB, body.position);
+    assertEquals(0, uploader.pool().available());
+    s3Slow.countDown();
+    assertEquals(25, done.get(30, TimeUnit.SECONDS).size());
+    assertEquals(fileSize, body.position);
+  }
+
+  @Test
+  void failedPartStopsTheStreamAndReturnsEveryBuffer() {
+    AtomicInteger calls = new AtomicInteger();
+    InMemoryS3MultipartOperations s3 = new InMemoryS3MultipartOperations() {
+      @Override
+      public String uploadPart(String bucket, String key, String uploadId, int partNumber,
+                               ContentStreamProvider content, long contentLength) {
+        calls.incrementAndGet();
+        if (partNumber == 3) {
+          throw S3Exception.builder().statusCode(500).message("InternalError").build();
+        }
+        return super.uploadPart(bucket, key, uploadId, partNumber, content, contentLength);
+      }
+    };
+    StreamingPartUploader uploader = new StreamingPartUploader(s3, progress, props(16 * MIB, 2));
+    String uploadId = s3.createMultipartUpload("bucket", "k", "video/mp4");
+
+    var ex = assertThrows(UpstreamException.class, () ->
+      uploader.uploadParts("bucket", "k", uploadId, 100 * MIB, 5 * MIB, new PatternStream(100 * MIB)));
+
+    assertInstanceOf(S3Exception.class, ex.getCause());
+    assertTrue(calls.get() < 20, "reading should stop after the failure");
+    assertEquals(uploader.pool().capacity(), uploader.pool().available());
+  }
+
+  @Test
+  void bodiesOfTheWrongLengthAreRejectedAndReturnEveryBuffer() {
+    InMemoryS3MultipartOperations s3 = new InMemoryS3MultipartOperations();
+    StreamingPartUploader uploader = new StreamingPartUploader(s3, progress, props(16 * MIB, 2));
+    String uploadId = s3.createMultipartUpload("bucket", "k", "video/mp4");
+
+    var tooShort = assertThrows(BadRequestException.class, () ->
+      uploader.uploadParts("bucket", "k", uploadId, 20 * MIB, 5 * MIB, new PatternStream(12 * MIB)));
+    var tooLong = assertThrows(BadRequestException.class, () ->
+      uploader.uploadParts("bucket", "k", uploadId, 20 * MIB, 5 * MIB, new PatternStream(20 * MIB + 1)));
+    var tooLongObject = assertThrows(BadRequestException.class, () ->
+      uploader.putObject("bucket", "small", "video/mp4", 1000, new PatternStream(1001)));
+    var partTooLarge = assertThrows(BadRequestException.class, () ->
+      uploader.uploadParts("bucket", "k", uploadId, 40 * MIB, 32 * MIB, new PatternStream(40 * MIB)));
+
+    assertEquals("Request body ended after " + 12 * MIB + " of " + 20 * MIB + " bytes", tooShort.getMessage());
+    assertTrue(tooLong.getMessage().contains("longer"));
+    assertTrue(tooLongObject.getMessage().contains("longer"));
+    assertTrue(partTooLarge.getMessage().contains("exceeds the proxy buffer pool"));
+    assertFalse(s3.objects.containsKey("bucket/small"));
+    assertEquals(uploader.pool().capacity(), uploader.pool().available());
+  }
+
+  private static ProxyUploadProperties props(long poolBytes, int maxParallelParts) {
+    ProxyUploadProperties props = new ProxyUploadProperties();
+    props.setBufferPoolBytes(poolBytes);
+    props.setBufferBytes((int) MIB);
+    props.setMaxParallelParts(maxParallelParts);
+    props.setBufferWaitMillis(10_000L);
+    return props;
+  }
+
+  private static long directMemoryUsed() {
+    return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+      .filter(p -> "direct".equals(p.getName()))
+      .mapToLong(BufferPoolMXBean::getMemoryUsed)
+      .sum();
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  /** Generates the test pattern without holding it in memory. */
+  private static final class PatternStream extends InputStream {
+
+    private final long length;
+    private volatile long position;
+
+    PatternStream(long length) {
+      this.length = length;
+    }
+
+    @Override
+    public int read() {
+      return position < length ? (int) (position++ % PERIOD) : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (position >= length) {
+        return -1;
+      }
+      int n = (int) Math.min(Math.min(len, length - position), PATTERN.length - PERIOD);
+      System.arraycopy(PATTERN, (int) (position % PERIOD), b, off, n);
+      position += n;
+      return n;
+    }
+  }
+
+  /** Checks every part against the pattern and samples concurrency and direct memory. */
+  private static final class VerifyingS3 extends InMemoryS3MultipartOperations {
+
+    private final long partSize;
+    private final AtomicInteger concurrent = new AtomicInteger();
+    final AtomicInteger maxConcurrent = new AtomicInteger();
+    final AtomicInteger mismatchedParts = new AtomicInteger();
+    final AtomicLong peakDirectMemory = new AtomicLong();
+    volatile DirectBufferPool pool;
+
+    VerifyingS3(long partSize) {
+      this.partSize = partSize;
+    }
+
+    @Override
+    public String uploadPart(String bucket, String key, String uploadId, int partNumber,
+                             ContentStreamProvider content, long contentLength) {
+      maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+      peakDirectMemory.accumulateAndGet(directMemoryUsed(), Math::max);
+      try {
+        long offset = (partNumber - 1) * partSize;
+        byte[] scratch = new byte[64 * 1024];
+        long size = 0;
+        boolean matches = true;
+        try (InputStream in = content.newStream()) {
+          int n;
+          while ((n = in.read(scratch)) >= 0) {
+            int from = (int) ((offset + size) % PERIOD);
+            matches &= Arrays.equals(scratch, 0, n, PATTERN, from, from + n);
+            size += n;
+          }
+        } catch (IOException ex) {
+          throw new UncheckedIOException(ex);
+        }
+        if (!matches || size != contentLength) {
+          mismatchedParts.incrementAndGet();
+        }
+        putPart(uploadId, partNumber, size);
+        return "\"etag-" + partNumber + "\"";
+      } finally {
+        concurrent.decrementAndGet();
+      }
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.s3.model.NoSuchUploadException;
+
+class TimedS3MultipartOperationsTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  @Test
+  void timesCallsByOperationAndOutcome() {
+    AwsS3MultipartOperations aws = mock(AwsS3MultipartOperations.class);
+    when(aws.createMultipartUpload("b", "k", "video/mp4")).thenReturn("u-1");
+    doThrow(NoSuchUploadException.builder().build()).when(aws).abortMultipartUpload("b", "k", "gone");
+    var ops = new TimedS3MultipartOperations(aws, registry);
+
+    assertEquals("u-1", ops.createMultipartUpload("b", "k", "video/mp4"));
+    assertThrows(NoSuchUploadException.class, () -> ops.abortMultipartUpload("b", "k", "gone"));
+
+    assertEquals(1, timer("create_multipart_upload", "success").count());
+    Timer failed = timer("abort_multipart_upload", "error");
+    assertEquals(1, failed.count());
+    assertEquals("NoSuchUploadException", failed.getId().getTag("exception"));
+    assertEquals("sync", failed.getId().getTag("client"));
+  }
+
+  @Test
+  void asyncCallsAreTimedWhenTheirFutureCompletes() {
+    AwsS3AsyncMultipartOperations aws = mock(AwsS3AsyncMultipartOperations.class);
+    CompletableFuture<OptionalLong> head = new CompletableFuture<>();
+    when(aws.headObjectSize("b", "k")).thenReturn(head);
+    var ops = new TimedS3MultipartAsyncOperations(aws, registry);
+
+    CompletableFuture<OptionalLong> result = ops.headObjectSize("b", "k");
+    assertNull(registry.find("uploads.s3.calls").timer());
+
+    head.complete(OptionalLong.of(5));
+    assertEquals(5, result.join().getAsLong());
+    assertEquals("async", timer("head_object", "success").getId().getTag("client"));
+  }
+
+  private Timer timer(String operation, String outcome) {
+    return registry.get("uploads.s3.calls").tag("operation", operation).tag("outcome", outcome).timer();
+  }
+}
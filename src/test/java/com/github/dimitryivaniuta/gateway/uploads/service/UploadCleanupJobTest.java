@@ -0,0 +1,196 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.github.dimitryivaniuta.gateway.config.UploadPolicyProperties;
+import com.github.dimitryivaniuta.gateway.observability.UploadMetrics;
+import com.github.dimitryivaniuta.gateway.uploads.domain.UploadEntity;
+import com.github.dimitryivaniuta.gateway.uploads.repo.ClaimedUpload;
+import com.github.dimitryivaniuta.gateway.uploads.repo.UploadCleanupRepository;
+import com.github.dimitryivaniuta.gateway.uploads.repo.UploadRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+class UploadCleanupJobTest {
+
+  private final UploadRepository repo = mock(UploadRepository.class);
+  private final UploadCleanupRepository cleanupRepo = mock(UploadCleanupRepository.class);
+  private final InMemoryS3MultipartOperations s3 = new InMemoryS3MultipartOperations();
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private UploadPolicyProperties policy;
+  private UploadCleanupJob job;
+
+  @BeforeEach
+  void setUp() {
+    policy = new UploadPolicyProperties();
+    policy.setCleanupS3RequestsPerSecond(0.0);
+    when(repo.save(any())).thenAnswer(inv -> inv.getArgument(0));
+    job = newJob();
+  }
+
+  @Test
+  void interruptedCreateAbortsTheUnrecordedMultipartUpload() {
+    UploadEntity creating = row("CREATING", "u/1/a.mp4", null);
+    String orphan = s3.createMultipartUpload("bucket", "u/1/a.mp4", "video/mp4");
+    String unrelated = s3.createMultipartUpload("bucket", "u/1/a.mp4.other", "video/mp4");
+    stuck("CREATING", creating);
+
+    job.recoverStuckIntents();
+
+    assertEquals("FAILED", creating.getStatus());
+    assertFalse(s3.uploads.containsKey(orphan));
+    assertTrue(s3.uploads.containsKey(unrelated));
+  }
+
+  @Test
+  void interruptedAbortIsFinishedAndStuckCompletionResolvedFromS3() {
+    String open = s3.createMultipartUpload("bucket", "u/1/b.mp4", "video/mp4");
+    UploadEntity aborting = row("ABORTING", "u/1/b.mp4", open);
+    UploadEntity completing = row("COMPLETING", "u/1/c.mp4", "gone");
+    s3.putObject("bucket", "u/1/c.mp4", completing.getFileSize());
+    stuck("ABORTING", aborting);
+    stuck("COMPLETING", completing);
+
+    job.recoverStuckIntents();
+
+    verify(cleanupRepo).settleAborting(List.of(aborting.getId()), "ABORTED");
+    assertFalse(s3.uploads.containsKey(open));
+    assertEquals("COMPLETED", completing.getStatus());
+    assertNotNull(completing.getCompletedAt());
+  }
+
+  @Test
+  void silentProxyUploadIsReleasedWithItsParts() {
+    String open = s3.createMultipartUpload("bucket", "u/1/d.mp4", "video/mp4");
+    UploadEntity uploading = row("UPLOADING", "u/1/d.mp4", open);
+    stuck("UPLOADING", uploading);
+
+    job.recoverStuckIntents();
+
+    assertEquals("INITIATED", uploading.getStatus());
+    assertTrue(s3.uploads.containsKey(open));
+  }
+
+  @Test
+  void rowSettledElsewhereDoesNotStopRecovery() {
+    UploadEntity raced = row("CREATING", "u/1/a.mp4", null);
+    UploadEntity creating = row("CREATING", "u/1/b.mp4", null);
+    String open = s3.createMultipartUpload("bucket", "u/1/c.mp4", "video/mp4");
+    UploadEntity aborting = row("ABORTING", "u/1/c.mp4", open);
+    stuck("CREATING", raced, creating);
+    stuck("ABORTING", aborting);
+    when(repo.save(raced)).thenThrow(new ObjectOptimisticLockingFailureException(UploadEntity.class, raced.getId()));
+
+    job.recoverStuckIntents();
+
+    assertEquals("FAILED", creating.getStatus());
+    assertFalse(s3.uploads.containsKey(open));
+    verify(cleanupRepo).settleAborting(List.of(aborting.getId()), "ABORTED");
+  }
+
+  @Test
+  void staleUploadsAreDrainedInClaimedBatchesAndSettledPerOutcome() {
+    policy.setCleanupBatchSize(2);
+    policy.setCleanupParallelism(2);
+    job = newJob();
+    ClaimedUpload a = claim(s3.createMultipartUpload("bucket", "u/1/a.mp4", "video/mp4"));
+    ClaimedUpload b = claim("already-gone");
+    ClaimedUpload c = claim(s3.createMultipartUpload("bucket", "u/1/c.mp4", "video/mp4"));
+    when(cleanupRepo.claimStale(any(), eq(2))).thenReturn(List.of(a, b)).thenReturn(List.of(c));
+    when(cleanupRepo.countStale(any())).thenReturn(7L);
+    Map<String, List<UUID>> settled = new ConcurrentHashMap<>();
+    when(cleanupRepo.settleAborting(any(), anyString())).thenAnswer(inv -> {
+      settled.merge(inv.getArgument(1), List.copyOf(inv.<Collection<UUID>>getArgument(0)),
+        (x, y) -> Stream.concat(x.stream(), y.stream()).toList());
+      return 0;
+    });
+
+    job.abortStaleUploads();
+
+    // the short second batch ends the run
+    verify(cleanupRepo, times(2)).claimStale(any(), eq(2));
+    assertTrue(s3.uploads.isEmpty());
+    assertEquals(Set.of(a.id(), b.id(), c.id()), Set.copyOf(settled.get("ABORTED")));
+    assertEquals(List.of(), settled.getOrDefault("FAILED", List.of()));
+    assertEquals(3.0, registry.get("uploads.cleanup.aborts").tag("outcome", "aborted").counter().count());
+    assertEquals(7.0, registry.get("uploads.cleanup.backlog").gauge().value());
+    verifyNoInteractions(repo);
+  }
+
+  @Test
+  void failedS3AbortSettlesAsFailedWithoutStoppingTheBatch() {
+    ClaimedUpload ok = claim(s3.createMultipartUpload("bucket", "u/1/a.mp4", "video/mp4"));
+    ClaimedUpload broken = claim(s3.createMultipartUpload("bucket", "u/1/b.mp4", "video/mp4"));
+    S3MultipartAsyncOperations flaky = spy(new BlockingS3MultipartAsyncOperations(s3, Runnable::run));
+    doReturn(CompletableFuture.failedFuture(S3Exception.builder().statusCode(503).build()))
+      .when(flaky).abortMultipartUpload("bucket", broken.objectKey(), broken.s3UploadId());
+    job = newJob(flaky);
+    when(cleanupRepo.claimStale(any(), anyInt())).thenReturn(List.of(ok, broken));
+
+    job.abortStaleUploads();
+
+    verify(cleanupRepo).settleAborting(argThat(ids -> ids.size() == 1 && ids.contains(ok.id())), eq("ABORTED"));
+    verify(cleanupRepo).settleAborting(argThat(ids -> ids.size() == 1 && ids.contains(broken.id())), eq("FAILED"));
+    assertEquals(1.0, registry.get("uploads.cleanup.aborts").tag("outcome", "failed").counter().count());
+  }
+
+  private UploadCleanupJob newJob() {
+    return newJob(new BlockingS3MultipartAsyncOperations(s3, Runnable::run));
+  }
+
+  private UploadCleanupJob newJob(S3MultipartAsyncOperations s3Async) {
+    registry.clear();
+    UploadSessionCache sessionCache = new UploadSessionCache(policy, repo, mock(JdbcTemplate.class), new SimpleMeterRegistry());
+    UploadMetrics metrics = new UploadMetrics(registry, repo);
+    return new UploadCleanupJob(policy, repo, cleanupRepo, s3, s3Async, sessionCache,
+      new UploadCompletionExecutor(policy, new SimpleMeterRegistry()), new BackgroundS3Calls(policy),
+      metrics, new UploadTransitions(repo, sessionCache, metrics), registry);
+  }
+
+  /** Stubs the recovery claim of {@code status} to take {@code rows}. */
+  private void stuck(String status, UploadEntity... rows) {
+    List<ClaimedUpload> claimed = Stream.of(rows)
+      .map(u -> new ClaimedUpload(u.getId(), u.getBucket(), u.getObjectKey(), u.getS3UploadId(), u.getUploadMode()))
+      .toList();
+    when(cleanupRepo.claimStuck(eq(status), any(), any(), anyInt())).thenReturn(claimed);
+    when(repo.findAllById(claimed.stream().map(ClaimedUpload::id).toList())).thenReturn(List.of(rows));
+  }
+
+  private static ClaimedUpload claim(String s3UploadId) {
+    return new ClaimedUpload(UUID.randomUUID(), "bucket", "u/1/" + s3UploadId, s3UploadId, "MULTIPART");
+  }
+
+  private static UploadEntity row(String status, String key, String s3UploadId) {
+    OffsetDateTime old = OffsetDateTime.now().minusDays(2);
+    return UploadEntity.builder()
+      .id(UUID.randomUUID())
+      .userSub("user-1")
+      .bucket("bucket")
+      .objectKey(key)
+      .s3UploadId(s3UploadId)
+      .fileName("a.mp4")
+      .contentType("video/mp4")
+      .fileSize(32L * 1024 * 1024)
+      .partSize(16L * 1024 * 1024)
+      .partCount(2)
+      .uploadMode("MULTIPART")
+      .status(status)
+      .createdAt(old)
+      .updatedAt(old)
+      .build();
+  }
+}
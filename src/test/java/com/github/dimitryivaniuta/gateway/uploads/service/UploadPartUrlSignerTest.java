@@ -0,0 +1,84 @@
+package com.github.dimitryivaniuta.gateway.uploads.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.dimitryivaniuta.gateway.config.S3Properties;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentials;
+import software.amazon.awssdk.auth.credentials.AwsSessionCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.UploadPartPresignRequest;
+
+/**
+ * The specialized signer must emit exactly what {@link S3Presigner} emits for the same signing time.
+ */
+class UploadPartUrlSignerTest {
+
+  private static final DateTimeFormatter AMZ_DATE =
+    DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+  private static final Duration EXPIRY = Duration.ofMinutes(20);
+
+  static List<Arguments> cases() {
+    AwsCredentials basic = AwsBasicCredentials.create("AKIDEXAMPLE", "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY");
+    AwsCredentials session = AwsSessionCredentials.create("ASIAEXAMPLE", "c2VjcmV0/+=", "IQoJb3JpZ2luX2Vj/+token==");
+    return List.of(
+      Arguments.of("eu-central-1", null, basic, "s3-demo-uploads", "users/u-1/uploads/7b1c/video.mp4", "2~Zk.abc_DEF-ghi"),
+      Arguments.of("eu-central-1", null, session, "s3-demo-uploads", "users/u-1/uploads/7b1c/my file+(1)~ü.mp4", "a+b/c=d"),
+      Arguments.of("us-east-1", null, basic, "dotted.bucket.name", "a//b/./c", "upload id"),
+      Arguments.of("eu-central-1", "http://localhost:4566", basic, "s3-demo-uploads", "k", "u-123")
+    );
+  }
+
+  @ParameterizedTest
+  @MethodSource("cases")
+  void matchesSdkPresignerByteForByte(String region, String endpoint, AwsCredentials creds,
+                                      String bucket, String key, String uploadId) {
+    var builder = S3Presigner.builder()
+      .region(Region.of(region))
+      .credentialsProvider(StaticCredentialsProvider.create(creds));
+    if (endpoint != null) {
+      builder.endpointOverride(URI.create(endpoint));
+    }
+    try (S3Presigner presigner = builder.build()) {
+      S3Properties props = new S3Properties();
+      props.setRegion(region);
+      UploadPartUrlSigner signer = new UploadPartUrlSigner(presigner, StaticCredentialsProvider.create(creds), props);
+
+      for (int partNumber : new int[] {1, 7, 10_000}) {
+        var expected = presigner.presignUploadPart(UploadPartPresignRequest.builder()
+          .signatureDuration(EXPIRY)
+          .uploadPartRequest(UploadPartRequest.builder()
+            .bucket(bucket).key(key).uploadId(uploadId).partNumber(partNumber).build())
+          .build());
+        Instant signedAt = Instant.from(AMZ_DATE.parse(queryParam(expected.url().toString(), "X-Amz-Date")));
+
+        PresignedUrl actual = signer.signAll(bucket, key, uploadId, List.of(partNumber), EXPIRY, signedAt).get(0);
+
+        assertEquals(expected.url().toString(), actual.url());
+        assertEquals(expected.expiration().truncatedTo(ChronoUnit.SECONDS), actual.expiresAt());
+      }
+    }
+  }
+
+  private static String queryParam(String url, String name) {
+    for (String kv : URI.create(url).getRawQuery().split("&")) {
+      if (kv.startsWith(name + "=")) {
+        return kv.substring(name.length() + 1);
+      }
+    }
+    throw new AssertionError("missing " + name + " in " + url);
+  }
+}
@@ -3,20 +3,74 @@ package com.github.dimitryivaniuta.gateway.uploads.service;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import com.github.dimitryivaniuta.gateway.admission.AdmissionControl;
+import com.github.dimitryivaniuta.gateway.config.AdmissionProperties;
+import com.github.dimitryivaniuta.gateway.config.CopyProperties;
+import com.github.dimitryivaniuta.gateway.config.PartSizePlannerProperties;
+import com.github.dimitryivaniuta.gateway.config.ProxyUploadProperties;
 import com.github.dimitryivaniuta.gateway.config.S3Properties;
+import com.github.dimitryivaniuta.gateway.config.SessionTokenProperties;
 import com.github.dimitryivaniuta.gateway.config.UploadPolicyProperties;
+import com.github.dimitryivaniuta.gateway.observability.UploadMetrics;
+import com.github.dimitryivaniuta.gateway.observability.UploadThroughputAnalytics;
+import com.github.dimitryivaniuta.gateway.uploads.api.dto.CompleteUploadRequest;
+import com.github.dimitryivaniuta.gateway.uploads.api.dto.CompletedPartList;
+import com.github.dimitryivaniuta.gateway.uploads.api.dto.CopyUploadRequest;
 import com.github.dimitryivaniuta.gateway.uploads.api.dto.CreateUploadRequest;
+import com.github.dimitryivaniuta.gateway.uploads.api.dto.PresignPartUrlsRequest;
 import com.github.dimitryivaniuta.gateway.uploads.domain.UploadEntity;
+import com.github.dimitryivaniuta.gateway.uploads.repo.UploadListRow;
+import com.github.dimitryivaniuta.gateway.uploads.repo.UploadMilestoneRepository;
 import com.github.dimitryivaniuta.gateway.uploads.repo.UploadRepository;
+import com.github.dimitryivaniuta.gateway.web.errors.BadRequestException;
+import com.github.dimitryivaniuta.gateway.web.errors.ConflictException;
+import com.github.dimitryivaniuta.gateway.web.errors.ForbiddenException;
+import com.github.dimitryivaniuta.gateway.web.errors.ServiceUnavailableException;
+import com.github.dimitryivaniuta.gateway.web.errors.TooManyRequestsException;
+import com.github.dimitryivaniuta.gateway.web.errors.UpstreamException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.S3Exception;
 
 @ExtendWith(MockitoExtension.class)
 class UploadServiceTest {
@@ -26,8 +80,16 @@ class UploadServiceTest {
 
   private S3Properties s3Props;
   private UploadPolicyProperties policy;
+  private SessionTokenProperties tokenProps;
+  private AdmissionProperties admissionProps;
+  private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+  private final UploadMilestoneRepository milestoneRepo = mock(UploadMilestoneRepository.class);
+  private final UploadThroughputAnalytics throughput = new UploadThroughputAnalytics();
+  private final ProxyUploadProperties proxyProps = new ProxyUploadProperties();
+  private final CopyProperties copyProps = new CopyProperties();
 
   private UploadService service;
+  private final CountingTransactionManager txManager = new CountingTransactionManager();
 
   @BeforeEach
   void setUp() {
@@ -42,14 +104,14 @@ class UploadServiceTest {
     policy.setMaxFileSizeBytes(3L * 1024 * 1024 * 1024);
     policy.setAllowedContentTypes(java.util.List.of("video/*", "application/octet-stream"));
 
-    service = new UploadService(
-      s3Props,
-      policy,
-      repo,
-      s3,
-      new KeyGenerator(),
-      new ContentTypeAllowlist()
-    );
+    tokenProps = new SessionTokenProperties();
+    tokenProps.setActiveKeyId("k1");
+    tokenProps.setKeys(Map.of("k1", "MDEyMzQ1Njc4OWFiY2RlZjAxMjM0NTY3ODlhYmNkZWY="));
+
+    admissionProps = new AdmissionProperties();
+    admissionProps.setMaxActiveSessionsPerUser(2);
+
+    service = serviceWith(s3);
   }
 
   @Test
@@ -64,14 +126,18 @@ class UploadServiceTest {
     when(s3.createMultipartUpload(eq("bucket"), anyString(), eq("video/mp4"))).thenReturn("upload-123");
     when(repo.save(any())).thenAnswer(inv -> inv.getArgument(0));
 
-    var resp = service.create(jwt, req, "http://localhost:8081");
+    var resp = join(service.create(jwt, req, "http://localhost:8081"));
 
     assertNotNull(resp.getUploadId());
-    assertEquals(16L * 1024 * 1024, resp.getPartSize());
-    assertEquals(7, resp.getPartCount());
+    // 16 MiB would give 7 parts; the planner shrinks parts to reach the 8-part band (1 MiB aligned)
+    assertEquals(13L * 1024 * 1024, resp.getPartSize());
+    assertEquals(8, resp.getPartCount());
+    assertEquals(4, resp.getRecommendedConcurrency());
+    assertEquals("DEFAULT", resp.getPartSizeStrategy());
 
     verify(s3, times(1)).createMultipartUpload(eq("bucket"), anyString(), eq("video/mp4"));
-    verify(repo, times(1)).save(any(UploadEntity.class));
+    // CREATING intent before the S3 call, INITIATED after it
+    verify(repo, times(2)).save(any(UploadEntity.class));
   }
 
   @Test
@@ -104,13 +170,888 @@ class UploadServiceTest {
 
     when(repo.findByUserSubAndIdempotencyKey("user-1", "abc")).thenReturn(Optional.of(existing));
 
-    var resp = service.create(jwt, req, "http://localhost:8081");
+    var resp = join(service.create(jwt, req, "http://localhost:8081"));
 
     assertEquals(existing.getId(), resp.getUploadId());
     verifyNoInteractions(s3);
     verify(repo, never()).save(any());
   }
 
+  @Test
+  void concurrentCreatesWithSameIdempotencyKeyCreateOneMultipartUpload() throws Exception {
+    InMemoryS3MultipartOperations fakeS3 = new InMemoryS3MultipartOperations();
+    fakeS3.beforeEachCall = () -> sleep(50);
+    // two instances sharing one database
+    UploadService a = serviceWith(fakeS3);
+    UploadService b = serviceWith(fakeS3);
+    Map<String, UploadEntity> byKey = new ConcurrentHashMap<>();
+    when(repo.insertIfAbsent(any())).thenAnswer(inv -> {
+      UploadEntity e = inv.getArgument(0);
+      return byKey.putIfAbsent(e.getUserSub() + "/" + e.getIdempotencyKey(), e) == null;
+    });
+    when(repo.findByUserSubAndIdempotencyKey(anyString(), anyString()))
+      .thenAnswer(inv -> Optional.ofNullable(byKey.get(inv.getArgument(0) + "/" + inv.getArgument(1))));
+    when(repo.save(any())).thenAnswer(inv -> {
+      UploadEntity e = inv.getArgument(0);
+      byKey.put(e.getUserSub() + "/" + e.getIdempotencyKey(), e);
+      return e;
+    });
+
+    CreateUploadRequest req = new CreateUploadRequest();
+    req.setFileName("video.mp4");
+    req.setContentType("video/mp4");
+    req.setFileSize(40L * 1024 * 1024);
+    req.setIdempotencyKey("retry-1");
+
+    int n = 16;
+    CountDownLatch go = new CountDownLatch(1);
+    ExecutorService pool = Executors.newFixedThreadPool(n);
+    try {
+      List<Future<UUID>> results = new ArrayList<>();
+      for (int i = 0; i < n; i++) {
+        UploadService svc = i % 2 == 0 ? a : b;
+        results.add(pool.submit(() -> {
+          go.await();
+          return join(svc.create(jwt("user-1"), req, "http://localhost:8081")).getUploadId();
+        }));
+      }
+      go.countDown();
+
+      Set<UUID> ids = new HashSet<>();
+      for (var r : results) {
+        ids.add(r.get(10, TimeUnit.SECONDS));
+      }
+      assertEquals(1, ids.size());
+      assertEquals(1, fakeS3.createCalls.get());
+      assertEquals("INITIATED", byKey.get("user-1/retry-1").getStatus());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  void retryWithIdempotencyKeyAfterFailedCreateStartsOver() {
+    CreateUploadRequest req = new CreateUploadRequest();
+    req.setFileName("video.mp4");
+    req.setContentType("video/mp4");
+    req.setFileSize(40L * 1024 * 1024);
+    req.setIdempotencyKey("abc");
+    // uq_uploads_user_idem
+    Map<String, UploadEntity> byKey = new ConcurrentHashMap<>();
+    when(repo.insertIfAbsent(any())).thenAnswer(inv -> {
+      UploadEntity e = inv.getArgument(0);
+      return byKey.putIfAbsent(e.getUserSub() + "/" + e.getIdempotencyKey(), e) == null;
+    });
+    when(repo.save(any())).thenAnswer(inv -> {
+      UploadEntity e = inv.getArgument(0);
+      byKey.values().removeIf(other -> other.getId().equals(e.getId()));
+      if (e.getIdempotencyKey() != null) {
+        byKey.put(e.getUserSub() + "/" + e.getIdempotencyKey(), e);
+      }
+      return e;
+    });
+    when(s3.createMultipartUpload(eq("bucket"), anyString(), eq("video/mp4")))
+      .thenThrow(S3Exception.builder().statusCode(503).message("SlowDown").build())
+      .thenReturn("upload-2");
+
+    assertThrows(UpstreamException.class, () -> join(service.create(jwt("user-1"), req, "http://localhost:8081")));
+    assertTrue(byKey.isEmpty());
+
+    var resp = join(service.create(jwt("user-1"), req, "http://localhost:8081"));
+    UploadEntity created = byKey.get("user-1/abc");
+    assertEquals(resp.getUploadId(), created.getId());
+    assertEquals("INITIATED", created.getStatus());
+    assertEquals("upload-2", created.getS3UploadId());
+  }
+
+  @Test
+  void createIsRejectedAtActiveSessionCapUnlessItRetriesAnExistingSession() {
+    CreateUploadRequest req = new CreateUploadRequest();
+    req.setFileName("video.mp4");
+    req.setContentType("video/mp4");
+    req.setFileSize(40L * 1024 * 1024);
+    when(repo.countByUserSubAndStatusIn(eq("user-1"), anyCollection())).thenReturn(2L);
+
+    var ex = assertThrows(TooManyRequestsException.class,
+      () -> service.create(jwt("user-1"), req, "http://localhost:8081"));
+    assertEquals(60, ex.getRetryAfterSeconds());
+    verify(repo, never()).save(any());
+
+    UploadEntity existing = initiated("user-1", 3);
+    req.setIdempotencyKey("abc");
+    when(repo.findByUserSubAndIdempotencyKey("user-1", "abc")).thenReturn(Optional.of(existing));
+
+    assertEquals(existing.getId(), join(service.create(jwt("user-1"), req, "http://localhost:8081")).getUploadId());
+    verifyNoInteractions(s3);
+  }
+
+  @Test
+  void smallFileGetsSinglePutUrlAndCompletesAfterHeadObject() {
+    InMemoryS3MultipartOperations fakeS3 = new InMemoryS3MultipartOperations();
+    UploadService svc = serviceWith(fakeS3);
+    List<UploadEntity> saved = new ArrayList<>();
+    when(repo.save(any())).thenAnswer(inv -> {
+      saved.add(inv.getArgument(0));
+      return inv.getArgument(0);
+    });
+
+    CreateUploadRequest req = new CreateUploadRequest();
+    req.setFileName("subs.srt");
+    req.setContentType("application/octet-stream");
+    req.setFileSize(40_000);
+
+    var resp = join(svc.create(jwt("user-1"), req, "http://localhost:8081"));
+
+    assertEquals("SINGLE_PUT", resp.getUploadMode());
+    assertNotNull(resp.getPutUrl());
+    assertEquals("40000", resp.getPutHeaders().get("content-length"));
+    assertNull(resp.getPartUrlEndpoint());
+    assertNull(resp.getSessionToken());
+    assertEquals(0, fakeS3.createCalls.get());
+
+    UploadEntity u = saved.get(0);
+    assertNull(u.getS3UploadId());
+    when(repo.findById(u.getId())).thenReturn(Optional.of(u));
+
+    assertThrows(ConflictException.class, () -> svc.presignPartUrl(jwt("user-1"), u.getId(), 1, "http://localhost:8081", null));
+    assertEquals("Object has not been uploaded yet",
+      assertThrows(ConflictException.class, () -> join(svc.complete(jwt("user-1"), u.getId(), null))).getMessage());
+
+    fakeS3.putObject("bucket", u.getObjectKey(), 40_000);
+    join(svc.complete(jwt("user-1"), u.getId(), null));
+
+    assertEquals("COMPLETED", u.getStatus());
+  }
+
+  @Test
+  void batchPresignLoadsSessionOnceAndSignsRange() {
+    Jwt jwt = jwt("user-1");
+    UploadEntity u = initiated("user-1", 10);
+    when(repo.findById(u.getId())).thenReturn(Optional.of(u));
+    when(s3.presignUploadPartUrls(eq("bucket"), eq("k"), eq("upload-xyz"), anyList()))
+      .thenAnswer(inv -> inv.<List<Integer>>getArgument(3).stream()
+        .map(pn -> new PresignedUrl("url-" + pn, Instant.now().plusSeconds(1200)))
+        .toList());
+
+    PresignPartUrlsRequest req = new PresignPartUrlsRequest();
+    req.setFromPartNumber(3);
+    req.setToPartNumber(5);
+
+    var resp = service.presignPartUrls(jwt, u.getId(), req, null);
+
+    assertEquals(3, resp.size());
+    assertEquals(3, resp.get(0).getPartNumber());
+    assertEquals("url-5", resp.get(2).getUrl());
+    verify(repo, times(1)).findById(u.getId());
+    verify(s3, times(1)).presignUploadPartUrls("bucket", "k", "upload-xyz", List.of(3, 4, 5));
+    verify(s3, never()).presignUploadPartUrl(anyString(), anyString(), anyString(), anyInt());
+  }
+
+  @Test
+  void batchPresignRejectsRangeBeyondPartCount() {
+    Jwt jwt = jwt("user-1");
+    UploadEntity u = initiated("user-1", 10);
+    when(repo.findById(u.getId())).thenReturn(Optional.of(u));
+
+    PresignPartUrlsRequest req = new PresignPartUrlsRequest();
+    req.setFromPartNumber(8);
+    req.setToPartNumber(11);
+
+    assertThrows(BadRequestException.class, () -> service.presignPartUrls(jwt, u.getId(), req, null));
+    verifyNoInteractions(s3);
+  }
+
+  @Test
+  void presignServesSessionFromCacheUntilAbortInvalidatesIt() {
+    Jwt jwt = jwt("user-1");
+    UploadEntity u = initiated("user-1", 10);
+    when(repo.findById(u.getId())).thenReturn(Optional.of(u));
+    when(repo.save(any())).thenAnswer(inv -> inv.getArgument(0));
+    when(s3.presignUploadPartUrl(anyString(), anyString(), anyString(), anyInt()))
+      .thenReturn(new PresignedUrl("url", Instant.now().plusSeconds(1200)));
+
+    service.presignPartUrl(jwt, u.getId(), 1, "http://localhost:8081", null);
+    service.presignPartUrl(jwt, u.getId(), 2, "http://localhost:8081", null);
+    verify(repo, times(1)).findById(u.getId());
+
+    join(service.abort(jwt, u.getId()));
+
+    assertThrows(ConflictException.class, () -> service.presignPartUrl(jwt, u.getId(), 3, "http://localhost:8081", null));
+  }
+
+  @Test
+  void presignWithSessionTokenSkipsRepository() {
+    Jwt jwt = jwt("user-1");
+    CreateUploadRequest req = new CreateUploadRequest();
+    req.setFileName("video.mp4");
+    req.setContentType("video/mp4");
+    req.setFileSize(100L * 1024 * 1024);
+    when(s3.createMultipartUpload(eq("bucket"), anyString(), eq("video/mp4"))).thenReturn("upload-123");
+    when(repo.save(any())).thenAnswer(inv -> inv.getArgument(0));
+    when(s3.presignUploadPartUrl(eq("bucket"), anyString(), eq("upload-123"), eq(7)))
+      .thenReturn(new PresignedUrl("url-7", Instant.now().plusSeconds(1200)));
+
+    var created = join(service.create(jwt, req, "http://localhost:8081"));
+    assertNotNull(created.getSessionToken());
+
+    var resp = service.presignPartUrl(jwt, created.getUploadId(), 7, "http://localhost:8081", created.getSessionToken());
+
+    assertEquals("url-7", resp.getUrl());
+    verify(repo, never()).findById(any());
+  }
+
+  @Test
+  void sessionTokenOfAnotherUserFallsBackToOwnershipCheck() {
+    UploadEntity u = initiated("user-1", 10);
+    String token = new UploadSessionTokens(tokenProps).issue(u);
+    when(repo.findById(u.getId())).thenReturn(Optional.of(u));
+
+    assertThrows(ForbiddenException.class,
+      () -> service.presignPartUrl(jwt("user-2"), u.getId(), 1, "http://localhost:8081", token));
+    verifyNoInteractions(s3);
+  }
+
+  @Test
+  void sessionTokenDoesNotPresignASessionCachedPastInitiated() {
+    UploadEntity u = initiated("user-1", 10);
+    String token = new UploadSessionTokens(tokenProps).issue(u);
+    u.setStatus("COMPLETING");
+    when(repo.findById(u.getId())).thenReturn(Optional.of(u));
+    // a tokenless request caches the new status on this replica
+    assertThrows(ConflictException.class,
+      () -> service.presignPartUrl(jwt("user-1"), u.getId(), 1, "http://localhost:8081", null));
+
+    assertThrows(ConflictException.class,
+      () -> service.presignPartUrl(jwt("user-1"), u.getId(), 1, "http://localhost:8081", token));
+    verifyNoInteractions(s3);
+  }
+
+  @Test
+  void sessionTokenWithoutAClaimFallsBackToTheSession() {
+    UploadEntity u = initiated("user-1", 10);
+    String token = Jwts.builder()
+      .setHeaderParam(JwsHeader.KEY_ID, "k1")
+      .setSubject("user-1")
+      .claim("sid", u.getId().toString())
+      .setExpiration(Date.from(Instant.now().plusSeconds(60)))
+      .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(tokenProps.getKeys().get("k1"))), SignatureAlgorithm.HS256)
+      .compact();
+    when(repo.findById(u.getId())).thenReturn(Optional.of(u));
+    when(s3.presignUploadPartUrl("bucket", "k", "upload-xyz", 1))
+      .thenReturn(new PresignedUrl("url-1", Instant.now().plusSeconds(1200)));
+
+    assertEquals("url-1", service.presignPartUrl(jwt("user-1"), u.getId(), 1, "http://localhost:8081", token).getUrl());
+    verify(repo).findById(u.getId());
+  }
+
+  @Test
+  void presignRejectsACopySessionWithOrWithoutAToken() {
+    UploadEntity copy = initiated("user-1", 3);
+    copy.setUploadMode("COPY");
+    String token = new UploadSessionTokens(tokenProps).issue(copy);
+    when(repo.findById(copy.getId())).thenReturn(Optional.of(copy));
+
+    assertThrows(ConflictException.class,
+      () -> service.presignPartUrl(jwt("user-1"), copy.getId(), 1, "http://localhost:8081", token));
+    verify(repo, never()).findById(any());
+    assertThrows(ConflictException.class,
+      () -> service.presignPartUrl(jwt("user-1"), copy.getId(), 1, "http://localhost:8081", null));
+    verifyNoInteractions(s3);
+  }
+
+  @Test
+  void validateAndMapPartsOrdersByPartNumberAndStripsQuotes() {
+    UploadEntity u = initiated("user-1", 3);
+    CompleteUploadRequest req = new CompleteUploadRequest();
+    req.setParts(CompletedPartList.of(new int[] {3, 1, 2}, new String[] {" \"c\" ", "a", "\"b\""}));
+
+    var parts = UploadService.validateAndMapParts(u, req);
+
+    assertEquals(List.of(1, 2, 3), parts.stream().map(p -> p.partNumber()).toList());
+    assertEquals(List.of("a", "b", "c"), parts.stream().map(p -> p.eTag()).toList());
+  }
+
+  @Test
+  void validateAndMapPartsRejectsDuplicatesAndGaps() {
+    UploadEntity u = initiated("user-1", 3);
+    CompleteUploadRequest dup = new CompleteUploadRequest();
+    dup.setParts(CompletedPartList.of(new int[] {1, 2, 2}, new String[] {"a", "b", "c"}));
+    CompleteUploadRequest gap = new CompleteUploadRequest();
+    gap.setParts(CompletedPartList.of(new int[] {1, 3}, new String[] {"a", "c"}));
+    CompleteUploadRequest blank = new CompleteUploadRequest();
+    blank.setParts(CompletedPartList.of(new int[] {1, 2, 3}, new String[] {"a", "  ", "c"}));
+
+    assertEquals("Duplicate partNumber: 2",
+      assertThrows(BadRequestException.class, () -> UploadService.validateAndMapParts(u, dup)).getMessage());
+    assertEquals("Expected 3 parts, got 2",
+      assertThrows(BadRequestException.class, () -> UploadService.validateAndMapParts(u, gap)).getMessage());
+    assertEquals("Missing ETag for partNumber: 2",
+      assertThrows(BadRequestException.class, () -> UploadService.validateAndMapParts(u, blank)).getMessage());
+  }
+
+  @Test
+  void completeWithoutPartsUsesS3ListingAndChecksSizes() {
+    InMemoryS3MultipartOperations fakeS3 = new InMemoryS3MultipartOperations();
+    UploadService svc = serviceWith(fakeS3);
+    UploadEntity u = initiated("user-1", 3);
+    u.setS3UploadId(fakeS3.createMultipartUpload("bucket", "k", "video/mp4"));
+    u.setFileSize(2 * u.getPartSize() + 10);
+    when(repo.findById(u.getId())).thenReturn(Optional.of(u));
+    when(repo.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+    fakeS3.putPart(u.getS3UploadId(), 1, u.getPartSize());
+    fakeS3.putPart(u.getS3UploadId(), 3, 10);
+    assertEquals("Upload incomplete: part 2 is missing",
+      assertThrows(ConflictException.class, () -> join(svc.complete(jwt("user-1"), u.getId(), null))).getMessage());
+
+    fakeS3.putPart(u.getS3UploadId(), 2, u.getPartSize());
+    join(svc.complete(jwt("user-1"), u.getId(), new CompleteUploadRequest()));
+
+    assertEquals("COMPLETED", u.getStatus());
+    assertEquals(List.of("etag-1", "etag-2", "etag-3"),
+      fakeS3.completed.get(u.getS3UploadId()).stream().map(p -> p.eTag()).toList());
+  }
+
+  @Test
+  void completionRecordsMilestonesAndThroughput() {
+    InMemoryS3MultipartOperations fakeS3 = new InMemoryS3MultipartOperations();
+    UploadService svc = serviceWith(fakeS3);
+    UploadEntity u = initiated("user-1", 2);
+    u.setS3UploadId(fakeS3.createMultipartUpload("bucket", "k", "video/mp4"));
+    u.setFileSize(2 * u.getPartSize());
+    u.setCreatedAt(OffsetDateTime.now().minusSeconds(10));
+    // an earlier flushed window; this one merges into it
+    OffsetDateTime earlier = OffsetDateTime.now().minusSeconds(5);
+    u.setFirstPartPresignedAt(earlier);
+    when(repo.findById(u.getId())).thenReturn(Optional.of(u));
+    when(repo.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+    svc.presignPartUrl(jwt("user-1"), u.getId(), 1, "http://localhost:8081", null);
+    PresignPartUrlsRequest batch = new PresignPartUrlsRequest();
+    batch.setPartNumbers(List.of(2));
+    svc.presignPartUrls(jwt("user-1"), u.getId(), batch, null);
+    fakeS3.putPart(u.getS3UploadId(), 1, u.getPartSize());
+    fakeS3.putPart(u.getS3UploadId(), 2, u.getPartSize());
+    var dto = join(svc.complete(jwt("user-1"), u.getId(), null));
+
+    verify(milestoneRepo).mergePresignWindows(argThat(w -> w.keySet().equals(Set.of(u.getId()))));
+    assertEquals(earlier, dto.getFirstPartPresignedAt());
+    assertTrue(dto.getLastPartPresignedAt().isAfter(earlier));
+    assertNotNull(dto.getCompleteRequestedAt());
+    assertTrue(dto.getBytesPerSecond() > 0);
+    var report = throughput.report(false);
+    assertEquals(1, report.getAll().getUploads());
+    assertEquals(1, report.getByContentType().get("video/mp4").getUploads());
+  }
+
+  @Test
+  void proxyUploadStreamsPartsAndCompletesTheSession() {
+    InMemoryS3MultipartOperations fakeS3 = new InMemoryS3MultipartOperations();
+    UploadService svc = serviceWith(fakeS3);
+    UploadEntity u = proxied(fakeS3);
+    when(repo.findById(u.getId())).thenReturn(Optional.of(u));
+    when(repo.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+    var dto = join(svc.proxyUpload(jwt("user-1"), u.getId(), u.getFileSize(),
+      new ByteArrayInputStream(new byte[(int) u.getFileSize()])));
+
+    assertEquals("COMPLETED", dto.getStatus());
+    assertEquals(List.of(1, 2), fakeS3.completed.get(u.getS3UploadId()).stream().map(CompletedPart::partNumber).toList());
+    assertEquals(u.getFileSize(), fakeS3.objects.get("bucket/k"));
+  }
+
+  @Test
+  void proxyUploadWithShortBodyReleasesTheSession() {
+    InMemoryS3MultipartOperations fakeS3 = new InMemoryS3MultipartOperations();
+    UploadService svc = serviceWith(fakeS3);
+    UploadEntity u = proxied(fakeS3);
+    when(repo.findById(u.getId())).thenReturn(Optional.of(u));
+    List<String> statuses = new ArrayList<>();
+    when(repo.save(any())).thenAnswer(inv -> {
+      statuses.add(inv.<UploadEntity>getArgument(0).getStatus());
+      return inv.getArgument(0);
+    });
+
+    var ex = assertThrows(BadRequestException.class, () -> svc.proxyUpload(jwt("user-1"), u.getId(), null,
+      new ByteArrayInputStream(new byte[(int) u.getFileSize() - 1])));
+
+    assertTrue(ex.getMessage().contains("ended after"), ex.getMessage());
+    assertEquals(List.of("UPLOADING", "INITIATED"), statuses);
+    assertEquals("INITIATED", u.getStatus());
+    assertThrows(BadRequestException.class, () -> svc.proxyUpload(jwt("user-1"), u.getId(), 1L,
+      new ByteArrayInputStream(new byte[1])));
+    assertEquals(2, statuses.size());
+  }
+
+  @Test
+  void streamingProxyUploadHoldsTheSession() {
+    InMemoryS3MultipartOperations fakeS3 = new InMemoryS3MultipartOperations();
+    UploadService svc = serviceWith(fakeS3);
+    UploadEntity u = proxied(fakeS3);
+    when(repo.findById(u.getId())).thenReturn(Optional.of(u));
+    when(repo.save(any())).thenAnswer(inv -> inv.getArgument(0));
+    List<RuntimeException> rejected = new ArrayList<>();
+    InputStream body = new ByteArrayInputStream(new byte[(int) u.getFileSize()]) {
+      @Override
+      public synchronized int read(byte[] b, int off, int len) {
+        if (rejected.isEmpty()) {
+          // the session is claimed before the first byte is read
+          rejected.add(assertThrows(ConflictException.class, () -> svc.proxyUpload(jwt("user-1"), u.getId(), null,
+            new ByteArrayInputStream(new byte[0]))));
+          rejected.add(assertThrows(ConflictException.class, () -> svc.complete(jwt("user-1"), u.getId(), null)));
+          rejected.add(assertThrows(ConflictException.class, () -> svc.abort(jwt("user-1"), u.getId())));
+        }
+        return super.read(b, off, len);
+      }
+    };
+
+    var dto = join(svc.proxyUpload(jwt("user-1"), u.getId(), u.getFileSize(), body));
+
+    assertEquals(3, rejected.size());
+    assertEquals("COMPLETED", dto.getStatus());
+  }
+
+  @Test
+  void copyComposesCompletedUploadsServerSide() {
+    InMemoryS3MultipartOperations fakeS3 = new InMemoryS3MultipartOperations();
+    UploadService svc = serviceWith(fakeS3);
+    copyProps.setPartSizeBytes(10L * 1024 * 1024);
+    UploadEntity first = completedSource(fakeS3, "user-1", 20L * 1024 * 1024);
+    UploadEntity second = completedSource(fakeS3, "user-1", 3L * 1024 * 1024);
+    when(repo.findAllById(any())).thenReturn(List.of(first, second));
+    when(repo.save(any())).thenAnswer(inv -> inv.getArgument(0));
+    ArgumentCaptor<UploadEntity> saved = ArgumentCaptor.forClass(UploadEntity.class);
+
+    var accepted = svc.copy(jwt("user-1"), copyRequest(first.getId(), second.getId()));
+
+    assertEquals("CREATING", accepted.getStatus());
+    assertEquals("COPY", accepted.getUploadMode());
+    assertEquals(List.of(first.getId(), second.getId()), accepted.getSourceUploadIds());
+    verify(repo, atLeastOnce()).save(saved.capture());
+    UploadEntity copy = saved.getValue();
+    assertEquals("COMPLETED", copy.getStatus());
+    assertEquals(3, copy.getPartCount());
+    assertEquals(23L * 1024 * 1024, fakeS3.objects.get("bucket/" + copy.getObjectKey()));
+    assertEquals(List.of(1, 2, 3), fakeS3.completed.get(copy.getS3UploadId()).stream()
+      .map(CompletedPart::partNumber).toList());
+    verify(milestoneRepo, times(2)).addCopyProgress(copy.getId(), 10L * 1024 * 1024);
+    verify(milestoneRepo).addCopyProgress(copy.getId(), 3L * 1024 * 1024);
+    // the sources are left as they were
+    assertEquals(20L * 1024 * 1024, fakeS3.objects.get("bucket/" + first.getObjectKey()));
+  }
+
+  @Test
+  void copyRequiresOwnedCompletedSources() {
+    UploadEntity mine = initiated("user-1", 1);
+    UploadEntity theirs = initiated("user-2", 1);
+    theirs.setStatus("COMPLETED");
+    when(repo.findAllById(any())).thenReturn(List.of(mine, theirs));
+
+    assertThrows(ConflictException.class, () -> service.copy(jwt("user-1"), copyRequest(mine.getId())));
+    assertThrows(ForbiddenException.class, () -> service.copy(jwt("user-1"), copyRequest(theirs.getId())));
+    verify(repo, never()).save(any());
+  }
+
+  @Test
+  void failedCopyIsAbortedInS3AndMarkedFailed() {
+    InMemoryS3MultipartOperations fakeS3 = new InMemoryS3MultipartOperations();
+    UploadService svc = serviceWith(fakeS3);
+    UploadEntity source = completedSource(fakeS3, "user-1", 12L * 1024 * 1024);
+    fakeS3.objects.remove("bucket/" + source.getObjectKey());
+    when(repo.findAllById(any())).thenReturn(List.of(source));
+    var saved = new AtomicReference<UploadEntity>();
+    when(repo.save(any())).thenAnswer(inv -> {
+      saved.set(inv.getArgument(0));
+      return inv.getArgument(0);
+    });
+    when(repo.findById(any())).thenAnswer(inv -> Optional.ofNullable(saved.get()));
+
+    svc.copy(jwt("user-1"), copyRequest(source.getId()));
+
+    UploadEntity copy = saved.get();
+    assertEquals("FAILED", copy.getStatus());
+    assertFalse(fakeS3.uploads.containsKey(copy.getS3UploadId()));
+    assertFalse(fakeS3.objects.containsKey("bucket/" + copy.getObjectKey()));
+  }
+
+  @Test
+  void downloadPlanSplitsCompletedUploadsAtPartBoundariesUnderOneSignature() {
+    InMemoryS3MultipartOperations fakeS3 = spy(new InMemoryS3MultipartOperations());
+    UploadService svc = serviceWith(fakeS3);
+    UploadEntity u = initiated("user-1", 3);
+    u.setFileSize(2 * u.getPartSize() + 10);
+    u.setStatus("COMPLETED");
+    when(repo.findById(u.getId())).thenReturn(Optional.of(u));
+
+    var plan = svc.downloadPlan(jwt("user-1"), u.getId());
+
+    long ps = u.getPartSize();
+    assertEquals(3, plan.getRangeCount());
+    assertEquals(List.of("bytes=0-" + (ps - 1), "bytes=" + ps + "-" + (2 * ps - 1), "bytes=" + 2 * ps + "-" + (2 * ps + 9)),
+      plan.getRanges().stream().map(r -> r.getHeader()).toList());
+    assertEquals(2 * ps + 9, plan.getRanges().get(2).getLastByte());
+    assertTrue(plan.getUrl().startsWith("https://s3.test/bucket/k"));
+    verify(fakeS3, times(1)).presignGetObjectUrl("bucket", "k");
+  }
+
+  @Test
+  void downloadPlanOfACopyFollowsTheCopiedParts() {
+    long mib = 1024L * 1024;
+    UploadEntity first = completedSource(new InMemoryS3MultipartOperations(), "user-1", 12 * mib);
+    UploadEntity second = completedSource(new InMemoryS3MultipartOperations(), "user-1", 3 * mib);
+    UploadEntity copy = initiated("user-1", 3);
+    copy.setUploadMode("COPY");
+    copy.setStatus("COMPLETED");
+    copy.setSourceUploadIds(new UUID[] {first.getId(), second.getId()});
+    copy.setFileSize(15 * mib);
+    copy.setPartSize(10 * mib);
+    when(repo.findById(copy.getId())).thenReturn(Optional.of(copy));
+    when(repo.findAllById(any())).thenReturn(List.of(second, first));
+    when(s3.presignGetObjectUrl("bucket", "k"))
+      .thenReturn(new PresignedUrl("https://s3.test/bucket/k", Instant.now().plusSeconds(60)));
+
+    var plan = service.downloadPlan(jwt("user-1"), copy.getId());
+
+    // the first source in two equal parts, not cut at partSize
+    assertEquals(List.of("bytes=0-" + (6 * mib - 1), "bytes=" + 6 * mib + "-" + (12 * mib - 1),
+        "bytes=" + 12 * mib + "-" + (15 * mib - 1)),
+      plan.getRanges().stream().map(r -> r.getHeader()).toList());
+    assertEquals(3, plan.getRangeCount());
+  }
+
+  @Test
+  void downloadPlanSignerFailureIsUpstream() {
+    UploadEntity u = initiated("user-1", 2);
+    u.setStatus("COMPLETED");
+    when(repo.findById(u.getId())).thenReturn(Optional.of(u));
+    when(s3.presignGetObjectUrl("bucket", "k")).thenThrow(S3Exception.builder().statusCode(500).message("signer").build());
+
+    assertThrows(UpstreamException.class, () -> service.downloadPlan(jwt("user-1"), u.getId()));
+  }
+
+  @Test
+  void downloadPlanRequiresAnOwnedCompletedUpload() {
+    UploadEntity u = initiated("user-1", 2);
+    when(repo.findById(u.getId())).thenReturn(Optional.of(u));
+
+    assertThrows(ConflictException.class, () -> service.downloadPlan(jwt("user-1"), u.getId()));
+    u.setStatus("COMPLETED");
+    assertThrows(ForbiddenException.class, () -> service.downloadPlan(jwt("user-2"), u.getId()));
+    verifyNoInteractions(s3);
+  }
+
+  @Test
+  void verifyListedPartsRejectsWrongSizesAndExtraParts() {
+    UploadEntity u = initiated("user-1", 2);
+    long ps = u.getPartSize();
+
+    assertEquals("Part 1 has 5 bytes, expected " + ps,
+      assertThrows(ConflictException.class, () -> UploadService.verifyListedParts(u, List.of(
+        new UploadedPart(1, 5, "a"), new UploadedPart(2, ps, "b")))).getMessage());
+    assertEquals("Unexpected part 3 (partCount is 2)",
+      assertThrows(ConflictException.class, () -> UploadService.verifyListedParts(u, List.of(
+        new UploadedPart(1, ps, "a"), new UploadedPart(2, ps, "b"), new UploadedPart(3, 1, "c")))).getMessage());
+  }
+
+  @Test
+  void manifestReportsUploadedPartsAndMissingRangesFromOneCachedListing() {
+    InMemoryS3MultipartOperations fakeS3 = new InMemoryS3MultipartOperations();
+    UploadService svc = serviceWith(fakeS3);
+    UploadEntity u = initiated("user-1", 6);
+    u.setS3UploadId(fakeS3.createMultipartUpload("bucket", "k", "video/mp4"));
+    when(repo.findById(u.getId())).thenReturn(Optional.of(u));
+
+    fakeS3.putPart(u.getS3UploadId(), 2, u.getPartSize());
+    fakeS3.putPart(u.getS3UploadId(), 3, u.getPartSize());
+    fakeS3.putPart(u.getS3UploadId(), 4, 100); // interrupted PUT: too short, must be re-sent
+    fakeS3.putPart(u.getS3UploadId(), 6, u.getPartSize());
+
+    var m = join(svc.manifest(jwt("user-1"), u.getId(), null));
+    join(svc.manifest(jwt("user-1"), u.getId(), null));
+
+    assertEquals(List.of(2, 3, 6), m.getParts().stream().map(p -> p.getPartNumber()).toList());
+    assertEquals("etag-2", m.getParts().get(0).getETag());
+    assertEquals(3 * u.getPartSize(), m.getUploadedBytes());
+    assertEquals(List.of("1-1", "4-5"),
+      m.getMissing().stream().map(r -> r.getFromPartNumber() + "-" + r.getToPartNumber()).toList());
+    assertEquals(1, fakeS3.listCalls.get());
+  }
+
+  @Test
+  void sessionLeavingInitiatedDropsItsCachedPartListing() {
+    InMemoryS3MultipartOperations fakeS3 = new InMemoryS3MultipartOperations();
+    UploadService svc = serviceWith(fakeS3);
+    UploadEntity u = initiated("user-1", 2);
+    u.setS3UploadId(fakeS3.createMultipartUpload("bucket", "k", "video/mp4"));
+    when(repo.findById(u.getId())).thenReturn(Optional.of(u));
+    when(repo.save(any())).thenAnswer(inv -> inv.getArgument(0));
+    fakeS3.putPart(u.getS3UploadId(), 1, u.getPartSize());
+    join(svc.manifest(jwt("user-1"), u.getId(), null));
+
+    // part 2 is missing, so the session goes back to INITIATED
+    assertThrows(ConflictException.class, () -> join(svc.complete(jwt("user-1"), u.getId(), null)));
+    fakeS3.putPart(u.getS3UploadId(), 2, u.getPartSize());
+    var m = join(svc.manifest(jwt("user-1"), u.getId(), null));
+
+    assertEquals(List.of(1, 2), m.getParts().stream().map(p -> p.getPartNumber()).toList());
+  }
+
+  @Test
+  void asyncCompleteReturnsCompletingAndWorkerFinishes() {
+    InMemoryS3MultipartOperations fakeS3 = new InMemoryS3MultipartOperations();
+    UploadService svc = serviceWith(fakeS3);
+    UploadEntity u = initiated("user-1", 2);
+    u.setS3UploadId(fakeS3.createMultipartUpload("bucket", "k", "video/mp4"));
+    fakeS3.putPart(u.getS3UploadId(), 1, u.getPartSize());
+    fakeS3.putPart(u.getS3UploadId(), 2, u.getPartSize());
+    when(repo.findById(u.getId())).thenReturn(Optional.of(u));
+    when(repo.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+    var accepted = svc.completeAsync(jwt("user-1"), u.getId(), null);
+    var done = svc.awaitCompletion(jwt("user-1"), u.getId(), Duration.ofSeconds(10)).join();
+
+    assertEquals("COMPLETING", accepted.getStatus());
+    assertEquals("COMPLETED", done.getStatus());
+    assertTrue(fakeS3.completed.containsKey(u.getS3UploadId()));
+  }
+
+  @Test
+  void asyncCompleteIsRejectedWithoutStateChangeWhenQueueIsFull() {
+    policy.setCompletionWorkers(1);
+    policy.setCompletionQueueCapacity(0);
+    UploadCompletionExecutor full = new UploadCompletionExecutor(policy, new SimpleMeterRegistry());
+    assertTrue(full.tryReserve());
+    UploadService svc = serviceWith(s3, full);
+    UploadEntity u = initiated("user-1", 2);
+
+    var ex = assertThrows(ServiceUnavailableException.class, () -> svc.completeAsync(jwt("user-1"), u.getId(), null));
+
+    assertTrue(ex.getRetryAfterSeconds() > 0);
+    assertEquals("INITIATED", u.getStatus());
+    verifyNoInteractions(repo, s3);
+  }
+
+  @Test
+  void listMineFetchesOneExtraRowAndResumesAfterCursor() {
+    OffsetDateTime t0 = OffsetDateTime.parse("2025-01-01T10:00:00.123456Z");
+    List<UploadListRow> rows = IntStream.range(0, 3)
+      .mapToObj(i -> listRow(t0.minusSeconds(i)))
+      .toList();
+    when(repo.findPageByUserSub(eq("user-1"), eq(List.of("INITIATED")), isNull(), isNull(), isNull(), isNull(), eq(3)))
+      .thenReturn(rows);
+
+    var first = service.listMine(jwt("user-1"), List.of(" initiated "), null, null, null, 2);
+
+    assertEquals(2, first.getItems().size());
+    assertEquals(rows.get(0).id(), first.getItems().get(0).getId());
+    assertNotNull(first.getNextCursor());
+
+    UploadListRow last = rows.get(1);
+    when(repo.findPageByUserSub(eq("user-1"), eq(List.of()), isNull(), isNull(),
+      argThat(t -> t.isEqual(last.createdAt())), eq(last.id()), eq(3)))
+      .thenReturn(List.of(rows.get(2)));
+
+    var second = service.listMine(jwt("user-1"), null, null, null, first.getNextCursor(), 2);
+
+    assertEquals(List.of(rows.get(2).id()), second.getItems().stream().map(d -> d.getId()).toList());
+    assertNull(second.getNextCursor());
+  }
+
+  @Test
+  void listMineRejectsForgedCursor() {
+    assertThrows(BadRequestException.class,
+      () -> service.listMine(jwt("user-1"), null, null, null, "not-a-cursor", 50));
+    verifyNoInteractions(repo);
+  }
+
+  @Test
+  void noTransactionIsOpenWhileS3IsCalled() {
+    InMemoryS3MultipartOperations fakeS3 = new InMemoryS3MultipartOperations();
+    AtomicInteger callsInTx = new AtomicInteger();
+    AtomicInteger calls = new AtomicInteger();
+    fakeS3.beforeEachCall = () -> {
+      calls.incrementAndGet();
+      if (txManager.open.get() > 0) {
+        callsInTx.incrementAndGet();
+      }
+    };
+    UploadService svc = serviceWith(fakeS3);
+    Map<UUID, UploadEntity> rows = new ConcurrentHashMap<>();
+    when(repo.save(any())).thenAnswer(inv -> {
+      UploadEntity e = inv.getArgument(0);
+      rows.put(e.getId(), e);
+      return e;
+    });
+    when(repo.findById(any())).thenAnswer(inv -> Optional.ofNullable(rows.get(inv.<UUID>getArgument(0))));
+
+    CreateUploadRequest req = new CreateUploadRequest();
+    req.setFileName("video.mp4");
+    req.setContentType("video/mp4");
+    req.setFileSize(40L * 1024 * 1024);
+    var first = join(svc.create(jwt("user-1"), req, "http://localhost:8081"));
+    var second = join(svc.create(jwt("user-1"), req, "http://localhost:8081"));
+
+    UploadEntity u = rows.get(first.getUploadId());
+    assertEquals("INITIATED", u.getStatus());
+    for (int pn = 1; pn <= u.getPartCount(); pn++) {
+      long size = pn < u.getPartCount() ? u.getPartSize() : u.getFileSize() - (u.getPartCount() - 1) * u.getPartSize();
+      fakeS3.putPart(u.getS3UploadId(), pn, size);
+    }
+    join(svc.complete(jwt("user-1"), first.getUploadId(), null));
+    join(svc.abort(jwt("user-1"), second.getUploadId()));
+
+    assertEquals("COMPLETED", rows.get(first.getUploadId()).getStatus());
+    assertEquals("ABORTED", rows.get(second.getUploadId()).getStatus());
+    assertTrue(calls.get() >= 5, "S3 calls: " + calls.get());
+    assertTrue(txManager.begun.get() >= 4, "transactions: " + txManager.begun.get());
+    assertEquals(0, callsInTx.get());
+  }
+
+  @Test
+  void failedAbortRestoresPreviousStatus() {
+    UploadEntity u = initiated("user-1", 2);
+    when(repo.findById(u.getId())).thenReturn(Optional.of(u));
+    when(repo.save(any())).thenAnswer(inv -> inv.getArgument(0));
+    doThrow(S3Exception.builder().statusCode(500).build())
+      .when(s3).abortMultipartUpload(anyString(), anyString(), anyString());
+
+    assertThrows(UpstreamException.class,
+      () -> join(service.abort(jwt("user-1"), u.getId())));
+
+    assertEquals("INITIATED", u.getStatus());
+  }
+
+  private UploadService serviceWith(S3MultipartOperations ops) {
+    return serviceWith(ops, new UploadCompletionExecutor(policy, new SimpleMeterRegistry()));
+  }
+
+  private UploadService serviceWith(S3MultipartOperations ops, UploadCompletionExecutor completions) {
+    UploadSessionCache sessionCache = new UploadSessionCache(policy, repo, mock(JdbcTemplate.class), new SimpleMeterRegistry());
+    UploadMetrics metrics = new UploadMetrics(meters, repo);
+    return new UploadService(
+      s3Props,
+      policy,
+      repo,
+      ops,
+      new BlockingS3MultipartAsyncOperations(ops, Runnable::run),
+      new KeyGenerator(),
+      new ContentTypeAllowlist(),
+      sessionCache,
+      new UploadSessionTokens(tokenProps),
+      new PartListingCache(s3Props, new SimpleMeterRegistry()),
+      new PartSizePlanner(s3Props, new PartSizePlannerProperties(), new ContentTypeAllowlist()),
+      completions,
+      new TransactionTemplate(txManager),
+      new AdmissionControl(admissionProps, new SimpleMeterRegistry()),
+      metrics,
+      new PresignMilestones(milestoneRepo),
+      throughput,
+      new StreamingPartUploader(ops, milestoneRepo, proxyProps, Runnable::run),
+      new ServerSideCopier(ops, milestoneRepo, copyProps, Runnable::run),
+      new UploadTransitions(repo, sessionCache, metrics)
+    );
+  }
+
+  /** Like {@link CompletableFuture#join()}, but rethrows the original failure. */
+  static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException re) {
+        throw re;
+      }
+      throw ex;
+    }
+  }
+
+  /** Plain transaction manager that only counts how many transactions are open. */
+  static class CountingTransactionManager extends AbstractPlatformTransactionManager {
+    final AtomicInteger open = new AtomicInteger();
+    final AtomicInteger begun = new AtomicInteger();
+
+    @Override
+    protected Object doGetTransaction() {
+      return new Object();
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+      open.incrementAndGet();
+      begun.incrementAndGet();
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+      open.decrementAndGet();
+    }
+  }
+
+  private static UploadEntity initiated(String sub, int partCount) {
+    return UploadEntity.builder()
+      .id(UUID.randomUUID())
+      .userSub(sub)
+      .bucket("bucket")
+      .objectKey("k")
+      .s3UploadId("upload-xyz")
+      .fileName("video.mp4")
+      .contentType("video/mp4")
+      .fileSize(partCount * 16L * 1024 * 1024)
+      .partSize(16L * 1024 * 1024)
+      .partCount(partCount)
+      .status("INITIATED")
+      .createdAt(OffsetDateTime.now())
+      .updatedAt(OffsetDateTime.now())
+      .version(0)
+      .build();
+  }
+
+  /** A two-part session of 5 MiB + 100 bytes, created in {@code fakeS3}. */
+  private static UploadEntity proxied(InMemoryS3MultipartOperations fakeS3) {
+    UploadEntity u = initiated("user-1", 2);
+    u.setS3UploadId(fakeS3.createMultipartUpload("bucket", "k", "video/mp4"));
+    u.setPartSize(5L * 1024 * 1024);
+    u.setFileSize(5L * 1024 * 1024 + 100);
+    return u;
+  }
+
+  /** A COMPLETED upload of {@code size} bytes whose object exists in {@code fakeS3}. */
+  private static UploadEntity completedSource(InMemoryS3MultipartOperations fakeS3, String sub, long size) {
+    UploadEntity u = initiated(sub, 1);
+    u.setObjectKey("src-" + u.getId());
+    u.setFileSize(size);
+    u.setStatus("COMPLETED");
+    fakeS3.putObject("bucket", u.getObjectKey(), size);
+    return u;
+  }
+
+  private static CopyUploadRequest copyRequest(UUID... sourceUploadIds) {
+    CopyUploadRequest req = new CopyUploadRequest();
+    req.setSourceUploadIds(List.of(sourceUploadIds));
+    req.setFileName("combined.mp4");
+    return req;
+  }
+
+  private static UploadListRow listRow(OffsetDateTime createdAt) {
+    return new UploadListRow(UUID.randomUUID(), "k", "video.mp4", "video/mp4", 10L, "INITIATED", "MULTIPART",
+      5L, 2, createdAt, null);
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
   private static Jwt jwt(String sub) {
     return Jwt.withTokenValue("t")
       .header("alg", "none")